@@ -0,0 +1,251 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.commons.convert;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.convert.CustomConversions;
+import org.springframework.data.convert.CustomConversions.StoreConversions;
+import org.springframework.data.microbenchmark.common.AbstractMicrobenchmark;
+import org.springframework.data.microbenchmark.common.GeneratedClasses;
+import org.springframework.util.Assert;
+
+/**
+ * Benchmark for {@link CustomConversions} lookups with {@code converters} registered converters (half of them
+ * reading, half of them writing) in addition to the default converters of {@link CustomConversions}. Converters are
+ * generated {@code Converter}, {@code GenericConverter} and {@code ConverterFactory} implementations.
+ * <ul>
+ * <li>{@code *Hit}: lookups of types with a custom converter. Without registered converters, lookups of a single
+ * unconverted type.</li>
+ * <li>{@code *Miss}: lookups cycling through {@code sourceTypes} distinct types without a custom converter. Only
+ * benchmarks looking up these types declare {@link SourceTypes}, so hit lookups do not run per {@code sourceTypes}
+ * value.</li>
+ * <li>{@code *Parallel}: hit and miss lookups from 4 threads sharing a single {@link CustomConversions} instance.</li>
+ * <li>{@code coldLookups}: first lookups of all value and source types against a new {@link CustomConversions}
+ * instance ({@link Mode#SingleShotTime}) to measure populating the lookup caches.</li>
+ * </ul>
+ *
+ * @see GeneratedConverters
+ */
+public class CustomConversionsBenchmark extends AbstractMicrobenchmark {
+
+	private int value;
+	private int source;
+
+	@Benchmark
+	public boolean readHit(Registry registry) {
+		return registry.conversions.hasCustomReadTarget(String.class, nextValueType(registry));
+	}
+
+	@Benchmark
+	public boolean readMiss(Registry registry, SourceTypes sources) {
+		return registry.conversions.hasCustomReadTarget(String.class, nextSourceType(sources));
+	}
+
+	@Benchmark
+	public Object writeHit(Registry registry) {
+		return registry.conversions.getCustomWriteTarget(nextValueType(registry));
+	}
+
+	@Benchmark
+	public Object writeMiss(Registry registry, SourceTypes sources) {
+		return registry.conversions.getCustomWriteTarget(nextSourceType(sources));
+	}
+
+	@Benchmark
+	@Threads(4)
+	public boolean readParallel(Registry registry, SourceTypes sources) {
+		return registry.conversions.hasCustomReadTarget(String.class, nextValueType(registry))
+				| registry.conversions.hasCustomReadTarget(String.class, nextSourceType(sources));
+	}
+
+	@Benchmark
+	@Threads(4)
+	public boolean writeParallel(Registry registry, SourceTypes sources) {
+		return registry.conversions.hasCustomWriteTarget(nextValueType(registry))
+				| registry.conversions.hasCustomWriteTarget(nextSourceType(sources));
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 30)
+	public int coldLookups(Registry registry, SourceTypes sources, ColdConversions cold) {
+
+		int hits = 0;
+
+		for (Class<?> type : registry.valueTypes) {
+			hits += lookup(cold.conversions, type);
+		}
+
+		for (Class<?> type : sources.types) {
+			hits += lookup(cold.conversions, type);
+		}
+
+		return hits;
+	}
+
+	private static int lookup(CustomConversions conversions, Class<?> type) {
+
+		int hits = conversions.hasCustomReadTarget(String.class, type) ? 1 : 0;
+		return conversions.getCustomWriteTarget(type).isPresent() ? hits + 1 : hits;
+	}
+
+	private Class<?> nextValueType(Registry registry) {
+
+		Class<?> type = registry.valueTypes[value++];
+
+		if (value == registry.valueTypes.length) {
+			value = 0;
+		}
+
+		return type;
+	}
+
+	private Class<?> nextSourceType(SourceTypes sources) {
+
+		Class<?> type = sources.types[source++];
+
+		if (source == sources.types.length) {
+			source = 0;
+		}
+
+		return type;
+	}
+
+	/**
+	 * Generated value types and converters along with a {@link CustomConversions} instance shared by all benchmark
+	 * threads.
+	 */
+	@State(Scope.Benchmark)
+	public static class Registry {
+
+		@Param({ "0", "10", "100", "500" }) int converters;
+
+		GeneratedClasses generated;
+		URLClassLoader classLoader;
+		List<Object> instances;
+		CustomConversions conversions;
+		Class<?>[] valueTypes;
+
+		@Setup(Level.Trial)
+		public void setUp() throws ClassNotFoundException {
+
+			int values = converters / 2;
+
+			this.generated = GeneratedClasses.compile(GeneratedConverters.generateSources(Math.max(values, 1), 0));
+			this.classLoader = generated.newClassLoader();
+			this.instances = new ArrayList<>(converters);
+			this.valueTypes = new Class<?>[Math.max(values, 1)];
+
+			for (int i = 0; i < valueTypes.length; i++) {
+				valueTypes[i] = classLoader.loadClass(GeneratedConverters.getValueClassName(i));
+			}
+
+			for (int i = 0; i < values; i++) {
+
+				instances.add(instantiate(GeneratedConverters.getConverterClassName(i, true)));
+				instances.add(instantiate(GeneratedConverters.getConverterClassName(i, false)));
+			}
+
+			this.conversions = new CustomConversions(StoreConversions.NONE, instances);
+
+			for (Class<?> type : valueTypes) {
+
+				Assert.state(conversions.hasCustomReadTarget(String.class, type) == (values > 0),
+						() -> "Unexpected reading converter for " + type.getName());
+				Assert.state(conversions.hasCustomWriteTarget(type, String.class) == (values > 0),
+						() -> "Unexpected writing converter for " + type.getName());
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+
+			classLoader.close();
+			generated.close();
+		}
+
+		private Object instantiate(String className) throws ClassNotFoundException {
+			return BeanUtils.instantiateClass(classLoader.loadClass(className));
+		}
+	}
+
+	/**
+	 * Generated types without a custom converter, used by lookups that miss.
+	 */
+	@State(Scope.Benchmark)
+	public static class SourceTypes {
+
+		@Param({ "16", "1000" }) int sourceTypes;
+
+		GeneratedClasses generated;
+		URLClassLoader classLoader;
+		Class<?>[] types;
+
+		@Setup(Level.Trial)
+		public void setUp() throws ClassNotFoundException {
+
+			this.generated = GeneratedClasses.compile(GeneratedConverters.generateSources(0, sourceTypes));
+			this.classLoader = generated.newClassLoader();
+			this.types = new Class<?>[sourceTypes];
+
+			for (int i = 0; i < types.length; i++) {
+				types[i] = classLoader.loadClass(GeneratedConverters.getPlainClassName(i));
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+
+			classLoader.close();
+			generated.close();
+		}
+	}
+
+	/**
+	 * {@link CustomConversions} with empty lookup caches created for each iteration.
+	 */
+	@State(Scope.Thread)
+	public static class ColdConversions {
+
+		CustomConversions conversions;
+
+		@Setup(Level.Iteration)
+		public void setUp(Registry registry) {
+			this.conversions = new CustomConversions(StoreConversions.NONE, registry.instances);
+		}
+	}
+}
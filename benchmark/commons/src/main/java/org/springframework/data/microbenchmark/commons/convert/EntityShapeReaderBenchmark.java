@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.commons.convert;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.microbenchmark.common.AbstractMicrobenchmark;
+import org.springframework.data.microbenchmark.common.GeneratedClasses;
+
+/**
+ * Benchmark for {@link NestedEntityReader} reading generated entities of varying width (properties per entity) and
+ * depth (nested entity levels) with mixed primitive, boxed, temporal, enum and collection-valued properties.
+ *
+ * @see EntityShapes
+ */
+public class EntityShapeReaderBenchmark extends AbstractMicrobenchmark {
+
+	@Param({ "2", "10", "50", "200" }) int width;
+	@Param({ "1", "2", "3", "4", "5" }) int depth;
+
+	private final NestedEntityReader reader = new NestedEntityReader();
+
+	private GeneratedClasses generated;
+	private URLClassLoader classLoader;
+	private Class<?> type;
+	private Map<String, Object> data;
+	private Object instance;
+
+	@Setup
+	public void setUp() throws ClassNotFoundException {
+
+		this.generated = GeneratedClasses.compile(EntityShapes.generateSources(width, depth));
+		this.classLoader = generated.newClassLoader();
+
+		for (int level = 0; level < depth; level++) {
+			reader.prepare(classLoader.loadClass(EntityShapes.getClassName(width, depth, level)));
+		}
+
+		this.type = classLoader.loadClass(EntityShapes.getClassName(width, depth, 0));
+		this.data = EntityShapes.createData(width, depth);
+		this.instance = reader.read(data, type, false);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+
+		classLoader.close();
+		generated.close();
+	}
+
+	/**
+	 * Create the entity and populate all properties.
+	 */
+	@Benchmark
+	public Object read() {
+		return reader.read(data, type, false);
+	}
+
+	/**
+	 * Populate all properties of an existing root entity, nested entities are created as in {@link #read()}.
+	 */
+	@Benchmark
+	public Object readProperties() {
+		return reader.readProperties(data, instance, false);
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.commons.convert;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Source and data generator for entities of a given width (number of properties per entity) and depth (number of
+ * nested entity levels). Property types rotate through {@link PropertyType}, each level except the innermost one
+ * references the next level through its {@code child} property. Data is generated in its store representation: nested
+ * entities as {@link Map}, enums as their name.
+ */
+final class EntityShapes {
+
+	static final String PACKAGE = "org.springframework.data.microbenchmark.commons.convert.generated";
+
+	private EntityShapes() {}
+
+	/**
+	 * @param width
+	 * @param depth
+	 * @param level zero-based nesting level, {@code 0} for the root entity.
+	 * @return the fully qualified class name of the entity at {@code level}.
+	 */
+	static String getClassName(int width, int depth, int level) {
+		return String.format(Locale.ROOT, "%s.Shape%dx%dLevel%d", PACKAGE, width, depth, level);
+	}
+
+	/**
+	 * @param width
+	 * @param depth
+	 * @return source code of all entity levels by fully qualified class name.
+	 */
+	static Map<String, String> generateSources(int width, int depth) {
+
+		Map<String, String> sources = new LinkedHashMap<>();
+
+		for (int level = 0; level < depth; level++) {
+
+			String className = getClassName(width, depth, level);
+			StringBuilder source = new StringBuilder();
+
+			source.append("package ").append(PACKAGE).append(";\n\n");
+			source.append("public class ").append(className.substring(PACKAGE.length() + 1)).append(" {\n\n");
+
+			for (int i = 0; i < width; i++) {
+				source.append("\tprivate ").append(PropertyType.of(i).declaration).append(" p").append(i).append(";\n");
+			}
+
+			if (level < depth - 1) {
+				source.append("\tprivate ").append(getClassName(width, depth, level + 1)).append(" child;\n");
+			}
+
+			source.append("}\n");
+			sources.put(className, source.toString());
+		}
+
+		return sources;
+	}
+
+	/**
+	 * @param width
+	 * @param depth
+	 * @return data for the root entity including all nested levels.
+	 */
+	static Map<String, Object> createData(int width, int depth) {
+
+		Map<String, Object> data = new HashMap<>();
+
+		for (int i = 0; i < width; i++) {
+			data.put("p" + i, PropertyType.of(i).value.apply(i));
+		}
+
+		if (depth > 1) {
+			data.put("child", createData(width, depth - 1));
+		}
+
+		return data;
+	}
+
+	/**
+	 * Property types of generated entities.
+	 */
+	enum PropertyType {
+
+		STRING("String", i -> "value" + i), //
+		INT("int", i -> i), //
+		INTEGER("Integer", i -> i), //
+		LONG("long", i -> (long) i), //
+		BOXED_LONG("Long", i -> (long) i), //
+		DOUBLE("double", i -> i / 2d), //
+		BOOLEAN("boolean", i -> i % 2 == 0), //
+		BIG_DECIMAL("java.math.BigDecimal", i -> BigDecimal.valueOf(i, 2)), //
+		LOCAL_DATE("java.time.LocalDate", LocalDate::ofEpochDay), //
+		LOCAL_DATE_TIME("java.time.LocalDateTime", i -> LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i)), //
+		INSTANT("java.time.Instant", i -> Instant.ofEpochSecond(i)), //
+		ENUM("java.time.DayOfWeek", i -> DayOfWeek.of(1 + i % 7).name()), //
+		LIST("java.util.List<String>", i -> List.of("a" + i, "b" + i)), //
+		SET("java.util.Set<Integer>", i -> Set.of(i, i + 1));
+
+		private final String declaration;
+		private final IntFunction<Object> value;
+
+		PropertyType(String declaration, IntFunction<Object> value) {
+			this.declaration = declaration;
+			this.value = value;
+		}
+
+		static PropertyType of(int index) {
+			return values()[index % values().length];
+		}
+	}
+}
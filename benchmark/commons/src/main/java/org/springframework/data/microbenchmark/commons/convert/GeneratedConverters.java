@@ -0,0 +1,183 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.commons.convert;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Source generator for value types ({@code Value<n>}) with a reading ({@code String} to value) and a writing (value to
+ * {@code String}) converter each and for plain types ({@code Plain<n>}) without converters. Converters rotate through
+ * {@code Converter}, {@code GenericConverter} and {@code ConverterFactory} implementations and are annotated with
+ * {@code @ReadingConverter} respectively {@code @WritingConverter}.
+ */
+final class GeneratedConverters {
+
+	static final String PACKAGE = "org.springframework.data.microbenchmark.commons.convert.generated.conversions";
+
+	private GeneratedConverters() {}
+
+	/**
+	 * @param index zero-based index of the value type.
+	 * @return the fully qualified class name of the value type.
+	 */
+	static String getValueClassName(int index) {
+		return String.format(Locale.ROOT, "%s.Value%d", PACKAGE, index);
+	}
+
+	/**
+	 * @param index zero-based index of the value type.
+	 * @param reading {@literal true} for the reading converter, {@literal false} for the writing converter.
+	 * @return the fully qualified class name of the converter.
+	 */
+	static String getConverterClassName(int index, boolean reading) {
+		return getValueClassName(index) + (reading ? "ReadingConverter" : "WritingConverter");
+	}
+
+	/**
+	 * @param index zero-based index of the plain type.
+	 * @return the fully qualified class name of the plain type.
+	 */
+	static String getPlainClassName(int index) {
+		return String.format(Locale.ROOT, "%s.Plain%d", PACKAGE, index);
+	}
+
+	/**
+	 * @param values number of value types.
+	 * @param plainTypes number of plain types.
+	 * @return source code of all types and converters by fully qualified class name.
+	 */
+	static Map<String, String> generateSources(int values, int plainTypes) {
+
+		Map<String, String> sources = new LinkedHashMap<>();
+
+		for (int i = 0; i < values; i++) {
+
+			String value = getSimpleName(getValueClassName(i));
+
+			sources.put(getValueClassName(i), String.format(Locale.ROOT, """
+					package %1$s;
+
+					public class %2$s {
+
+						final String value;
+
+						public %2$s(String value) {
+							this.value = value;
+						}
+					}
+					""", PACKAGE, value));
+
+			sources.put(getConverterClassName(i, true), generateReadingConverter(value, i % 3));
+			sources.put(getConverterClassName(i, false), generateWritingConverter(value, i % 3));
+		}
+
+		for (int i = 0; i < plainTypes; i++) {
+			sources.put(getPlainClassName(i), String.format(Locale.ROOT, """
+					package %s;
+
+					public class %s {}
+					""", PACKAGE, getSimpleName(getPlainClassName(i))));
+		}
+
+		return sources;
+	}
+
+	private static String generateReadingConverter(String value, int kind) {
+
+		String body = switch (kind) {
+			case 0 -> """
+					implements org.springframework.core.convert.converter.Converter<String, %1$s> {
+
+						public %1$s convert(String source) {
+							return new %1$s(source);
+						}
+					""";
+			case 1 -> """
+					implements org.springframework.core.convert.converter.GenericConverter {
+
+						public java.util.Set<ConvertiblePair> getConvertibleTypes() {
+							return java.util.Set.of(new ConvertiblePair(String.class, %1$s.class));
+						}
+
+						public Object convert(Object source, org.springframework.core.convert.TypeDescriptor sourceType,
+								org.springframework.core.convert.TypeDescriptor targetType) {
+							return new %1$s((String) source);
+						}
+					""";
+			default -> """
+					implements org.springframework.core.convert.converter.ConverterFactory<String, %1$s> {
+
+						public <T extends %1$s> org.springframework.core.convert.converter.Converter<String, T> getConverter(
+								Class<T> targetType) {
+							return source -> targetType.cast(new %1$s(source));
+						}
+					""";
+		};
+
+		return generateConverter(value, "Reading", body);
+	}
+
+	private static String generateWritingConverter(String value, int kind) {
+
+		String body = switch (kind) {
+			case 0 -> """
+					implements org.springframework.core.convert.converter.Converter<%1$s, String> {
+
+						public String convert(%1$s source) {
+							return source.value;
+						}
+					""";
+			case 1 -> """
+					implements org.springframework.core.convert.converter.GenericConverter {
+
+						public java.util.Set<ConvertiblePair> getConvertibleTypes() {
+							return java.util.Set.of(new ConvertiblePair(%1$s.class, String.class));
+						}
+
+						public Object convert(Object source, org.springframework.core.convert.TypeDescriptor sourceType,
+								org.springframework.core.convert.TypeDescriptor targetType) {
+							return ((%1$s) source).value;
+						}
+					""";
+			default -> """
+					implements org.springframework.core.convert.converter.ConverterFactory<%1$s, String> {
+
+						public <T extends String> org.springframework.core.convert.converter.Converter<%1$s, T> getConverter(
+								Class<T> targetType) {
+							return source -> targetType.cast(source.value);
+						}
+					""";
+		};
+
+		return generateConverter(value, "Writing", body);
+	}
+
+	private static String generateConverter(String value, String direction, String body) {
+
+		return String.format(Locale.ROOT, """
+				package %1$s;
+
+				@org.springframework.data.convert.%3$sConverter
+				public class %2$s%3$sConverter
+				""", PACKAGE, value, direction) + String.format(Locale.ROOT, body, value) + "}\n";
+	}
+
+	private static String getSimpleName(String className) {
+		return className.substring(PACKAGE.length() + 1);
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.commons.convert;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.data.mapping.model.SimpleTypeHolder;
+import org.springframework.data.microbenchmark.commons.mapping.MinimalMappingContext.MinimalPersistentEntity;
+import org.springframework.data.microbenchmark.commons.mapping.MinimalMappingContext.MinimalPersistentProperty;
+
+/**
+ * {@link TypicalEntityReader} populating every property that has a value in the source {@link Map} and reading
+ * entity-typed properties from nested {@link Map}s. Simple types are taken from the {@link #customConversions custom
+ * conversions} along with {@link BigDecimal}.
+ *
+ * @see EntityShapeReaderBenchmark
+ */
+class NestedEntityReader extends TypicalEntityReader {
+
+	NestedEntityReader() {
+
+		// BigDecimal is a simple type in all stores
+		context.setSimpleTypeHolder(
+				new SimpleTypeHolder(Collections.singleton(BigDecimal.class), customConversions.getSimpleTypeHolder()));
+	}
+
+	@Override
+	boolean hasValue(Map<String, Object> data, MinimalPersistentEntity<?> persistentEntity,
+			MinimalPersistentProperty property) {
+		return data.containsKey(property.getName());
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	Object getValue(Map<String, Object> data, String name, Class<?> type, boolean queryCustomConversions) {
+
+		Object value = super.getValue(data, name, type, queryCustomConversions);
+
+		if (value instanceof Map && !Map.class.isAssignableFrom(type)) {
+			return read((Map<String, Object>) value, type, queryCustomConversions);
+		}
+
+		return value;
+	}
+}
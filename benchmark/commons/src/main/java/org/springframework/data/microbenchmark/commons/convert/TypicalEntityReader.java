@@ -0,0 +1,192 @@
+/*
+ * Copyright 2018-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.commons.convert;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.convert.CustomConversions;
+import org.springframework.data.convert.CustomConversions.StoreConversions;
+import org.springframework.data.mapping.Parameter;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mapping.PreferredConstructor;
+import org.springframework.data.mapping.model.ConvertingPropertyAccessor;
+import org.springframework.data.mapping.model.EntityInstantiator;
+import org.springframework.data.mapping.model.EntityInstantiators;
+import org.springframework.data.mapping.model.ParameterValueProvider;
+import org.springframework.data.mapping.model.PropertyValueProvider;
+import org.springframework.data.microbenchmark.commons.mapping.MinimalMappingContext;
+import org.springframework.data.microbenchmark.commons.mapping.MinimalMappingContext.MinimalPersistentEntity;
+import org.springframework.data.microbenchmark.commons.mapping.MinimalMappingContext.MinimalPersistentProperty;
+
+/**
+ * Typical code used to read entities in {@link org.springframework.data.convert.EntityReader}: entities are created
+ * through their persistence constructor and remaining properties are populated through a
+ * {@link ConvertingPropertyAccessor}. This is the read path of {@link TypicalEntityReaderBenchmark}, see
+ * {@link NestedEntityReader} for a variant reading nested entities.
+ *
+ * @author Mark Paluch
+ * @see NestedEntityReader
+ */
+class TypicalEntityReader {
+
+	final MinimalMappingContext context = new MinimalMappingContext();
+	private final EntityInstantiators instantiators = new EntityInstantiators();
+	private final ConversionService conversionService = DefaultConversionService.getSharedInstance();
+	final CustomConversions customConversions = new CustomConversions(StoreConversions.NONE, Collections.emptyList());
+	private final ParameterValueProvider<MinimalPersistentProperty> NONE = new ParameterValueProvider<MinimalPersistentProperty>() {
+
+		@Override
+		public <T> T getParameterValue(Parameter<T, MinimalPersistentProperty> parameter) {
+			return null;
+		}
+	};
+
+	/**
+	 * Pre-initialize the persistent entity and its instantiator to remove initialization overhead from measurement.
+	 *
+	 * @param type
+	 */
+	void prepare(Class<?> type) {
+		instantiators.getInstantiatorFor(context.getRequiredPersistentEntity(type));
+	}
+
+	CustomConversions getCustomConversions() {
+		return customConversions;
+	}
+
+	/**
+	 * Read an entity.
+	 *
+	 * @param data
+	 * @param classToRead
+	 * @param queryCustomConversions {@literal true} to call {@link CustomConversions#hasCustomReadTarget(Class, Class)}.
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	Object read(Map<String, Object> data, Class<?> classToRead, boolean queryCustomConversions) {
+
+		if (queryCustomConversions) {
+			customConversions.hasCustomReadTarget(Map.class, classToRead);
+		}
+
+		MinimalPersistentEntity<?> persistentEntity = context.getRequiredPersistentEntity(classToRead);
+		PreferredConstructor<?, MinimalPersistentProperty> constructor = persistentEntity.getPersistenceConstructor();
+
+		ParameterValueProvider<MinimalPersistentProperty> provider = constructor.isNoArgConstructor() //
+				? NONE //
+				: new ParameterValueProvider<MinimalPersistentProperty>() {
+
+					@Override
+					public <T> T getParameterValue(Parameter<T, MinimalPersistentProperty> parameter) {
+						return (T) getValue(data, parameter.getName(), parameter.getType().getType(), queryCustomConversions);
+					}
+				};
+
+		EntityInstantiator instantiator = instantiators.getInstantiatorFor(persistentEntity);
+		Object instance = instantiator.createInstance(persistentEntity, provider);
+
+		if (!persistentEntity.requiresPropertyPopulation()) {
+			return instance;
+		}
+
+		return readProperties(data, persistentEntity, instance, queryCustomConversions);
+	}
+
+	/**
+	 * Populate the properties of an existing entity instance.
+	 *
+	 * @param data
+	 * @param instance
+	 * @param queryCustomConversions {@literal true} to call {@link CustomConversions#hasCustomReadTarget(Class, Class)}.
+	 * @return the populated instance.
+	 */
+	Object readProperties(Map<String, Object> data, Object instance, boolean queryCustomConversions) {
+		return readProperties(data, context.getRequiredPersistentEntity(instance.getClass()), instance,
+				queryCustomConversions);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Object readProperties(Map<String, Object> data, MinimalPersistentEntity<?> persistentEntity, Object instance,
+			boolean queryCustomConversions) {
+
+		PropertyValueProvider<MinimalPersistentProperty> valueProvider = new PropertyValueProvider<MinimalPersistentProperty>() {
+
+			@Override
+			public <T> T getPropertyValue(MinimalPersistentProperty property) {
+				return (T) getValue(data, property.getName(), property.getType(), queryCustomConversions);
+			}
+		};
+
+		PersistentPropertyAccessor<?> accessor = new ConvertingPropertyAccessor<>(
+				persistentEntity.getPropertyAccessor(instance), conversionService);
+
+		readProperties(data, persistentEntity, valueProvider, accessor);
+
+		return accessor.getBean();
+	}
+
+	private void readProperties(Map<String, Object> data, MinimalPersistentEntity<?> persistentEntity,
+			PropertyValueProvider<MinimalPersistentProperty> valueProvider, PersistentPropertyAccessor<?> accessor) {
+
+		for (MinimalPersistentProperty prop : persistentEntity) {
+
+			if (prop.isAssociation() && !persistentEntity.isConstructorArgument(prop)) {
+				continue;
+			}
+
+			// We skip the id property since it was already set
+
+			if (persistentEntity.isIdProperty(prop)) {
+				continue;
+			}
+
+			if (persistentEntity.isConstructorArgument(prop) || !hasValue(data, persistentEntity, prop)) {
+				continue;
+			}
+
+			accessor.setProperty(prop, valueProvider.getPropertyValue(prop));
+		}
+	}
+
+	/**
+	 * Check whether {@code data} contains a value for a property that is not a constructor argument. Checks for the
+	 * entity name as {@link TypicalEntityReaderBenchmark} always did, so non-constructor properties of its entities are
+	 * not populated and its scores remain comparable with earlier results.
+	 *
+	 * @param data
+	 * @param persistentEntity
+	 * @param property
+	 * @return
+	 */
+	boolean hasValue(Map<String, Object> data, MinimalPersistentEntity<?> persistentEntity,
+			MinimalPersistentProperty property) {
+		return data.containsKey(persistentEntity.getName());
+	}
+
+	Object getValue(Map<String, Object> data, String name, Class<?> type, boolean queryCustomConversions) {
+
+		Object value = data.get(name);
+
+		if (queryCustomConversions && value != null) {
+			customConversions.hasCustomReadTarget(value.getClass(), type);
+		}
+
+		return value;
+	}
+}
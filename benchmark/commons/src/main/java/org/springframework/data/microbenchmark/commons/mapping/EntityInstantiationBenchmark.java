@@ -0,0 +1,142 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.commons.mapping;
+
+import lombok.RequiredArgsConstructor;
+import lombok.With;
+
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.springframework.data.mapping.Parameter;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mapping.model.EntityInstantiator;
+import org.springframework.data.mapping.model.EntityInstantiators;
+import org.springframework.data.mapping.model.ParameterValueProvider;
+import org.springframework.data.microbenchmark.common.AbstractMicrobenchmark;
+import org.springframework.data.microbenchmark.commons.mapping.MinimalMappingContext.MinimalPersistentEntity;
+import org.springframework.data.microbenchmark.commons.mapping.MinimalMappingContext.MinimalPersistentProperty;
+import org.springframework.util.Assert;
+
+/**
+ * Benchmark for {@link EntityInstantiators} creating immutable entities and for populating immutable entities by
+ * setting a property through {@link org.springframework.data.mapping.PersistentEntity#getPropertyAccessor(Object)}.
+ * <ul>
+ * <li>{@code record}, {@code compactRecord}: Java records with canonical and compact canonical constructor.</li>
+ * <li>{@code wither}: Java class with final fields and {@code @With} methods.</li>
+ * <li>{@code kotlinDataClass}: Kotlin data class without defaulted parameters.</li>
+ * <li>{@code kotlinDefaulting1}, {@code kotlinDefaulting10}, {@code kotlinDefaulting30}: Kotlin data classes with 1, 10
+ * and 30 defaulted parameters, instantiated with default values through the synthetic defaulting constructor.</li>
+ * <li>{@code kotlinValueClass}: Kotlin data class with a value class property.</li>
+ * </ul>
+ * Setting a property creates a new instance through the wither for {@code wither}, through the {@code copy} method
+ * for Kotlin data classes and through the persistence constructor for records.
+ */
+public class EntityInstantiationBenchmark extends AbstractMicrobenchmark {
+
+	// value class properties are provided in their store representation, the underlying value
+	private static final Map<String, Object> VALUES = Map.of("id", 42L, "firstname", "Walter", "lastname", "White", "age",
+			50, "email", "walter@example.com");
+
+	@Param({ "record", "compactRecord", "wither", "kotlinDataClass", "kotlinDefaulting1", "kotlinDefaulting10",
+			"kotlinDefaulting30", "kotlinValueClass" }) String type;
+
+	private final MinimalMappingContext context = new MinimalMappingContext();
+	private final EntityInstantiators instantiators = new EntityInstantiators();
+
+	private MinimalPersistentEntity<?> entity;
+	private MinimalPersistentProperty firstname;
+	private EntityInstantiator instantiator;
+	private ParameterValueProvider<MinimalPersistentProperty> provider;
+	private Object instance;
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+
+		this.entity = context.getRequiredPersistentEntity(getType(type));
+		this.firstname = entity.getRequiredPersistentProperty("firstname");
+		this.instantiator = instantiators.getInstantiatorFor(entity);
+
+		// absent values (null) for defaulted Kotlin parameters apply their defaults
+		this.provider = new ParameterValueProvider<>() {
+
+			@Override
+			public <T> T getParameterValue(Parameter<T, MinimalPersistentProperty> parameter) {
+				return (T) VALUES.get(parameter.getName());
+			}
+		};
+
+		this.instance = instantiate();
+
+		Assert.state("Walter".equals(entity.getPropertyAccessor(instance).getProperty(firstname)),
+				() -> "Cannot instantiate " + entity.getType().getSimpleName());
+		Assert.state("Skyler".equals(entity.getPropertyAccessor(withProperty()).getProperty(firstname)),
+				() -> "Cannot set property of " + entity.getType().getSimpleName());
+	}
+
+	@Benchmark
+	public Object instantiate() {
+		return instantiator.createInstance(entity, provider);
+	}
+
+	@Benchmark
+	public Object withProperty() {
+
+		PersistentPropertyAccessor<Object> accessor = entity.getPropertyAccessor(instance);
+		accessor.setProperty(firstname, "Skyler");
+
+		return accessor.getBean();
+	}
+
+	private static Class<?> getType(String type) {
+
+		return switch (type) {
+			case "record" -> RecordEntity.class;
+			case "compactRecord" -> CompactRecordEntity.class;
+			case "wither" -> WitherEntity.class;
+			case "kotlinDataClass" -> KotlinDataClass.class;
+			case "kotlinDefaulting1" -> KotlinDefaulting1.class;
+			case "kotlinDefaulting10" -> KotlinDefaulting10.class;
+			case "kotlinDefaulting30" -> KotlinDefaulting30.class;
+			case "kotlinValueClass" -> KotlinValueClass.class;
+			default -> throw new IllegalArgumentException("Unknown type " + type);
+		};
+	}
+
+	public record RecordEntity(Long id, String firstname, String lastname, int age) {
+	}
+
+	public record CompactRecordEntity(Long id, String firstname, String lastname, int age) {
+
+		public CompactRecordEntity {
+
+			Assert.notNull(id, "Id must not be null");
+			Assert.hasText(firstname, "Firstname must not be empty");
+		}
+	}
+
+	@With
+	@RequiredArgsConstructor
+	public static class WitherEntity {
+
+		final Long id;
+		final String firstname, lastname;
+		final int age;
+	}
+}
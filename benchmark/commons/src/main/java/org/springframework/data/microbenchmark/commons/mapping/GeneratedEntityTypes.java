@@ -0,0 +1,97 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.commons.mapping;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Source generator for a number of distinct entity types. Each entity declares simple, temporal and collection-valued
+ * properties and refers to one of {@link #VALUE_TYPES} shared value types, both directly and as collection element,
+ * so that resolving an entity also resolves a value type that other entities refer to as well.
+ */
+final class GeneratedEntityTypes {
+
+	static final String PACKAGE = "org.springframework.data.microbenchmark.commons.mapping.generated";
+	static final int VALUE_TYPES = 10;
+
+	private GeneratedEntityTypes() {}
+
+	/**
+	 * @param index zero-based index of the entity.
+	 * @return the fully qualified class name of the entity.
+	 */
+	static String getClassName(int index) {
+		return String.format(Locale.ROOT, "%s.Entity%d", PACKAGE, index);
+	}
+
+	/**
+	 * @param count number of entity types.
+	 * @return source code of all entity and value types by fully qualified class name.
+	 */
+	static Map<String, String> generateSources(int count) {
+
+		Map<String, String> sources = new LinkedHashMap<>();
+
+		for (int i = 0; i < VALUE_TYPES; i++) {
+
+			String className = getValueClassName(i);
+			sources.put(className, String.format(Locale.ROOT, """
+					package %s;
+
+					public class %s {
+
+						private String street;
+						private String city;
+						private int number;
+					}
+					""", PACKAGE, getSimpleName(className)));
+		}
+
+		for (int i = 0; i < count; i++) {
+
+			String className = getClassName(i);
+			sources.put(className, String.format(Locale.ROOT, """
+					package %s;
+
+					public class %s {
+
+						private Long id;
+						private String name;
+						private int version;
+						private java.math.BigDecimal amount;
+						private java.time.Instant createdAt;
+						private java.util.List<String> tags;
+						private java.util.Map<String, Integer> counters;
+						private %s value;
+						private java.util.List<%s> values;
+					}
+					""", PACKAGE, getSimpleName(className), getValueClassName(i % VALUE_TYPES),
+					getValueClassName((i + 1) % VALUE_TYPES)));
+		}
+
+		return sources;
+	}
+
+	private static String getValueClassName(int index) {
+		return String.format(Locale.ROOT, "%s.Value%d", PACKAGE, index);
+	}
+
+	private static String getSimpleName(String className) {
+		return className.substring(PACKAGE.length() + 1);
+	}
+}
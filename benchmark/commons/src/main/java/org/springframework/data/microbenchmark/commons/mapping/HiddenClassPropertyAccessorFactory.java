@@ -0,0 +1,405 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.commons.mapping;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.data.mapping.PersistentEntity;
+import org.springframework.data.mapping.PersistentProperty;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mapping.model.PersistentPropertyAccessorFactory;
+
+/**
+ * {@link PersistentPropertyAccessorFactory} generating an {@link Accessor} per entity type and defining it as hidden
+ * class nestmate of the entity through {@link MethodHandles.Lookup#defineHiddenClass}. In contrast to
+ * {@link org.springframework.data.mapping.model.ClassGeneratingPropertyAccessorFactory}, the generated class can
+ * access private members directly and does not require a class loader of its own. Properties are dispatched by their
+ * index through a {@code tableswitch}. Immutable properties without a wither are written by creating a new instance
+ * through the persistence constructor.
+ */
+class HiddenClassPropertyAccessorFactory implements PersistentPropertyAccessorFactory {
+
+	private static final String OBJECT = Type.getInternalName(Object.class);
+	private static final String ACCESSOR = Type.getInternalName(Accessor.class);
+	private static final String GET = Type.getMethodDescriptor(Type.getType(Object.class), Type.getType(Object.class),
+			Type.INT_TYPE);
+	private static final String SET = Type.getMethodDescriptor(Type.getType(Object.class), Type.getType(Object.class),
+			Type.INT_TYPE, Type.getType(Object.class));
+
+	private final Map<PersistentEntity<?, ?>, Generated> accessors = new ConcurrentHashMap<>();
+
+	@Override
+	public <T> PersistentPropertyAccessor<T> getPropertyAccessor(PersistentEntity<?, ?> entity, T bean) {
+		return new HiddenClassPropertyAccessor<>(getGenerated(entity), bean);
+	}
+
+	@Override
+	public boolean isSupported(PersistentEntity<?, ?> entity) {
+
+		try {
+			return getGenerated(entity) != null;
+		} catch (IllegalStateException e) {
+			return false;
+		}
+	}
+
+	private Generated getGenerated(PersistentEntity<?, ?> entity) {
+		return accessors.computeIfAbsent(entity, it -> generate(PropertyAccessPlan.of(it)));
+	}
+
+	private static Generated generate(PropertyAccessPlan plan) {
+
+		try {
+
+			MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(plan.getType(), MethodHandles.lookup());
+			Class<?> type = lookup.defineHiddenClass(generateBytecode(plan), true, MethodHandles.Lookup.ClassOption.NESTMATE)
+					.lookupClass();
+
+			return new Generated(plan, (Accessor) type.getDeclaredConstructor().newInstance());
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			throw new IllegalStateException("Cannot generate accessor for " + plan.getType().getName(), e);
+		}
+	}
+
+	private static byte[] generateBytecode(PropertyAccessPlan plan) {
+
+		String owner = Type.getInternalName(plan.getType());
+
+		ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+
+			// all generated frames merge Object-typed values only, avoid loading classes through the wrong class loader
+			@Override
+			protected String getCommonSuperClass(String type1, String type2) {
+				return OBJECT;
+			}
+		};
+
+		writer.visit(Opcodes.V17, Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, owner + "$HiddenAccessor", null, OBJECT,
+				new String[] { ACCESSOR });
+
+		MethodVisitor init = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+		init.visitCode();
+		init.visitVarInsn(Opcodes.ALOAD, 0);
+		init.visitMethodInsn(Opcodes.INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+		init.visitInsn(Opcodes.RETURN);
+		init.visitMaxs(0, 0);
+		init.visitEnd();
+
+		generateGet(writer, plan, owner);
+		generateSet(writer, plan, owner);
+
+		writer.visitEnd();
+
+		return writer.toByteArray();
+	}
+
+	/**
+	 * {@code Object get(Object bean, int index)}: read the field or call the getter of the property at {@code index}.
+	 */
+	private static void generateGet(ClassWriter writer, PropertyAccessPlan plan, String owner) {
+
+		List<PersistentProperty<?>> properties = plan.getProperties();
+		MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC, "get", GET, null, null);
+		mv.visitCode();
+
+		Label[] labels = createLabels(properties.size());
+		Label unknown = new Label();
+
+		visitSwitch(mv, unknown, labels);
+
+		for (int i = 0; i < properties.size(); i++) {
+
+			mv.visitLabel(labels[i]);
+			mv.visitVarInsn(Opcodes.ALOAD, 1);
+			mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+			visitGet(mv, properties.get(i), owner);
+			mv.visitInsn(Opcodes.ARETURN);
+		}
+
+		visitUnknownProperty(mv, unknown);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	/**
+	 * {@code Object set(Object bean, int index, Object value)}: write the property at {@code index} and return the
+	 * (possibly new) bean.
+	 */
+	private static void generateSet(ClassWriter writer, PropertyAccessPlan plan, String owner) {
+
+		List<PersistentProperty<?>> properties = plan.getProperties();
+		MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC, "set", SET, null, null);
+		mv.visitCode();
+
+		Label[] labels = createLabels(properties.size());
+		Label unknown = new Label();
+
+		visitSwitch(mv, unknown, labels);
+
+		for (int i = 0; i < properties.size(); i++) {
+
+			PersistentProperty<?> property = properties.get(i);
+			mv.visitLabel(labels[i]);
+
+			switch (plan.getWrite(i)) {
+
+				case FIELD -> {
+
+					Field field = property.getRequiredField();
+					mv.visitVarInsn(Opcodes.ALOAD, 1);
+					mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+					visitUnbox(mv, field.getType(), 3);
+					mv.visitFieldInsn(Opcodes.PUTFIELD, owner, field.getName(), Type.getDescriptor(field.getType()));
+					mv.visitVarInsn(Opcodes.ALOAD, 1);
+				}
+
+				case SETTER -> {
+
+					Method setter = property.getRequiredSetter();
+					mv.visitVarInsn(Opcodes.ALOAD, 1);
+					mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+					visitUnbox(mv, setter.getParameterTypes()[0], 3);
+					visitInvoke(mv, owner, setter);
+					if (setter.getReturnType() != void.class) {
+						mv.visitInsn(Type.getType(setter.getReturnType()).getSize() == 2 ? Opcodes.POP2 : Opcodes.POP);
+					}
+					mv.visitVarInsn(Opcodes.ALOAD, 1);
+				}
+
+				case WITHER -> {
+
+					Method wither = property.getRequiredWither();
+					mv.visitVarInsn(Opcodes.ALOAD, 1);
+					mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+					visitUnbox(mv, wither.getParameterTypes()[0], 3);
+					visitInvoke(mv, owner, wither);
+				}
+
+				case CONSTRUCTOR -> visitConstructorCall(mv, plan, owner, i);
+
+				case UNSUPPORTED -> {
+					mv.visitTypeInsn(Opcodes.NEW, Type.getInternalName(UnsupportedOperationException.class));
+					mv.visitInsn(Opcodes.DUP);
+					mv.visitLdcInsn("Cannot write immutable property " + property.getName());
+					mv.visitMethodInsn(Opcodes.INVOKESPECIAL, Type.getInternalName(UnsupportedOperationException.class),
+							"<init>", "(Ljava/lang/String;)V", false);
+					mv.visitInsn(Opcodes.ATHROW);
+					continue;
+				}
+			}
+
+			mv.visitInsn(Opcodes.ARETURN);
+		}
+
+		visitUnknownProperty(mv, unknown);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	/**
+	 * Create a new instance through the persistence constructor passing {@code value} for the property at
+	 * {@code index} and the current values of {@code bean} for all other properties.
+	 */
+	private static void visitConstructorCall(MethodVisitor mv, PropertyAccessPlan plan, String owner, int index) {
+
+		Constructor<?> constructor = plan.getConstructor();
+		Class<?>[] parameterTypes = constructor.getParameterTypes();
+		int[] arguments = plan.getConstructorArguments();
+
+		mv.visitTypeInsn(Opcodes.NEW, owner);
+		mv.visitInsn(Opcodes.DUP);
+
+		for (int i = 0; i < arguments.length; i++) {
+
+			if (arguments[i] == index) {
+				visitUnbox(mv, parameterTypes[i], 3);
+			} else if (arguments[i] == -1) {
+				visitDefault(mv, parameterTypes[i]);
+			} else {
+
+				PersistentProperty<?> property = plan.getProperties().get(arguments[i]);
+				mv.visitVarInsn(Opcodes.ALOAD, 1);
+				mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+				visitGet(mv, property, owner);
+				visitUnboxTop(mv, parameterTypes[i]);
+			}
+		}
+
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, owner, "<init>", Type.getConstructorDescriptor(constructor), false);
+	}
+
+	/**
+	 * Read the property from the entity on top of the stack leaving the boxed value on the stack.
+	 */
+	private static void visitGet(MethodVisitor mv, PersistentProperty<?> property, String owner) {
+
+		Field field = property.getField();
+		Method getter = property.getGetter();
+
+		if (field != null && (!property.usePropertyAccess() || getter == null)) {
+			mv.visitFieldInsn(Opcodes.GETFIELD, owner, field.getName(), Type.getDescriptor(field.getType()));
+			visitBox(mv, field.getType());
+		} else if (getter != null) {
+			visitInvoke(mv, owner, getter);
+			visitBox(mv, getter.getReturnType());
+		} else {
+			throw new IllegalStateException("No field or getter for " + property);
+		}
+	}
+
+	private static void visitSwitch(MethodVisitor mv, Label unknown, Label[] labels) {
+
+		mv.visitVarInsn(Opcodes.ILOAD, 2);
+
+		if (labels.length == 0) {
+			mv.visitInsn(Opcodes.POP);
+			mv.visitJumpInsn(Opcodes.GOTO, unknown);
+		} else {
+			mv.visitTableSwitchInsn(0, labels.length - 1, unknown, labels);
+		}
+	}
+
+	private static void visitInvoke(MethodVisitor mv, String owner, Method method) {
+		mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, owner, method.getName(), Type.getMethodDescriptor(method), false);
+	}
+
+	private static void visitBox(MethodVisitor mv, Class<?> type) {
+
+		if (!type.isPrimitive()) {
+			return;
+		}
+
+		Type wrapper = Type.getType(getWrapper(type));
+		mv.visitMethodInsn(Opcodes.INVOKESTATIC, wrapper.getInternalName(), "valueOf",
+				Type.getMethodDescriptor(wrapper, Type.getType(type)), false);
+	}
+
+	private static void visitUnbox(MethodVisitor mv, Class<?> type, int local) {
+
+		mv.visitVarInsn(Opcodes.ALOAD, local);
+		visitUnboxTop(mv, type);
+	}
+
+	private static void visitUnboxTop(MethodVisitor mv, Class<?> type) {
+
+		if (!type.isPrimitive()) {
+			mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(type));
+			return;
+		}
+
+		String wrapper = Type.getInternalName(getWrapper(type));
+		mv.visitTypeInsn(Opcodes.CHECKCAST, wrapper);
+		mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, wrapper, type.getName() + "Value",
+				Type.getMethodDescriptor(Type.getType(type)), false);
+	}
+
+	private static void visitDefault(MethodVisitor mv, Class<?> type) {
+
+		if (!type.isPrimitive()) {
+			mv.visitInsn(Opcodes.ACONST_NULL);
+		} else if (type == long.class) {
+			mv.visitInsn(Opcodes.LCONST_0);
+		} else if (type == float.class) {
+			mv.visitInsn(Opcodes.FCONST_0);
+		} else if (type == double.class) {
+			mv.visitInsn(Opcodes.DCONST_0);
+		} else {
+			mv.visitInsn(Opcodes.ICONST_0);
+		}
+	}
+
+	private static void visitUnknownProperty(MethodVisitor mv, Label unknown) {
+
+		String exception = Type.getInternalName(IllegalArgumentException.class);
+
+		mv.visitLabel(unknown);
+		mv.visitTypeInsn(Opcodes.NEW, exception);
+		mv.visitInsn(Opcodes.DUP);
+		mv.visitLdcInsn("Unknown property index");
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, exception, "<init>", "(Ljava/lang/String;)V", false);
+		mv.visitInsn(Opcodes.ATHROW);
+	}
+
+	private static Label[] createLabels(int count) {
+
+		Label[] labels = new Label[count];
+		for (int i = 0; i < count; i++) {
+			labels[i] = new Label();
+		}
+
+		return labels;
+	}
+
+	private static Class<?> getWrapper(Class<?> primitive) {
+		return MethodHandles.zero(primitive).type().wrap().returnType();
+	}
+
+	/**
+	 * Contract implemented by generated accessor classes.
+	 */
+	public interface Accessor {
+
+		Object get(Object bean, int index);
+
+		Object set(Object bean, int index, Object value);
+	}
+
+	private record Generated(PropertyAccessPlan plan, Accessor accessor) {
+	}
+
+	/**
+	 * {@link PersistentPropertyAccessor} delegating to the generated {@link Accessor} of its entity.
+	 *
+	 * @param <T>
+	 */
+	private static class HiddenClassPropertyAccessor<T> implements PersistentPropertyAccessor<T> {
+
+		private final Generated generated;
+		private T bean;
+
+		HiddenClassPropertyAccessor(Generated generated, T bean) {
+			this.generated = generated;
+			this.bean = bean;
+		}
+
+		@Override
+		public Object getProperty(PersistentProperty<?> property) {
+			return generated.accessor().get(bean, generated.plan().indexOf(property));
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public void setProperty(PersistentProperty<?> property, Object value) {
+			bean = (T) generated.accessor().set(bean, generated.plan().indexOf(property), value);
+		}
+
+		@Override
+		public T getBean() {
+			return bean;
+		}
+	}
+}
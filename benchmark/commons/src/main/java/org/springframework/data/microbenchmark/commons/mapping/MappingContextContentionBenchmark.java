@@ -0,0 +1,239 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.commons.mapping;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.data.mapping.context.PersistentEntities;
+import org.springframework.data.microbenchmark.common.AbstractMicrobenchmark;
+import org.springframework.data.microbenchmark.common.ContentionProfiler;
+import org.springframework.data.microbenchmark.common.ContentionProfiling;
+import org.springframework.data.microbenchmark.common.GeneratedClasses;
+
+/**
+ * Benchmark for concurrent {@link org.springframework.data.mapping.context.MappingContext#getRequiredPersistentEntity}
+ * and {@link PersistentEntities#getRequiredPersistentEntity} lookups across {@code entities} distinct generated
+ * entity types shared by all benchmark threads.
+ * <ul>
+ * <li>{@code cold*}: each thread resolves all entity types against a new mapping context with freshly loaded classes
+ * ({@link Mode#SingleShotTime}), starting at a different type per thread. The score is the time to steady state, the
+ * time until all entities are available to a thread. {@code coldSingleThread} is the uncontended baseline,
+ * {@code cold} mixes {@link org.springframework.data.mapping.context.MappingContext} and
+ * {@link PersistentEntities} lookups within a {@link Group}.</li>
+ * <li>{@code hot*}: lookups of already resolved entity types.</li>
+ * </ul>
+ * Cold lookups report the time spent waiting for locks and blocked on monitors through {@link ContentionProfiler}.
+ *
+ * @see GeneratedEntityTypes
+ */
+@ContentionProfiling
+public class MappingContextContentionBenchmark extends AbstractMicrobenchmark {
+
+	private int offset;
+
+	@Setup
+	public void setUp(ThreadParams threads, GeneratedTypes types) {
+		this.offset = threads.getThreadIndex() * (types.entities / threads.getThreadCount());
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 30)
+	@Threads(1)
+	public Object coldSingleThread(ColdContext context) {
+		return resolveAll(context, false);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 30)
+	@Threads(4)
+	public Object coldParallel(ColdContext context) {
+		return resolveAll(context, false);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 30)
+	@Group("cold")
+	@GroupThreads(2)
+	public Object coldMappingContext(ColdContext context) {
+		return resolveAll(context, false);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 30)
+	@Group("cold")
+	@GroupThreads(2)
+	public Object coldPersistentEntities(ColdContext context) {
+		return resolveAll(context, true);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Object hotMappingContext(HotContext context) {
+		return context.context.getRequiredPersistentEntity(context.types[next(context.types.length)]);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Object hotPersistentEntities(HotContext context) {
+		return context.persistentEntities.getRequiredPersistentEntity(context.types[next(context.types.length)]);
+	}
+
+	private Object resolveAll(ColdContext context, boolean persistentEntities) {
+
+		ContentionProfiler.Measurement measurement = ContentionProfiler.start();
+		Object entity = null;
+
+		for (int i = 0; i < context.types.length; i++) {
+
+			Class<?> type = context.types[(offset + i) % context.types.length];
+			entity = persistentEntities ? context.persistentEntities.getRequiredPersistentEntity(type)
+					: context.context.getRequiredPersistentEntity(type);
+		}
+
+		measurement.stop();
+
+		return entity;
+	}
+
+	private int next(int length) {
+
+		int index = offset++;
+
+		if (offset == length) {
+			offset = 0;
+		}
+
+		return index;
+	}
+
+	/**
+	 * Entity types compiled once per trial.
+	 */
+	@State(Scope.Benchmark)
+	public static class GeneratedTypes {
+
+		@Param({ "100", "500" }) int entities;
+
+		GeneratedClasses generated;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			this.generated = GeneratedClasses.compile(GeneratedEntityTypes.generateSources(entities));
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			generated.close();
+		}
+	}
+
+	/**
+	 * Mapping context with entity types loaded through a new class loader.
+	 */
+	abstract static class SharedContext {
+
+		URLClassLoader classLoader;
+		MinimalMappingContext context;
+		PersistentEntities persistentEntities;
+		Class<?>[] types;
+
+		void initialize(GeneratedTypes generated) throws ClassNotFoundException {
+
+			this.classLoader = generated.generated.newClassLoader();
+			this.context = new MinimalMappingContext();
+			this.persistentEntities = PersistentEntities.of(context);
+			this.types = new Class<?>[generated.entities];
+
+			for (int i = 0; i < types.length; i++) {
+				types[i] = classLoader.loadClass(GeneratedEntityTypes.getClassName(i));
+			}
+		}
+
+		void close() throws IOException {
+			classLoader.close();
+		}
+	}
+
+	/**
+	 * Empty mapping context created for each iteration. Classes are loaded again so that type metadata caches are cold
+	 * as well.
+	 */
+	@State(Scope.Benchmark)
+	public static class ColdContext extends SharedContext {
+
+		@Setup(Level.Iteration)
+		public void setUp(GeneratedTypes generated) throws ClassNotFoundException {
+			initialize(generated);
+		}
+
+		@TearDown(Level.Iteration)
+		public void tearDown() throws IOException {
+			close();
+		}
+	}
+
+	/**
+	 * Mapping context with all entity types resolved.
+	 */
+	@State(Scope.Benchmark)
+	public static class HotContext extends SharedContext {
+
+		@Setup(Level.Trial)
+		public void setUp(GeneratedTypes generated) throws ClassNotFoundException {
+
+			initialize(generated);
+
+			for (Class<?> type : types) {
+				context.getRequiredPersistentEntity(type);
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			close();
+		}
+	}
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.commons.mapping;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.data.mapping.PersistentEntity;
+import org.springframework.data.mapping.PersistentProperty;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mapping.model.PersistentPropertyAccessorFactory;
+
+/**
+ * {@link PersistentPropertyAccessorFactory} using {@link VarHandle}s for field access and {@link MethodHandle}s for
+ * getters, setters, withers and the persistence constructor. Handles are obtained through
+ * {@link MethodHandles#privateLookupIn(Class, MethodHandles.Lookup)} and adapted to erased {@link Object} signatures
+ * so that they can be invoked through {@link MethodHandle#invokeExact}. Immutable properties without a wither are
+ * written by creating a new instance through the persistence constructor.
+ */
+class MethodHandlePropertyAccessorFactory implements PersistentPropertyAccessorFactory {
+
+	private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+	private static final MethodType WITHER = MethodType.methodType(Object.class, Object.class, Object.class);
+	private static final MethodType CONSTRUCTOR = MethodType.methodType(Object.class, Object[].class);
+
+	private final Map<PersistentEntity<?, ?>, Handles> handles = new ConcurrentHashMap<>();
+
+	@Override
+	public <T> PersistentPropertyAccessor<T> getPropertyAccessor(PersistentEntity<?, ?> entity, T bean) {
+		return new MethodHandlePropertyAccessor<>(getHandles(entity), bean);
+	}
+
+	@Override
+	public boolean isSupported(PersistentEntity<?, ?> entity) {
+
+		try {
+			return getHandles(entity) != null;
+		} catch (IllegalStateException e) {
+			return false;
+		}
+	}
+
+	private Handles getHandles(PersistentEntity<?, ?> entity) {
+		return handles.computeIfAbsent(entity, it -> new Handles(PropertyAccessPlan.of(it)));
+	}
+
+	/**
+	 * Handles of a single entity, indexed by property index of the {@link PropertyAccessPlan}.
+	 */
+	private static class Handles {
+
+		private final PropertyAccessPlan plan;
+		private final MethodHandle[] getters;
+		private final MethodHandle[] setters;
+		private final MethodHandle constructor;
+
+		Handles(PropertyAccessPlan plan) {
+
+			this.plan = plan;
+
+			List<PersistentProperty<?>> properties = plan.getProperties();
+			this.getters = new MethodHandle[properties.size()];
+			this.setters = new MethodHandle[properties.size()];
+
+			try {
+
+				MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(plan.getType(), MethodHandles.lookup());
+
+				for (int i = 0; i < properties.size(); i++) {
+
+					PersistentProperty<?> property = properties.get(i);
+					getters[i] = createGetter(lookup, property);
+					setters[i] = createSetter(lookup, property, plan.getWrite(i));
+				}
+
+				this.constructor = plan.getConstructor() != null
+						? lookup.unreflectConstructor(plan.getConstructor())
+								.asSpreader(Object[].class, plan.getConstructor().getParameterCount()).asType(CONSTRUCTOR)
+						: null;
+
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException("Cannot create method handles for " + plan.getType().getName(), e);
+			}
+		}
+
+		private static MethodHandle createGetter(MethodHandles.Lookup lookup, PersistentProperty<?> property)
+				throws IllegalAccessException {
+
+			Field field = property.getField();
+			Method getter = property.getGetter();
+
+			if (field != null && (!property.usePropertyAccess() || getter == null)) {
+				return lookup.unreflectVarHandle(field).toMethodHandle(VarHandle.AccessMode.GET).asType(GETTER);
+			}
+
+			if (getter != null) {
+				return lookup.unreflect(getter).asType(GETTER);
+			}
+
+			throw new IllegalStateException("No field or getter for " + property);
+		}
+
+		private static MethodHandle createSetter(MethodHandles.Lookup lookup, PersistentProperty<?> property,
+				PropertyAccessPlan.Write write) throws IllegalAccessException {
+
+			return switch (write) {
+				case FIELD -> lookup.unreflectVarHandle(property.getRequiredField()).toMethodHandle(VarHandle.AccessMode.SET)
+						.asType(SETTER);
+				case SETTER -> lookup.unreflect(property.getRequiredSetter()).asType(SETTER);
+				case WITHER -> lookup.unreflect(property.getRequiredWither()).asType(WITHER);
+				case CONSTRUCTOR -> null;
+				case UNSUPPORTED -> throw new IllegalStateException("Cannot write immutable property " + property);
+			};
+		}
+	}
+
+	/**
+	 * {@link PersistentPropertyAccessor} using the {@link Handles} of its entity.
+	 *
+	 * @param <T>
+	 */
+	private static class MethodHandlePropertyAccessor<T> implements PersistentPropertyAccessor<T> {
+
+		private final Handles handles;
+		private T bean;
+
+		MethodHandlePropertyAccessor(Handles handles, T bean) {
+			this.handles = handles;
+			this.bean = bean;
+		}
+
+		@Override
+		public Object getProperty(PersistentProperty<?> property) {
+			return get(handles.plan.indexOf(property));
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public void setProperty(PersistentProperty<?> property, Object value) {
+
+			int index = handles.plan.indexOf(property);
+
+			try {
+
+				switch (handles.plan.getWrite(index)) {
+					case FIELD, SETTER -> handles.setters[index].invokeExact((Object) bean, value);
+					case WITHER -> bean = (T) (Object) handles.setters[index].invokeExact((Object) bean, value);
+					default -> bean = (T) (Object) handles.constructor.invokeExact(getArguments(index, value));
+				}
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new IllegalStateException("Cannot set " + property, e);
+			}
+		}
+
+		private Object get(int index) {
+
+			try {
+				return (Object) handles.getters[index].invokeExact((Object) bean);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new IllegalStateException("Cannot get " + handles.plan.getProperties().get(index), e);
+			}
+		}
+
+		private Object[] getArguments(int index, Object value) {
+
+			int[] arguments = handles.plan.getConstructorArguments();
+			Object[] values = new Object[arguments.length];
+
+			for (int i = 0; i < arguments.length; i++) {
+				values[i] = arguments[i] == index ? value : arguments[i] == -1 ? null : get(arguments[i]);
+			}
+
+			return values;
+		}
+
+		@Override
+		public T getBean() {
+			return bean;
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.commons.mapping;
+
+import org.springframework.data.mapping.Association;
+import org.springframework.data.mapping.PersistentEntity;
+import org.springframework.data.mapping.PersistentProperty;
+import org.springframework.data.mapping.context.AbstractMappingContext;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mapping.model.AnnotationBasedPersistentProperty;
+import org.springframework.data.mapping.model.BasicPersistentEntity;
+import org.springframework.data.mapping.model.Property;
+import org.springframework.data.mapping.model.SimpleTypeHolder;
+import org.springframework.data.util.TypeInformation;
+
+/**
+ * Minimal {@link MappingContext} without store-specific behavior. Shared by the mapping benchmarks and the entity
+ * readers of {@link org.springframework.data.microbenchmark.commons.convert}.
+ */
+public class MinimalMappingContext
+		extends AbstractMappingContext<MinimalMappingContext.MinimalPersistentEntity<?>, MinimalMappingContext.MinimalPersistentProperty> {
+
+	@Override
+	protected <T> MinimalPersistentEntity<?> createPersistentEntity(TypeInformation<T> typeInformation) {
+		return new MinimalPersistentEntity<T>(typeInformation);
+	}
+
+	@Override
+	protected MinimalPersistentProperty createPersistentProperty(Property property, MinimalPersistentEntity<?> owner,
+			SimpleTypeHolder simpleTypeHolder) {
+		return new MinimalPersistentProperty(property, owner, simpleTypeHolder);
+	}
+
+	/**
+	 * Minimal {@link PersistentProperty}.
+	 */
+	public static class MinimalPersistentProperty extends AnnotationBasedPersistentProperty<MinimalPersistentProperty> {
+
+		MinimalPersistentProperty(Property property, PersistentEntity<?, MinimalPersistentProperty> owner,
+				SimpleTypeHolder simpleTypeHolder) {
+			super(property, owner, simpleTypeHolder);
+		}
+
+		@Override
+		protected Association<MinimalPersistentProperty> createAssociation() {
+			return null;
+		}
+	}
+
+	/**
+	 * Minimal {@link PersistentEntity}.
+	 *
+	 * @param <T>
+	 */
+	public static class MinimalPersistentEntity<T> extends BasicPersistentEntity<T, MinimalPersistentProperty> {
+
+		MinimalPersistentEntity(TypeInformation<T> information) {
+			super(information);
+		}
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.commons.mapping;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.mapping.InstanceCreatorMetadata;
+import org.springframework.data.mapping.Parameter;
+import org.springframework.data.mapping.PersistentEntity;
+import org.springframework.data.mapping.PersistentProperty;
+import org.springframework.data.mapping.PreferredConstructor;
+
+/**
+ * Decides how each property of an entity is read and written, mirroring the decisions of Spring Data's own accessors:
+ * properties are read from their field (or getter without a field) and written to their field (or setter for property
+ * access). Immutable properties are written through their wither or, if there is none, by creating a new instance
+ * through the persistence constructor carrying over all other property values.
+ */
+final class PropertyAccessPlan {
+
+	private final Class<?> type;
+	private final List<PersistentProperty<?>> properties = new ArrayList<>();
+	private final Map<PersistentProperty<?>, Integer> indexes = new IdentityHashMap<>();
+	private final List<Write> writes = new ArrayList<>();
+	private final Constructor<?> constructor;
+	private final int[] constructorArguments;
+
+	private PropertyAccessPlan(PersistentEntity<?, ?> entity) {
+
+		this.type = entity.getType();
+
+		for (PersistentProperty<?> property : entity) {
+			indexes.put(property, properties.size());
+			properties.add(property);
+		}
+
+		InstanceCreatorMetadata<?> creator = entity.getInstanceCreatorMetadata();
+
+		if (creator instanceof PreferredConstructor<?, ?> preferredConstructor) {
+
+			this.constructor = preferredConstructor.getConstructor();
+			this.constructorArguments = new int[preferredConstructor.getParameterCount()];
+
+			List<? extends Parameter<?, ?>> parameters = preferredConstructor.getParameters();
+			for (int i = 0; i < parameters.size(); i++) {
+
+				PersistentProperty<?> property = entity.getPersistentProperty(parameters.get(i).getName());
+				constructorArguments[i] = property != null ? indexes.get(property) : -1;
+			}
+		} else {
+			this.constructor = null;
+			this.constructorArguments = new int[0];
+		}
+
+		for (PersistentProperty<?> property : properties) {
+			writes.add(getWrite(property));
+		}
+	}
+
+	static PropertyAccessPlan of(PersistentEntity<?, ?> entity) {
+		return new PropertyAccessPlan(entity);
+	}
+
+	private Write getWrite(PersistentProperty<?> property) {
+
+		if (!property.isImmutable()) {
+			return property.usePropertyAccess() && property.getSetter() != null ? Write.SETTER : Write.FIELD;
+		}
+
+		if (property.getWither() != null) {
+			return Write.WITHER;
+		}
+
+		for (int argument : constructorArguments) {
+			if (argument != -1 && properties.get(argument) == property) {
+				return Write.CONSTRUCTOR;
+			}
+		}
+
+		return Write.UNSUPPORTED;
+	}
+
+	Class<?> getType() {
+		return type;
+	}
+
+	List<PersistentProperty<?>> getProperties() {
+		return properties;
+	}
+
+	/**
+	 * @param property
+	 * @return the index of the property.
+	 * @throws IllegalArgumentException if the property does not belong to the entity.
+	 */
+	int indexOf(PersistentProperty<?> property) {
+
+		Integer index = indexes.get(property);
+
+		if (index == null) {
+			throw new IllegalArgumentException(String.format("%s is not a property of %s", property, type.getName()));
+		}
+
+		return index;
+	}
+
+	Write getWrite(int index) {
+		return writes.get(index);
+	}
+
+	Constructor<?> getConstructor() {
+		return constructor;
+	}
+
+	/**
+	 * @return the property index for each constructor parameter, {@code -1} for parameters without property.
+	 */
+	int[] getConstructorArguments() {
+		return constructorArguments;
+	}
+
+	/**
+	 * How a property is written.
+	 */
+	enum Write {
+
+		FIELD, SETTER, WITHER, CONSTRUCTOR, UNSUPPORTED
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.commons.mapping;
+
+import lombok.RequiredArgsConstructor;
+import lombok.With;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.mapping.PersistentEntity;
+import org.springframework.data.mapping.PersistentProperty;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mapping.model.BeanWrapperPropertyAccessorFactory;
+import org.springframework.data.mapping.model.ClassGeneratingPropertyAccessorFactory;
+import org.springframework.data.mapping.model.EntityInstantiators;
+import org.springframework.data.mapping.model.InstantiationAwarePropertyAccessorFactory;
+import org.springframework.data.mapping.model.PersistentPropertyAccessorFactory;
+import org.springframework.data.microbenchmark.common.AbstractMicrobenchmark;
+
+/**
+ * Benchmark for {@link PersistentPropertyAccessor} implementations reading and writing all properties of entities of
+ * different shapes. Scores are reported per property access, each invocation obtains a new accessor for the bean as
+ * entity readers and writers do.
+ * <ul>
+ * <li>{@code default}: the accessor of {@link PersistentEntity#getPropertyAccessor(Object)}.</li>
+ * <li>{@code reflection}: {@link BeanWrapperPropertyAccessorFactory}.</li>
+ * <li>{@code generated}: {@link ClassGeneratingPropertyAccessorFactory}.</li>
+ * <li>{@code methodHandle}: {@link MethodHandlePropertyAccessorFactory}.</li>
+ * <li>{@code hiddenClass}: {@link HiddenClassPropertyAccessorFactory}.</li>
+ * </ul>
+ * {@code reflection} and {@code generated} are wrapped in an {@link InstantiationAwarePropertyAccessorFactory} to write
+ * immutable properties through the persistence constructor like the {@code default} accessor does.
+ */
+public class PropertyAccessorBenchmark extends AbstractMicrobenchmark {
+
+	private static final Map<String, Object> VALUES = Map.of("id", 42L, "firstname", "Walter", "lastname", "White", "age",
+			50);
+
+	@Param({ "default", "reflection", "generated", "methodHandle", "hiddenClass" }) String strategy;
+	@Param({ "mutable", "finalFields", "record", "wither" }) String shape;
+
+	private PersistentEntity<?, ?> entity;
+	private PersistentPropertyAccessorFactory factory;
+	private PersistentProperty<?>[] properties;
+	private Object[] values;
+	private Object bean;
+
+	@Setup
+	public void setUp() {
+
+		MinimalMappingContext context = new MinimalMappingContext();
+		EntityInstantiators instantiators = new EntityInstantiators();
+
+		this.entity = context.getRequiredPersistentEntity(getType(shape));
+		this.factory = createFactory(strategy, instantiators);
+
+		if (factory != null && !factory.isSupported(entity)) {
+			throw new IllegalStateException(
+					String.format("Strategy %s does not support %s", strategy, entity.getType().getSimpleName()));
+		}
+
+		List<PersistentProperty<?>> properties = new ArrayList<>();
+		entity.forEach(properties::add);
+
+		this.properties = properties.toArray(new PersistentProperty<?>[0]);
+		this.values = properties.stream().map(it -> VALUES.get(it.getName())).toArray();
+		this.bean = switch (shape) {
+			case "mutable" -> new MutableEntity();
+			case "finalFields" -> new FinalFieldsEntity(1L, "Skyler", "White", 49);
+			case "record" -> new RecordEntity(1L, "Skyler", "White", 49);
+			default -> new WitherEntity(1L, "Skyler", "White", 49);
+		};
+
+		// verify the strategy round-trips all properties before measuring
+		PersistentPropertyAccessor<Object> accessor = getPropertyAccessor();
+		for (int i = 0; i < this.properties.length; i++) {
+
+			accessor.setProperty(this.properties[i], values[i]);
+
+			if (!values[i].equals(accessor.getProperty(this.properties[i]))) {
+				throw new IllegalStateException(String.format("Strategy %s did not write %s of %s", strategy,
+						this.properties[i].getName(), entity.getType().getSimpleName()));
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(4)
+	public void get(Blackhole blackhole) {
+
+		PersistentPropertyAccessor<Object> accessor = getPropertyAccessor();
+
+		for (PersistentProperty<?> property : properties) {
+			blackhole.consume(accessor.getProperty(property));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(4)
+	public Object set() {
+
+		PersistentPropertyAccessor<Object> accessor = getPropertyAccessor();
+
+		for (int i = 0; i < properties.length; i++) {
+			accessor.setProperty(properties[i], values[i]);
+		}
+
+		return accessor.getBean();
+	}
+
+	private PersistentPropertyAccessor<Object> getPropertyAccessor() {
+		return factory == null ? entity.getPropertyAccessor(bean) : factory.getPropertyAccessor(entity, bean);
+	}
+
+	private static Class<?> getType(String shape) {
+
+		return switch (shape) {
+			case "mutable" -> MutableEntity.class;
+			case "finalFields" -> FinalFieldsEntity.class;
+			case "record" -> RecordEntity.class;
+			case "wither" -> WitherEntity.class;
+			default -> throw new IllegalArgumentException("Unknown shape " + shape);
+		};
+	}
+
+	private static PersistentPropertyAccessorFactory createFactory(String strategy, EntityInstantiators instantiators) {
+
+		return switch (strategy) {
+			case "default" -> null;
+			case "reflection" -> new InstantiationAwarePropertyAccessorFactory(BeanWrapperPropertyAccessorFactory.INSTANCE,
+					instantiators);
+			case "generated" -> new InstantiationAwarePropertyAccessorFactory(new ClassGeneratingPropertyAccessorFactory(),
+					instantiators);
+			case "methodHandle" -> new MethodHandlePropertyAccessorFactory();
+			case "hiddenClass" -> new HiddenClassPropertyAccessorFactory();
+			default -> throw new IllegalArgumentException("Unknown strategy " + strategy);
+		};
+	}
+
+	public static class MutableEntity {
+
+		Long id;
+		String firstname, lastname;
+		int age;
+	}
+
+	@RequiredArgsConstructor
+	public static class FinalFieldsEntity {
+
+		final Long id;
+		final String firstname, lastname;
+		final int age;
+	}
+
+	public record RecordEntity(Long id, String firstname, String lastname, int age) {
+	}
+
+	@With
+	@RequiredArgsConstructor
+	public static class WitherEntity {
+
+		final Long id;
+		final String firstname, lastname;
+		final int age;
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.commons.mapping
+
+/**
+ * Kotlin entities for [EntityInstantiationBenchmark].
+ */
+data class KotlinDataClass(val id: Long, val firstname: String, val lastname: String, val age: Int)
+
+/**
+ * Data classes with defaulted parameters `d1` to `dN` alternating between [String] and [Int].
+ */
+data class KotlinDefaulting1(val id: Long, val firstname: String, val d1: String = "d1")
+
+data class KotlinDefaulting10(
+	val id: Long,
+	val firstname: String,
+	val d1: String = "d1",
+	val d2: Int = 2,
+	val d3: String = "d3",
+	val d4: Int = 4,
+	val d5: String = "d5",
+	val d6: Int = 6,
+	val d7: String = "d7",
+	val d8: Int = 8,
+	val d9: String = "d9",
+	val d10: Int = 10
+)
+
+data class KotlinDefaulting30(
+	val id: Long,
+	val firstname: String,
+	val d1: String = "d1",
+	val d2: Int = 2,
+	val d3: String = "d3",
+	val d4: Int = 4,
+	val d5: String = "d5",
+	val d6: Int = 6,
+	val d7: String = "d7",
+	val d8: Int = 8,
+	val d9: String = "d9",
+	val d10: Int = 10,
+	val d11: String = "d11",
+	val d12: Int = 12,
+	val d13: String = "d13",
+	val d14: Int = 14,
+	val d15: String = "d15",
+	val d16: Int = 16,
+	val d17: String = "d17",
+	val d18: Int = 18,
+	val d19: String = "d19",
+	val d20: Int = 20,
+	val d21: String = "d21",
+	val d22: Int = 22,
+	val d23: String = "d23",
+	val d24: Int = 24,
+	val d25: String = "d25",
+	val d26: Int = 26,
+	val d27: String = "d27",
+	val d28: Int = 28,
+	val d29: String = "d29",
+	val d30: Int = 30
+)
+
+@JvmInline
+value class EmailAddress(val value: String)
+
+data class KotlinValueClass(val id: Long, val firstname: String, val lastname: String, val email: EmailAddress)
@@ -21,10 +21,15 @@ import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.infra.Blackhole;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.data.microbenchmark.common.AbstractMicrobenchmark;
+import org.springframework.data.microbenchmark.common.PerformanceBudget;
 import org.springframework.data.mongodb.core.ExecutableFindOperation.ExecutableFind;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
@@ -35,98 +40,141 @@ import com.mongodb.Function;
 import com.mongodb.client.MongoCollection;
 
 /**
+ * Benchmark for MongoDB and Spring Data MongoDB. Benchmarks reading from the database declare {@link Books} and run
+ * against data sets of {@code numberOfBooks} books, {@code convertSingleBook} runs once without fixture data.
+ * Fixtures are shared by all benchmark threads.
+ *
  * @author Oliver Drotbohm
  */
 public class MongoDbBenchmark extends AbstractMicrobenchmark {
 	
 	private static final Query BY_TITLE = Query.query(Criteria.where("title").is("title0"));
 
-	private MongoCollection<Document> collection;
-	private Function<Document, Book> mapper;
-	
-	private ExecutableFind<Book> findBook;
-	private MongoDbBookRepository repository;
-	
-	private MappingMongoConverter converter;
-	private Bson bookSource;
-
-	@Setup
-	public void setUp() {
-		
-		ConfigurableApplicationContext context = new MongoDbFixture().getContext();
-		
-		MongoOperations operations = context //
-				.getBean(MongoOperations.class);
-		
-		this.collection = operations.getCollection(operations.getCollectionName(Book.class));
-		this.mapper = document -> new Book(document.getObjectId("_id"), document.getString("title"), document.getInteger("pages"));
-		
-		this.findBook = operations //
-				.query(Book.class);
-		
-		this.repository = context //
-				.getBean(MongoDbBookRepository.class);
-		
-		this.converter = context //
-				.getBean(MappingMongoConverter.class);
-		
-		this.bookSource = new Document("title", "title1") //
-				.append("pages", 42) //
-				.append("_id", ObjectId.get());
-	}
-	
 	@Benchmark
-	public void convertSingleBook(Blackhole sink) {
-		sink.consume(converter.read(Book.class, bookSource));
+	public void convertSingleBook(Conversion conversion, Blackhole sink) {
+		sink.consume(conversion.converter.read(Book.class, conversion.bookSource));
 	}
 	
 	@Benchmark
-	public void rawFindAll(Blackhole sink) {
-		sink.consume(collection.find().map(mapper).into(new ArrayList<>()));
+	public void rawFindAll(Books books, Blackhole sink) {
+		sink.consume(books.collection.find().map(books.mapper).into(new ArrayList<>()));
 	}
 
 	@Benchmark
-	public void findAll(Blackhole sink) {
-		sink.consume(findBook.all());
+	public void findAll(Books books, Blackhole sink) {
+		sink.consume(books.findBook.all());
 	}
 	
 	@Benchmark
-	public void repositoryFindAll(Blackhole sink) {
-		sink.consume(repository.findAll());
+	@PerformanceBudget(baseline = "rawFindAll", maxSlowdown = 3)
+	public void repositoryFindAll(Books books, Blackhole sink) {
+		sink.consume(books.repository.findAll());
 	}
 	
 	@Benchmark
-	public void rawFindByTitle(Blackhole sink) {
+	public void rawFindByTitle(Books books, Blackhole sink) {
 		
-		sink.consume(collection.find() //
+		sink.consume(books.collection.find() //
 				.filter(new Document("title", "title0")) //
-				.map(mapper) //
+				.map(books.mapper) //
 				.first());
 	}
 
 	@Benchmark
-	public void findByTitle(Blackhole sink) {		
-		sink.consume(findBook.matching(BY_TITLE).firstValue());
+	public void findByTitle(Books books, Blackhole sink) {		
+		sink.consume(books.findBook.matching(BY_TITLE).firstValue());
 	}
 	
 	@Benchmark
-	public void repositoryFindByTitle(Blackhole sink) {
-		sink.consume(repository.findDerivedByTitle("title0"));
+	public void repositoryFindByTitle(Books books, Blackhole sink) {
+		sink.consume(books.repository.findDerivedByTitle("title0"));
 	}
 
 	@Benchmark
-	public void findByTitleOptional(Blackhole sink) {
-		sink.consume(findBook.matching(BY_TITLE).first());
+	public void findByTitleOptional(Books books, Blackhole sink) {
+		sink.consume(books.findBook.matching(BY_TITLE).first());
 	}
 	
 	@Benchmark
-	public void repositoryFindByTitleOptional(Blackhole sink) {
-		sink.consume(repository.findOptionalDerivedByTitle("title0"));
+	public void repositoryFindByTitleOptional(Books books, Blackhole sink) {
+		sink.consume(books.repository.findOptionalDerivedByTitle("title0"));
 	}
 	
 
 	@Benchmark
-	public void repositoryFindByTitleDeclared(Blackhole sink) {
-		sink.consume(repository.findDeclaredByTitle("title0"));
+	public void repositoryFindByTitleDeclared(Books books, Blackhole sink) {
+		sink.consume(books.repository.findDeclaredByTitle("title0"));
+	}
+
+	/**
+	 * Fixture with {@code numberOfBooks} books for benchmarks reading from the database.
+	 */
+	@State(Scope.Benchmark)
+	public static class Books {
+
+		@Param({ "8", "1000", "100000" }) int numberOfBooks;
+
+		private MongoDbFixture fixture;
+
+		private MongoCollection<Document> collection;
+		private Function<Document, Book> mapper;
+
+		private ExecutableFind<Book> findBook;
+		private MongoDbBookRepository repository;
+
+		@Setup
+		public void setUp() {
+
+			this.fixture = new MongoDbFixture(numberOfBooks);
+
+			ConfigurableApplicationContext context = fixture.getContext();
+
+			MongoOperations operations = context //
+					.getBean(MongoOperations.class);
+
+			this.collection = operations.getCollection(operations.getCollectionName(Book.class));
+			this.mapper = document -> new Book(document.getObjectId("_id"), document.getString("title"), document.getInteger("pages"));
+
+			this.findBook = operations //
+					.query(Book.class);
+
+			this.repository = context //
+					.getBean(MongoDbBookRepository.class);
+		}
+
+		@TearDown
+		public void tearDown() {
+			fixture.close();
+		}
+	}
+
+	/**
+	 * Fixture without books for conversion benchmarks.
+	 */
+	@State(Scope.Benchmark)
+	public static class Conversion {
+
+		private MongoDbFixture fixture;
+
+		private MappingMongoConverter converter;
+		private Bson bookSource;
+
+		@Setup
+		public void setUp() {
+
+			this.fixture = new MongoDbFixture(0);
+
+			this.converter = fixture.getContext() //
+					.getBean(MappingMongoConverter.class);
+
+			this.bookSource = new Document("title", "title1") //
+					.append("pages", 42) //
+					.append("_id", ObjectId.get());
+		}
+
+		@TearDown
+		public void tearDown() {
+			fixture.close();
+		}
 	}
 }
@@ -15,10 +15,13 @@
  */
 package org.springframework.data.microbenchmark.mongodb;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.bson.types.ObjectId;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.data.repository.CrudRepository;
 
 /**
@@ -32,4 +35,9 @@ interface MongoDbBookRepository extends CrudRepository<Book, ObjectId> {
 	Book findDerivedByTitle(String title);
 
 	Optional<Book> findOptionalDerivedByTitle(String title);
+
+	List<Book> findByTitleGreaterThanEqualOrderByTitle(String title, Limit limit);
+
+	@Update("{ '$set' : { 'pages' : ?1 } }")
+	long findAndSetPagesByTitle(String title, int pages);
 }
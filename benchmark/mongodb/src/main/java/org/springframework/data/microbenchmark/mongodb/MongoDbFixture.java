@@ -17,37 +17,161 @@ package org.springframework.data.microbenchmark.mongodb;
 
 import lombok.Getter;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.stream.IntStream;
+import java.util.List;
+import java.util.Locale;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.microbenchmark.common.FixtureSnapshot;
 import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
 
 /**
+ * Test fixture for MongoDB benchmarks. Books are kept in a database keyed by document layout and number of books
+ * ({@link FixtureSnapshot#getKey(String, String, int)}) so that subsequent forks and runs reuse the populated data set
+ * as long as it is intact. Modifiable fixtures (e.g. for workloads updating books) use a separate database that is
+ * populated on each setup and dropped on close. {@code fixture.snapshots=false} populates all fixtures on each setup.
+ *
  * @author Oliver Drotbohm
  */
 class MongoDbFixture {
 
+	private static final Log logger = LogFactory.getLog(MongoDbFixture.class);
+
 	private final @Getter ConfigurableApplicationContext context;
+	private final boolean modifiable;
+
+	private static final int BATCH_SIZE = 10_000;
+
+	/**
+	 * Document layout and indexes of the fixture. Update when changing the fixture data to invalidate populated
+	 * databases.
+	 */
+	private static final String SCHEMA = "book { _id: ObjectId, title: String, pages: int }, index { title: 1 }";
+
+	private static final String FIXTURE_COLLECTION = "fixture";
+	private static final String FIXTURE_ID = "books";
+
+	MongoDbFixture(int numberOfBooks) {
+		this(numberOfBooks, 0);
+	}
 
-	MongoDbFixture() {
+	/**
+	 * @param numberOfBooks
+	 * @param poolSize maximum number of pooled connections, {@code 0} to use the driver default.
+	 */
+	MongoDbFixture(int numberOfBooks, int poolSize) {
+		this(numberOfBooks, poolSize, false);
+	}
+
+	/**
+	 * @param numberOfBooks
+	 * @param poolSize maximum number of pooled connections, {@code 0} to use the driver default.
+	 * @param modifiable whether benchmarks modify the books, populating the books on each setup.
+	 */
+	MongoDbFixture(int numberOfBooks, int poolSize, boolean modifiable) {
+
+		String key = FixtureSnapshot.getKey("benchmark-books", SCHEMA, numberOfBooks);
 
 		SpringApplication application = new SpringApplication();
 		application.addPrimarySources(Collections.singletonList(MongoDbApplication.class));
 		application.setAdditionalProfiles("jpa");
 		application.setLazyInitialization(true);
+		application.setDefaultProperties(
+				Collections.singletonMap("spring.data.mongodb.database", modifiable ? key + "-modifiable" : key));
+
+		if (poolSize > 0) {
+			application.addInitializers(context -> context.getBeanFactory().registerSingleton("poolSizeCustomizer",
+					(MongoClientSettingsBuilderCustomizer) builder -> builder
+							.applyToConnectionPoolSettings(pool -> pool.maxSize(poolSize).minSize(poolSize))));
+		}
 
 		this.context = application.run();
+		this.modifiable = modifiable;
 
 		MongoOperations operations = context.getBean(MongoOperations.class);
 
-		operations.dropCollection(Book.class);
+		if (!modifiable && FixtureSnapshot.isEnabled() && isIntact(operations, numberOfBooks)) {
+
+			logger.info("Reusing " + numberOfBooks + " books in database " + operations.getMongoDatabase().getName());
+			return;
+		}
+
+		long start = System.nanoTime();
+
+		operations.getMongoDatabase().drop();
+		operations.indexOps(Book.class).ensureIndex(new Index("title", Direction.ASC));
+
+		insertBooks(operations.getCollection(operations.getCollectionName(Book.class)), numberOfBooks);
+
+		operations.getCollection(FIXTURE_COLLECTION)
+				.insertOne(new Document("_id", FIXTURE_ID).append("numberOfBooks", numberOfBooks));
+
+		logger.info(String.format(Locale.ROOT, "Populated %d books in database %s in %d ms", numberOfBooks,
+				operations.getMongoDatabase().getName(), (System.nanoTime() - start) / 1_000_000));
+	}
+
+	/**
+	 * Close the application context. Books of modifiable fixtures are dropped, other fixtures keep them for reuse.
+	 */
+	void close() {
+
+		if (modifiable) {
+			context.getBean(MongoOperations.class).getMongoDatabase().drop();
+		}
+
+		context.close();
+	}
+
+	/**
+	 * A populated database is intact if population completed (recorded in the {@code fixture} collection) and the
+	 * number of books matches.
+	 *
+	 * @param operations
+	 * @param numberOfBooks
+	 * @return
+	 */
+	private static boolean isIntact(MongoOperations operations, int numberOfBooks) {
+
+		Document fixture = operations.getCollection(FIXTURE_COLLECTION).find(Filters.eq("_id", FIXTURE_ID)).first();
+
+		return fixture != null && Integer.valueOf(numberOfBooks).equals(fixture.getInteger("numberOfBooks"))
+				&& operations.getCollection(operations.getCollectionName(Book.class)).countDocuments() == numberOfBooks;
+	}
+
+	/**
+	 * Insert books as raw documents in unordered bulk inserts bypassing entity conversion.
+	 *
+	 * @param collection
+	 * @param numberOfBooks
+	 */
+	private static void insertBooks(MongoCollection<Document> collection, int numberOfBooks) {
+
+		List<Document> batch = new ArrayList<>(Math.min(numberOfBooks, BATCH_SIZE));
+		InsertManyOptions options = new InsertManyOptions().ordered(false);
+
+		for (int book = 0; book < numberOfBooks; book++) {
+
+			batch.add(new Document("_id", ObjectId.get()).append("title", "title" + book).append("pages", book));
 
-		IntStream.range(0, Constants.NUMBER_OF_BOOKS) //
-			.mapToObj(it -> new Book("title" + it, it)) //
-			.forEach(operations::save);
+			if (batch.size() == BATCH_SIZE || book == numberOfBooks - 1) {
+				collection.insertMany(batch, options);
+				batch.clear();
+			}
+		}
 	}
 
 	@SpringBootApplication
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.mongodb;
+
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.microbenchmark.common.AbstractVirtualThreadBenchmark;
+import org.springframework.data.microbenchmark.common.VirtualThreadResult;
+import org.springframework.data.mongodb.core.ExecutableFindOperation.ExecutableFind;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.mongodb.client.MongoCollection;
+
+/**
+ * Blocking operations of {@link MongoDbBenchmark} run from concurrent virtual threads against a bounded connection
+ * pool.
+ */
+public class MongoDbVirtualThreadBenchmark extends AbstractVirtualThreadBenchmark {
+
+	private static final Query BY_TITLE = Query.query(Criteria.where("title").is("title0"));
+
+	@Param({ "1000" }) int numberOfBooks;
+
+	private MongoDbFixture fixture;
+
+	private MongoCollection<Document> collection;
+	private ExecutableFind<Book> findBook;
+	private MongoDbBookRepository repository;
+
+	@Setup
+	public void setUp() {
+
+		this.fixture = new MongoDbFixture(numberOfBooks, getPoolSize());
+
+		ConfigurableApplicationContext context = fixture.getContext();
+		MongoOperations operations = context.getBean(MongoOperations.class);
+
+		this.collection = operations.getCollection(operations.getCollectionName(Book.class));
+		this.findBook = operations.query(Book.class);
+		this.repository = context.getBean(MongoDbBookRepository.class);
+	}
+
+	@TearDown
+	public void tearDown() {
+		fixture.close();
+	}
+
+	@Benchmark
+	public VirtualThreadResult rawFindByTitle() {
+		return runConcurrently(() -> collection.find().filter(new Document("title", "title0")).first());
+	}
+
+	@Benchmark
+	public VirtualThreadResult findByTitle() {
+		return runConcurrently(() -> findBook.matching(BY_TITLE).firstValue());
+	}
+
+	@Benchmark
+	public VirtualThreadResult repositoryFindByTitle() {
+		return runConcurrently(() -> repository.findDerivedByTitle("title0"));
+	}
+
+	@Benchmark
+	public VirtualThreadResult repositoryFindAll() {
+		return runConcurrently(repository::findAll);
+	}
+}
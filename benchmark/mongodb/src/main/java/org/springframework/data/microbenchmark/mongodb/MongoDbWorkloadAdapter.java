@@ -0,0 +1,71 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.mongodb;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.microbenchmark.common.WorkloadAdapter;
+
+/**
+ * {@link WorkloadAdapter} for Spring Data MongoDB using {@link MongoDbBookRepository}. Keys map to book titles.
+ */
+class MongoDbWorkloadAdapter implements WorkloadAdapter {
+
+	private final MongoDbFixture fixture;
+	private final MongoDbBookRepository repository;
+
+	MongoDbWorkloadAdapter(MongoDbFixture fixture) {
+
+		this.fixture = fixture;
+		this.repository = fixture.getContext().getBean(MongoDbBookRepository.class);
+	}
+
+	@Override
+	public Object read(long key) {
+		return repository.findDerivedByTitle(title(key));
+	}
+
+	@Override
+	public Object update(long key, int value) {
+		return repository.findAndSetPagesByTitle(title(key), value);
+	}
+
+	@Override
+	public Object insert(long key) {
+		return repository.save(new Book(title(key), (int) key));
+	}
+
+	@Override
+	public Object scan(long key, int length) {
+		return repository.findByTitleGreaterThanEqualOrderByTitle(title(key), Limit.of(length));
+	}
+
+	@Override
+	public Object readModifyWrite(long key) {
+
+		Book book = repository.findDerivedByTitle(title(key));
+
+		return repository.save(new Book(book.getId(), book.getTitle(), book.getPages() + 1));
+	}
+
+	@Override
+	public void close() {
+		fixture.close();
+	}
+
+	private static String title(long key) {
+		return "title" + key;
+	}
+}
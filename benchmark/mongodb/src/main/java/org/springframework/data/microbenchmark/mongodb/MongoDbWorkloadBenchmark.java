@@ -1,5 +1,5 @@
 /*
- * Copyright 2019-2022 the original author or authors.
+ * Copyright 2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,13 +15,16 @@
  */
 package org.springframework.data.microbenchmark.mongodb;
 
-import lombok.experimental.UtilityClass;
+import org.springframework.data.microbenchmark.common.AbstractWorkloadBenchmark;
+import org.springframework.data.microbenchmark.common.WorkloadAdapter;
 
 /**
- * @author Oliver Drotbohm
+ * Mixed workload benchmark for Spring Data MongoDB.
  */
-@UtilityClass
-class Constants {
+public class MongoDbWorkloadBenchmark extends AbstractWorkloadBenchmark {
 
-	public static final int NUMBER_OF_BOOKS = 8;
+	@Override
+	protected WorkloadAdapter createAdapter(int recordCount) {
+		return new MongoDbWorkloadAdapter(new MongoDbFixture(recordCount, 0, true));
+	}
 }
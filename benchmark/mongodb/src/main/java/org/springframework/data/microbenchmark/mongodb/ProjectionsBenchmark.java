@@ -22,6 +22,7 @@ import org.openjdk.jmh.annotations.TearDown;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.microbenchmark.common.AbstractMicrobenchmark;
+import org.springframework.data.microbenchmark.common.ScalingUnsupported;
 import org.springframework.data.mongodb.core.ExecutableFindOperation.FindWithQuery;
 import org.springframework.data.mongodb.core.ExecutableFindOperation.TerminatingFind;
 import org.springframework.data.mongodb.core.MongoTemplate;
@@ -35,6 +36,7 @@ import com.mongodb.client.MongoCollection;
 /**
  * @author Christoph Strobl
  */
+@ScalingUnsupported
 public class ProjectionsBenchmark extends AbstractMicrobenchmark {
 
 	private static final String DB_NAME = "projections-benchmark";
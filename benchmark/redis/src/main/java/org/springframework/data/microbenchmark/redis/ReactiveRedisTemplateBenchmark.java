@@ -32,6 +32,7 @@ import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.TearDown;
 
 import org.springframework.data.microbenchmark.common.AbstractMicrobenchmark;
+import org.springframework.data.microbenchmark.common.ScalingUnsupported;
 import org.springframework.data.redis.connection.ReactiveRedisConnection;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
@@ -42,6 +43,7 @@ import org.springframework.data.redis.serializer.RedisSerializationContext;
  *
  * @author Mark Paluch
  */
+@ScalingUnsupported
 public class ReactiveRedisTemplateBenchmark extends AbstractMicrobenchmark {
 
 	private ClientResources clientResources;
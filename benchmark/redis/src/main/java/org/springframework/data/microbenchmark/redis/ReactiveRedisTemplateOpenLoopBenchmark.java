@@ -0,0 +1,70 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.redis;
+
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.reactivestreams.Publisher;
+import org.springframework.data.microbenchmark.common.AbstractOpenLoopBenchmark;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+/**
+ * Open-loop benchmark issuing {@code INCR} through {@link ReactiveRedisTemplate} at fixed target rates.
+ *
+ * @see ReactiveRedisTemplateBenchmark
+ */
+public class ReactiveRedisTemplateOpenLoopBenchmark extends AbstractOpenLoopBenchmark {
+
+	private ClientResources clientResources;
+	private LettuceConnectionFactory connectionFactory;
+	private ReactiveRedisTemplate<String, String> template;
+
+	@Setup
+	public void setUp() {
+
+		clientResources = DefaultClientResources.create();
+
+		connectionFactory = new LettuceConnectionFactory();
+		connectionFactory.setClientResources(clientResources);
+		connectionFactory.afterPropertiesSet();
+
+		ReactiveRedisConnection reactiveConnection = connectionFactory.getReactiveConnection();
+		reactiveConnection.keyCommands().del(ByteBuffer.wrap("user".getBytes())).block();
+		reactiveConnection.close();
+
+		template = new ReactiveRedisTemplate<>(connectionFactory, RedisSerializationContext.string());
+	}
+
+	@TearDown
+	public void tearDown() {
+		connectionFactory.destroy();
+		clientResources.shutdown(0, 0, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	protected Publisher<?> operation() {
+		return template.opsForValue().increment("user");
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.redis;
+
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.domain.Range;
+import org.springframework.data.microbenchmark.common.WorkloadAdapter;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveZSetOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+/**
+ * {@link WorkloadAdapter} for Spring Data Redis using {@link ReactiveRedisTemplate}. Books are stored as hashes
+ * ({@code book:<title>}) and indexed in a sorted set ({@code books}) so that scans read title ranges in lexicographical
+ * order. Requires a Redis server on {@code localhost:6379}.
+ */
+class RedisWorkloadAdapter implements WorkloadAdapter {
+
+	private static final String KEY_PREFIX = "book:";
+	private static final String INDEX = "books";
+	private static final int CONCURRENCY = 128;
+
+	private final ClientResources clientResources;
+	private final LettuceConnectionFactory connectionFactory;
+	private final ReactiveRedisTemplate<String, String> template;
+	private final ReactiveHashOperations<String, String, String> hashOperations;
+	private final ReactiveZSetOperations<String, String> zSetOperations;
+
+	RedisWorkloadAdapter(int recordCount) {
+
+		clientResources = DefaultClientResources.create();
+
+		connectionFactory = new LettuceConnectionFactory();
+		connectionFactory.setClientResources(clientResources);
+		connectionFactory.afterPropertiesSet();
+		connectionFactory.start();
+
+		template = new ReactiveRedisTemplate<>(connectionFactory, RedisSerializationContext.string());
+		hashOperations = template.opsForHash();
+		zSetOperations = template.opsForZSet();
+
+		deleteBooks();
+
+		Flux.range(0, recordCount) //
+				.flatMap(this::insertBook, CONCURRENCY) //
+				.then() //
+				.block();
+	}
+
+	@Override
+	public Object read(long key) {
+		return readBook(title(key)).block();
+	}
+
+	@Override
+	public Object update(long key, int value) {
+		return hashOperations.put(KEY_PREFIX + title(key), "pages", Integer.toString(value)).block();
+	}
+
+	@Override
+	public Object insert(long key) {
+		return insertBook(key).block();
+	}
+
+	@Override
+	public Object scan(long key, int length) {
+
+		return zSetOperations
+				.rangeByLex(INDEX, Range.rightUnbounded(Range.Bound.inclusive(title(key))), Limit.limit().count(length)) //
+				.concatMap(this::readBook) //
+				.collectList() //
+				.block();
+	}
+
+	@Override
+	public Object readModifyWrite(long key) {
+
+		String title = title(key);
+
+		return readBook(title) //
+				.flatMap(book -> hashOperations.put(KEY_PREFIX + title, "pages",
+						Integer.toString(Integer.parseInt(book.get("pages")) + 1))) //
+				.block();
+	}
+
+	@Override
+	public void close() {
+
+		deleteBooks();
+
+		connectionFactory.destroy();
+		clientResources.shutdown(0, 0, TimeUnit.MILLISECONDS);
+	}
+
+	private Mono<Map<String, String>> readBook(String title) {
+		return hashOperations.entries(KEY_PREFIX + title).collectMap(Map.Entry::getKey, Map.Entry::getValue);
+	}
+
+	private Mono<Boolean> insertBook(long key) {
+
+		String title = title(key);
+
+		return hashOperations.putAll(KEY_PREFIX + title, Map.of("title", title, "pages", Long.toString(key))) //
+				.then(zSetOperations.add(INDEX, title, 0));
+	}
+
+	private void deleteBooks() {
+
+		template.scan(ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1000).build()) //
+				.buffer(1000) //
+				.concatMap(keys -> template.delete(keys.toArray(new String[0]))) //
+				.then(template.delete(INDEX)) //
+				.block();
+	}
+
+	private static String title(long key) {
+		return "title" + key;
+	}
+}
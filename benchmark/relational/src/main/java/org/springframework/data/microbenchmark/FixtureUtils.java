@@ -17,26 +17,302 @@ package org.springframework.data.microbenchmark;
 
 import lombok.experimental.UtilityClass;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collections;
 
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.sql.init.AbstractScriptDatabaseInitializer;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.Resource;
+import org.springframework.data.microbenchmark.common.FixtureSnapshot;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.util.StreamUtils;
+
+import com.zaxxer.hikari.HikariDataSource;
 
 @UtilityClass
 public class FixtureUtils {
 
-	public static final int NUMBER_OF_BOOKS = 8;
+	public static final String INSERT_BOOK_SQL = "INSERT INTO Book (id, title, pages) VALUES (?, ?, ?)";
+	public static final String DELETE_BOOKS_SQL = "TRUNCATE TABLE Book";
+	public static final int BATCH_SIZE = 10_000;
+
+	private static final String COPY_OUT_SQL = "COPY Book (id, title, pages) TO STDOUT";
+	private static final String COPY_IN_SQL = "COPY Book (id, title, pages) FROM STDIN";
 
 	public static ConfigurableApplicationContext createContext(Class<?> configuration, String api, String database) {
+		return createContext(configuration, api, database, 0);
+	}
+
+	/**
+	 * Create an application context whose {@link DataSource} is backed by a connection pool of at most {@code poolSize}
+	 * connections. Pooled data sources are resized, others are wrapped in a {@link HikariDataSource}.
+	 *
+	 * @param configuration the configuration class.
+	 * @param api the data access API profile.
+	 * @param database the database profile.
+	 * @param poolSize maximum number of pooled connections, {@code 0} to keep the configured {@link DataSource}.
+	 * @return
+	 */
+	public static ConfigurableApplicationContext createContext(Class<?> configuration, String api, String database,
+			int poolSize) {
 
 		SpringApplication application = new SpringApplication();
 		application.addPrimarySources(Collections.singletonList(configuration));
 		application.setLazyInitialization(true);
 		application.setAdditionalProfiles(api, database);
 
+		if (poolSize > 0) {
+			application.addInitializers(
+					context -> context.getBeanFactory().addBeanPostProcessor(new PooledDataSourcePostProcessor(poolSize)));
+		}
+
 		System.out.println("Activating profiles: " + Arrays.asList(api, database).toString());
 
-		return application.run();
+		ConfigurableApplicationContext context = application.run();
+
+		// run schema scripts upfront, lazy initialization does not trigger them for all data access APIs (e.g. R2DBC)
+		context.getBeansOfType(AbstractScriptDatabaseInitializer.class);
+
+		return context;
+	}
+
+	/**
+	 * Insert {@code numberOfBooks} books ({@code title0} to {@code title<n-1>}) using JDBC batches. Identifiers are
+	 * assigned explicitly so that the same data can be used with database-generated and JPA-generated identifiers.
+	 *
+	 * @param operations
+	 * @param numberOfBooks
+	 */
+	public static void insertBooks(JdbcOperations operations, int numberOfBooks) {
+
+		for (int offset = 0; offset < numberOfBooks; offset += BATCH_SIZE) {
+
+			int from = offset;
+			int size = Math.min(BATCH_SIZE, numberOfBooks - offset);
+
+			operations.batchUpdate(INSERT_BOOK_SQL, new BatchPreparedStatementSetter() {
+
+				@Override
+				public void setValues(PreparedStatement ps, int i) throws SQLException {
+
+					int book = from + i;
+
+					ps.setLong(1, book + 1);
+					ps.setString(2, "title" + book);
+					ps.setInt(3, book);
+				}
+
+				@Override
+				public int getBatchSize() {
+					return size;
+				}
+			});
+		}
+	}
+
+	/**
+	 * Remove all books.
+	 *
+	 * @param operations
+	 */
+	public static void deleteBooks(JdbcOperations operations) {
+		operations.execute(DELETE_BOOKS_SQL);
+	}
+
+	/**
+	 * Load {@code numberOfBooks} books restoring them from a {@link FixtureSnapshot} if available. Otherwise, books are
+	 * inserted and exported as snapshot for subsequent forks. Snapshots contain rows only and are shared between JDBC, JPA
+	 * and R2DBC fixtures of the same database platform.
+	 *
+	 * @param context
+	 * @param operations
+	 * @param numberOfBooks
+	 */
+	public static void loadBooks(ConfigurableApplicationContext context, JdbcOperations operations, int numberOfBooks) {
+
+		String platform = getPlatform(context);
+
+		if (!isH2(platform) && !isPostgres(platform)) {
+			insertBooks(operations, numberOfBooks);
+			return;
+		}
+
+		getSnapshot(context, numberOfBooks).restoreOrCreate( //
+				file -> importBooks(operations, platform, file), //
+				() -> insertBooks(operations, numberOfBooks), //
+				file -> exportBooks(operations, platform, file));
+
+		operations.execute(getRestartIdentitySql(platform, numberOfBooks));
+	}
+
+	/**
+	 * Return the {@link FixtureSnapshot} of the books table keyed by the database platform, its schema script and the
+	 * number of books.
+	 *
+	 * @param context
+	 * @param numberOfBooks
+	 * @return
+	 */
+	public static FixtureSnapshot getSnapshot(ConfigurableApplicationContext context, int numberOfBooks) {
+
+		String platform = getPlatform(context);
+		return FixtureSnapshot.of("books-" + platform + (isPostgres(platform) ? ".copy" : ".csv"),
+				getSchema(context, platform), numberOfBooks);
+	}
+
+	/**
+	 * @param context
+	 * @return the database platform ({@code spring.sql.init.platform}).
+	 */
+	public static String getPlatform(ConfigurableApplicationContext context) {
+		return context.getEnvironment().getProperty("spring.sql.init.platform", "");
+	}
+
+	/**
+	 * SQL statement restarting identifier generation after loading books with explicit identifiers ({@code 1} to
+	 * {@code numberOfBooks}) so that books inserted by benchmarks do not collide with fixture data.
+	 *
+	 * @param platform H2 or PostgreSQL.
+	 * @param numberOfBooks
+	 * @return
+	 */
+	public static String getRestartIdentitySql(String platform, int numberOfBooks) {
+
+		return isPostgres(platform) //
+				? "SELECT setval(pg_get_serial_sequence('book', 'id'), " + (numberOfBooks + 1) + ", false)" //
+				: "ALTER TABLE Book ALTER COLUMN id RESTART WITH " + (numberOfBooks + 1);
+	}
+
+	public static boolean isH2(String platform) {
+		return "h2".equals(platform);
+	}
+
+	public static boolean isPostgres(String platform) {
+		return "postgres".equals(platform);
+	}
+
+	/**
+	 * SQL statement exporting all books into a CSV file using H2's {@code CSVWRITE}.
+	 *
+	 * @param file
+	 * @return
+	 */
+	public static String getH2ExportSql(Path file) {
+		return "CALL CSVWRITE(" + quote(file) + ", 'SELECT id, title, pages FROM Book ORDER BY id')";
+	}
+
+	/**
+	 * SQL statement importing books from a CSV file using H2's {@code CSVREAD}.
+	 *
+	 * @param file
+	 * @return
+	 */
+	public static String getH2ImportSql(Path file) {
+		return "INSERT INTO Book (id, title, pages) SELECT * FROM CSVREAD(" + quote(file) + ")";
+	}
+
+	private static void importBooks(JdbcOperations operations, String platform, Path file) {
+
+		if (isH2(platform)) {
+			operations.execute(getH2ImportSql(file));
+			return;
+		}
+
+		operations.execute((ConnectionCallback<Long>) connection -> {
+
+			try (InputStream stream = Files.newInputStream(file)) {
+				return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_IN_SQL, stream);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	private static void exportBooks(JdbcOperations operations, String platform, Path file) {
+
+		if (isH2(platform)) {
+			operations.execute(getH2ExportSql(file));
+			return;
+		}
+
+		operations.execute((ConnectionCallback<Long>) connection -> {
+
+			try (OutputStream stream = Files.newOutputStream(file)) {
+				return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(COPY_OUT_SQL, stream);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	private static String getSchema(ConfigurableApplicationContext context, String platform) {
+
+		Resource schema = context.getResource("classpath:schema-" + platform + ".sql");
+
+		if (!schema.exists()) {
+			return platform;
+		}
+
+		try (InputStream stream = schema.getInputStream()) {
+			return StreamUtils.copyToString(stream, StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static String quote(Path file) {
+		return "'" + file.toAbsolutePath().toString().replace("'", "''") + "'";
+	}
+
+	/**
+	 * {@link BeanPostProcessor} bounding the connections of {@link DataSource}s to a fixed pool size.
+	 */
+	static class PooledDataSourcePostProcessor implements BeanPostProcessor {
+
+		private final int poolSize;
+
+		PooledDataSourcePostProcessor(int poolSize) {
+			this.poolSize = poolSize;
+		}
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+
+			if (!(bean instanceof DataSource)) {
+				return bean;
+			}
+
+			HikariDataSource pool;
+
+			if (bean instanceof HikariDataSource) {
+				pool = (HikariDataSource) bean;
+			} else {
+				pool = new HikariDataSource();
+				pool.setDataSource((DataSource) bean);
+				pool.setPoolName(beanName);
+			}
+
+			pool.setMaximumPoolSize(poolSize);
+			pool.setMinimumIdle(poolSize);
+
+			return pool;
+		}
 	}
 }
@@ -21,7 +21,10 @@ import java.util.TreeSet;
 
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.infra.Blackhole;
 import org.openjdk.jmh.util.Optional;
 import org.springframework.context.ConfigurableApplicationContext;
@@ -36,105 +39,151 @@ import org.springframework.jdbc.core.RowMapper;
 import com.mockrunner.mock.jdbc.MockResultSet;
 
 /**
- * Benchmark for JDBC and Spring Data JDBC
+ * Benchmark for JDBC and Spring Data JDBC. Benchmarks querying the database declare {@link Books} and run against data
+ * sets of {@code numberOfBooks} books, {@code convertWithSpringData} runs once without fixture data. All benchmark
+ * threads share the fixtures, i.e. a single application context, connection pool and data set.
  * 
  * @author Oliver Drotbohm
  */
+@State(Scope.Benchmark)
 public class JdbcBenchmark extends AbstractMicrobenchmark {
 
 	private static final String BY_TITLE_SQL = "SELECT id, title, pages FROM Book where title = ?";
 
 	@Param({ /*"postgres",*/ "h2-in-memory", /*"h2"*/ }) String profile;
 
-	JdbcOperations operations;
-	RowMapper<Book> bookMapper;
-	EntityRowMapper<Book> bookEntityMapper;
-	JdbcBookRepository repository;
-
-	Set<String> columns;
-	HashMap<String, Object> values;
-	@Setup
-	@SuppressWarnings("unchecked")
-	public void setUp() {
-
-		JdbcFixture fixture = new JdbcFixture(profile);
-
-		this.bookMapper = fixture.getBookMapper();
-
-		ConfigurableApplicationContext context = fixture.getContext();
-
-		this.operations = context.getBean(JdbcOperations.class);
-		this.repository = context.getBean(JdbcBookRepository.class);
-
-		JdbcConverter converter = context.getBean(JdbcConverter.class);
-		JdbcMappingContext mappingContext = context.getBean(JdbcMappingContext.class);
-
-		RelationalPersistentEntity<Book> requiredPersistentEntity = (RelationalPersistentEntity<Book>) mappingContext
-				.getRequiredPersistentEntity(Book.class);
-
-		this.bookEntityMapper = new EntityRowMapper<Book>(requiredPersistentEntity, converter);
-
-		// ResultSet mock
-
-		this.columns = new TreeSet<>();
-		columns.add("id");
-		columns.add("title");
-		columns.add("pages");
-
-		this.values = new HashMap<>();
-		values.put("id", 1L);
-		values.put("title", "title0");
-		values.put("pages", 42L);
-	}
-
 	@Benchmark
-	public void convertWithSpringData(Blackhole sink) throws Exception {
+	public void convertWithSpringData(Conversion conversion, Blackhole sink) throws Exception {
 
 		MockResultSet resultSet = new MockResultSet("book");
-		resultSet.addColumns(columns);
-		resultSet.addRow(values);
+		resultSet.addColumns(conversion.columns);
+		resultSet.addRow(conversion.values);
 		resultSet.next();
 
-		sink.consume(this.bookEntityMapper.mapRow(resultSet, 1));
+		sink.consume(conversion.bookEntityMapper.mapRow(resultSet, 1));
 	}
 
 	@Benchmark
-	public void findByTitle(Blackhole sink) {
-		sink.consume(operations.queryForObject(BY_TITLE_SQL, new Object[] { "title0" }, bookMapper));
+	public void findByTitle(Books books, Blackhole sink) {
+		sink.consume(books.operations.queryForObject(BY_TITLE_SQL, new Object[] { "title0" }, books.bookMapper));
 	}
 
 	@Benchmark
-	public void findByTitleOptional(Blackhole sink) {
-		sink.consume(Optional.of(operations.queryForObject(BY_TITLE_SQL, new Object[] { "title0" }, bookMapper)));
+	public void findByTitleOptional(Books books, Blackhole sink) {
+		sink.consume(
+				Optional.of(books.operations.queryForObject(BY_TITLE_SQL, new Object[] { "title0" }, books.bookMapper)));
 	}
 
 	@Benchmark
-	public void findAll(Blackhole sink) {
-		sink.consume(operations.query("SELECT id, title, pages FROM Book", bookMapper));
+	public void findAll(Books books, Blackhole sink) {
+		sink.consume(books.operations.query("SELECT id, title, pages FROM Book", books.bookMapper));
 	}
 
 	@Benchmark
-	public void findAllWithSpringDataConversion(Blackhole sink) {
-		sink.consume(operations.query("SELECT id, title, pages FROM Book", bookEntityMapper));
+	public void findAllWithSpringDataConversion(Books books, Blackhole sink) {
+		sink.consume(books.operations.query("SELECT id, title, pages FROM Book", books.bookEntityMapper));
 	}
 
 	@Benchmark
-	public void repositoryFindByTitle(Blackhole sink) {
-		sink.consume(repository.findByTitle("title0"));
+	public void repositoryFindByTitle(Books books, Blackhole sink) {
+		sink.consume(books.repository.findByTitle("title0"));
 	}
 
 	@Benchmark
-	public void repositoryFindTransactionalByTitle(Blackhole sink) {
-		sink.consume(repository.findTransactionalByTitle("title0"));
+	public void repositoryFindTransactionalByTitle(Books books, Blackhole sink) {
+		sink.consume(books.repository.findTransactionalByTitle("title0"));
 	}
 
 	@Benchmark
-	public void repositoryFindByTitleOptional(Blackhole sink) {
-		sink.consume(repository.findOptionalByTitle("title0"));
+	public void repositoryFindByTitleOptional(Books books, Blackhole sink) {
+		sink.consume(books.repository.findOptionalByTitle("title0"));
 	}
 
 	@Benchmark
-	public void repositoryFindAll(Blackhole sink) {
-		sink.consume(repository.findAll());
+	public void repositoryFindAll(Books books, Blackhole sink) {
+		sink.consume(books.repository.findAll());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static EntityRowMapper<Book> getBookEntityMapper(ConfigurableApplicationContext context) {
+
+		JdbcConverter converter = context.getBean(JdbcConverter.class);
+		JdbcMappingContext mappingContext = context.getBean(JdbcMappingContext.class);
+
+		RelationalPersistentEntity<Book> requiredPersistentEntity = (RelationalPersistentEntity<Book>) mappingContext
+				.getRequiredPersistentEntity(Book.class);
+
+		return new EntityRowMapper<Book>(requiredPersistentEntity, converter);
+	}
+
+	/**
+	 * Fixture with {@code numberOfBooks} books for benchmarks querying the database.
+	 */
+	@State(Scope.Benchmark)
+	public static class Books {
+
+		@Param({ "8", "1000", "100000" }) int numberOfBooks;
+
+		JdbcFixture fixture;
+		JdbcOperations operations;
+		RowMapper<Book> bookMapper;
+		EntityRowMapper<Book> bookEntityMapper;
+		JdbcBookRepository repository;
+
+		@Setup
+		public void setUp(JdbcBenchmark benchmark) {
+
+			this.fixture = new JdbcFixture(benchmark.profile, numberOfBooks);
+
+			this.bookMapper = fixture.getBookMapper();
+
+			ConfigurableApplicationContext context = fixture.getContext();
+
+			this.operations = context.getBean(JdbcOperations.class);
+			this.repository = context.getBean(JdbcBookRepository.class);
+			this.bookEntityMapper = getBookEntityMapper(context);
+		}
+
+		@TearDown
+		public void tearDown() {
+			fixture.close();
+		}
+	}
+
+	/**
+	 * Fixture without books and a mocked {@code ResultSet} row for conversion benchmarks.
+	 */
+	@State(Scope.Benchmark)
+	public static class Conversion {
+
+		JdbcFixture fixture;
+		EntityRowMapper<Book> bookEntityMapper;
+
+		Set<String> columns;
+		HashMap<String, Object> values;
+
+		@Setup
+		public void setUp(JdbcBenchmark benchmark) {
+
+			this.fixture = new JdbcFixture(benchmark.profile, 0);
+			this.bookEntityMapper = getBookEntityMapper(fixture.getContext());
+
+			// ResultSet mock
+
+			this.columns = new TreeSet<>();
+			columns.add("id");
+			columns.add("title");
+			columns.add("pages");
+
+			this.values = new HashMap<>();
+			values.put("id", 1L);
+			values.put("title", "title0");
+			values.put("pages", 42L);
+		}
+
+		@TearDown
+		public void tearDown() {
+			fixture.close();
+		}
 	}
 }
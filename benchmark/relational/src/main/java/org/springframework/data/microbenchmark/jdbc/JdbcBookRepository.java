@@ -15,8 +15,11 @@
  */
 package org.springframework.data.microbenchmark.jdbc;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jdbc.repository.query.Modifying;
 import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.transaction.annotation.Propagation;
@@ -43,4 +46,10 @@ interface JdbcBookRepository extends CrudRepository<Book, Long> {
 
 	@Query(BY_TITLE)
 	Optional<Book> findOptionalByTitle(String title);
+
+	List<Book> findByTitleGreaterThanEqualOrderByTitle(String title, Limit limit);
+
+	@Modifying
+	@Query("UPDATE Book SET pages = :pages WHERE title = :title")
+	boolean updatePagesByTitle(String title, int pages);
 }
@@ -40,6 +40,7 @@ import org.springframework.data.jdbc.repository.support.SimpleJdbcRepository;
 import org.springframework.data.mapping.callback.EntityCallback;
 import org.springframework.data.mapping.callback.EntityCallbacks;
 import org.springframework.data.microbenchmark.FixtureUtils;
+import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.util.ReflectionUtils;
 
@@ -55,15 +56,35 @@ class JdbcFixture {
 	private final @Getter ConfigurableApplicationContext context;
 	private final @Getter RowMapper<Book> bookMapper;
 
-	JdbcFixture(String database) {
+	JdbcFixture(String database, int numberOfBooks) {
+		this(database, numberOfBooks, 0);
+	}
+
+	/**
+	 * @param database
+	 * @param numberOfBooks
+	 * @param poolSize maximum number of pooled connections, {@code 0} to use the unpooled {@link DataSource}.
+	 */
+	JdbcFixture(String database, int numberOfBooks, int poolSize) {
+
+		this.context = FixtureUtils.createContext(JdbcApplication.class, "jdbc", database, poolSize);
 
-		this.context = FixtureUtils.createContext(JdbcApplication.class, "jdbc", database);
+		FixtureUtils.loadBooks(context, context.getBean(JdbcOperations.class), numberOfBooks);
 
 		// disableEntityCallbacks(context);
 
 		this.bookMapper = (rs, rowNum) -> new Book(rs.getLong("id"), rs.getString("title"), rs.getInt("pages"));
 	}
 
+	/**
+	 * Remove the fixture data and close the application context.
+	 */
+	void close() {
+
+		FixtureUtils.deleteBooks(context.getBean(JdbcOperations.class));
+		context.close();
+	}
+
 	private static void disableEntityCallbacks(ApplicationContext context) {
 
 		JdbcBookRepository repository = context.getBean(JdbcBookRepository.class);
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.jdbc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.microbenchmark.common.AbstractVirtualThreadBenchmark;
+import org.springframework.data.microbenchmark.common.VirtualThreadResult;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Blocking operations of {@link JdbcBenchmark} run from concurrent virtual threads against a bounded connection pool.
+ */
+public class JdbcVirtualThreadBenchmark extends AbstractVirtualThreadBenchmark {
+
+	private static final String BY_TITLE_SQL = "SELECT id, title, pages FROM Book where title = ?";
+
+	@Param({ /*"postgres",*/ "h2-in-memory", /*"h2"*/ }) String profile;
+	@Param({ "1000" }) int numberOfBooks;
+
+	JdbcFixture fixture;
+	JdbcOperations operations;
+	RowMapper<Book> bookMapper;
+	JdbcBookRepository repository;
+
+	@Setup
+	public void setUp() {
+
+		this.fixture = new JdbcFixture(profile, numberOfBooks, getPoolSize());
+		this.bookMapper = fixture.getBookMapper();
+
+		ConfigurableApplicationContext context = fixture.getContext();
+
+		this.operations = context.getBean(JdbcOperations.class);
+		this.repository = context.getBean(JdbcBookRepository.class);
+	}
+
+	@TearDown
+	public void tearDown() {
+		fixture.close();
+	}
+
+	@Benchmark
+	public VirtualThreadResult findByTitle() {
+		return runConcurrently(() -> operations.queryForObject(BY_TITLE_SQL, bookMapper, "title0"));
+	}
+
+	@Benchmark
+	public VirtualThreadResult repositoryFindByTitle() {
+		return runConcurrently(() -> repository.findByTitle("title0"));
+	}
+
+	@Benchmark
+	public VirtualThreadResult repositoryFindTransactionalByTitle() {
+		return runConcurrently(() -> repository.findTransactionalByTitle("title0"));
+	}
+
+	@Benchmark
+	public VirtualThreadResult repositoryFindAll() {
+		return runConcurrently(repository::findAll);
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.jdbc;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.microbenchmark.common.WorkloadAdapter;
+
+/**
+ * {@link WorkloadAdapter} for Spring Data JDBC using {@link JdbcBookRepository}. Keys map to book titles.
+ */
+class JdbcWorkloadAdapter implements WorkloadAdapter {
+
+	private final JdbcFixture fixture;
+	private final JdbcBookRepository repository;
+
+	JdbcWorkloadAdapter(JdbcFixture fixture) {
+
+		this.fixture = fixture;
+		this.repository = fixture.getContext().getBean(JdbcBookRepository.class);
+	}
+
+	@Override
+	public Object read(long key) {
+		return repository.findByTitle(title(key));
+	}
+
+	@Override
+	public Object update(long key, int value) {
+		return repository.updatePagesByTitle(title(key), value);
+	}
+
+	@Override
+	public Object insert(long key) {
+		return repository.save(new Book(null, title(key), (int) key));
+	}
+
+	@Override
+	public Object scan(long key, int length) {
+		return repository.findByTitleGreaterThanEqualOrderByTitle(title(key), Limit.of(length));
+	}
+
+	@Override
+	public Object readModifyWrite(long key) {
+
+		Book book = repository.findByTitle(title(key));
+		book.setPages(book.getPages() + 1);
+
+		return repository.save(book);
+	}
+
+	@Override
+	public void close() {
+		fixture.close();
+	}
+
+	private static String title(long key) {
+		return "title" + key;
+	}
+}
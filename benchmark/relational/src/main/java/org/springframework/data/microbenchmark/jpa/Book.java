@@ -21,18 +21,22 @@ import lombok.NoArgsConstructor;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
 /**
  * @author Oliver Drotbohm
  */
 @Data
 @Entity
+@Table(indexes = @Index(columnList = "title"))
 @AllArgsConstructor
 @NoArgsConstructor
 public class Book {
 
-	private @GeneratedValue @Id Long id;
+	private @GeneratedValue(strategy = GenerationType.IDENTITY) @Id Long id;
 	private String title;
 	private int pages;
 }
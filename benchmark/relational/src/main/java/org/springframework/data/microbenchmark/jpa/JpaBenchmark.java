@@ -27,98 +27,121 @@ import jakarta.persistence.criteria.Root;
 
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.infra.Blackhole;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.data.microbenchmark.common.AbstractMicrobenchmark;
 
 /**
- * Benchmarks for JPA and Spring Data JPA.
+ * Benchmarks for JPA and Spring Data JPA. Benchmarks querying the database declare {@link Books} and run against data
+ * sets of {@code numberOfBooks} books. {@link Books} is shared by all benchmark threads.
  * 
  * @author Oliver Drotbohm
  */
+@State(Scope.Benchmark)
 public class JpaBenchmark extends AbstractMicrobenchmark {
 
 	@Param({ "postgres", "h2-in-memory", "h2" })
 	String profile;
-	
-	EntityManager em;
-	JpaBookRepository repository;
-
-	@Setup
-	public void setUp() {
-
-		ConfigurableApplicationContext context = new JpaFixture(profile).getContext();
-
-		this.em = context.getBean(EntityManager.class);
-		this.repository = context.getBean(JpaBookRepository.class);
-	}
 
 	@Benchmark
-	public void findByTitle(Blackhole sink) {
+	public void findByTitle(Books books, Blackhole sink) {
 
-		Query query = em.createQuery("select b from Book b where b.title = ?1");
+		Query query = books.em.createQuery("select b from Book b where b.title = ?1");
 		query.setParameter(1, "title0");
 
 		sink.consume(query.getSingleResult());
 	}
 
 	@Benchmark
-	public void findByTitleCriteria(Blackhole sink) {
+	public void findByTitleCriteria(Books books, Blackhole sink) {
 
-		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaBuilder cb = books.em.getCriteriaBuilder();
 		CriteriaQuery<Book> q = cb.createQuery(Book.class);
 		Root<Book> c = q.from(Book.class);
 
 		ParameterExpression<String> parameter = cb.parameter(String.class);
 
-		TypedQuery<Book> query = em.createQuery(q.select(c).where(cb.equal(c.get("title"), parameter)));
+		TypedQuery<Book> query = books.em.createQuery(q.select(c).where(cb.equal(c.get("title"), parameter)));
 		query.setParameter(parameter, "title0");
 
 		sink.consume(query.getSingleResult());
 	}
 
 	@Benchmark
-	public void findByTitleOptional(Blackhole sink) {
+	public void findByTitleOptional(Books books, Blackhole sink) {
 
-		Query query = em.createQuery("select b from Book b where b.title = ?1");
+		Query query = books.em.createQuery("select b from Book b where b.title = ?1");
 		query.setParameter(1, "title0");
 
 		sink.consume(Optional.of(query.getSingleResult()));
 	}
 
 	@Benchmark
-	public void findAll(Blackhole sink) {
-		sink.consume(em.createQuery("select b from Book b").getResultList());
+	public void findAll(Books books, Blackhole sink) {
+		sink.consume(books.em.createQuery("select b from Book b").getResultList());
 	}
 
 	@Benchmark
-	public void repositoryFindByTitle(Blackhole sink) {
-		sink.consume(repository.findDerivedByTitle("title0"));
+	public void repositoryFindByTitle(Books books, Blackhole sink) {
+		sink.consume(books.repository.findDerivedByTitle("title0"));
 	}
 	
 	@Benchmark
-	public void repositoryFindTransactionalByTitle(Blackhole sink) {
-		sink.consume(repository.findTransactionalDerivedByTitle("title0"));
+	public void repositoryFindTransactionalByTitle(Books books, Blackhole sink) {
+		sink.consume(books.repository.findTransactionalDerivedByTitle("title0"));
 	}
 
 	@Benchmark
-	public void repositoryFindByTitleDeclared(Blackhole sink) {
-		sink.consume(repository.findDeclaredByTitle("title0"));
+	public void repositoryFindByTitleDeclared(Books books, Blackhole sink) {
+		sink.consume(books.repository.findDeclaredByTitle("title0"));
 	}
 	
 	@Benchmark
-	public void repositoryFindTransactionalByTitleDeclared(Blackhole sink) {
-		sink.consume(repository.findTransactionalDeclaredByTitle("title0"));
+	public void repositoryFindTransactionalByTitleDeclared(Books books, Blackhole sink) {
+		sink.consume(books.repository.findTransactionalDeclaredByTitle("title0"));
 	}
 
 	@Benchmark
-	public void repositoryFindByTitleOptional(Blackhole sink) {
-		sink.consume(repository.findOptionalDerivedByTitle("title0"));
+	public void repositoryFindByTitleOptional(Books books, Blackhole sink) {
+		sink.consume(books.repository.findOptionalDerivedByTitle("title0"));
 	}
 
 	@Benchmark
-	public void repositoryFindAll(Blackhole sink) {
-		sink.consume(repository.findAll());
+	public void repositoryFindAll(Books books, Blackhole sink) {
+		sink.consume(books.repository.findAll());
+	}
+
+	/**
+	 * Fixture with {@code numberOfBooks} books for benchmarks querying the database.
+	 */
+	@State(Scope.Benchmark)
+	public static class Books {
+
+		@Param({ "8", "1000", "100000" })
+		int numberOfBooks;
+
+		JpaFixture fixture;
+		EntityManager em;
+		JpaBookRepository repository;
+
+		@Setup
+		public void setUp(JpaBenchmark benchmark) {
+
+			this.fixture = new JpaFixture(benchmark.profile, numberOfBooks);
+
+			ConfigurableApplicationContext context = fixture.getContext();
+
+			this.em = context.getBean(EntityManager.class);
+			this.repository = context.getBean(JpaBookRepository.class);
+		}
+
+		@TearDown
+		public void tearDown() {
+			fixture.close();
+		}
 	}
 }
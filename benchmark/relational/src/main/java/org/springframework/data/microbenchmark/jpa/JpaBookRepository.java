@@ -15,8 +15,11 @@
  */
 package org.springframework.data.microbenchmark.jpa;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.transaction.annotation.Transactional;
@@ -41,4 +44,11 @@ interface JpaBookRepository extends CrudRepository<Book, Long> {
 	Book findTransactionalDerivedByTitle(String title);
 
 	Optional<Book> findOptionalDerivedByTitle(String title);
+
+	List<Book> findByTitleGreaterThanEqualOrderByTitle(String title, Limit limit);
+
+	@Transactional
+	@Modifying
+	@Query("update Book b set b.pages = :pages where b.title = :title")
+	int updatePagesByTitle(String title, int pages);
 }
@@ -17,17 +17,16 @@ package org.springframework.data.microbenchmark.jpa;
 
 import lombok.Getter;
 
-import java.util.function.Consumer;
-import java.util.stream.IntStream;
-
-import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.data.microbenchmark.FixtureUtils;
-import org.springframework.transaction.PlatformTransactionManager;
-import org.springframework.transaction.TransactionStatus;
-import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.jdbc.core.JdbcOperations;
 
 /**
  * Test fixture for JPA and Spring Data JPA benchmarks.
@@ -38,32 +37,42 @@ class JpaFixture {
 
 	private final @Getter ConfigurableApplicationContext context;
 
-	JpaFixture(String database) {
+	JpaFixture(String database, int numberOfBooks) {
+		this(database, numberOfBooks, 0);
+	}
 
-		this.context = FixtureUtils.createContext(JpaApplication.class, "jpa", database);
-		
-		withTransactionalEntityManager(em -> {
+	/**
+	 * @param database
+	 * @param numberOfBooks
+	 * @param poolSize maximum number of pooled connections, {@code 0} to use the default pool size.
+	 */
+	JpaFixture(String database, int numberOfBooks, int poolSize) {
 
-			IntStream.range(0, FixtureUtils.NUMBER_OF_BOOKS) //
-					.mapToObj(it -> new Book(null, "title" + it, it)) //
-					.forEach(em::persist);
-		});
-	}
-	
-	private void withTransactionalEntityManager(Consumer<EntityManager> consumer) {
+		this.context = FixtureUtils.createContext(JpaApplication.class, "jpa", database, poolSize);
 
-		PlatformTransactionManager manager = context.getBean(PlatformTransactionManager.class);
-		TransactionStatus status = manager.getTransaction(new DefaultTransactionDefinition());
+		// initialize Hibernate first so that schema generation does not drop the fixture data
+		context.getBean(EntityManagerFactory.class);
 
-		EntityManager em = context.getBean(EntityManager.class);
+		// bulk load through JDBC, persisting entities one by one dominates setup time for larger data sets
+		FixtureUtils.loadBooks(context, context.getBean(JdbcOperations.class), numberOfBooks);
+	}
 
-		consumer.accept(em);
+	/**
+	 * Remove the fixture data and close the application context.
+	 */
+	void close() {
 
-		em.flush();
-		manager.commit(status);
-		em.close();
+		FixtureUtils.deleteBooks(context.getBean(JdbcOperations.class));
+		context.close();
 	}
 
-	@SpringBootApplication
+	@SpringBootApplication(
+			exclude = {
+					R2dbcAutoConfiguration.class,
+					R2dbcDataAutoConfiguration.class,
+					R2dbcRepositoriesAutoConfiguration.class,
+					R2dbcTransactionManagerAutoConfiguration.class
+			}
+	)
 	static class JpaApplication {}
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.jpa;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.microbenchmark.common.AbstractStartupBenchmark;
+
+/**
+ * Application context startup benchmark for Spring Data JPA repositories. Reports the {@code EntityManagerFactory}
+ * bootstrap as separate {@code entityManagerFactory} phase.
+ */
+public class JpaStartupBenchmark extends AbstractStartupBenchmark {
+
+	static final String GENERATED_PACKAGE = "org.springframework.data.microbenchmark.generated.jpa";
+
+	private static final String ENTITY_TEMPLATE = """
+			package %1$s;
+
+			import jakarta.persistence.Entity;
+			import jakarta.persistence.GeneratedValue;
+			import jakarta.persistence.Id;
+
+			@Entity
+			public class %2$s {
+
+				@Id @GeneratedValue Long id;
+				String name;
+				int rating;
+			}
+			""";
+
+	private static final String REPOSITORY_TEMPLATE = """
+			package %1$s;
+
+			import java.util.List;
+
+			import org.springframework.data.repository.CrudRepository;
+
+			public interface %3$s extends CrudRepository<%2$s, Long> {
+
+				List<%2$s> findByName(String name);
+
+				long countByRatingGreaterThan(int rating);
+			}
+			""";
+
+	@Override
+	protected ConfigurableApplicationContext start(ApplicationStartup startup, ClassLoader classLoader,
+			boolean lazyInitialization) {
+
+		return createContext(JpaStartupApplication.class, startup, classLoader, lazyInitialization,
+				Map.of("spring.datasource.url", "jdbc:h2:mem:startup", //
+						"spring.sql.init.mode", "never", //
+						"spring.jpa.hibernate.ddl-auto", "none", //
+						"spring.data.jdbc.repositories.enabled", "false"));
+	}
+
+	@Override
+	protected String getPackageName() {
+		return GENERATED_PACKAGE;
+	}
+
+	@Override
+	protected String getEntityTemplate() {
+		return ENTITY_TEMPLATE;
+	}
+
+	@Override
+	protected String getRepositoryTemplate() {
+		return REPOSITORY_TEMPLATE;
+	}
+
+	@Override
+	protected Map<String, Predicate<String>> getBeanPhases() {
+
+		Map<String, Predicate<String>> phases = new LinkedHashMap<>(super.getBeanPhases());
+		phases.put("entityManagerFactory", "entityManagerFactory"::equals);
+
+		return phases;
+	}
+
+	/**
+	 * Not annotated with {@code @SpringBootConfiguration} to not be picked up by component scanning of other benchmark
+	 * applications in this package.
+	 */
+	@EnableAutoConfiguration(exclude = { R2dbcAutoConfiguration.class, R2dbcDataAutoConfiguration.class,
+			R2dbcRepositoriesAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class })
+	@EnableJpaRepositories(GENERATED_PACKAGE)
+	@EntityScan(GENERATED_PACKAGE)
+	static class JpaStartupApplication {}
+}
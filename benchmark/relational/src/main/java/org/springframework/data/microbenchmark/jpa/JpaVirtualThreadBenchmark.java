@@ -0,0 +1,78 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.jpa;
+
+import jakarta.persistence.EntityManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.microbenchmark.common.AbstractVirtualThreadBenchmark;
+import org.springframework.data.microbenchmark.common.VirtualThreadResult;
+
+/**
+ * Blocking operations of {@link JpaBenchmark} run from concurrent virtual threads against a bounded connection pool.
+ */
+public class JpaVirtualThreadBenchmark extends AbstractVirtualThreadBenchmark {
+
+	@Param({ "h2-in-memory" }) String profile;
+	@Param({ "1000" }) int numberOfBooks;
+
+	JpaFixture fixture;
+	EntityManager em;
+	JpaBookRepository repository;
+
+	@Setup
+	public void setUp() {
+
+		this.fixture = new JpaFixture(profile, numberOfBooks, getPoolSize());
+
+		ConfigurableApplicationContext context = fixture.getContext();
+
+		this.em = context.getBean(EntityManager.class);
+		this.repository = context.getBean(JpaBookRepository.class);
+	}
+
+	@TearDown
+	public void tearDown() {
+		fixture.close();
+	}
+
+	@Benchmark
+	public VirtualThreadResult findByTitle() {
+
+		return runConcurrently(() -> em.createQuery("select b from Book b where b.title = ?1") //
+				.setParameter(1, "title0") //
+				.getSingleResult());
+	}
+
+	@Benchmark
+	public VirtualThreadResult repositoryFindByTitle() {
+		return runConcurrently(() -> repository.findDerivedByTitle("title0"));
+	}
+
+	@Benchmark
+	public VirtualThreadResult repositoryFindTransactionalByTitle() {
+		return runConcurrently(() -> repository.findTransactionalDerivedByTitle("title0"));
+	}
+
+	@Benchmark
+	public VirtualThreadResult repositoryFindAll() {
+		return runConcurrently(repository::findAll);
+	}
+}
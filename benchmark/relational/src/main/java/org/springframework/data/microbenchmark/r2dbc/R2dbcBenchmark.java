@@ -22,7 +22,10 @@ import java.util.function.Function;
 
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.infra.Blackhole;
 
 import org.springframework.context.ConfigurableApplicationContext;
@@ -30,10 +33,12 @@ import org.springframework.data.microbenchmark.common.AbstractMicrobenchmark;
 import org.springframework.r2dbc.core.DatabaseClient;
 
 /**
- * Benchmark for R2DBC and Spring Data R2DBC
+ * Benchmark for R2DBC and Spring Data R2DBC. Benchmarks querying the database declare {@link Books} and run against
+ * data sets of {@code numberOfBooks} books. {@link Books} is shared by all benchmark threads.
  *
  * @author Oliver Drotbohm
  */
+@State(Scope.Benchmark)
 public class R2dbcBenchmark extends AbstractMicrobenchmark {
 
 	private static final String FIND_ALL_SQL = "SELECT id, title, pages FROM Book";
@@ -41,56 +46,71 @@ public class R2dbcBenchmark extends AbstractMicrobenchmark {
 
 	@Param({ /* "postgres", */ "h2-in-memory" /*, "h2" */ }) String profile;
 
-	private DatabaseClient operations;
-	private Function<Readable, Book> mapper;
-
-	private R2dbcBookRepository repository;
-
-	@Setup
-	public void setUp() {
-
-		R2dbcFixture fixture = new R2dbcFixture(profile);
-
-		ConfigurableApplicationContext context = fixture.getContext();
-
-		this.operations = context.getBean(DatabaseClient.class);
-		this.mapper = row -> new Book(row.get("id", Long.class), row.get("title", String.class),
-				row.get("pages", Integer.class));
-
-		this.repository = context.getBean(R2dbcBookRepository.class);
-	}
-
 	@Benchmark
-	public void findByTitle(Blackhole sink) {
+	public void findByTitle(Books books, Blackhole sink) {
 
-		sink.consume(operations.sql(BY_TITLE_SQL) //
+		sink.consume(books.operations.sql(BY_TITLE_SQL) //
 				.bind("title", "title0") //
-				.map(mapper).one() //
+				.map(books.mapper).one() //
 				.block());
 	}
 
 	@Benchmark
-	public void findAll(Blackhole sink) {
+	public void findAll(Books books, Blackhole sink) {
 
-		sink.consume(operations.sql(FIND_ALL_SQL) //
-				.map(mapper) //
+		sink.consume(books.operations.sql(FIND_ALL_SQL) //
+				.map(books.mapper) //
 				.all() //
 				.collectList() //
 				.block());
 	}
 
 	@Benchmark
-	public void repositoryFindByTitle(Blackhole sink) {
-		sink.consume(repository.findByTitle("title0").block());
+	public void repositoryFindByTitle(Books books, Blackhole sink) {
+		sink.consume(books.repository.findByTitle("title0").block());
 	}
 
 	@Benchmark
-	public void repositoryFindTransactionalByTitle(Blackhole sink) {
-		sink.consume(repository.findTransactionalByTitle("title0").block());
+	public void repositoryFindTransactionalByTitle(Books books, Blackhole sink) {
+		sink.consume(books.repository.findTransactionalByTitle("title0").block());
 	}
 
 	@Benchmark
-	public void repositoryFindAll(Blackhole sink) {
-		sink.consume(repository.findAll().collectList().block());
+	public void repositoryFindAll(Books books, Blackhole sink) {
+		sink.consume(books.repository.findAll().collectList().block());
+	}
+
+	/**
+	 * Fixture with {@code numberOfBooks} books for benchmarks querying the database.
+	 */
+	@State(Scope.Benchmark)
+	public static class Books {
+
+		@Param({ "8", "1000", "100000" }) int numberOfBooks;
+
+		private R2dbcFixture fixture;
+		private DatabaseClient operations;
+		private Function<Readable, Book> mapper;
+
+		private R2dbcBookRepository repository;
+
+		@Setup
+		public void setUp(R2dbcBenchmark benchmark) {
+
+			this.fixture = new R2dbcFixture(benchmark.profile, numberOfBooks);
+
+			ConfigurableApplicationContext context = fixture.getContext();
+
+			this.operations = context.getBean(DatabaseClient.class);
+			this.mapper = row -> new Book(row.get("id", Long.class), row.get("title", String.class),
+					row.get("pages", Integer.class));
+
+			this.repository = context.getBean(R2dbcBookRepository.class);
+		}
+
+		@TearDown
+		public void tearDown() {
+			fixture.close();
+		}
 	}
 }
@@ -18,6 +18,8 @@ package org.springframework.data.microbenchmark.r2dbc;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.transaction.annotation.Propagation;
@@ -41,4 +43,10 @@ interface R2dbcBookRepository extends R2dbcRepository<Book, Long> {
 	@Transactional(readOnly = true)
 	@Query(BY_TITLE)
 	Mono<Book> findTransactionalByTitle(String title);
+
+	Flux<Book> findByTitleGreaterThanEqualOrderByTitle(String title, Limit limit);
+
+	@Modifying
+	@Query("UPDATE Book SET pages = :pages WHERE title = :title")
+	Mono<Integer> updatePagesByTitle(String title, int pages);
 }
@@ -15,11 +15,14 @@
  */
 package org.springframework.data.microbenchmark.r2dbc;
 
+import io.r2dbc.spi.Statement;
 import lombok.Getter;
+import reactor.core.publisher.Flux;
 
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.data.microbenchmark.FixtureUtils;
+import org.springframework.r2dbc.core.DatabaseClient;
 
 /**
  * Test fixture for JDBC and Spring Data JDBC benchmarks.
@@ -30,8 +33,72 @@ public class R2dbcFixture {
 
 	private final @Getter ConfigurableApplicationContext context;
 
-	public R2dbcFixture(String database) {
+	private static final String INSERT_BOOK_SQL = "INSERT INTO Book (id, title, pages) VALUES ($1, $2, $3)";
+
+	public R2dbcFixture(String database, int numberOfBooks) {
+
 		this.context = FixtureUtils.createContext(R2dbcApplication.class, "r2dbc", database);
+
+		DatabaseClient client = context.getBean(DatabaseClient.class);
+
+		String platform = FixtureUtils.getPlatform(context);
+
+		// R2DBC drivers do not expose a portable bulk import, snapshots are restored through H2's CSVREAD only
+		if (FixtureUtils.isH2(platform)) {
+
+			FixtureUtils.getSnapshot(context, numberOfBooks).restoreOrCreate( //
+					file -> client.sql(FixtureUtils.getH2ImportSql(file)).then().block(), //
+					() -> insertBooks(client, numberOfBooks), //
+					file -> client.sql(FixtureUtils.getH2ExportSql(file)).then().block());
+		} else {
+			insertBooks(client, numberOfBooks);
+		}
+
+		if (FixtureUtils.isH2(platform) || FixtureUtils.isPostgres(platform)) {
+			client.sql(FixtureUtils.getRestartIdentitySql(platform, numberOfBooks)).then().block();
+		}
+	}
+
+	/**
+	 * Remove the fixture data and close the application context.
+	 */
+	public void close() {
+
+		context.getBean(DatabaseClient.class).sql(FixtureUtils.DELETE_BOOKS_SQL).then().block();
+		context.close();
+	}
+
+	/**
+	 * Insert books using one multi-binding statement per batch of {@link FixtureUtils#BATCH_SIZE} rows.
+	 *
+	 * @param client
+	 * @param numberOfBooks
+	 */
+	private static void insertBooks(DatabaseClient client, int numberOfBooks) {
+
+		int batches = (numberOfBooks + FixtureUtils.BATCH_SIZE - 1) / FixtureUtils.BATCH_SIZE;
+
+		client.inConnectionMany(connection -> Flux.range(0, batches) //
+				.concatMap(batch -> {
+
+					Statement statement = connection.createStatement(INSERT_BOOK_SQL);
+
+					int from = batch * FixtureUtils.BATCH_SIZE;
+					int to = Math.min(numberOfBooks, from + FixtureUtils.BATCH_SIZE);
+
+					for (int book = from; book < to; book++) {
+
+						if (book != from) {
+							statement.add();
+						}
+
+						statement.bind(0, (long) book + 1).bind(1, "title" + book).bind(2, book);
+					}
+
+					return Flux.from(statement.execute()).concatMap(result -> result.getRowsUpdated());
+				})) //
+				.then() //
+				.block();
 	}
 
 	@SpringBootApplication
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.r2dbc;
+
+import reactor.core.scheduler.Schedulers;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.reactivestreams.Publisher;
+import org.springframework.data.microbenchmark.common.AbstractOpenLoopBenchmark;
+
+/**
+ * Open-loop benchmark issuing {@link R2dbcBookRepository#findByTitle(String)} at fixed target rates.
+ * <p>
+ * R2DBC H2 executes queries on the subscribing thread. Operations are therefore subscribed on the bounded elastic
+ * scheduler, otherwise the issuing thread would block on each query and never keep more than one operation in flight.
+ *
+ * @see R2dbcBenchmark
+ */
+public class R2dbcOpenLoopBenchmark extends AbstractOpenLoopBenchmark {
+
+	@Param({ /* "postgres", */ "h2-in-memory" /*, "h2" */ }) String profile;
+	@Param({ "1000" }) int numberOfBooks;
+
+	private R2dbcFixture fixture;
+	private R2dbcBookRepository repository;
+
+	@Setup
+	public void setUp() {
+
+		fixture = new R2dbcFixture(profile, numberOfBooks);
+		repository = fixture.getContext().getBean(R2dbcBookRepository.class);
+	}
+
+	@TearDown
+	public void tearDown() {
+		fixture.close();
+	}
+
+	@Override
+	protected Publisher<?> operation() {
+		return repository.findByTitle("title0").subscribeOn(Schedulers.boundedElastic());
+	}
+}
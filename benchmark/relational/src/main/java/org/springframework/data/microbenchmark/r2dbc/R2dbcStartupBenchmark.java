@@ -0,0 +1,99 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.r2dbc;
+
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.data.microbenchmark.common.AbstractStartupBenchmark;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+
+/**
+ * Application context startup benchmark for Spring Data R2DBC repositories.
+ */
+public class R2dbcStartupBenchmark extends AbstractStartupBenchmark {
+
+	static final String GENERATED_PACKAGE = "org.springframework.data.microbenchmark.generated.r2dbc";
+
+	private static final String ENTITY_TEMPLATE = """
+			package %1$s;
+
+			import org.springframework.data.annotation.Id;
+			import org.springframework.data.relational.core.mapping.Table;
+
+			@Table
+			public class %2$s {
+
+				@Id Long id;
+				String name;
+				int rating;
+			}
+			""";
+
+	private static final String REPOSITORY_TEMPLATE = """
+			package %1$s;
+
+			import reactor.core.publisher.Flux;
+			import reactor.core.publisher.Mono;
+
+			import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+			public interface %3$s extends ReactiveCrudRepository<%2$s, Long> {
+
+				Flux<%2$s> findByName(String name);
+
+				Mono<Long> countByRatingGreaterThan(int rating);
+			}
+			""";
+
+	@Override
+	protected ConfigurableApplicationContext start(ApplicationStartup startup, ClassLoader classLoader,
+			boolean lazyInitialization) {
+
+		return createContext(R2dbcStartupApplication.class, startup, classLoader, lazyInitialization,
+				Map.of("spring.r2dbc.url", "r2dbc:h2:mem:///startup", //
+						"spring.sql.init.mode", "never"));
+	}
+
+	@Override
+	protected String getPackageName() {
+		return GENERATED_PACKAGE;
+	}
+
+	@Override
+	protected String getEntityTemplate() {
+		return ENTITY_TEMPLATE;
+	}
+
+	@Override
+	protected String getRepositoryTemplate() {
+		return REPOSITORY_TEMPLATE;
+	}
+
+	/**
+	 * Not annotated with {@code @SpringBootConfiguration} to not be picked up by component scanning of other benchmark
+	 * applications in this package.
+	 */
+	@EnableAutoConfiguration(exclude = { DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class })
+	@EnableR2dbcRepositories(GENERATED_PACKAGE)
+	@EntityScan(GENERATED_PACKAGE)
+	static class R2dbcStartupApplication {}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.r2dbc;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.microbenchmark.common.WorkloadAdapter;
+
+/**
+ * {@link WorkloadAdapter} for Spring Data R2DBC using {@link R2dbcBookRepository}. Keys map to book titles. Operations
+ * block until completion so that each benchmark invocation represents one operation.
+ */
+class R2dbcWorkloadAdapter implements WorkloadAdapter {
+
+	private final R2dbcFixture fixture;
+	private final R2dbcBookRepository repository;
+
+	R2dbcWorkloadAdapter(R2dbcFixture fixture) {
+
+		this.fixture = fixture;
+		this.repository = fixture.getContext().getBean(R2dbcBookRepository.class);
+	}
+
+	@Override
+	public Object read(long key) {
+		return repository.findByTitle(title(key)).block();
+	}
+
+	@Override
+	public Object update(long key, int value) {
+		return repository.updatePagesByTitle(title(key), value).block();
+	}
+
+	@Override
+	public Object insert(long key) {
+		return repository.save(new Book(title(key), (int) key)).block();
+	}
+
+	@Override
+	public Object scan(long key, int length) {
+		return repository.findByTitleGreaterThanEqualOrderByTitle(title(key), Limit.of(length)).collectList().block();
+	}
+
+	@Override
+	public Object readModifyWrite(long key) {
+
+		return repository.findByTitle(title(key)) //
+				.flatMap(book -> repository.save(new Book(book.getId(), book.getTitle(), book.getPages() + 1))) //
+				.block();
+	}
+
+	@Override
+	public void close() {
+		fixture.close();
+	}
+
+	private static String title(long key) {
+		return "title" + key;
+	}
+}
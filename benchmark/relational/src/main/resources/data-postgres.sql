@@ -1,8 +0,0 @@
-INSERT INTO Book(title, pages) VALUES ('title0', 0);
-INSERT INTO Book(title, pages) VALUES ('title1', 1);
-INSERT INTO Book(title, pages) VALUES ('title2', 2);
-INSERT INTO Book(title, pages) VALUES ('title3', 3);
-INSERT INTO Book(title, pages) VALUES ('title4', 4);
-INSERT INTO Book(title, pages) VALUES ('title5', 5);
-INSERT INTO Book(title, pages) VALUES ('title6', 6);
-INSERT INTO Book(title, pages) VALUES ('title7', 7);
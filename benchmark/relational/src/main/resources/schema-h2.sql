@@ -5,3 +5,4 @@ create table Book (
 	pages integer not null,
 	primary key (id)
 );
+create index book_title on Book (title);
@@ -4,3 +4,4 @@ create table Book (
 	title varchar(255),
 	pages integer not null
 );
+create index book_title on Book (title);
@@ -15,8 +15,6 @@
  */
 package org.springframework.data.microbenchmark.common;
 
-import jmh.mbr.junit4.Microbenchmark;
-
 import org.junit.runner.RunWith;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
@@ -25,18 +23,19 @@ import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 
 /**
- * Base class for microbenchmarks providing default JMH settings and allowing execution through JUnit.
+ * Base class for microbenchmarks providing default JMH settings and allowing execution through JUnit. Benchmarks run
+ * with the JMH GC profiler attached by default so that allocation rates are reported alongside the primary score.
  *
  * @author Christoph Strobl
  * @author Mark Paluch
- * @see Microbenchmark
+ * @see MicrobenchmarkRunner
  */
 @Warmup(iterations = 10, time = 2)
 @Measurement(iterations = 10, time = 2)
 @Fork(value = 1, jvmArgs = { "-server", "-XX:+HeapDumpOnOutOfMemoryError", "-Xms1024m", "-Xmx1024m",
-		"-XX:MaxDirectMemorySize=1024m", "-noverify" })
+		"-XX:MaxDirectMemorySize=1024m" })
 @State(Scope.Thread)
-@RunWith(Microbenchmark.class)
+@RunWith(MicrobenchmarkRunner.class)
 public abstract class AbstractMicrobenchmark {
 
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reactivestreams.Publisher;
+
+/**
+ * Base class for open-loop benchmarks of reactive operations. Each invocation ({@link Mode#SingleShotTime}) issues
+ * {@link #operation()} at a fixed {@code targetRate} (operations per second) for {@code durationSeconds} using
+ * {@link OpenLoopDriver}. Unlike closed-loop benchmarks ({@code Flux.range(...).flatMap(...)}) the offered load does not
+ * drop when the system under test saturates, latencies are corrected for coordinated omission.
+ * <p>
+ * The primary score is the duration of a run and not meaningful on its own. Achieved rate and latency percentiles are
+ * reported as {@code openLoop.*} secondary results through {@link OpenLoopProfiler}. {@link MicrobenchmarkRunner}
+ * compares results across target rates to report the saturation knee.
+ *
+ * @see OpenLoopDriver
+ */
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@ScalingUnsupported
+public abstract class AbstractOpenLoopBenchmark extends AbstractMicrobenchmark {
+
+	@Param({ "10000", "50000", "100000", "200000", "500000" }) int targetRate;
+	@Param({ "5" }) int durationSeconds;
+
+	private OpenLoopDriver driver;
+
+	@Setup
+	public void setUpDriver() {
+		driver = new OpenLoopDriver(this::operation);
+	}
+
+	@Benchmark
+	public OpenLoopResult openLoop() {
+
+		OpenLoopResult result = driver.run(targetRate, Duration.ofSeconds(durationSeconds));
+		OpenLoopProfiler.record(result);
+
+		return result;
+	}
+
+	/**
+	 * Create the reactive operation to issue. Called once per operation from the issuing thread, the returned
+	 * {@link Publisher} must not block upon subscription.
+	 *
+	 * @return
+	 */
+	protected abstract Publisher<?> operation();
+}
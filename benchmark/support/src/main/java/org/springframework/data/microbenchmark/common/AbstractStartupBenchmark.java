@@ -0,0 +1,215 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.beans.Introspector;
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Base class for application context startup benchmarks. Each invocation starts a new application context
+ * ({@link Mode#SingleShotTime}) with a given number of generated entities and repositories, either eagerly or with
+ * lazy initialization. Besides the total startup time, startups are broken down into repository scanning, repository
+ * initialization (instantiation of repository beans including repository factory and query method setup) and the
+ * instantiation of mapping-related beans that are reported as {@code startup.*} secondary results through
+ * {@link StartupProfiler}. Phases may overlap, e.g. the mapping context is created as part of the first repository
+ * with lazy initialization.
+ * <p>
+ * Generated types are loaded through a new class loader for each startup so that class loading of entities and
+ * repositories is part of the measurement. Closing the context is not measured.
+ *
+ * @see GeneratedRepositories
+ * @see RecordingApplicationStartup
+ * @see #createContext(Class, ApplicationStartup, ClassLoader, boolean, Map)
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@ScalingUnsupported
+public abstract class AbstractStartupBenchmark extends AbstractMicrobenchmark {
+
+	@Param({ "10", "100", "500" }) int repositories;
+	@Param({ "false", "true" }) boolean lazyInitialization;
+
+	private GeneratedRepositories generated;
+	private Set<String> repositoryBeanNames;
+	private URLClassLoader classLoader;
+	private RecordingApplicationStartup startup;
+	private ConfigurableApplicationContext context;
+
+	@Setup
+	public void generateRepositories() {
+		generated = GeneratedRepositories.generate(getPackageName(), repositories, getEntityTemplate(),
+				getRepositoryTemplate());
+		repositoryBeanNames = generated.getRepositoryInterfaces().stream() //
+				.map(it -> Introspector.decapitalize(ClassUtils.getShortName(it))) //
+				.collect(Collectors.toSet());
+	}
+
+	@Setup(Level.Invocation)
+	public void prepareStartup() {
+
+		classLoader = generated.newClassLoader();
+		startup = new RecordingApplicationStartup();
+	}
+
+	/**
+	 * Start the application context. Repositories are initialized during startup unless running with lazy
+	 * initialization.
+	 */
+	@Benchmark
+	public Object startup() {
+		return context = start(startup, classLoader);
+	}
+
+	/**
+	 * Start the application context and obtain all repositories so that startup includes repository initialization
+	 * regardless of lazy initialization.
+	 */
+	@Benchmark
+	public Object startupAndObtainRepositories() throws ClassNotFoundException {
+
+		context = start(startup, classLoader);
+
+		for (String repositoryInterface : generated.getRepositoryInterfaces()) {
+			context.getBean(ClassUtils.forName(repositoryInterface, classLoader));
+		}
+
+		return context;
+	}
+
+	@TearDown(Level.Invocation)
+	public void closeContext() throws IOException {
+
+		StartupProfiler.record("repositoryScanning", startup.getDuration(RecordingApplicationStartup.REPOSITORY_SCANNING));
+		StartupProfiler.record("repositoryInit", startup.getBeanInstantiationDuration(repositoryBeanNames::contains));
+		getBeanPhases().forEach(
+				(phase, beanName) -> StartupProfiler.record(phase, startup.getBeanInstantiationDuration(beanName)));
+
+		if (context != null) {
+			context.close();
+			context = null;
+		}
+
+		classLoader.close();
+	}
+
+	@TearDown
+	public void deleteRepositories() throws IOException {
+		generated.close();
+	}
+
+	private ConfigurableApplicationContext start(ApplicationStartup startup, ClassLoader classLoader) {
+
+		Thread thread = Thread.currentThread();
+		ClassLoader previous = thread.getContextClassLoader();
+
+		try {
+			thread.setContextClassLoader(classLoader);
+			return start(startup, classLoader, lazyInitialization);
+		} finally {
+			thread.setContextClassLoader(previous);
+		}
+	}
+
+	/**
+	 * Start the application context for the generated repositories in {@link #getPackageName()}. Entities and
+	 * repositories must be loaded through the given {@link ClassLoader}.
+	 *
+	 * @param startup the {@link ApplicationStartup} to use.
+	 * @param classLoader class loader exposing generated types.
+	 * @param lazyInitialization whether to use lazy bean initialization.
+	 * @return the started application context.
+	 */
+	protected abstract ConfigurableApplicationContext start(ApplicationStartup startup, ClassLoader classLoader,
+			boolean lazyInitialization);
+
+	/**
+	 * Create a Spring Boot application context for {@link #start(ApplicationStartup, ClassLoader, boolean)}. Resources
+	 * are loaded through {@code classLoader}, the banner and startup info logging are disabled and no profiles are
+	 * activated.
+	 *
+	 * @param configuration the configuration class.
+	 * @param startup the {@link ApplicationStartup} recording startup steps.
+	 * @param classLoader class loader exposing generated entities and repositories.
+	 * @param lazyInitialization whether to use lazy bean initialization.
+	 * @param properties default configuration properties.
+	 * @return the started application context.
+	 */
+	protected static ConfigurableApplicationContext createContext(Class<?> configuration, ApplicationStartup startup,
+			ClassLoader classLoader, boolean lazyInitialization, Map<String, Object> properties) {
+
+		SpringApplication application = new SpringApplication(new DefaultResourceLoader(classLoader), configuration);
+		application.setApplicationStartup(startup);
+		application.setLazyInitialization(lazyInitialization);
+		application.setBannerMode(Banner.Mode.OFF);
+		application.setLogStartupInfo(false);
+		application.setDefaultProperties(properties);
+
+		return application.run();
+	}
+
+	/**
+	 * @return the package for generated entities and repositories.
+	 */
+	protected abstract String getPackageName();
+
+	/**
+	 * @return source template for entities.
+	 * @see GeneratedRepositories
+	 */
+	protected abstract String getEntityTemplate();
+
+	/**
+	 * @return source template for repository interfaces.
+	 * @see GeneratedRepositories
+	 */
+	protected abstract String getRepositoryTemplate();
+
+	/**
+	 * Startup phases measured as instantiation time of beans matching a bean name predicate. Defaults to
+	 * {@code mappingContext} capturing beans named {@code ...MappingContext}.
+	 *
+	 * @return
+	 */
+	protected Map<String, Predicate<String>> getBeanPhases() {
+		return Collections.singletonMap("mappingContext", beanName -> beanName.endsWith("MappingContext"));
+	}
+}
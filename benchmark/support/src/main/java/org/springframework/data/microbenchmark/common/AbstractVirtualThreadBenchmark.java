@@ -0,0 +1,81 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Base class for benchmarks running blocking operations from thousands of concurrent tasks on virtual threads against
+ * a bounded connection pool ({@code poolSize}). Each invocation ({@link Mode#SingleShotTime}) runs the operation passed
+ * to {@link #runConcurrently(Callable)} from {@code concurrency} tasks for {@code durationSeconds} using
+ * {@link VirtualThreadDriver}. {@code executor=platform} runs the same load on platform threads for comparison.
+ * <p>
+ * The primary score is the duration of a run and not meaningful on its own. Throughput, latency percentiles and
+ * virtual thread pinning events are reported as {@code vthread.*} secondary results through
+ * {@link VirtualThreadProfiler}. Virtual threads require the benchmark to be forked with Java 21 or newer.
+ *
+ * @see VirtualThreadDriver
+ */
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@ScalingUnsupported
+public abstract class AbstractVirtualThreadBenchmark extends AbstractMicrobenchmark {
+
+	@Param({ "virtual", "platform" }) String executor;
+	@Param({ "1000", "10000" }) int concurrency;
+	@Param({ "10" }) int poolSize;
+	@Param({ "5" }) int durationSeconds;
+
+	private VirtualThreadDriver driver;
+
+	@Setup
+	public void setUpDriver() {
+		driver = new VirtualThreadDriver(executor, concurrency);
+	}
+
+	/**
+	 * Run the blocking operation from {@code concurrency} tasks for {@code durationSeconds} and record the result.
+	 *
+	 * @param operation the blocking operation, invoked concurrently.
+	 * @return the result of the run.
+	 */
+	protected VirtualThreadResult runConcurrently(Callable<?> operation) {
+
+		VirtualThreadResult result = driver.run(operation, Duration.ofSeconds(durationSeconds));
+		VirtualThreadProfiler.record(result);
+
+		return result;
+	}
+
+	/**
+	 * @return the maximum number of connections of the connection pool to configure for the fixture.
+	 */
+	protected int getPoolSize() {
+		return poolSize;
+	}
+}
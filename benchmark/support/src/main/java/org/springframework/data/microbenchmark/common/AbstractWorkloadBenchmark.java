@@ -0,0 +1,66 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Base class for mixed workload benchmarks comparable across stores. Each invocation issues one operation of the
+ * {@link Workload} ({@code workload} parameter) against the {@link WorkloadAdapter} of the store, choosing keys
+ * according to the {@link KeyDistribution} ({@code distribution} parameter) from {@code recordCount} initial records.
+ * <p>
+ * The primary score reflects the throughput (or latency) of the operation mix. Use {@code -DbenchmarkMode=sample} to
+ * obtain latency percentiles of the mix.
+ */
+@ScalingUnsupported
+public abstract class AbstractWorkloadBenchmark extends AbstractMicrobenchmark {
+
+	@Param({ "READ_HEAVY", "UPDATE_HEAVY", "SCAN_SHORT_RANGES" }) Workload workload;
+	@Param({ "UNIFORM", "ZIPFIAN", "LATEST" }) KeyDistribution distribution;
+	@Param({ "100000" }) int recordCount;
+
+	private WorkloadAdapter adapter;
+	private WorkloadDriver driver;
+
+	@Setup
+	public void setUpWorkload() {
+
+		adapter = createAdapter(recordCount);
+		driver = new WorkloadDriver(workload, distribution, recordCount, adapter);
+	}
+
+	@Benchmark
+	public Object operation() {
+		return driver.next();
+	}
+
+	@TearDown
+	public void tearDownWorkload() {
+		adapter.close();
+	}
+
+	/**
+	 * Create the {@link WorkloadAdapter} along with its fixture containing {@code recordCount} records with keys
+	 * {@code 0} to {@code recordCount - 1}.
+	 *
+	 * @param recordCount
+	 * @return
+	 */
+	protected abstract WorkloadAdapter createAdapter(int recordCount);
+}
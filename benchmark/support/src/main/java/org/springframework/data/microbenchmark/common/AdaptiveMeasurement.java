@@ -0,0 +1,272 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Adaptive measurement replacing fixed warmup and measurement iteration counts. JMH cannot end a fork early, so
+ * measurement proceeds in forks:
+ * <ol>
+ * <li>A probe fork runs {@code adaptiveMaxWarmupIterations} plus {@link #MIN_ITERATIONS} iterations without warmup.
+ * The end of the warmup phase is detected on the iteration scores using the Marginal Standard Error Rule (MSER) and the
+ * iterations after it are kept as measurement.</li>
+ * <li>Further forks run with the detected number of warmup iterations and {@link #ITERATIONS_PER_FORK} measurement
+ * iterations each until the relative error of the score (the 99.9% confidence interval reported by JMH divided by the
+ * score) drops below {@code adaptiveTarget}, the {@code adaptiveMaxForks} limit is reached or the next fork would
+ * exceed {@code adaptiveMaxTime}.</li>
+ * </ol>
+ * Each parameter combination is measured independently. Results are {@link AdaptiveRunResult}s recording the
+ * {@link StoppingReason} and the detected warmup.
+ *
+ * @see MicrobenchmarkOptions#isAdaptive()
+ */
+class AdaptiveMeasurement {
+
+	static final int MIN_ITERATIONS = 5;
+	static final int ITERATIONS_PER_FORK = 5;
+
+	private final double target;
+	private final int maxWarmupIterations;
+	private final int maxForks;
+	private final Duration maxTime;
+
+	AdaptiveMeasurement(double target, int maxWarmupIterations, int maxForks, Duration maxTime) {
+
+		this.target = target;
+		this.maxWarmupIterations = maxWarmupIterations;
+		this.maxForks = maxForks;
+		this.maxTime = maxTime;
+	}
+
+	/**
+	 * Run the benchmarks selected by {@link Options} adaptively.
+	 *
+	 * @param options
+	 * @return one {@link AdaptiveRunResult} per parameter combination.
+	 * @throws RunnerException
+	 */
+	Collection<RunResult> run(Options options) throws RunnerException {
+
+		long start = System.nanoTime();
+
+		Collection<RunResult> probes = new Runner(new OptionsBuilder().parent(options) //
+				.forks(1) //
+				.warmupIterations(0) //
+				.measurementIterations(maxWarmupIterations + MIN_ITERATIONS) //
+				.build()).run();
+
+		long probeNanos = probes.isEmpty() ? 0 : (System.nanoTime() - start) / probes.size();
+
+		List<RunResult> results = new ArrayList<>();
+		for (RunResult probe : probes) {
+			results.add(measure(options, probe, probeNanos));
+		}
+
+		return results;
+	}
+
+	private AdaptiveRunResult measure(Options options, RunResult probe, long probeNanos) throws RunnerException {
+
+		BenchmarkResult probeFork = probe.getBenchmarkResults().iterator().next();
+		List<IterationResult> iterations = new ArrayList<>(probeFork.getIterationResults());
+
+		double[] scores = new double[iterations.size()];
+		for (int i = 0; i < scores.length; i++) {
+			scores[i] = iterations.get(i).getPrimaryResult().getScore();
+		}
+
+		int limit = Math.max(0, Math.min(maxWarmupIterations, scores.length - MIN_ITERATIONS));
+		int warmupIterations = detectWarmup(scores, limit);
+		boolean steadyState = warmupIterations < limit || limit == 0;
+
+		List<BenchmarkResult> forks = new ArrayList<>();
+		forks.add(truncate(probeFork, warmupIterations));
+
+		BenchmarkParams params = probe.getParams();
+		long elapsed = probeNanos;
+		long forkNanos = probeNanos;
+		StoppingReason reason;
+
+		while (true) {
+
+			double error = getRelativeError(new RunResult(params, forks));
+
+			if (getIterations(forks) >= MIN_ITERATIONS && error <= target) {
+				reason = StoppingReason.CONVERGED;
+				break;
+			}
+
+			if (forks.size() >= maxForks) {
+				reason = StoppingReason.FORK_LIMIT;
+				break;
+			}
+
+			if (elapsed + forkNanos > maxTime.toNanos()) {
+				reason = StoppingReason.TIME_LIMIT;
+				break;
+			}
+
+			long start = System.nanoTime();
+
+			for (RunResult result : new Runner(createForkOptions(options, params, warmupIterations).build()).run()) {
+				forks.addAll(result.getBenchmarkResults());
+				params = result.getParams();
+			}
+
+			forkNanos = System.nanoTime() - start;
+			elapsed += forkNanos;
+		}
+
+		return new AdaptiveRunResult(params, forks, reason, steadyState, warmupIterations, getIterations(forks),
+				getRelativeError(new RunResult(params, forks)), target, Duration.ofNanos(elapsed));
+	}
+
+	/**
+	 * Options for a single additional fork of the parameter combination of {@code params}. Warmup iterations use the
+	 * measurement iteration time as warmup was detected on measurement iterations.
+	 */
+	private static ChainedOptionsBuilder createForkOptions(Options options, BenchmarkParams params,
+			int warmupIterations) {
+
+		ChainedOptionsBuilder builder = new OptionsBuilder().parent(options) //
+				.mode(params.getMode()) //
+				.forks(1) //
+				.warmupIterations(warmupIterations) //
+				.warmupTime(params.getMeasurement().getTime()) //
+				.measurementIterations(ITERATIONS_PER_FORK);
+
+		for (String key : params.getParamsKeys()) {
+			builder.param(key, params.getParam(key));
+		}
+
+		return builder;
+	}
+
+	/**
+	 * Detect the end of the warmup phase using the Marginal Standard Error Rule: the truncation point {@code d} minimizes
+	 * the variance of the remaining scores divided by the square of their number, {@code sum((x[i] - mean(x[d..n]))^2) /
+	 * (n - d)^2}. Noisy or still improving leading iterations increase the variance more than removing them reduces the
+	 * sample size.
+	 *
+	 * @param scores iteration scores in execution order.
+	 * @param limit largest truncation point to consider.
+	 * @return the number of leading iterations to discard, {@code limit} if the scores did not settle.
+	 */
+	static int detectWarmup(double[] scores, int limit) {
+
+		int n = scores.length;
+		int truncation = 0;
+		double minimum = Double.MAX_VALUE;
+
+		for (int d = 0; d <= limit && d < n; d++) {
+
+			double sum = 0;
+			for (int i = d; i < n; i++) {
+				sum += scores[i];
+			}
+
+			double mean = sum / (n - d);
+			double squares = 0;
+			for (int i = d; i < n; i++) {
+				squares += (scores[i] - mean) * (scores[i] - mean);
+			}
+
+			double mser = squares / ((double) (n - d) * (n - d));
+			if (mser < minimum) {
+				minimum = mser;
+				truncation = d;
+			}
+		}
+
+		return truncation;
+	}
+
+	private static BenchmarkResult truncate(BenchmarkResult fork, int warmupIterations) {
+
+		List<IterationResult> iterations = new ArrayList<>(fork.getIterationResults());
+		BenchmarkResult truncated = new BenchmarkResult(fork.getParams(),
+				iterations.subList(warmupIterations, iterations.size()), fork.getMetadata());
+
+		for (Result<?> result : fork.getBenchmarkResults().values()) {
+			truncated.addBenchmarkResult(result);
+		}
+
+		return truncated;
+	}
+
+	private static int getIterations(List<BenchmarkResult> forks) {
+		return forks.stream().mapToInt(it -> it.getIterationResults().size()).sum();
+	}
+
+	/**
+	 * @param result
+	 * @return the score error relative to the score, {@link Double#POSITIVE_INFINITY} if it cannot be determined.
+	 */
+	static double getRelativeError(RunResult result) {
+
+		Result<?> primary = result.getPrimaryResult();
+		double error = Math.abs(primary.getScoreError() / primary.getScore());
+
+		return Double.isFinite(error) ? error : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Reason for ending the measurement of a parameter combination.
+	 */
+	enum StoppingReason {
+
+		/**
+		 * The relative error dropped below the target.
+		 */
+		CONVERGED("converged"),
+
+		/**
+		 * The maximum number of forks was reached.
+		 */
+		FORK_LIMIT("fork-limit"),
+
+		/**
+		 * Another fork would have exceeded the maximum measurement time.
+		 */
+		TIME_LIMIT("time-limit");
+
+		private final String label;
+
+		StoppingReason(String label) {
+			this.label = label;
+		}
+
+		@Override
+		public String toString() {
+			return label;
+		}
+	}
+}
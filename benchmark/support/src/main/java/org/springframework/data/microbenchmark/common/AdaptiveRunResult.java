@@ -0,0 +1,165 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import net.minidev.json.JSONObject;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * {@link RunResult} of an {@link AdaptiveMeasurement} aggregating all forks of a parameter combination along with the
+ * reason why measurement stopped.
+ */
+class AdaptiveRunResult extends RunResult {
+
+	private final AdaptiveMeasurement.StoppingReason stoppingReason;
+	private final boolean steadyState;
+	private final int warmupIterations;
+	private final int measurementIterations;
+	private final double relativeError;
+	private final double target;
+	private final Duration duration;
+
+	AdaptiveRunResult(BenchmarkParams params, Collection<BenchmarkResult> forks,
+			AdaptiveMeasurement.StoppingReason stoppingReason, boolean steadyState, int warmupIterations,
+			int measurementIterations, double relativeError, double target, Duration duration) {
+
+		super(params, forks);
+
+		this.stoppingReason = stoppingReason;
+		this.steadyState = steadyState;
+		this.warmupIterations = warmupIterations;
+		this.measurementIterations = measurementIterations;
+		this.relativeError = relativeError;
+		this.target = target;
+		this.duration = duration;
+	}
+
+	AdaptiveMeasurement.StoppingReason getStoppingReason() {
+		return stoppingReason;
+	}
+
+	/**
+	 * @return {@literal false} if the scores of the probe fork did not settle within the maximum number of warmup
+	 *         iterations.
+	 */
+	boolean isSteadyState() {
+		return steadyState;
+	}
+
+	int getWarmupIterations() {
+		return warmupIterations;
+	}
+
+	int getMeasurementIterations() {
+		return measurementIterations;
+	}
+
+	int getForks() {
+		return getBenchmarkResults().size();
+	}
+
+	double getRelativeError() {
+		return relativeError;
+	}
+
+	double getTarget() {
+		return target;
+	}
+
+	Duration getDuration() {
+		return duration;
+	}
+
+	/**
+	 * @return the {@code adaptive} field of the JSON representation.
+	 */
+	JSONObject toJson() {
+
+		JSONObject json = new JSONObject();
+		json.put("stoppingReason", stoppingReason.toString());
+		json.put("steadyState", steadyState);
+		json.put("warmupIterations", warmupIterations);
+		json.put("measurementIterations", measurementIterations);
+		json.put("forks", getForks());
+		json.put("target", target);
+		json.put("duration", duration.toMillis() / 1000.0);
+
+		if (Double.isFinite(relativeError)) {
+			json.put("relativeError", relativeError);
+		}
+
+		return json;
+	}
+
+	/**
+	 * Write the outcome of all adaptive measurements among {@code results} as CSV.
+	 *
+	 * @param file
+	 * @param results
+	 * @throws IOException
+	 */
+	static void writeCsv(Path file, Collection<RunResult> results) throws IOException {
+
+		Files.createDirectories(file.toAbsolutePath().getParent());
+
+		try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+
+			writer.println(
+					"benchmark,mode,threads,params,score,unit,relativeError,target,stoppingReason,steadyState,warmupIterations,measurementIterations,forks,duration");
+
+			for (RunResult result : results) {
+
+				if (!(result instanceof AdaptiveRunResult)) {
+					continue;
+				}
+
+				AdaptiveRunResult adaptive = (AdaptiveRunResult) result;
+				BenchmarkParams params = result.getParams();
+
+				writer.println(String.format(Locale.ROOT, "%s,%s,%d,\"%s\",%f,%s,%f,%f,%s,%s,%d,%d,%d,%.1f",
+						params.getBenchmark(), params.getMode().shortLabel(), params.getThreads(), getParams(params),
+						result.getPrimaryResult().getScore(), result.getPrimaryResult().getScoreUnit(),
+						adaptive.getRelativeError(), adaptive.getTarget(), adaptive.getStoppingReason(), adaptive.isSteadyState(),
+						adaptive.getWarmupIterations(), adaptive.getMeasurementIterations(), adaptive.getForks(),
+						adaptive.getDuration().toMillis() / 1000.0));
+			}
+		}
+	}
+
+	private static String getParams(BenchmarkParams params) {
+
+		Map<String, String> values = new TreeMap<>();
+		for (String key : params.getParamsKeys()) {
+			values.put(key, params.getParam(key));
+		}
+
+		return values.isEmpty() ? "" : values.toString();
+	}
+}
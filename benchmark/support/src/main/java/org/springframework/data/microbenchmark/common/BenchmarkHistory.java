@@ -0,0 +1,223 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import net.minidev.json.parser.ParseException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.util.StringUtils;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+
+/**
+ * Stored benchmark results read back from a local history directory ({@code file:}, see {@link FileResultsWriter}) or
+ * a MongoDB database ({@code mongodb:}, see {@link MongoResultsWriter}). Each entry is a single result in the JSON
+ * representation of {@link ResultsJson} carrying the run metadata ({@code _version}, {@code _branch},
+ * {@code _commit}, {@code _date} in epoch milliseconds) regardless of the source.
+ */
+class BenchmarkHistory {
+
+	private final List<JSONObject> results;
+
+	private BenchmarkHistory(List<JSONObject> results) {
+
+		results.sort(Comparator.comparingLong(BenchmarkHistory::getDate));
+		this.results = Collections.unmodifiableList(results);
+	}
+
+	/**
+	 * Read the history from a {@code file:} or {@code mongodb:} URI.
+	 *
+	 * @param uri
+	 * @param branch only read runs of the given branch, can be {@literal null} to read all runs.
+	 * @return
+	 * @throws IOException
+	 */
+	static BenchmarkHistory read(String uri, String branch) throws IOException {
+
+		if (uri.startsWith("file:")) {
+			return readFiles(FileResultsWriter.resolveDirectory(uri), branch);
+		}
+
+		if (uri.startsWith("mongodb:") || uri.startsWith("mongodb+srv:")) {
+			return readMongoDb(uri, branch);
+		}
+
+		throw new IllegalArgumentException("Unsupported history source " + uri + ", expected file: or mongodb: URI");
+	}
+
+	private static BenchmarkHistory readFiles(Path directory, String branch) throws IOException {
+
+		List<JSONObject> results = new ArrayList<>();
+
+		if (!Files.isDirectory(directory)) {
+			return new BenchmarkHistory(results);
+		}
+
+		List<Path> classDirectories = new ArrayList<>();
+		try (Stream<Path> files = Files.list(directory)) {
+			files.filter(Files::isDirectory).forEach(classDirectories::add);
+		}
+
+		for (Path classDirectory : classDirectories) {
+			for (Path file : FileResultsWriter.listRuns(classDirectory)) {
+
+				JSONObject run;
+				try {
+					run = FileResultsWriter.readRun(file);
+				} catch (ParseException | ClassCastException e) {
+					continue;
+				}
+
+				if (StringUtils.hasText(branch) && !branch.equals(run.getAsString("_branch"))) {
+					continue;
+				}
+
+				Object runResults = run.get("results");
+				if (!(runResults instanceof List)) {
+					continue;
+				}
+
+				for (Object object : (List<?>) runResults) {
+
+					if (!(object instanceof JSONObject)) {
+						continue;
+					}
+
+					JSONObject result = (JSONObject) object;
+					for (String key : new String[] { "_version", "_branch", "_commit", "_dirty", "_date" }) {
+						result.put(key, run.get(key));
+					}
+
+					results.add(result);
+				}
+			}
+		}
+
+		return new BenchmarkHistory(results);
+	}
+
+	private static BenchmarkHistory readMongoDb(String uri, String branch) {
+
+		ConnectionString connectionString = new ConnectionString(uri);
+		String dbName = StringUtils.hasText(connectionString.getDatabase()) ? connectionString.getDatabase()
+				: MongoResultsWriter.DEFAULT_DATABASE;
+
+		List<JSONObject> results = new ArrayList<>();
+
+		MongoClientSettings.Builder settings = MongoClientSettings.builder().applyConnectionString(connectionString);
+		if (connectionString.getServerSelectionTimeout() == null) {
+			settings.applyToClusterSettings(it -> it.serverSelectionTimeout(
+					MongoResultsWriter.DEFAULT_SERVER_SELECTION_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+		}
+
+		try (MongoClient client = MongoClients.create(settings.build())) {
+
+			MongoDatabase db = client.getDatabase(dbName);
+			Bson filter = StringUtils.hasText(branch) ? Filters.eq("_branch", branch) : Filters.empty();
+
+			for (String collectionName : db.listCollectionNames()) {
+
+				if (collectionName.startsWith("system.")) {
+					continue;
+				}
+
+				for (Document document : db.getCollection(collectionName).find(filter).sort(Sorts.ascending("_date"))) {
+					results.add(toJson(document));
+				}
+			}
+		}
+
+		return new BenchmarkHistory(results);
+	}
+
+	/**
+	 * Convert a stored document back into its JSON representation, restoring {@code .} in keys and converting dates to
+	 * epoch milliseconds.
+	 */
+	private static JSONObject toJson(Map<String, ?> document) {
+
+		JSONObject json = new JSONObject();
+
+		for (Map.Entry<String, ?> entry : document.entrySet()) {
+			json.put(entry.getKey().replace(',', '.'), toJsonValue(entry.getValue()));
+		}
+
+		return json;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Object toJsonValue(Object value) {
+
+		if (value instanceof Map) {
+			return toJson((Map<String, ?>) value);
+		}
+
+		if (value instanceof List) {
+
+			JSONArray array = new JSONArray();
+			for (Object element : (List<?>) value) {
+				array.add(toJsonValue(element));
+			}
+
+			return array;
+		}
+
+		if (value instanceof Date) {
+			return ((Date) value).getTime();
+		}
+
+		return value;
+	}
+
+	/**
+	 * @return all results ordered by run date.
+	 */
+	List<JSONObject> getResults() {
+		return results;
+	}
+
+	boolean isEmpty() {
+		return results.isEmpty();
+	}
+
+	static long getDate(JSONObject result) {
+
+		Object date = result.get("_date");
+		return date instanceof Number ? ((Number) date).longValue() : 0;
+	}
+}
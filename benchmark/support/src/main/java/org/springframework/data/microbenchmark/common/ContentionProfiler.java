@@ -0,0 +1,161 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * JMH profiler publishing lock contention of benchmark threads as secondary results ({@code contention.*}). Benchmarks
+ * measure a section of work through {@link #start()} and {@link Measurement#stop()}, the profiler reports the time
+ * the measuring threads spent waiting for locks ({@code LockSupport.park}, e.g. {@code ReentrantReadWriteLock}) and
+ * blocked on monitors ({@code synchronized}) per iteration along with the longest measured section
+ * ({@code contention.elapsed.max}).
+ * <p>
+ * The profiler is attached to benchmark classes annotated with {@link ContentionProfiling}. Wait and block times
+ * require thread contention monitoring ({@link ThreadMXBean#isThreadContentionMonitoringSupported()}), which is
+ * enabled on first use.
+ */
+public class ContentionProfiler implements InternalProfiler {
+
+	static final String WAITED = "contention.waited";
+	static final String WAITED_COUNT = "contention.waited.count";
+	static final String BLOCKED = "contention.blocked";
+	static final String BLOCKED_COUNT = "contention.blocked.count";
+	static final String ELAPSED_MAX = "contention.elapsed.max";
+
+	private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	private static final List<Sample> samples = new ArrayList<>();
+
+	/**
+	 * Start measuring the current thread.
+	 *
+	 * @return the {@link Measurement} to {@link Measurement#stop() stop} from the same thread.
+	 */
+	public static Measurement start() {
+
+		if (threads.isThreadContentionMonitoringSupported() && !threads.isThreadContentionMonitoringEnabled()) {
+			threads.setThreadContentionMonitoringEnabled(true);
+		}
+
+		return new Measurement(Thread.currentThread().getId());
+	}
+
+	@Override
+	public String getDescription() {
+		return "Lock contention of measured benchmark sections";
+	}
+
+	@Override
+	public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+
+		synchronized (samples) {
+			samples.clear();
+		}
+	}
+
+	@Override
+	public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+			IterationResult result) {
+
+		List<Result> secondary = new ArrayList<>();
+
+		synchronized (samples) {
+
+			if (samples.isEmpty()) {
+				return secondary;
+			}
+
+			long waited = 0, waitedCount = 0, blocked = 0, blockedCount = 0, elapsed = 0;
+
+			for (Sample sample : samples) {
+
+				waited += sample.waitedMillis;
+				waitedCount += sample.waitedCount;
+				blocked += sample.blockedMillis;
+				blockedCount += sample.blockedCount;
+				elapsed = Math.max(elapsed, sample.elapsedNanos);
+			}
+
+			samples.clear();
+
+			secondary.add(new ScalarResult(WAITED, waited, "ms", AggregationPolicy.AVG));
+			secondary.add(new ScalarResult(WAITED_COUNT, waitedCount, "#", AggregationPolicy.AVG));
+			secondary.add(new ScalarResult(BLOCKED, blocked, "ms", AggregationPolicy.AVG));
+			secondary.add(new ScalarResult(BLOCKED_COUNT, blockedCount, "#", AggregationPolicy.AVG));
+			secondary.add(new ScalarResult(ELAPSED_MAX, elapsed / 1_000_000.0, "ms", AggregationPolicy.AVG));
+		}
+
+		return secondary;
+	}
+
+	/**
+	 * A section of work measured on a single thread.
+	 */
+	public static class Measurement {
+
+		private final long threadId;
+		private final long startNanos;
+		private final ThreadInfo start;
+
+		private Measurement(long threadId) {
+
+			this.threadId = threadId;
+			this.start = threads.getThreadInfo(threadId);
+			this.startNanos = System.nanoTime();
+		}
+
+		/**
+		 * Stop measuring and record the contention of the current iteration.
+		 */
+		public void stop() {
+
+			long elapsedNanos = System.nanoTime() - startNanos;
+			ThreadInfo end = threads.getThreadInfo(threadId);
+
+			Sample sample = new Sample(elapsedNanos, //
+					difference(start.getWaitedTime(), end.getWaitedTime()), end.getWaitedCount() - start.getWaitedCount(), //
+					difference(start.getBlockedTime(), end.getBlockedTime()), end.getBlockedCount() - start.getBlockedCount());
+
+			synchronized (samples) {
+				samples.add(sample);
+			}
+		}
+
+		/**
+		 * @return the difference of two times, {@code 0} if times are not available ({@code -1}).
+		 */
+		private static long difference(long start, long end) {
+			return start < 0 || end < 0 ? 0 : end - start;
+		}
+	}
+
+	private record Sample(long elapsedNanos, long waitedMillis, long waitedCount, long blockedMillis,
+			long blockedCount) {
+	}
+}
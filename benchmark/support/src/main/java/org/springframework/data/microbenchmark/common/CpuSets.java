@@ -0,0 +1,248 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Utility to partition the CPUs available to the current process into disjoint CPU sets and to pin processes to a CPU
+ * set using {@code taskset} on Linux. CPU sets consist of whole physical cores so that processes pinned to different
+ * sets never share a core through SMT (hyper-threading) siblings.
+ *
+ * @see SuiteRunner
+ */
+final class CpuSets {
+
+	private static final Path PROC_STATUS = Paths.get("/proc/self/status");
+	private static final String THREAD_SIBLINGS = "/sys/devices/system/cpu/cpu%d/topology/thread_siblings_list";
+
+	private static Boolean tasksetAvailable;
+
+	private CpuSets() {}
+
+	/**
+	 * Determine the CPUs the current process may run on. On Linux, CPUs are read from the affinity mask
+	 * ({@code Cpus_allowed_list}) and limited to the number of {@link Runtime#availableProcessors() available processors}
+	 * to respect CPU quotas. Otherwise, CPUs are numbered {@code 0} to {@code availableProcessors - 1}.
+	 *
+	 * @return CPU ids in ascending order.
+	 */
+	static List<Integer> getAvailableCpus() {
+
+		int availableProcessors = Runtime.getRuntime().availableProcessors();
+		List<Integer> cpus = new ArrayList<>();
+
+		try {
+			if (Files.isReadable(PROC_STATUS)) {
+				for (String line : Files.readAllLines(PROC_STATUS, StandardCharsets.UTF_8)) {
+					if (line.startsWith("Cpus_allowed_list:")) {
+						cpus.addAll(parseList(line.substring(line.indexOf(':') + 1)));
+					}
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			cpus.clear();
+		}
+
+		if (cpus.isEmpty()) {
+			for (int cpu = 0; cpu < availableProcessors; cpu++) {
+				cpus.add(cpu);
+			}
+		}
+
+		return cpus.size() > availableProcessors ? new ArrayList<>(cpus.subList(0, availableProcessors)) : cpus;
+	}
+
+	/**
+	 * Group CPUs by the physical core they belong to, using the SMT siblings from
+	 * {@code /sys/devices/system/cpu/cpu<id>/topology/thread_siblings_list} on Linux. CPUs without topology information
+	 * are considered a core of their own.
+	 *
+	 * @param cpus
+	 * @return cores in the order of their first CPU, each core lists the given CPUs it contains.
+	 */
+	static List<List<Integer>> getCores(List<Integer> cpus) {
+		return groupByCore(cpus, CpuSets::readThreadSiblings);
+	}
+
+	/**
+	 * Group CPUs by the physical core they belong to.
+	 *
+	 * @param cpus
+	 * @param siblings function returning the SMT siblings of a CPU (including the CPU itself), an empty list if unknown.
+	 * @return cores in the order of their first CPU, each core lists the given CPUs it contains.
+	 */
+	static List<List<Integer>> groupByCore(List<Integer> cpus, IntFunction<List<Integer>> siblings) {
+
+		Map<Integer, List<Integer>> cores = new LinkedHashMap<>();
+
+		for (Integer cpu : cpus) {
+
+			Integer core = siblings.apply(cpu).stream().min(Integer::compare).orElse(cpu);
+			cores.computeIfAbsent(core, it -> new ArrayList<>()).add(cpu);
+		}
+
+		return new ArrayList<>(cores.values());
+	}
+
+	/**
+	 * Partition cores into disjoint sets of {@code size} CPUs. A set is filled with whole cores and is never completed
+	 * with siblings of a core that belongs to another set. If {@code size} is not a multiple of the CPUs per core,
+	 * remaining siblings of the last core of a set stay unused. Remaining cores that do not fill a set are left unused.
+	 *
+	 * @param cores CPUs grouped by physical core, see {@link #getCores(List)}.
+	 * @param size
+	 * @return at least one CPU set, the only set contains all CPUs if there are less than {@code size} CPUs.
+	 */
+	static List<List<Integer>> partition(List<List<Integer>> cores, int size) {
+
+		List<List<Integer>> sets = new ArrayList<>();
+		List<Integer> current = new ArrayList<>();
+
+		for (List<Integer> core : cores) {
+
+			current.addAll(core);
+
+			if (current.size() >= size) {
+				sets.add(new ArrayList<>(current.subList(0, size)));
+				current.clear();
+			}
+		}
+
+		if (sets.isEmpty()) {
+			sets.add(cores.stream().flatMap(List::stream).collect(Collectors.toList()));
+		}
+
+		return sets;
+	}
+
+	/**
+	 * Parse a CPU list such as {@code 0-3,8,10-11}.
+	 *
+	 * @param list
+	 * @return
+	 */
+	static List<Integer> parseList(String list) {
+
+		List<Integer> cpus = new ArrayList<>();
+
+		for (String range : StringUtils.commaDelimitedListToStringArray(list.trim())) {
+
+			if (!StringUtils.hasText(range)) {
+				continue;
+			}
+
+			int separator = range.indexOf('-');
+			if (separator == -1) {
+				cpus.add(Integer.parseInt(range.trim()));
+				continue;
+			}
+
+			int from = Integer.parseInt(range.substring(0, separator).trim());
+			int to = Integer.parseInt(range.substring(separator + 1).trim());
+
+			for (int cpu = from; cpu <= to; cpu++) {
+				cpus.add(cpu);
+			}
+		}
+
+		return cpus;
+	}
+
+	private static List<Integer> readThreadSiblings(int cpu) {
+
+		Path path = Paths.get(String.format(Locale.ROOT, THREAD_SIBLINGS, cpu));
+
+		try {
+			return Files.isReadable(path) ? parseList(new String(Files.readAllBytes(path), StandardCharsets.UTF_8))
+					: new ArrayList<>();
+		} catch (IOException | RuntimeException e) {
+			return new ArrayList<>();
+		}
+	}
+
+	/**
+	 * @param cpus
+	 * @return the CPU list in {@code taskset} format, e.g. {@code 0,1,2}.
+	 */
+	static String format(List<Integer> cpus) {
+		return cpus.stream().map(String::valueOf).collect(Collectors.joining(","));
+	}
+
+	/**
+	 * Prefix the command to run it pinned to the given CPUs if {@code taskset} is available.
+	 *
+	 * @param cpus
+	 * @param command
+	 * @return the pinned command or the command itself if CPUs cannot be pinned.
+	 */
+	static List<String> pin(List<Integer> cpus, List<String> command) {
+
+		if (!isTasksetAvailable()) {
+			return command;
+		}
+
+		List<String> pinned = new ArrayList<>();
+		pinned.add("taskset");
+		pinned.add("-c");
+		pinned.add(format(cpus));
+		pinned.addAll(command);
+
+		return pinned;
+	}
+
+	/**
+	 * @return {@literal true} if processes can be pinned to CPUs using {@code taskset}.
+	 */
+	static synchronized boolean isTasksetAvailable() {
+
+		if (tasksetAvailable == null) {
+			tasksetAvailable = detectTaskset();
+		}
+
+		return tasksetAvailable;
+	}
+
+	private static boolean detectTaskset() {
+
+		try {
+
+			Process process = new ProcessBuilder("taskset", "-p", String.valueOf(ProcessHandle.current().pid()))
+					.redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+
+			return process.waitFor(10, TimeUnit.SECONDS) && process.exitValue() == 0;
+		} catch (IOException e) {
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Fingerprint of the environment a benchmark result was measured in. The fingerprint combines JVM details of the
+ * benchmark fork (JDK, JVM flags, garbage collector) taken from the result with host details (CPU model, available
+ * cores, cgroup CPU and memory limits, CPU frequency governor, operating system) and the versions of store libraries on
+ * the classpath:
+ *
+ * <pre class="code">
+ * "environment" : {
+ *   "id" : "3f2a9c0d51e7",
+ *   "jdk" : { "vendor" : "Eclipse Adoptium", "version" : "17.0.9", "vm" : "OpenJDK 64-Bit Server VM", "vmVersion" : "17.0.9+9" },
+ *   "jvmArgs" : [ "-server", "-Xms1024m", ... ],
+ *   "gc" : "G1",
+ *   "cpu" : { "model" : "AMD EPYC 7763 64-Core Processor", "cores" : 4, "governor" : "performance" },
+ *   "cgroup" : { "cpuLimit" : 4.0, "memoryLimit" : 8589934592 },
+ *   "os" : "Linux 6.5.0 (amd64)",
+ *   "libraries" : { "spring-data-commons" : "3.3.0", "org-mongodb-driver-core" : "5.0.1", ... }
+ * }
+ * </pre>
+ *
+ * Results are only comparable if their {@code id} matches. The id covers everything but library versions (these are
+ * expected to change between compared runs) and JVM system properties.
+ */
+final class EnvironmentFingerprint {
+
+	static final String FIELD = "environment";
+	static final String UNKNOWN = "unknown";
+
+	private static final Pattern GC_FLAG = Pattern.compile("-XX:\\+Use(\\w+)GC");
+	private static final List<String> LIBRARY_PREFIXES = Arrays.asList("spring.data", "spring.core", "org.mongodb.",
+			"lettuce.", "redis.clients.", "r2dbc.", "io.r2dbc.", "org.hibernate.orm.core", "com.h2database",
+			"org.postgresql.", "reactor.core", "com.zaxxer.hikari", "kotlin.stdlib");
+
+	private static volatile JSONObject host;
+
+	private EnvironmentFingerprint() {}
+
+	/**
+	 * Capture the environment of a single result in the JMH JSON representation.
+	 *
+	 * @param result
+	 * @return the environment including its {@code id}.
+	 */
+	static JSONObject capture(JSONObject result) {
+
+		JSONObject host = getHost();
+
+		JSONObject jdk = new JSONObject();
+		jdk.put("vendor", System.getProperty("java.vm.vendor", UNKNOWN));
+		jdk.put("version", getString(result, "jdkVersion", System.getProperty("java.version")));
+		jdk.put("vm", getString(result, "vmName", System.getProperty("java.vm.name")));
+		jdk.put("vmVersion", getString(result, "vmVersion", System.getProperty("java.vm.version")));
+
+		JSONArray jvmArgs = new JSONArray();
+		if (result.get("jvmArgs") instanceof List) {
+			jvmArgs.addAll((List<?>) result.get("jvmArgs"));
+		}
+
+		JSONObject environment = new JSONObject();
+		environment.put("jdk", jdk);
+		environment.put("jvmArgs", jvmArgs);
+		environment.put("gc", getGarbageCollector(jvmArgs));
+		environment.putAll(host);
+		environment.put("id", computeId(environment));
+
+		return environment;
+	}
+
+	/**
+	 * @param result
+	 * @return the environment id of the result or {@literal null} if the result has no environment fingerprint.
+	 */
+	static String getId(JSONObject result) {
+
+		Object environment = result.get(FIELD);
+		return environment instanceof Map ? (String) ((Map<?, ?>) environment).get("id") : null;
+	}
+
+	private static String computeId(JSONObject environment) {
+
+		StringBuilder comparable = new StringBuilder();
+		for (String key : Arrays.asList("jdk", "gc", "cpu", "cgroup", "os")) {
+
+			Object value = environment.get(key);
+			comparable.append(value instanceof Map ? new TreeMap<>((Map<?, ?>) value) : value).append('|');
+		}
+
+		for (Object arg : (List<?>) environment.get("jvmArgs")) {
+			if (!arg.toString().startsWith("-D")) {
+				comparable.append(arg).append('|');
+			}
+		}
+
+		try {
+
+			byte[] digest = MessageDigest.getInstance("SHA-256")
+					.digest(comparable.toString().getBytes(StandardCharsets.UTF_8));
+
+			StringBuilder id = new StringBuilder();
+			for (int i = 0; i < 6; i++) {
+				id.append(String.format("%02x", digest[i]));
+			}
+
+			return id.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static JSONObject getHost() {
+
+		JSONObject host = EnvironmentFingerprint.host;
+
+		if (host == null) {
+
+			host = new JSONObject();
+
+			JSONObject cpu = new JSONObject();
+			cpu.put("model", getCpuModel());
+			cpu.put("cores", Runtime.getRuntime().availableProcessors());
+			cpu.put("governor", readFirstLine(Paths.get("/sys/devices/system/cpu/cpu0/cpufreq/scaling_governor")));
+
+			host.put("cpu", cpu);
+			host.put("cgroup", getCgroupLimits());
+			host.put("os", String.format("%s %s (%s)", System.getProperty("os.name"), System.getProperty("os.version"),
+					System.getProperty("os.arch")));
+			host.put("libraries", getLibraries());
+
+			EnvironmentFingerprint.host = host;
+		}
+
+		return host;
+	}
+
+	/**
+	 * Determine the garbage collector from JVM flags of the fork. Falls back to the collector of the current JVM that
+	 * applies the same ergonomics on the same host.
+	 *
+	 * @param jvmArgs
+	 * @return
+	 */
+	static String getGarbageCollector(List<?> jvmArgs) {
+
+		for (Object arg : jvmArgs) {
+
+			Matcher matcher = GC_FLAG.matcher(arg.toString());
+			if (matcher.matches()) {
+				return matcher.group(1);
+			}
+		}
+
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+
+			String name = bean.getName();
+
+			if (name.startsWith("G1")) {
+				return "G1";
+			}
+			if (name.startsWith("ZGC")) {
+				return "Z";
+			}
+			if (name.startsWith("Shenandoah")) {
+				return "Shenandoah";
+			}
+			if (name.startsWith("PS ")) {
+				return "Parallel";
+			}
+			if (name.equals("Copy") || name.equals("MarkSweepCompact")) {
+				return "Serial";
+			}
+			if (name.startsWith("Epsilon")) {
+				return "Epsilon";
+			}
+		}
+
+		return UNKNOWN;
+	}
+
+	private static String getCpuModel() {
+
+		try {
+			for (String line : Files.readAllLines(Paths.get("/proc/cpuinfo"), StandardCharsets.UTF_8)) {
+				if (line.startsWith("model name") && line.indexOf(':') != -1) {
+					return line.substring(line.indexOf(':') + 1).trim();
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			// not on Linux
+		}
+
+		return System.getProperty("os.arch", UNKNOWN);
+	}
+
+	/**
+	 * Read CPU and memory limits from cgroup v2 ({@code cpu.max}, {@code memory.max}) or cgroup v1
+	 * ({@code cpu.cfs_quota_us}, {@code memory.limit_in_bytes}). Unlimited resources are reported as {@code max}.
+	 *
+	 * @return
+	 */
+	private static JSONObject getCgroupLimits() {
+
+		JSONObject cgroup = new JSONObject();
+		Path root = Paths.get("/sys/fs/cgroup");
+
+		String cpuMax = readFirstLine(root.resolve("cpu.max"));
+		if (!UNKNOWN.equals(cpuMax)) {
+
+			String[] quotaAndPeriod = cpuMax.split("\\s+");
+			cgroup.put("cpuLimit", getCpuLimit(quotaAndPeriod[0], quotaAndPeriod.length > 1 ? quotaAndPeriod[1] : ""));
+			cgroup.put("memoryLimit", getMemoryLimit(readFirstLine(root.resolve("memory.max"))));
+
+			return cgroup;
+		}
+
+		cgroup.put("cpuLimit", getCpuLimit(readFirstLine(root.resolve("cpu/cpu.cfs_quota_us")),
+				readFirstLine(root.resolve("cpu/cpu.cfs_period_us"))));
+		cgroup.put("memoryLimit", getMemoryLimit(readFirstLine(root.resolve("memory/memory.limit_in_bytes"))));
+
+		return cgroup;
+	}
+
+	private static Object getCpuLimit(String quota, String period) {
+
+		try {
+
+			long quotaMicros = Long.parseLong(quota);
+			long periodMicros = Long.parseLong(period);
+
+			return quotaMicros > 0 && periodMicros > 0 ? (double) quotaMicros / periodMicros : "max";
+		} catch (NumberFormatException e) {
+			return "max".equals(quota) ? "max" : UNKNOWN;
+		}
+	}
+
+	private static Object getMemoryLimit(String limit) {
+
+		try {
+
+			long bytes = Long.parseLong(limit);
+
+			// cgroup v1 reports unlimited memory as a huge page-aligned value
+			return bytes >= Long.MAX_VALUE / 2 ? "max" : bytes;
+		} catch (NumberFormatException e) {
+			return "max".equals(limit) ? "max" : UNKNOWN;
+		}
+	}
+
+	/**
+	 * Resolve versions of store libraries and drivers from the {@code META-INF/MANIFEST.MF} files on the classpath.
+	 *
+	 * @return versions by module name (using {@code -} instead of {@code .}).
+	 */
+	private static JSONObject getLibraries() {
+
+		Map<String, String> libraries = new TreeMap<>();
+
+		try {
+
+			Enumeration<URL> manifests = EnvironmentFingerprint.class.getClassLoader()
+					.getResources("META-INF/MANIFEST.MF");
+
+			while (manifests.hasMoreElements()) {
+
+				Attributes attributes;
+				try (InputStream stream = manifests.nextElement().openStream()) {
+					attributes = new Manifest(stream).getMainAttributes();
+				} catch (IOException e) {
+					continue;
+				}
+
+				String name = getFirst(attributes, "Automatic-Module-Name", "Bundle-SymbolicName");
+				String version = getFirst(attributes, "Implementation-Version", "Bundle-Version");
+
+				if (name == null || version == null || !isLibrary(name)) {
+					continue;
+				}
+
+				// e.g. 6.3.2.RELEASE/8941aea
+				int separator = version.indexOf('/');
+				libraries.put(name.replace('.', '-'), separator == -1 ? version : version.substring(0, separator));
+			}
+		} catch (IOException e) {
+			// versions remain incomplete
+		}
+
+		JSONObject result = new JSONObject();
+		result.putAll(libraries);
+		return result;
+	}
+
+	private static boolean isLibrary(String moduleName) {
+
+		for (String prefix : LIBRARY_PREFIXES) {
+			if (moduleName.startsWith(prefix)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static String getFirst(Attributes attributes, String... names) {
+
+		for (String name : names) {
+
+			String value = attributes.getValue(name);
+			if (StringUtils.hasText(value)) {
+				return value.trim();
+			}
+		}
+
+		return null;
+	}
+
+	private static String getString(JSONObject result, String key, String defaultValue) {
+
+		String value = result.getAsString(key);
+		return StringUtils.hasText(value) ? value : defaultValue != null ? defaultValue : UNKNOWN;
+	}
+
+	private static String readFirstLine(Path file) {
+
+		try {
+
+			List<String> lines = Files.isReadable(file) ? Files.readAllLines(file, StandardCharsets.UTF_8)
+					: new ArrayList<>();
+			return lines.isEmpty() ? UNKNOWN : lines.get(0).trim().toLowerCase(Locale.ROOT);
+		} catch (IOException e) {
+			return UNKNOWN;
+		}
+	}
+}
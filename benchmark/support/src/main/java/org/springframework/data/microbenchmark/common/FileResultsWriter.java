@@ -0,0 +1,239 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import jmh.mbr.core.ResultsWriter;
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import net.minidev.json.parser.JSONParser;
+import net.minidev.json.parser.ParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link ResultsWriter} keeping a local history of benchmark runs. Each run of a benchmark class is stored as JSON
+ * document in {@code <directory>/<benchmark class>/} along with project version and git information. After storing a
+ * run, results are compared against the baseline run to report regressions and improvements. The baseline is the
+ * previous run unless the {@code baseline} property selects a run by its git commit id (prefix), branch or project
+ * version. Runs measured in the same environment (see {@link EnvironmentFingerprint}) are preferred as baseline.
+ *
+ * @see RegressionReport
+ */
+class FileResultsWriter implements RunResultsWriter {
+
+	private static final String FILE_EXTENSION = ".json";
+
+	private final Path directory;
+
+	FileResultsWriter(String uri) {
+		this.directory = resolveDirectory(uri);
+	}
+
+	@Override
+	public void write(OutputFormat output, Collection<RunResult> results) {
+
+		if (CollectionUtils.isEmpty(results)) {
+			return;
+		}
+
+		try {
+			doWrite(output, results);
+		} catch (IOException | ParseException | RuntimeException e) {
+			output.println("Failed to write results: " + e);
+		}
+	}
+
+	private void doWrite(OutputFormat output, Collection<RunResult> results) throws IOException, ParseException {
+
+		Date now = new Date();
+		StandardEnvironment env = new StandardEnvironment();
+
+		String projectVersion = env.getProperty("project.version", "unknown");
+		String gitBranch = env.getProperty("git.branch", "unknown");
+		String gitDirty = env.getProperty("git.dirty", "no");
+		String gitCommitId = env.getProperty("git.commit.id", "unknown");
+		String baseline = env.getProperty("baseline", "");
+
+		JSONArray array = ResultsJson.toJson(results);
+
+		Map<String, JSONArray> resultsByClass = new LinkedHashMap<>();
+		for (Object object : array) {
+
+			JSONObject result = (JSONObject) object;
+			resultsByClass.computeIfAbsent(MongoResultsWriter.extractClass(result.getAsString("benchmark")),
+					key -> new JSONArray()).add(result);
+		}
+
+		for (Map.Entry<String, JSONArray> entry : resultsByClass.entrySet()) {
+
+			Path classDirectory = directory.resolve(entry.getKey());
+			Files.createDirectories(classDirectory);
+
+			JSONObject baselineRun = findBaseline(classDirectory, baseline,
+					EnvironmentFingerprint.getId((JSONObject) entry.getValue().get(0)));
+
+			JSONObject run = new JSONObject();
+			run.put("_version", projectVersion);
+			run.put("_branch", gitBranch);
+			run.put("_commit", gitCommitId);
+			run.put("_dirty", gitDirty);
+			run.put("_date", now.getTime());
+			run.put("_snapshot", projectVersion.toLowerCase().contains("snapshot"));
+			run.put("results", entry.getValue());
+
+			Path file = classDirectory.resolve(getFileName(now, gitCommitId));
+			Files.write(file, run.toJSONString().getBytes(StandardCharsets.UTF_8));
+
+			output.println("");
+			output.println("Stored results of " + entry.getKey() + " in " + file.toAbsolutePath());
+
+			if (baselineRun == null) {
+				output.println("No baseline found for " + entry.getKey() + ", skipping regression detection.");
+				continue;
+			}
+
+			new RegressionReport((JSONArray) baselineRun.get("results"), entry.getValue())
+					.print(output, describe(baselineRun));
+		}
+	}
+
+	/**
+	 * Find the most recent run matching the {@code baseline} selector that was measured in the given environment.
+	 * Selects the most recent run if {@code baseline} is empty. Falls back to the most recent run matching the selector
+	 * if no run was measured in the same environment so that the regression report can point out the mismatch.
+	 *
+	 * @param classDirectory
+	 * @param baseline
+	 * @param environmentId the {@link EnvironmentFingerprint} id of the current run, can be {@literal null}.
+	 * @return the baseline run or {@literal null} if there is no run matching the selector.
+	 */
+	static JSONObject findBaseline(Path classDirectory, String baseline, String environmentId)
+			throws IOException, ParseException {
+
+		JSONObject fallback = null;
+
+		for (Path file : listRuns(classDirectory)) {
+
+			JSONObject run = readRun(file);
+
+			if (StringUtils.hasText(baseline) && !matches(run, baseline)) {
+				continue;
+			}
+
+			if (isEnvironment(run, environmentId)) {
+				return run;
+			}
+
+			if (fallback == null) {
+				fallback = run;
+			}
+		}
+
+		return fallback;
+	}
+
+	private static boolean isEnvironment(JSONObject run, String environmentId) {
+
+		Object results = run.get("results");
+
+		if (!(results instanceof List) || ((List<?>) results).isEmpty()) {
+			return false;
+		}
+
+		Object result = ((List<?>) results).get(0);
+		return result instanceof JSONObject
+				&& Objects.equals(EnvironmentFingerprint.getId((JSONObject) result), environmentId);
+	}
+
+	/**
+	 * List stored runs ordered from the most recent to the oldest one.
+	 *
+	 * @param classDirectory
+	 * @return
+	 */
+	static List<Path> listRuns(Path classDirectory) throws IOException {
+
+		if (!Files.isDirectory(classDirectory)) {
+			return new ArrayList<>();
+		}
+
+		List<Path> runs = new ArrayList<>();
+		try (Stream<Path> files = Files.list(classDirectory)) {
+			files.filter(it -> it.getFileName().toString().endsWith(FILE_EXTENSION)).forEach(runs::add);
+		}
+
+		runs.sort(Comparator.comparing((Path it) -> it.getFileName().toString()).reversed());
+		return runs;
+	}
+
+	static JSONObject readRun(Path file) throws IOException, ParseException {
+
+		try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			return (JSONObject) new JSONParser(JSONParser.MODE_PERMISSIVE).parse(reader);
+		}
+	}
+
+	static Path resolveDirectory(String uri) {
+
+		String path = uri.substring("file:".length());
+		return path.startsWith("//") ? Paths.get(URI.create(uri)) : Paths.get(path);
+	}
+
+	private static boolean matches(JSONObject run, String baseline) {
+
+		String commit = run.getAsString("_commit");
+
+		return (commit != null && commit.startsWith(baseline)) //
+				|| baseline.equals(run.getAsString("_branch")) //
+				|| baseline.equals(run.getAsString("_version"));
+	}
+
+	private static String describe(JSONObject run) {
+
+		String commit = run.getAsString("_commit");
+		return String.format("%s (%s@%s, %tF %<tT)", run.getAsString("_version"), run.getAsString("_branch"),
+				commit != null && commit.length() > 7 ? commit.substring(0, 7) : commit,
+				new Date(((Number) run.get("_date")).longValue()));
+	}
+
+	private static String getFileName(Date date, String gitCommitId) {
+
+		String commit = gitCommitId.length() > 7 ? gitCommitId.substring(0, 7) : gitCommitId;
+		return new SimpleDateFormat("yyyyMMdd'T'HHmmssSSS").format(date) + "-" + commit + FILE_EXTENSION;
+	}
+}
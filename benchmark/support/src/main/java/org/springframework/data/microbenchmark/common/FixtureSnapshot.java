@@ -0,0 +1,201 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Snapshot of a populated benchmark fixture persisted as local file so that subsequent forks can restore the data set
+ * in bulk instead of populating it again. Snapshots are keyed by fixture name, schema and data set size:
+ * {@code <fixture.snapshotDir>/<name>-<schema hash>-<size>.<extension>}. Changing the schema (e.g. the schema script)
+ * results in a new snapshot.
+ * <p>
+ * Snapshots are stored in {@code target/fixture-snapshots} unless configured otherwise through
+ * {@code fixture.snapshotDir}. {@code fixture.snapshots=false} disables snapshots so that fixtures are always
+ * populated.
+ * <p>
+ * The snapshot format is up to the fixture, typically the bulk export format of the store (e.g. CSV, {@code COPY}, BSON
+ * dump). Stores that can keep a populated data set themselves use {@link #getKey(String, String, int)} to identify it
+ * instead, e.g. as database name.
+ *
+ * <pre class="code">
+ * FixtureSnapshot.of("jdbc-h2", schema, numberOfBooks).restoreOrCreate( //
+ * 		file -&gt; restore(file), //
+ * 		() -&gt; populate(), //
+ * 		file -&gt; export(file));
+ * </pre>
+ */
+public class FixtureSnapshot {
+
+	static final String DEFAULT_SNAPSHOT_DIRECTORY = "target/fixture-snapshots";
+
+	private static final Log logger = LogFactory.getLog(FixtureSnapshot.class);
+
+	private final Path file;
+	private final boolean enabled;
+
+	private FixtureSnapshot(Path file, boolean enabled) {
+		this.file = file;
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Create a {@link FixtureSnapshot} for the given fixture.
+	 *
+	 * @param name fixture name including the file extension, e.g. {@code jdbc-h2.csv}.
+	 * @param schema schema definition (e.g. the schema script) the snapshot depends on.
+	 * @param size size of the data set.
+	 * @return
+	 */
+	public static FixtureSnapshot of(String name, String schema, int size) {
+
+		Environment environment = new StandardEnvironment();
+
+		Path directory = Paths.get(environment.getProperty("fixture.snapshotDir", DEFAULT_SNAPSHOT_DIRECTORY));
+
+		int extension = name.lastIndexOf('.');
+		String baseName = extension == -1 ? name : name.substring(0, extension);
+		String suffix = extension == -1 ? "" : name.substring(extension);
+
+		return new FixtureSnapshot(directory.resolve(getKey(baseName, schema, size) + suffix).toAbsolutePath(),
+				isEnabled());
+	}
+
+	/**
+	 * @param name fixture name.
+	 * @param schema schema definition (e.g. the schema script) the data set depends on.
+	 * @param size size of the data set.
+	 * @return key of the data set in the form of {@code <name>-<schema hash>-<size>}.
+	 */
+	public static String getKey(String name, String schema, int size) {
+
+		String hash = DigestUtils.md5DigestAsHex(schema.getBytes(StandardCharsets.UTF_8)).substring(0, 8);
+		return name + "-" + hash + "-" + size;
+	}
+
+	/**
+	 * @return {@literal false} if snapshots are disabled through {@code fixture.snapshots=false}.
+	 */
+	public static boolean isEnabled() {
+		return new StandardEnvironment().getProperty("fixture.snapshots", Boolean.class, true);
+	}
+
+	/**
+	 * @return the snapshot file.
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * @return {@literal true} if snapshots are enabled and the snapshot exists.
+	 */
+	public boolean exists() {
+		return enabled && Files.isRegularFile(file);
+	}
+
+	/**
+	 * Restore the fixture from the snapshot if it exists. Otherwise, populate the fixture and save the snapshot for
+	 * subsequent runs. Snapshots are written to a temporary file first and moved into place so that concurrently running
+	 * forks never observe a partially written snapshot.
+	 *
+	 * @param restore restores the data set from the snapshot file.
+	 * @param populate populates the data set.
+	 * @param save exports the data set into the given file.
+	 */
+	public void restoreOrCreate(SnapshotAction restore, Runnable populate, SnapshotAction save) {
+
+		if (exists()) {
+
+			long start = System.nanoTime();
+
+			try {
+				restore.apply(file);
+			} catch (Exception e) {
+
+				delete();
+				throw new IllegalStateException("Cannot restore fixture snapshot " + file + ", snapshot removed", e);
+			}
+
+			if (logger.isInfoEnabled()) {
+				logger.info(String.format(Locale.ROOT, "Restored fixture snapshot %s in %d ms", file.getFileName(),
+						(System.nanoTime() - start) / 1_000_000));
+			}
+			return;
+		}
+
+		populate.run();
+
+		if (!enabled) {
+			return;
+		}
+
+		Path temp = null;
+
+		try {
+
+			Files.createDirectories(file.getParent());
+			temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+
+			save.apply(temp);
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+			logger.info("Saved fixture snapshot " + file);
+		} catch (Exception e) {
+			logger.warn("Cannot save fixture snapshot " + file, e);
+		} finally {
+			deleteQuietly(temp);
+		}
+	}
+
+	private void delete() {
+		deleteQuietly(file);
+	}
+
+	private static void deleteQuietly(Path path) {
+
+		if (path == null) {
+			return;
+		}
+
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			// ignore
+		}
+	}
+
+	/**
+	 * Operation on a snapshot file.
+	 */
+	@FunctionalInterface
+	public interface SnapshotAction {
+
+		void apply(Path file) throws Exception;
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Classes compiled at runtime from generated sources into a temporary directory. Generated classes are loaded through
+ * a class loader obtained from {@link #newClassLoader()} and may refer to all classes on the benchmark classpath.
+ * Compiling requires a JDK ({@link ToolProvider#getSystemJavaCompiler()}).
+ *
+ * @see GeneratedRepositories
+ */
+public class GeneratedClasses implements Closeable {
+
+	private final Path directory;
+
+	private GeneratedClasses(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Compile the given sources.
+	 *
+	 * @param sources source code by fully qualified class name.
+	 * @return
+	 */
+	public static GeneratedClasses compile(Map<String, String> sources) {
+
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+		if (compiler == null) {
+			throw new IllegalStateException("Generating classes requires a JDK, no Java compiler available");
+		}
+
+		try {
+
+			Path directory = Files.createTempDirectory("generated-classes");
+			Path classes = Files.createDirectories(directory.resolve("classes"));
+
+			List<Path> files = new ArrayList<>();
+
+			for (Map.Entry<String, String> source : sources.entrySet()) {
+
+				Path file = directory.resolve("src").resolve(source.getKey().replace('.', '/') + ".java");
+				Files.createDirectories(file.getParent());
+				files.add(Files.write(file, source.getValue().getBytes(StandardCharsets.UTF_8)));
+			}
+
+			compile(compiler, files, classes);
+
+			return new GeneratedClasses(directory);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void compile(JavaCompiler compiler, List<Path> files, Path classes) throws IOException {
+
+		StringWriter output = new StringWriter();
+
+		try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+
+			Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromPaths(files);
+			List<String> options = Arrays.asList("-proc:none", "-nowarn", "-parameters", "-d", classes.toString(), "-cp",
+					System.getProperty("java.class.path"));
+
+			if (!compiler.getTask(output, fileManager, null, options, null, units).call()) {
+				throw new IllegalStateException("Cannot compile generated classes: " + output);
+			}
+		}
+	}
+
+	/**
+	 * Create a new {@link ClassLoader} exposing the generated classes. Each class loader loads the generated classes
+	 * again.
+	 *
+	 * @return
+	 */
+	public URLClassLoader newClassLoader() {
+
+		try {
+			return new URLClassLoader(new URL[] { directory.resolve("classes").toUri().toURL() },
+					GeneratedClasses.class.getClassLoader());
+		} catch (MalformedURLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		FileSystemUtils.deleteRecursively(directory);
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.tools.ToolProvider;
+
+/**
+ * Entity classes and repository interfaces generated from source templates and compiled at runtime to benchmark
+ * application startup with a varying number of repositories. Generated classes are written to a temporary directory
+ * so that they can be discovered through classpath scanning using a class loader obtained from
+ * {@link #newClassLoader()}.
+ * <p>
+ * Templates are {@link String#format(String, Object...) format strings} with the following arguments:
+ * <ol>
+ * <li>package name</li>
+ * <li>entity simple class name</li>
+ * <li>repository simple interface name</li>
+ * </ol>
+ * Generating repositories requires a JDK ({@link ToolProvider#getSystemJavaCompiler()}).
+ */
+public class GeneratedRepositories implements Closeable {
+
+	private final GeneratedClasses classes;
+	private final String packageName;
+	private final List<String> repositoryInterfaces;
+
+	private GeneratedRepositories(GeneratedClasses classes, String packageName, List<String> repositoryInterfaces) {
+		this.classes = classes;
+		this.packageName = packageName;
+		this.repositoryInterfaces = repositoryInterfaces;
+	}
+
+	/**
+	 * Generate and compile {@code count} entities and repositories.
+	 *
+	 * @param packageName package of the generated types.
+	 * @param count number of entity/repository pairs.
+	 * @param entityTemplate source template for entities.
+	 * @param repositoryTemplate source template for repository interfaces.
+	 * @return
+	 */
+	public static GeneratedRepositories generate(String packageName, int count, String entityTemplate,
+			String repositoryTemplate) {
+
+		Map<String, String> sources = new LinkedHashMap<>();
+		List<String> repositoryInterfaces = new ArrayList<>();
+
+		for (int i = 0; i < count; i++) {
+
+			String entity = String.format(Locale.ROOT, "Entity%04d", i);
+			String repository = entity + "Repository";
+
+			sources.put(packageName + "." + entity, String.format(entityTemplate, packageName, entity, repository));
+			sources.put(packageName + "." + repository, String.format(repositoryTemplate, packageName, entity, repository));
+
+			repositoryInterfaces.add(packageName + "." + repository);
+		}
+
+		return new GeneratedRepositories(GeneratedClasses.compile(sources), packageName,
+				Collections.unmodifiableList(repositoryInterfaces));
+	}
+
+	/**
+	 * @return the package containing the generated types.
+	 */
+	public String getPackageName() {
+		return packageName;
+	}
+
+	/**
+	 * @return fully qualified names of the generated repository interfaces.
+	 */
+	public List<String> getRepositoryInterfaces() {
+		return repositoryInterfaces;
+	}
+
+	/**
+	 * Create a new {@link ClassLoader} exposing the generated types. Each class loader loads the generated types again,
+	 * so that class loading is part of startup measurements.
+	 *
+	 * @return
+	 */
+	public URLClassLoader newClassLoader() {
+		return classes.newClassLoader();
+	}
+
+	@Override
+	public void close() throws IOException {
+		classes.close();
+	}
+}
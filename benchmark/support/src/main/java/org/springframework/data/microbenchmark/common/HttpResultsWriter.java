@@ -16,82 +16,366 @@
 package org.springframework.data.microbenchmark.common;
 
 import jmh.mbr.core.ResultsWriter;
-import jmh.mbr.core.model.BenchmarkResults;
-import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import net.minidev.json.parser.ParseException;
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.SimpleDateFormat;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
-import lombok.SneakyThrows;
 import org.openjdk.jmh.results.RunResult;
 import org.openjdk.jmh.results.format.ResultFormatFactory;
 import org.openjdk.jmh.results.format.ResultFormatType;
 import org.openjdk.jmh.runner.format.OutputFormat;
+import org.springframework.core.env.Environment;
 import org.springframework.core.env.StandardEnvironment;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.StreamUtils;
 
 /**
- * {@link ResultsWriterOld} implementation of {@link URLConnection}.
+ * {@link ResultsWriter} implementation using {@link URLConnection}. Results are streamed result by result as gzip
+ * compressed ({@code httpCompression=gzip}, default) chunked request body, either as JSON array ({@code httpFormat=json},
+ * default) once all benchmarks of a class have completed or as newline-delimited JSON ({@code httpFormat=ndjson}) after
+ * each benchmark method.
+ * <p>
+ * Failed uploads (I/O errors, {@code 429} and {@code 5xx} responses) are retried with exponential backoff. Uploads that
+ * still fail are stored in an outbox in {@code <spoolDirectory>/http/} and replayed before the next upload to the same
+ * URL. Uploads rejected by the endpoint ({@code 4xx}) are not stored, rejected replays are moved to the
+ * {@code rejected} directory of the outbox.
  *
  * @author Christoph Strobl
  * @author Mark Paluch
  */
-@RequiredArgsConstructor
-class HttpResultsWriter implements ResultsWriter {
+class HttpResultsWriter implements RunResultsWriter {
+
+	static final int MAX_ATTEMPTS = 4;
+	static final Duration INITIAL_BACKOFF = Duration.ofMillis(500);
+	static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+	static final Duration READ_TIMEOUT = Duration.ofSeconds(30);
+
+	private static final int CHUNK_SIZE = 64 * 1024;
+	private static final String OUTBOX_EXTENSION = ".gz";
+	private static final String HEADERS_EXTENSION = ".headers";
+	private static final String REJECTED_DIRECTORY = "rejected";
 
 	private final String url;
+	private final Environment environment;
+	private final boolean ndjson;
+	private final boolean gzip;
+	private final Path outbox;
 
+	HttpResultsWriter(String url) {
+		this(url, new StandardEnvironment());
+	}
+
+	HttpResultsWriter(String url, Environment environment) {
+
+		this.url = url;
+		this.environment = environment;
+		this.ndjson = "ndjson".equalsIgnoreCase(environment.getProperty("httpFormat", "json").trim());
+		this.gzip = !"none".equalsIgnoreCase(environment.getProperty("httpCompression", "gzip").trim());
+		this.outbox = RunResultsWriter.getSpoolDirectory(environment).resolve("http")
+				.resolve(url.replaceAll("[^A-Za-z0-9.-]", "_"));
+	}
 
 	@Override
-	public void write(OutputFormat output, BenchmarkResults benchmarkResults) {
+	public boolean isIncremental() {
+		return ndjson;
+	}
+
+	@Override
+	public void write(OutputFormat output, Collection<RunResult> results) {
 
-		if (CollectionUtils.isEmpty(benchmarkResults.getRawResults())) {
+		if (CollectionUtils.isEmpty(results)) {
 			return;
 		}
 
+		replayOutbox(output);
+
+		Map<String, String> headers = getHeaders();
+		Body body = out -> writeResults(results, out);
+
 		try {
-			doWrite(benchmarkResults.getRawResults());
+			post(body, headers);
+		} catch (RejectedException e) {
+			output.println("Results rejected, not storing them in outbox: " + e.getMessage());
+		} catch (RuntimeException e) {
+			output.println("Failed to write results, not storing them in outbox: " + e);
 		} catch (IOException e) {
+
 			output.println("Failed to write results: " + e);
+
+			try {
+				output.println("Stored results in outbox " + store(body, headers).toAbsolutePath());
+			} catch (IOException ex) {
+				output.println("Failed to store results in outbox: " + ex);
+			}
+		}
+	}
+
+	private Map<String, String> getHeaders() {
+
+		Map<String, String> headers = new LinkedHashMap<>();
+		headers.put("Content-Type", ndjson ? "application/x-ndjson" : "application/json");
+		headers.put("X-Project-Version", environment.getProperty("project.version", "unknown"));
+		headers.put("X-Git-Branch", environment.getProperty("git.branch", "unknown"));
+		headers.put("X-Git-Dirty", environment.getProperty("git.dirty", "no"));
+		headers.put("X-Git-Commit-Id", environment.getProperty("git.commit.id", "unknown"));
+
+		return headers;
+	}
+
+	/**
+	 * Write enriched JSON one result at a time so that only a single result is rendered in memory.
+	 *
+	 * @param results
+	 * @param out
+	 * @throws IOException
+	 */
+	private void writeResults(Collection<RunResult> results, OutputStream out) throws IOException {
+
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+		if (!ndjson) {
+			writer.write('[');
+		}
+
+		boolean first = true;
+		for (RunResult result : results) {
+
+			if (!first && !ndjson) {
+				writer.write(',');
+			}
+
+			JSONArray json;
+			try {
+				json = ResultsJson.toJson(Collections.singletonList(result));
+			} catch (ParseException e) {
+				throw new IOException("Cannot render result of " + result.getParams().getBenchmark(), e);
+			}
+
+			for (Object object : json) {
+
+				((JSONObject) object).writeJSONString(writer);
+
+				if (ndjson) {
+					writer.write('\n');
+				}
+			}
+
+			first = false;
 		}
+
+		if (!ndjson) {
+			writer.write(']');
+		}
+
+		writer.flush();
 	}
 
-	private void doWrite(Collection<RunResult> results) throws IOException {
+	/**
+	 * POST the body, retrying failed attempts with exponential backoff.
+	 *
+	 * @param body
+	 * @param headers
+	 * @throws IOException if the last attempt failed.
+	 */
+	private void post(Body body, Map<String, String> headers) throws IOException {
+
+		Duration backoff = INITIAL_BACKOFF;
+
+		for (int attempt = 1;; attempt++) {
 
-		StandardEnvironment env = new StandardEnvironment();
+			try {
+				doPost(body, headers);
+				return;
+			} catch (RetryableException | IOException e) {
 
-		String projectVersion = env.getProperty("project.version", "unknown");
-		String gitBranch = env.getProperty("git.branch", "unknown");
-		String gitDirty = env.getProperty("git.dirty", "no");
-		String gitCommitId = env.getProperty("git.commit.id", "unknown");
+				if (attempt >= MAX_ATTEMPTS) {
+					throw e instanceof IOException ? (IOException) e : new IOException(e.getMessage(), e);
+				}
+			}
+
+			try {
+				Thread.sleep(backoff.toMillis());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while waiting to retry upload", e);
+			}
+
+			backoff = backoff.multipliedBy(2);
+		}
+	}
+
+	private void doPost(Body body, Map<String, String> headers) throws IOException {
 
 		HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
-		connection.setConnectTimeout((int) Duration.ofSeconds(1).toMillis());
-		connection.setReadTimeout((int) Duration.ofSeconds(1).toMillis());
+		connection.setConnectTimeout((int) CONNECT_TIMEOUT.toMillis());
+		connection.setReadTimeout((int) READ_TIMEOUT.toMillis());
 		connection.setDoOutput(true);
 		connection.setRequestMethod("POST");
+		connection.setChunkedStreamingMode(CHUNK_SIZE);
+
+		headers.forEach(connection::addRequestProperty);
+
+		if (gzip) {
+			connection.addRequestProperty("Content-Encoding", "gzip");
+		}
+
+		try (OutputStream output = gzip ? new GZIPOutputStream(connection.getOutputStream(), CHUNK_SIZE)
+				: connection.getOutputStream()) {
+			body.writeTo(output);
+		}
 
-		connection.setRequestProperty("Content-Type", "application/json");
-		connection.addRequestProperty("X-Project-Version", projectVersion);
-		connection.addRequestProperty("X-Git-Branch", gitBranch);
-		connection.addRequestProperty("X-Git-Dirty", gitDirty);
-		connection.addRequestProperty("X-Git-Commit-Id", gitCommitId);
+		int status = connection.getResponseCode();
+		String message = String.format(Locale.ROOT, "Status %d %s", status, connection.getResponseMessage());
+		connection.disconnect();
 
-		try (OutputStream output = connection.getOutputStream()) {
-			output.write(jsonifyResults(results).getBytes(StandardCharsets.UTF_8));
+		if (status == 429 || status >= 500) {
+			throw new RetryableException(message);
 		}
 
-		if (connection.getResponseCode() >= 400) {
-			throw new IllegalStateException(
-					String.format("Status %d %s", connection.getResponseCode(), connection.getResponseMessage()));
+		if (status >= 400) {
+			throw new RejectedException(message);
+		}
+	}
+
+	/**
+	 * Store the body gzip compressed in the outbox along with its request headers.
+	 *
+	 * @param body
+	 * @param headers
+	 * @return the stored body.
+	 * @throws IOException
+	 */
+	private Path store(Body body, Map<String, String> headers) throws IOException {
+
+		Files.createDirectories(outbox);
+
+		String name = new SimpleDateFormat("yyyyMMdd'T'HHmmssSSS").format(new Date()) + "-" + System.nanoTime();
+		Path file = outbox.resolve(name + OUTBOX_EXTENSION);
+
+		try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(file))) {
+			body.writeTo(output);
+		}
+
+		Properties properties = new Properties();
+		properties.putAll(headers);
+
+		try (Writer writer = Files.newBufferedWriter(outbox.resolve(name + HEADERS_EXTENSION), StandardCharsets.UTF_8)) {
+			properties.store(writer, url);
+		}
+
+		return file;
+	}
+
+	/**
+	 * Upload stored results in the order they were stored. Stops at the first failed upload to leave the outbox intact
+	 * while the endpoint is unavailable. Uploads rejected by the endpoint ({@code 4xx} other than {@code 429}) are moved
+	 * to the {@code rejected} dead-letter directory of the outbox so that they are not replayed again.
+	 *
+	 * @param output
+	 */
+	private void replayOutbox(OutputFormat output) {
+
+		if (!Files.isDirectory(outbox)) {
+			return;
+		}
+
+		List<Path> files = new ArrayList<>();
+		try (Stream<Path> stream = Files.list(outbox)) {
+			stream.filter(it -> it.getFileName().toString().endsWith(OUTBOX_EXTENSION)).sorted().forEach(files::add);
+		} catch (IOException e) {
+			output.println("Cannot read outbox " + outbox + ": " + e);
+			return;
+		}
+
+		for (Path file : files) {
+
+			String name = file.getFileName().toString();
+			Path headersFile = file.resolveSibling(name.substring(0, name.length() - OUTBOX_EXTENSION.length())
+					+ HEADERS_EXTENSION);
+
+			try {
+
+				Properties properties = new Properties();
+				if (Files.exists(headersFile)) {
+					try (Reader reader = Files.newBufferedReader(headersFile, StandardCharsets.UTF_8)) {
+						properties.load(reader);
+					}
+				}
+
+				Map<String, String> headers = new LinkedHashMap<>();
+				properties.stringPropertyNames().forEach(key -> headers.put(key, properties.getProperty(key)));
+
+				post(out -> {
+					try (InputStream input = new GZIPInputStream(Files.newInputStream(file))) {
+						StreamUtils.copy(input, out);
+					}
+				}, headers);
+
+				Files.deleteIfExists(file);
+				Files.deleteIfExists(headersFile);
+
+				output.println("Replayed results from outbox " + file.toAbsolutePath());
+			} catch (IOException e) {
+				output.println("Failed to replay results from outbox " + file.toAbsolutePath() + ": " + e);
+				return;
+			} catch (RejectedException e) {
+				output.println("Rejected results from outbox " + file.toAbsolutePath() + ": " + e.getMessage());
+				moveToRejected(output, file, headersFile);
+			} catch (RuntimeException e) {
+				output.println("Failed to replay results from outbox " + file.toAbsolutePath() + ": " + e);
+				return;
+			}
+		}
+	}
+
+	private void moveToRejected(OutputFormat output, Path file, Path headersFile) {
+
+		Path rejected = outbox.resolve(REJECTED_DIRECTORY);
+
+		try {
+
+			Files.createDirectories(rejected);
+			Files.move(file, rejected.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+
+			if (Files.exists(headersFile)) {
+				Files.move(headersFile, rejected.resolve(headersFile.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+			}
+
+			output.println("Moved rejected results to " + rejected.resolve(file.getFileName()).toAbsolutePath());
+		} catch (IOException e) {
+			output.println("Cannot move rejected results to " + rejected.toAbsolutePath() + ": " + e);
 		}
 	}
 
@@ -110,4 +394,32 @@ class HttpResultsWriter implements ResultsWriter {
 
 		return new String(baos.toByteArray(), StandardCharsets.UTF_8);
 	}
+
+	/**
+	 * Request body written to an uncompressed output stream.
+	 */
+	private interface Body {
+
+		void writeTo(OutputStream out) throws IOException;
+	}
+
+	/**
+	 * Failed attempt that may succeed when retried.
+	 */
+	private static class RetryableException extends RuntimeException {
+
+		RetryableException(String message) {
+			super(message);
+		}
+	}
+
+	/**
+	 * Upload rejected by the endpoint that fails again when retried.
+	 */
+	private static class RejectedException extends RuntimeException {
+
+		RejectedException(String message) {
+			super(message);
+		}
+	}
 }
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Flame graph of CPU samples ({@code jdk.ExecutionSample}) contained in a Java Flight Recorder recording. The graph
+ * can be rendered as collapsed stacks (one line per distinct stack, frames separated by {@code ;}, suitable for
+ * {@code flamegraph.pl} or speedscope) and as self-contained HTML page.
+ */
+class JfrFlameGraph {
+
+	private static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+	private static final int FRAME_HEIGHT = 16;
+	private static final double MIN_WIDTH_PERCENT = 0.05;
+
+	private final Frame root = new Frame("all");
+	private final Map<String, Long> selfSamples = new HashMap<>();
+
+	private JfrFlameGraph() {}
+
+	/**
+	 * Read CPU samples from a JFR recording.
+	 *
+	 * @param recording
+	 * @return
+	 * @throws IOException
+	 */
+	static JfrFlameGraph read(Path recording) throws IOException {
+
+		JfrFlameGraph graph = new JfrFlameGraph();
+
+		try (RecordingFile file = new RecordingFile(recording)) {
+
+			while (file.hasMoreEvents()) {
+
+				RecordedEvent event = file.readEvent();
+				RecordedStackTrace stackTrace = event.getStackTrace();
+
+				if (EXECUTION_SAMPLE.equals(event.getEventType().getName()) && stackTrace != null) {
+					graph.add(stackTrace.getFrames());
+				}
+			}
+		}
+
+		return graph;
+	}
+
+	private void add(List<RecordedFrame> frames) {
+
+		if (frames.isEmpty()) {
+			return;
+		}
+
+		Frame current = root;
+		root.samples++;
+
+		// stack trace frames are ordered from the top-most (leaf) frame to the bottom
+		for (int i = frames.size() - 1; i >= 0; i--) {
+
+			current = current.getOrCreateChild(getName(frames.get(i)));
+			current.samples++;
+		}
+
+		selfSamples.merge(current.name, 1L, Long::sum);
+	}
+
+	long getSamples() {
+		return root.samples;
+	}
+
+	/**
+	 * @param limit
+	 * @return frames with the most self (on-CPU) samples in descending order.
+	 */
+	List<Map.Entry<String, Long>> getHotFrames(int limit) {
+
+		return selfSamples.entrySet().stream() //
+				.sorted(Map.Entry.<String, Long> comparingByValue().reversed()) //
+				.limit(limit) //
+				.collect(Collectors.toList());
+	}
+
+	void writeCollapsed(Path file) throws IOException {
+
+		try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+			for (Frame child : root.children.values()) {
+				writeCollapsed(writer, child, child.name);
+			}
+		}
+	}
+
+	private static void writeCollapsed(PrintWriter writer, Frame frame, String stack) {
+
+		long self = frame.samples - frame.children.values().stream().mapToLong(it -> it.samples).sum();
+
+		if (self > 0) {
+			writer.println(stack + " " + self);
+		}
+
+		for (Frame child : frame.children.values()) {
+			writeCollapsed(writer, child, stack + ";" + child.name);
+		}
+	}
+
+	/**
+	 * Render the flame graph as static HTML page including a table of the hottest frames.
+	 *
+	 * @param file
+	 * @param title
+	 * @throws IOException
+	 */
+	void writeHtml(Path file, String title) throws IOException {
+
+		int depth = root.getDepth();
+
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+
+			writer.write("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>" + escape(title)
+					+ "</title>\n<style>\n"
+					+ "body { font-family: sans-serif; margin: 1em; }\n"
+					+ "#graph { position: relative; width: 100%; height: " + (depth + 1) * FRAME_HEIGHT + "px; }\n"
+					+ ".f { position: absolute; height: " + (FRAME_HEIGHT - 1) + "px; font: 11px monospace; overflow: hidden;"
+					+ " white-space: nowrap; border-radius: 2px; box-sizing: border-box; padding-left: 2px; }\n"
+					+ ".f:hover { outline: 1px solid #000; }\n"
+					+ "table { border-collapse: collapse; margin-top: 2em; } td, th { padding: 2px 8px; text-align: left; }\n"
+					+ "</style></head><body>\n");
+
+			writer.write("<h1>" + escape(title) + "</h1>\n");
+			writer.write("<p>" + root.samples + " CPU samples</p>\n<div id=\"graph\">\n");
+
+			writeFrame(writer, root, 0, 0, depth);
+
+			writer.write("</div>\n<table><tr><th>Self samples</th><th>%</th><th>Frame</th></tr>\n");
+
+			for (Map.Entry<String, Long> entry : getHotFrames(25)) {
+				writer.write(String.format(Locale.ROOT, "<tr><td>%d</td><td>%.2f</td><td>%s</td></tr>%n", entry.getValue(),
+						percentOf(entry.getValue()), escape(entry.getKey())));
+			}
+
+			writer.write("</table>\n</body></html>\n");
+		}
+	}
+
+	private void writeFrame(Writer writer, Frame frame, double left, int level, int depth) throws IOException {
+
+		double width = percentOf(frame.samples);
+
+		if (width < MIN_WIDTH_PERCENT) {
+			return;
+		}
+
+		String label = escape(frame.name);
+		writer.write(String.format(Locale.ROOT, "<div class=\"f\" style=\"left:%.4f%%;width:%.4f%%;top:%dpx;background:%s\""
+				+ " title=\"%s (%d samples, %.2f%%)\">%s</div>%n", left, width, (depth - level) * FRAME_HEIGHT, getColor(frame.name), label, frame.samples, width, label));
+
+		double childLeft = left;
+		for (Frame child : frame.children.values()) {
+			writeFrame(writer, child, childLeft, level + 1, depth);
+			childLeft += percentOf(child.samples);
+		}
+	}
+
+	private double percentOf(long samples) {
+		return root.samples == 0 ? 0 : samples * 100.0 / root.samples;
+	}
+
+	private static String getColor(String name) {
+
+		int hash = Math.abs(name.hashCode() % 60);
+
+		if (name.startsWith("org.springframework.data")) {
+			return "hsl(" + (90 + hash / 3) + ",55%,60%)";
+		}
+
+		if (name.startsWith("java.") || name.startsWith("jdk.") || name.startsWith("sun.")) {
+			return "hsl(" + (200 + hash / 3) + ",55%,70%)";
+		}
+
+		return "hsl(" + hash + ",80%,62%)";
+	}
+
+	private static String escape(String value) {
+		return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+	}
+
+	private static String getName(RecordedFrame frame) {
+
+		if (frame.getMethod() == null) {
+			return "[unknown]";
+		}
+
+		return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+	}
+
+	/**
+	 * Node in the call tree.
+	 */
+	private static class Frame {
+
+		private final String name;
+		private final Map<String, Frame> children = new LinkedHashMap<>();
+		private long samples;
+
+		Frame(String name) {
+			this.name = name;
+		}
+
+		Frame getOrCreateChild(String name) {
+			return children.computeIfAbsent(name, Frame::new);
+		}
+
+		int getDepth() {
+
+			int depth = 0;
+			for (Frame child : children.values()) {
+				depth = Math.max(depth, child.getDepth() + 1);
+			}
+
+			return depth;
+		}
+	}
+}
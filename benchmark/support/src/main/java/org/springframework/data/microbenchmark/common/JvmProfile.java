@@ -0,0 +1,165 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.util.StringUtils;
+
+/**
+ * Named set of JVM arguments to run benchmark forks with. Profiles are appended to the {@code @Fork} arguments of the
+ * benchmark so that their heap settings take precedence. Each fork is tagged with the profile name through the
+ * {@value #PROPERTY} system property so that results can be attributed to their profile.
+ * <p>
+ * Built-in profiles select a garbage collector: {@code default}, {@code serial}, {@code parallel}, {@code g1},
+ * {@code zgc}, {@code zgc-generational} (Java 21+) and {@code shenandoah}. A heap size can be appended to any profile
+ * name ({@code g1@4g} runs with {@code -Xms4g -Xmx4g}). Profiles setting {@code -Xmx} only use the same initial heap
+ * size.
+ *
+ * @see MicrobenchmarkOptions#getJvmProfiles(Class)
+ * @see JvmProfileReport
+ */
+final class JvmProfile {
+
+	static final String PROPERTY = "benchmark.jvmProfile";
+
+	private static final Map<String, List<String>> BUILT_IN = new LinkedHashMap<>();
+
+	static {
+		BUILT_IN.put("default", Collections.emptyList());
+		BUILT_IN.put("serial", Collections.singletonList("-XX:+UseSerialGC"));
+		BUILT_IN.put("parallel", Collections.singletonList("-XX:+UseParallelGC"));
+		BUILT_IN.put("g1", Collections.singletonList("-XX:+UseG1GC"));
+		BUILT_IN.put("zgc", Collections.singletonList("-XX:+UseZGC"));
+		BUILT_IN.put("zgc-generational", Arrays.asList("-XX:+UseZGC", "-XX:+ZGenerational"));
+		BUILT_IN.put("shenandoah", Collections.singletonList("-XX:+UseShenandoahGC"));
+	}
+
+	private final String name;
+	private final List<String> jvmArgs;
+
+	private JvmProfile(String name, List<String> jvmArgs) {
+		this.name = name;
+		this.jvmArgs = jvmArgs;
+	}
+
+	/**
+	 * Resolve a profile by name.
+	 *
+	 * @param name profile name, optionally followed by {@code @<heap size>}.
+	 * @param definition custom JVM arguments (whitespace-separated) defined for the profile, may be empty to use the
+	 *          built-in profile.
+	 * @return the resolved profile.
+	 * @throws IllegalArgumentException if the profile is neither defined nor built-in.
+	 */
+	static JvmProfile of(String name, String definition) {
+
+		int separator = name.indexOf('@');
+		String base = separator == -1 ? name : name.substring(0, separator);
+		String heap = separator == -1 ? "" : name.substring(separator + 1).trim();
+
+		List<String> jvmArgs = new ArrayList<>();
+
+		if (StringUtils.hasText(definition)) {
+			jvmArgs.addAll(Arrays.asList(StringUtils.tokenizeToStringArray(definition, " \t")));
+		} else if (BUILT_IN.containsKey(base.toLowerCase(Locale.ROOT))) {
+			jvmArgs.addAll(BUILT_IN.get(base.toLowerCase(Locale.ROOT)));
+		} else {
+			throw new IllegalArgumentException(String.format("Unknown JVM profile '%s', use one of %s or define jvmProfile.%s",
+					base, BUILT_IN.keySet(), base));
+		}
+
+		if (StringUtils.hasText(heap)) {
+			jvmArgs.add("-Xms" + heap);
+			jvmArgs.add("-Xmx" + heap);
+		}
+
+		// keep the fixed-size heap of @Fork consistent, a smaller -Xmx would otherwise conflict with its -Xms
+		String maxHeap = getLast(jvmArgs, "-Xmx");
+		if (maxHeap != null && getLast(jvmArgs, "-Xms") == null) {
+			jvmArgs.add("-Xms" + maxHeap);
+		}
+
+		jvmArgs.add("-D" + PROPERTY + "=" + name);
+
+		return new JvmProfile(name, Collections.unmodifiableList(jvmArgs));
+	}
+
+	/**
+	 * Determine the profile a benchmark fork was run with.
+	 *
+	 * @param params
+	 * @return the profile name or {@literal null} if the benchmark was not run with a profile.
+	 */
+	static String getName(BenchmarkParams params) {
+		return getName(params.getJvmArgs());
+	}
+
+	/**
+	 * Determine the profile from JVM arguments.
+	 *
+	 * @param jvmArgs
+	 * @return the profile name or {@literal null} if the arguments do not contain a profile.
+	 */
+	static String getName(Iterable<?> jvmArgs) {
+
+		String prefix = "-D" + PROPERTY + "=";
+		String name = null;
+
+		for (Object arg : jvmArgs) {
+			if (arg.toString().startsWith(prefix)) {
+				name = arg.toString().substring(prefix.length());
+			}
+		}
+
+		return name;
+	}
+
+	private static String getLast(List<String> jvmArgs, String prefix) {
+
+		String value = null;
+		for (String arg : jvmArgs) {
+			if (arg.startsWith(prefix)) {
+				value = arg.substring(prefix.length());
+			}
+		}
+
+		return value;
+	}
+
+	String getName() {
+		return name;
+	}
+
+	/**
+	 * @return JVM arguments including the profile tag.
+	 */
+	List<String> getJvmArgs() {
+		return jvmArgs;
+	}
+
+	@Override
+	public String toString() {
+		return name + " " + jvmArgs;
+	}
+}
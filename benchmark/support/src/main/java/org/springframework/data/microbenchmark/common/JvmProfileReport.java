@@ -0,0 +1,292 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.format.OutputFormat;
+
+/**
+ * Comparison of benchmark results obtained with different {@link JvmProfile}s. Results are grouped by benchmark, mode,
+ * thread count and parameters. Scores are reported relative to the first profile of each group along with allocation
+ * ({@code gc.alloc.rate.norm}) and GC time. A group is flagged as GC-sensitive if the best and the worst profile differ
+ * by more than the configured threshold (relative to the best score).
+ */
+class JvmProfileReport {
+
+	private final double threshold;
+	private final List<Group> groups = new ArrayList<>();
+
+	JvmProfileReport(Iterable<RunResult> results, double threshold) {
+
+		this.threshold = threshold;
+
+		Map<String, List<RunResult>> entries = new LinkedHashMap<>();
+		for (RunResult result : results) {
+
+			BenchmarkParams params = result.getParams();
+
+			if (JvmProfile.getName(params) == null) {
+				continue;
+			}
+
+			entries.computeIfAbsent(params.getBenchmark() + ":" + params.getMode() + ":" + params.getThreads() + ":"
+					+ getParams(params), key -> new ArrayList<>()).add(result);
+		}
+
+		for (List<RunResult> group : entries.values()) {
+			groups.add(new Group(group));
+		}
+	}
+
+	boolean isEmpty() {
+		return groups.isEmpty();
+	}
+
+	/**
+	 * @return groups whose score spread across profiles exceeds the threshold.
+	 */
+	List<Group> getFlagged() {
+
+		List<Group> flagged = new ArrayList<>();
+		for (Group group : groups) {
+			if (isFlagged(group)) {
+				flagged.add(group);
+			}
+		}
+
+		return flagged;
+	}
+
+	private boolean isFlagged(Group group) {
+		return group.getSpread() > threshold;
+	}
+
+	void print(OutputFormat output) {
+
+		output.println("");
+		output.println(String.format(Locale.ROOT, "JVM profiles (GC-sensitive above %.0f%% spread):", threshold * 100));
+		output.println("");
+
+		int width = Math.max("Benchmark".length(), groups.stream().mapToInt(it -> it.getName().length()).max().orElse(0));
+		int profileWidth = Math.max("Profile".length(), groups.stream().flatMap(it -> it.getEntries().stream())
+				.mapToInt(it -> it.getProfile().length()).max().orElse(0));
+		String format = "%-" + width + "s  %6s  %-" + profileWidth + "s  %14s  %-10s  %9s  %14s  %10s  %s";
+
+		output.println(String.format(format, "Benchmark", "Mode", "Profile", "Score", "Units", "Relative",
+				"Alloc [B/op]", "GC [ms]", ""));
+
+		for (Group group : groups) {
+			for (Entry entry : group.getEntries()) {
+				output.println(String.format(Locale.ROOT, format, group.getName(), group.getMode(), entry.getProfile(),
+						String.format(Locale.ROOT, "%.3f", entry.getScore()), entry.getUnit(),
+						String.format(Locale.ROOT, "%.2fx", group.getRelative(entry)),
+						String.format(Locale.ROOT, "%.1f", entry.getAllocation()),
+						String.format(Locale.ROOT, "%.0f", entry.getGcTime()),
+						entry == group.getWorst() && isFlagged(group) ? "GC-SENSITIVE" : ""));
+			}
+		}
+	}
+
+	/**
+	 * Write the report as CSV file.
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	void writeCsv(Path file) throws IOException {
+
+		Files.createDirectories(file.toAbsolutePath().getParent());
+
+		try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+
+			writer.println("benchmark,mode,threads,params,profile,score,unit,relative,allocRateNorm,gcTime,flagged");
+
+			for (Group group : groups) {
+				for (Entry entry : group.getEntries()) {
+					writer.println(String.format(Locale.ROOT, "%s,%s,%d,\"%s\",%s,%f,%s,%f,%f,%f,%s", group.getBenchmark(),
+							group.getMode(), group.getThreads(), group.getParams(), entry.getProfile(), entry.getScore(),
+							entry.getUnit(), group.getRelative(entry), entry.getAllocation(), entry.getGcTime(),
+							isFlagged(group)));
+				}
+			}
+		}
+	}
+
+	private static String getParams(BenchmarkParams params) {
+
+		Map<String, String> values = new TreeMap<>();
+		for (String key : params.getParamsKeys()) {
+			values.put(key, params.getParam(key));
+		}
+
+		return values.isEmpty() ? "" : values.toString();
+	}
+
+	/**
+	 * Results of a benchmark across JVM profiles.
+	 */
+	static class Group {
+
+		private final String benchmark;
+		private final String params;
+		private final String mode;
+		private final int threads;
+		private final boolean throughput;
+		private final List<Entry> entries = new ArrayList<>();
+
+		Group(List<RunResult> results) {
+
+			BenchmarkParams params = results.get(0).getParams();
+
+			this.benchmark = params.getBenchmark();
+			this.params = JvmProfileReport.getParams(params);
+			this.mode = params.getMode().shortLabel();
+			this.threads = params.getThreads();
+			this.throughput = params.getMode() == Mode.Throughput;
+
+			for (RunResult result : results) {
+				entries.add(new Entry(result));
+			}
+		}
+
+		String getName() {
+			return MongoResultsWriter.extractBenchmarkName(benchmark) + (params.isEmpty() ? "" : " " + params);
+		}
+
+		String getBenchmark() {
+			return benchmark;
+		}
+
+		String getParams() {
+			return params;
+		}
+
+		String getMode() {
+			return mode;
+		}
+
+		int getThreads() {
+			return threads;
+		}
+
+		List<Entry> getEntries() {
+			return entries;
+		}
+
+		/**
+		 * @param entry
+		 * @return performance of the entry relative to the first profile, values above {@code 1} are better.
+		 */
+		double getRelative(Entry entry) {
+
+			double base = entries.get(0).getScore();
+
+			if (base == 0 || entry.getScore() == 0) {
+				return 0;
+			}
+
+			return throughput ? entry.getScore() / base : base / entry.getScore();
+		}
+
+		Entry getBest() {
+
+			Entry best = entries.get(0);
+			for (Entry entry : entries) {
+				if (getRelative(entry) > getRelative(best)) {
+					best = entry;
+				}
+			}
+
+			return best;
+		}
+
+		Entry getWorst() {
+
+			Entry worst = entries.get(0);
+			for (Entry entry : entries) {
+				if (getRelative(entry) < getRelative(worst)) {
+					worst = entry;
+				}
+			}
+
+			return worst;
+		}
+
+		/**
+		 * @return performance loss of the worst profile relative to the best profile, between {@code 0} and {@code 1}.
+		 */
+		double getSpread() {
+
+			double best = getRelative(getBest());
+			return best == 0 ? 0 : 1 - getRelative(getWorst()) / best;
+		}
+	}
+
+	/**
+	 * Result obtained with a single JVM profile.
+	 */
+	static class Entry {
+
+		private final RunResult result;
+		private final String profile;
+
+		Entry(RunResult result) {
+			this.result = result;
+			this.profile = JvmProfile.getName(result.getParams());
+		}
+
+		String getProfile() {
+			return profile;
+		}
+
+		double getScore() {
+			return result.getPrimaryResult().getScore();
+		}
+
+		String getUnit() {
+			return result.getPrimaryResult().getScoreUnit();
+		}
+
+		double getAllocation() {
+			return getSecondary("gc.alloc.rate.norm");
+		}
+
+		double getGcTime() {
+			return getSecondary("gc.time");
+		}
+
+		private double getSecondary(String label) {
+
+			Result<?> secondary = result.getSecondaryResults().get(label);
+			return secondary != null ? secondary.getScore() : 0;
+		}
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.util.Random;
+
+/**
+ * Distribution of keys accessed by a {@link Workload}.
+ */
+public enum KeyDistribution {
+
+	/**
+	 * All existing records are equally likely to be accessed.
+	 */
+	UNIFORM {
+
+		@Override
+		KeyChooser createChooser(KeySpace keys) {
+			return random -> nextLong(random, keys.size());
+		}
+	},
+
+	/**
+	 * Some records are much more popular than others (Zipfian distribution). Popular records are scattered across the
+	 * key space of the initial records.
+	 */
+	ZIPFIAN {
+
+		@Override
+		KeyChooser createChooser(KeySpace keys) {
+
+			long items = keys.getRecordCount();
+			ZipfianGenerator zipfian = new ZipfianGenerator(items);
+
+			return random -> Math.floorMod(fnvHash(zipfian.next(random)), items);
+		}
+	},
+
+	/**
+	 * The most recently inserted records are the most popular ones (Zipfian distribution over recency).
+	 */
+	LATEST {
+
+		@Override
+		KeyChooser createChooser(KeySpace keys) {
+
+			ZipfianGenerator zipfian = new ZipfianGenerator(keys.getRecordCount());
+
+			return random -> Math.max(0, keys.size() - 1 - zipfian.next(random));
+		}
+	};
+
+	abstract KeyChooser createChooser(KeySpace keys);
+
+	private static long nextLong(Random random, long bound) {
+		return bound <= Integer.MAX_VALUE ? random.nextInt((int) bound) : Math.floorMod(random.nextLong(), bound);
+	}
+
+	/**
+	 * 64-bit FNV-1a hash.
+	 */
+	private static long fnvHash(long value) {
+
+		long hash = 0xCBF29CE484222325L;
+
+		for (int i = 0; i < 8; i++) {
+			hash ^= value & 0xFF;
+			hash *= 0x100000001B3L;
+			value >>= 8;
+		}
+
+		return hash;
+	}
+
+	@FunctionalInterface
+	interface KeyChooser {
+
+		long nextKey(Random random);
+	}
+
+	/**
+	 * Keys of existing records: the initial records and records inserted by the workload.
+	 */
+	static class KeySpace {
+
+		private final long recordCount;
+		private long inserted;
+
+		KeySpace(long recordCount) {
+			this.recordCount = recordCount;
+		}
+
+		long getRecordCount() {
+			return recordCount;
+		}
+
+		long size() {
+			return recordCount + inserted;
+		}
+
+		long nextInsertKey() {
+			return recordCount + inserted;
+		}
+
+		void inserted() {
+			inserted++;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.HdrHistogram.Histogram;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * Utility to convert {@link Mode#SampleTime} results into HdrHistogram {@link Histogram}s and to write them as
+ * percentile distribution ({@code .hgrm}) files that can be plotted with the HdrHistogram plotter.
+ */
+final class LatencyHistograms {
+
+	/**
+	 * Scaling ratio to output histogram values (recorded in nanoseconds) in microseconds.
+	 */
+	static final double MICROSECONDS = 1000.0;
+
+	private LatencyHistograms() {}
+
+	/**
+	 * @param result
+	 * @return {@literal true} if the result contains latency samples.
+	 */
+	static boolean hasSamples(RunResult result) {
+		return result.getParams().getMode() == Mode.SampleTime;
+	}
+
+	/**
+	 * Create a {@link Histogram} of the latency samples of a {@link Mode#SampleTime} result. Values are recorded in
+	 * nanoseconds.
+	 *
+	 * @param result
+	 * @return
+	 */
+	static Histogram toHistogram(RunResult result) {
+
+		double nanosPerUnit = result.getParams().getTimeUnit().toNanos(1);
+		Histogram histogram = new Histogram(3);
+
+		Iterator<Map.Entry<Double, Long>> samples = result.getPrimaryResult().getStatistics().getRawData();
+		while (samples.hasNext()) {
+
+			Map.Entry<Double, Long> sample = samples.next();
+			histogram.recordValueWithCount(Math.max(1, Math.round(sample.getKey() * nanosPerUnit)), sample.getValue());
+		}
+
+		return histogram;
+	}
+
+	/**
+	 * Write the percentile distribution of the result to
+	 * {@code <directory>/<benchmark>[-<param>=<value>...]-threads=<n>[-jvmProfile=<profile>].hgrm} using microseconds as
+	 * value unit so that results of thread scaling and {@link JvmProfile} runs do not overwrite each other.
+	 *
+	 * @param directory
+	 * @param result
+	 * @return the written file.
+	 * @throws IOException
+	 */
+	static Path writeHgrm(Path directory, RunResult result) throws IOException {
+
+		Files.createDirectories(directory);
+		Path file = directory.resolve(getFileName(result.getParams()));
+
+		try (PrintStream stream = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+			toHistogram(result).outputPercentileDistribution(stream, MICROSECONDS);
+		}
+
+		return file;
+	}
+
+	private static String getFileName(BenchmarkParams params) {
+
+		Map<String, String> values = new TreeMap<>();
+		for (String key : params.getParamsKeys()) {
+			values.put(key, params.getParam(key));
+		}
+
+		StringBuilder name = new StringBuilder(params.getBenchmark());
+		values.forEach((key, value) -> name.append('-').append(key).append('=').append(value));
+		name.append("-threads=").append(params.getThreads());
+
+		String jvmProfile = JvmProfile.getName(params);
+		if (jvmProfile != null) {
+			name.append("-jvmProfile=").append(jvmProfile);
+		}
+
+		return name.toString().replaceAll("[^A-Za-z0-9._=-]", "_") + ".hgrm";
+	}
+}
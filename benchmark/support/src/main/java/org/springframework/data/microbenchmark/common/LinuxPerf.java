@@ -0,0 +1,78 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detection of Linux {@code perf} to collect hardware performance counters through the JMH {@code perfnorm} profiler.
+ * {@code perf} is available if it is on the {@code PATH} and allowed to count {@link #EVENTS} of user-space code
+ * ({@code kernel.perf_event_paranoid} of {@code 2} or lower).
+ */
+final class LinuxPerf {
+
+	/**
+	 * Events collected by {@code perfnorm}. Limited to a set that fits into the programmable counters of common CPUs so
+	 * that counts are not skewed by multiplexing.
+	 */
+	static final String EVENTS = "cycles,instructions,L1-dcache-load-misses,LLC-load-misses,branch-misses";
+
+	private static volatile Boolean available;
+
+	private LinuxPerf() {}
+
+	/**
+	 * @return {@literal true} if {@code perf} can collect {@link #EVENTS}.
+	 */
+	static boolean isAvailable() {
+
+		Boolean available = LinuxPerf.available;
+
+		if (available == null) {
+			available = detect();
+			LinuxPerf.available = available;
+		}
+
+		return available;
+	}
+
+	private static boolean detect() {
+
+		if (!System.getProperty("os.name", "").toLowerCase(Locale.ROOT).contains("linux")) {
+			return false;
+		}
+
+		try {
+
+			Process process = new ProcessBuilder("perf", "stat", "--event", EVENTS, "--", "echo", "1")
+					.redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+
+			if (!process.waitFor(10, TimeUnit.SECONDS)) {
+				process.destroyForcibly();
+				return false;
+			}
+
+			return process.exitValue() == 0;
+		} catch (IOException e) {
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+}
@@ -0,0 +1,559 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.util.StringUtils;
+
+/**
+ * Harness options for {@link MicrobenchmarkRunner} obtained from system properties and environment variables.
+ * Iteration and fork settings are applied only if configured so that annotation-based defaults of
+ * {@link AbstractMicrobenchmark} and the benchmark class itself remain in place.
+ * <p>
+ * Setting {@code profile=jfr} runs benchmarks with Java Flight Recorder enabled in each fork. Recordings are written
+ * to the {@code jfr} directory next to the JSON report. {@code profile=perfnorm} collects hardware performance counters
+ * per operation on Linux if {@code perf} is available. Both can be combined ({@code profile=jfr,perfnorm}).
+ * <p>
+ * {@code benchmarkMode} switches all benchmarks to a different JMH mode, e.g. {@code sample} to record latency
+ * distributions. Latency modes report in microseconds unless {@code timeUnit} is configured.
+ * <p>
+ * {@code scaling} re-runs each benchmark at increasing thread counts to report parallel efficiency. Benchmark classes
+ * annotated with {@link ScalingUnsupported} are not part of the sweep.
+ * <p>
+ * {@code jvmProfiles} re-runs each benchmark (optionally restricted to {@code jvmProfileBenchmarks}) once per
+ * {@link JvmProfile}, e.g. {@code g1,parallel,zgc}, to compare garbage collectors and heap sizes.
+ * <p>
+ * {@code adaptive=true} replaces fixed iteration counts with an {@link AdaptiveMeasurement} that detects the end of
+ * warmup and measures until the score is stable.
+ * <p>
+ * {@code param.<name>} overrides the values of a {@link org.openjdk.jmh.annotations.Param benchmark parameter}.
+ *
+ * @see MicrobenchmarkRunner
+ */
+class MicrobenchmarkOptions {
+
+	static final String DEFAULT_PROFILERS = "gc";
+	static final double DEFAULT_SCALING_THRESHOLD = 0.7;
+	static final String PARAMETER_PREFIX = "param.";
+	static final String FORKED_PROPERTY_PREFIX = "fixture.";
+	static final String JVM_PROFILE_PREFIX = "jvmProfile.";
+	static final double DEFAULT_JVM_PROFILE_THRESHOLD = 0.1;
+	static final double DEFAULT_ADAPTIVE_TARGET = 0.02;
+	static final int DEFAULT_ADAPTIVE_MAX_WARMUP_ITERATIONS = 10;
+	static final int DEFAULT_ADAPTIVE_MAX_FORKS = 10;
+	static final int DEFAULT_ADAPTIVE_MAX_TIME = 300;
+
+	private final Environment environment;
+
+	MicrobenchmarkOptions(Environment environment) {
+		this.environment = environment;
+	}
+
+	static MicrobenchmarkOptions fromEnvironment() {
+		return new MicrobenchmarkOptions(new StandardEnvironment());
+	}
+
+	/**
+	 * Create a {@link ChainedOptionsBuilder} for the given benchmark method applying configured iteration, fork and
+	 * profiler settings.
+	 *
+	 * @param benchmarkClass
+	 * @param method
+	 * @return
+	 */
+	ChainedOptionsBuilder createOptions(Class<?> benchmarkClass, Method method) {
+		return createOptions(benchmarkClass, method, null);
+	}
+
+	/**
+	 * Create a {@link ChainedOptionsBuilder} for the given benchmark method applying configured iteration, fork and
+	 * profiler settings and the JVM arguments of the given {@link JvmProfile}.
+	 *
+	 * @param benchmarkClass
+	 * @param method
+	 * @param jvmProfile the JVM profile to run forks with, may be {@literal null}.
+	 * @return
+	 */
+	ChainedOptionsBuilder createOptions(Class<?> benchmarkClass, Method method, JvmProfile jvmProfile) {
+
+		ChainedOptionsBuilder builder = new OptionsBuilder() //
+				.include("^" + Pattern.quote(benchmarkClass.getName() + "." + getBenchmarkName(method)) + "$") //
+				.shouldFailOnError(true);
+
+		Integer warmupIterations = environment.getProperty("warmupIterations", Integer.class);
+		if (warmupIterations != null) {
+			builder.warmupIterations(warmupIterations);
+		}
+
+		Integer warmupTime = environment.getProperty("warmupTime", Integer.class);
+		if (warmupTime != null) {
+			builder.warmupTime(TimeValue.seconds(warmupTime));
+		}
+
+		Integer measurementIterations = environment.getProperty("measurementIterations", Integer.class);
+		if (measurementIterations != null) {
+			builder.measurementIterations(measurementIterations);
+		}
+
+		Integer measurementTime = environment.getProperty("measurementTime", Integer.class);
+		if (measurementTime != null) {
+			builder.measurementTime(TimeValue.seconds(measurementTime));
+		}
+
+		Integer forks = environment.getProperty("forks", Integer.class);
+		if (forks != null) {
+			builder.forks(forks);
+		}
+
+		Mode mode = getMode();
+		if (mode != null) {
+			builder.mode(mode);
+		}
+
+		TimeUnit timeUnit = getTimeUnit();
+		if (timeUnit != null) {
+			builder.timeUnit(timeUnit);
+		}
+
+		getParameters().forEach((name, values) -> builder.param(name, values));
+
+		List<String> jvmArgsAppend = new ArrayList<>(getForkedProperties());
+		if (jvmProfile != null) {
+			jvmArgsAppend.addAll(jvmProfile.getJvmArgs());
+		}
+
+		if (!jvmArgsAppend.isEmpty()) {
+			builder.jvmArgsAppend(jvmArgsAppend.toArray(new String[0]));
+		}
+
+		for (String profiler : getProfilers()) {
+
+			int separator = profiler.indexOf(':');
+			if (separator == -1) {
+				builder.addProfiler(profiler);
+			} else {
+				builder.addProfiler(profiler.substring(0, separator), profiler.substring(separator + 1));
+			}
+		}
+
+		if (isJfrProfiling()) {
+			builder.addProfiler("jfr", "dir=" + getRecordingDirectory().toAbsolutePath());
+		}
+
+		if (isPerfProfiling() && LinuxPerf.isAvailable()) {
+			builder.addProfiler("perfnorm", "events=" + LinuxPerf.EVENTS);
+		}
+
+		if (AbstractStartupBenchmark.class.isAssignableFrom(benchmarkClass)) {
+			builder.addProfiler(StartupProfiler.class);
+		}
+
+		if (AbstractOpenLoopBenchmark.class.isAssignableFrom(benchmarkClass)) {
+			builder.addProfiler(OpenLoopProfiler.class);
+		}
+
+		if (AbstractVirtualThreadBenchmark.class.isAssignableFrom(benchmarkClass)) {
+			builder.addProfiler(VirtualThreadProfiler.class);
+		}
+
+		if (AnnotatedElementUtils.hasAnnotation(benchmarkClass, ContentionProfiling.class)) {
+			builder.addProfiler(ContentionProfiler.class);
+		}
+
+		return builder;
+	}
+
+	/**
+	 * Benchmark parameter overrides configured through {@code param.<name>=<value>[,<value>...]} properties, e.g.
+	 * {@code -Dparam.numberOfBooks=1000000}. Overrides replace the values declared through
+	 * {@link org.openjdk.jmh.annotations.Param}.
+	 *
+	 * @return parameter values by parameter name.
+	 */
+	Map<String, String[]> getParameters() {
+
+		Map<String, String[]> parameters = new TreeMap<>();
+
+		for (String name : getPropertyNames(PARAMETER_PREFIX)) {
+
+			String[] values = StringUtils
+					.trimArrayElements(StringUtils.commaDelimitedListToStringArray(environment.getProperty(name, "")));
+
+			parameters.put(name.substring(PARAMETER_PREFIX.length()), values);
+		}
+
+		return parameters;
+	}
+
+	/**
+	 * Properties to propagate to forked benchmark JVMs. JMH does not propagate system properties to forks when the
+	 * benchmark declares JVM arguments, so fixture settings ({@code fixture.*}) are passed explicitly.
+	 *
+	 * @return JVM arguments in the form of {@code -D<name>=<value>}.
+	 */
+	List<String> getForkedProperties() {
+
+		List<String> arguments = new ArrayList<>();
+
+		for (String name : getPropertyNames(FORKED_PROPERTY_PREFIX)) {
+			arguments.add("-D" + name + "=" + environment.getProperty(name, ""));
+		}
+
+		return arguments;
+	}
+
+	private Set<String> getPropertyNames(String prefix) {
+
+		Set<String> names = new TreeSet<>();
+
+		if (!(environment instanceof ConfigurableEnvironment)) {
+			return names;
+		}
+
+		for (PropertySource<?> propertySource : ((ConfigurableEnvironment) environment).getPropertySources()) {
+
+			if (!(propertySource instanceof EnumerablePropertySource)) {
+				continue;
+			}
+
+			for (String name : ((EnumerablePropertySource<?>) propertySource).getPropertyNames()) {
+				if (name.startsWith(prefix) && name.length() > prefix.length()) {
+					names.add(name);
+				}
+			}
+		}
+
+		return names;
+	}
+
+	/**
+	 * @return the benchmark mode ({@code thrpt}, {@code avgt}, {@code sample}, {@code ss} or the {@link Mode} name) to
+	 *         use instead of the annotated mode, or {@literal null} if not configured.
+	 */
+	Mode getMode() {
+
+		String mode = environment.getProperty("benchmarkMode", "").trim();
+		return StringUtils.hasText(mode) ? Mode.deepValueOf(mode) : null;
+	}
+
+	/**
+	 * @return the output time unit. Defaults to {@link TimeUnit#MICROSECONDS} when switching to a latency mode.
+	 */
+	TimeUnit getTimeUnit() {
+
+		String timeUnit = environment.getProperty("timeUnit", "").trim();
+
+		if (StringUtils.hasText(timeUnit)) {
+			return TimeUnit.valueOf(timeUnit.toUpperCase(Locale.ROOT));
+		}
+
+		Mode mode = getMode();
+		return mode != null && mode != Mode.Throughput ? TimeUnit.MICROSECONDS : null;
+	}
+
+	/**
+	 * Thread counts for a scaling sweep configured through the {@code scaling} property. {@code true} (or {@code max})
+	 * runs with powers of two up to the number of available processors ({@code 1, 2, 4, ..., N}), {@code max=<n>} up to
+	 * {@code n} threads. Alternatively, thread counts can be listed explicitly ({@code 1,4,16}).
+	 *
+	 * @return thread counts in ascending order, empty if scaling is not enabled.
+	 */
+	List<Integer> getThreadCounts() {
+
+		String scaling = environment.getProperty("scaling", "").trim().toLowerCase(Locale.ROOT);
+		TreeSet<Integer> threadCounts = new TreeSet<>();
+
+		if (!StringUtils.hasText(scaling) || "false".equals(scaling)) {
+			return new ArrayList<>(threadCounts);
+		}
+
+		if ("true".equals(scaling) || scaling.startsWith("max")) {
+
+			int max = scaling.startsWith("max=") ? Integer.parseInt(scaling.substring(4).trim())
+					: Runtime.getRuntime().availableProcessors();
+
+			for (int threads = 1; threads < max; threads *= 2) {
+				threadCounts.add(threads);
+			}
+			threadCounts.add(max);
+		} else {
+			for (String threads : StringUtils.commaDelimitedListToStringArray(scaling)) {
+				if (StringUtils.hasText(threads)) {
+					threadCounts.add(Integer.parseInt(threads.trim()));
+				}
+			}
+		}
+
+		threadCounts.removeIf(it -> it < 1);
+		return new ArrayList<>(threadCounts);
+	}
+
+	/**
+	 * Thread counts for a scaling sweep of the given benchmark class.
+	 *
+	 * @param benchmarkClass
+	 * @return thread counts in ascending order, empty if scaling is not enabled or the benchmark class is annotated with
+	 *         {@link ScalingUnsupported}.
+	 * @see #getThreadCounts()
+	 */
+	List<Integer> getThreadCounts(Class<?> benchmarkClass) {
+		return isScalingSupported(benchmarkClass) ? getThreadCounts() : new ArrayList<>();
+	}
+
+	/**
+	 * @param benchmarkClass
+	 * @return {@literal false} if the benchmark class is annotated with {@link ScalingUnsupported}.
+	 */
+	static boolean isScalingSupported(Class<?> benchmarkClass) {
+		return !AnnotatedElementUtils.hasAnnotation(benchmarkClass, ScalingUnsupported.class);
+	}
+
+	/**
+	 * @return minimum parallel efficiency (between {@code 0} and {@code 1}) below which scaling results are flagged.
+	 */
+	double getScalingThreshold() {
+		return environment.getProperty("scalingThreshold", Double.class, DEFAULT_SCALING_THRESHOLD);
+	}
+
+	/**
+	 * JVM profiles configured through the {@code jvmProfiles} property (comma-separated profile names). Profiles are
+	 * either {@link JvmProfile built-in} or defined through {@code jvmProfile.<name>=<jvm arguments>}, e.g.
+	 * {@code -DjvmProfile.g1-large="-XX:+UseG1GC -Xms8g -Xmx8g"}. {@code jvmProfileBenchmarks} restricts the matrix to
+	 * benchmark classes matching the given class name or regular expression.
+	 *
+	 * @param benchmarkClass
+	 * @return JVM profiles to run the benchmark class with, empty to run with the {@code @Fork} settings only.
+	 */
+	List<JvmProfile> getJvmProfiles(Class<?> benchmarkClass) {
+
+		List<JvmProfile> profiles = new ArrayList<>();
+
+		String selector = environment.getProperty("jvmProfileBenchmarks", "").trim();
+		if (StringUtils.hasText(selector) && !matches(selector, benchmarkClass.getSimpleName())
+				&& !matches(selector, benchmarkClass.getName())) {
+			return profiles;
+		}
+
+		for (String name : StringUtils.commaDelimitedListToStringArray(environment.getProperty("jvmProfiles", ""))) {
+			if (StringUtils.hasText(name)) {
+				profiles.add(JvmProfile.of(name.trim(), getJvmProfileDefinition(name.trim())));
+			}
+		}
+
+		return profiles;
+	}
+
+	private String getJvmProfileDefinition(String name) {
+
+		int separator = name.indexOf('@');
+		return environment.getProperty(JVM_PROFILE_PREFIX + (separator == -1 ? name : name.substring(0, separator)), "");
+	}
+
+	/**
+	 * @return relative score difference between the best and the worst JVM profile above which results are flagged as
+	 *         GC-sensitive.
+	 */
+	double getJvmProfileThreshold() {
+		return environment.getProperty("jvmProfileThreshold", Double.class, DEFAULT_JVM_PROFILE_THRESHOLD);
+	}
+
+	/**
+	 * @return {@literal true} if benchmarks should be measured adaptively ({@code adaptive=true}) instead of using fixed
+	 *         warmup and measurement iterations.
+	 */
+	boolean isAdaptive() {
+		return environment.getProperty("adaptive", Boolean.class, false);
+	}
+
+	/**
+	 * Create an {@link AdaptiveMeasurement} configured through {@code adaptiveTarget} (relative error to reach),
+	 * {@code adaptiveMaxWarmupIterations}, {@code adaptiveMaxForks} and {@code adaptiveMaxTime} (seconds per parameter
+	 * combination).
+	 *
+	 * @return
+	 */
+	AdaptiveMeasurement createAdaptiveMeasurement() {
+
+		return new AdaptiveMeasurement(environment.getProperty("adaptiveTarget", Double.class, DEFAULT_ADAPTIVE_TARGET),
+				Math.max(0, environment.getProperty("adaptiveMaxWarmupIterations", Integer.class,
+						DEFAULT_ADAPTIVE_MAX_WARMUP_ITERATIONS)),
+				Math.max(1, environment.getProperty("adaptiveMaxForks", Integer.class, DEFAULT_ADAPTIVE_MAX_FORKS)),
+				Duration.ofSeconds(environment.getProperty("adaptiveMaxTime", Integer.class, DEFAULT_ADAPTIVE_MAX_TIME)));
+	}
+
+	/**
+	 * @return {@literal true} if benchmarks should be profiled with Java Flight Recorder ({@code profile=jfr}).
+	 */
+	boolean isJfrProfiling() {
+		return getProfiles().contains("jfr");
+	}
+
+	/**
+	 * @return {@literal true} if hardware performance counters should be collected ({@code profile=perfnorm}).
+	 *         Counters are only collected if {@link LinuxPerf#isAvailable() perf is available}.
+	 */
+	boolean isPerfProfiling() {
+		return getProfiles().contains("perfnorm");
+	}
+
+	private Set<String> getProfiles() {
+
+		Set<String> profiles = new TreeSet<>();
+		for (String profile : StringUtils.commaDelimitedListToStringArray(environment.getProperty("profile", ""))) {
+			if (StringUtils.hasText(profile)) {
+				profiles.add(profile.trim().toLowerCase(Locale.ROOT));
+			}
+		}
+
+		return profiles;
+	}
+
+	/**
+	 * @return the directory to write JFR recordings to.
+	 */
+	Path getRecordingDirectory() {
+
+		String reportDirectory = getReportDirectory();
+		return Paths.get(StringUtils.hasText(reportDirectory) ? reportDirectory.trim() : ".", "jfr");
+	}
+
+	/**
+	 * @return the directory to write latency histograms ({@code .hgrm}) to.
+	 */
+	Path getHistogramDirectory() {
+
+		String reportDirectory = getReportDirectory();
+		return Paths.get(StringUtils.hasText(reportDirectory) ? reportDirectory.trim() : ".", "histograms");
+	}
+
+	/**
+	 * @return JMH profilers to attach. Defaults to the GC profiler, an empty {@code profilers} property disables
+	 *         profiling. Profiler options can be specified using {@code name:options}, e.g. {@code gc:churn=true}.
+	 */
+	List<String> getProfilers() {
+
+		String profilers = environment.getProperty("profilers", DEFAULT_PROFILERS);
+
+		List<String> result = new ArrayList<>();
+		for (String profiler : StringUtils.commaDelimitedListToStringArray(profilers)) {
+			if (StringUtils.hasText(profiler)) {
+				result.add(profiler.trim());
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * @return the directory to write the JSON report to, or {@literal null} if not configured.
+	 */
+	String getReportDirectory() {
+		return environment.getProperty("benchmarkReportDir");
+	}
+
+	/**
+	 * @return URIs to publish results to.
+	 */
+	List<String> getPublishTo() {
+
+		List<String> result = new ArrayList<>();
+		for (String uri : StringUtils.commaDelimitedListToStringArray(environment.getProperty("publishTo", ""))) {
+			if (StringUtils.hasText(uri)) {
+				result.add(uri.trim());
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Determine whether the benchmark method is selected through the {@code benchmark} property ({@code classname} or
+	 * {@code classname#benchmark}, both may be regular expressions).
+	 *
+	 * @param benchmarkClass
+	 * @param method
+	 * @return
+	 */
+	boolean isSelected(Class<?> benchmarkClass, Method method) {
+
+		String benchmark = environment.getProperty("benchmark", "");
+
+		if (!StringUtils.hasText(benchmark)) {
+			return true;
+		}
+
+		int separator = benchmark.indexOf('#');
+		String classSelector = separator == -1 ? benchmark : benchmark.substring(0, separator);
+		String methodSelector = separator == -1 ? "" : benchmark.substring(separator + 1);
+
+		boolean classMatches = !StringUtils.hasText(classSelector) || matches(classSelector, benchmarkClass.getSimpleName())
+				|| matches(classSelector, benchmarkClass.getName());
+
+		return classMatches && (!StringUtils.hasText(methodSelector) || matches(methodSelector, method.getName())
+				|| matches(methodSelector, getBenchmarkName(method)));
+	}
+
+	/**
+	 * Return the JMH benchmark name of the given method. Methods of a {@link Group} run as a single benchmark named
+	 * after the group.
+	 *
+	 * @param method
+	 * @return the group name or the method name.
+	 */
+	static String getBenchmarkName(Method method) {
+
+		Group group = method.getAnnotation(Group.class);
+		return group != null ? group.value() : method.getName();
+	}
+
+	private static boolean matches(String selector, String name) {
+
+		if (selector.equals(name)) {
+			return true;
+		}
+
+		try {
+			return Pattern.compile(selector).matcher(name).matches();
+		} catch (PatternSyntaxException e) {
+			return false;
+		}
+	}
+}
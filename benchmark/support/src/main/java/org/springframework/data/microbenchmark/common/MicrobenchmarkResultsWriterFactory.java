@@ -27,6 +27,16 @@ public class MicrobenchmarkResultsWriterFactory implements ResultsWriterFactory
 
 	@Override
 	public ResultsWriter forUri(String uri) {
+		return createWriter(uri);
+	}
+
+	/**
+	 * Create a {@link RunResultsWriter} for the given {@code uri}.
+	 *
+	 * @param uri
+	 * @return the {@link RunResultsWriter} or {@literal null} if the {@code uri} is not supported.
+	 */
+	static RunResultsWriter createWriter(String uri) {
 
 		if (uri.startsWith("http")) {
 			return new HttpResultsWriter(uri);
@@ -36,6 +46,10 @@ public class MicrobenchmarkResultsWriterFactory implements ResultsWriterFactory
 			return new MongoResultsWriter(uri);
 		}
 
+		if (uri.startsWith("file:")) {
+			return new FileResultsWriter(uri);
+		}
+
 		return null;
 	}
 }
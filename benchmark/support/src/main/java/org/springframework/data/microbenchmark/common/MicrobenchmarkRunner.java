@@ -0,0 +1,575 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import net.minidev.json.JSONStyle;
+import net.minidev.json.parser.ParseException;
+
+import org.junit.runner.Description;
+import org.junit.runner.Runner;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.Filterable;
+import org.junit.runner.manipulation.NoTestsRemainException;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunNotifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.format.OutputFormatFactory;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * JUnit 4 {@link Runner} executing JMH benchmarks of a benchmark class. Each {@link Benchmark} method is reported as
+ * individual test, methods of a {@link org.openjdk.jmh.annotations.Group} are reported as a single test named after
+ * the group. The runner applies harness options (see {@link MicrobenchmarkOptions}), writes a JSON report of
+ * {@link ResultsJson enriched} results to {@code benchmarkReportDir} and publishes results to the {@code publishTo} sinks. When profiling with Java Flight
+ * Recorder, the runner renders a flame graph for each recording. Latency distributions of
+ * {@link org.openjdk.jmh.annotations.Mode#SampleTime} results are written as HdrHistogram {@code .hgrm} files.
+ * <p>
+ * In scaling mode, each benchmark is run once per configured thread count followed by a {@link ScalabilityReport}.
+ * Benchmark classes annotated with {@link ScalingUnsupported} run once at their declared thread count.
+ * Open-loop benchmarks ({@link AbstractOpenLoopBenchmark}) are followed by a {@link SaturationReport} across target
+ * rates. Virtual thread benchmarks ({@link AbstractVirtualThreadBenchmark}) report virtual threads pinned to their
+ * carrier thread.
+ * <p>
+ * With {@link JvmProfile JVM profiles} configured, each benchmark is run once per profile followed by a
+ * {@link JvmProfileReport} comparing the profiles.
+ * <p>
+ * Hardware performance counters are collected through the JMH {@code perfnorm} profiler if requested and
+ * {@link LinuxPerf perf} is available.
+ * <p>
+ * Benchmark methods declaring a {@link PerformanceBudget} fail if their results exceed the budget. Baseline methods
+ * referenced by a budget must be benchmark methods of the same class, they are run along with and before the
+ * benchmarks that refer to them.
+ *
+ * @see AbstractMicrobenchmark
+ * @see MicrobenchmarkOptions
+ * @see PerformanceBudget
+ */
+public class MicrobenchmarkRunner extends Runner implements Filterable {
+
+	private final Class<?> benchmarkClass;
+	private final MicrobenchmarkOptions options;
+	private final Map<Description, Method> benchmarks = new LinkedHashMap<>();
+
+	public MicrobenchmarkRunner(Class<?> benchmarkClass) {
+
+		this.benchmarkClass = benchmarkClass;
+		this.options = MicrobenchmarkOptions.fromEnvironment();
+
+		if (Modifier.isAbstract(benchmarkClass.getModifiers())) {
+			return;
+		}
+
+		Map<String, Method> methods = new LinkedHashMap<>();
+		ReflectionUtils.doWithMethods(benchmarkClass, method -> methods.putIfAbsent(method.getName(), method),
+				method -> method.isAnnotationPresent(Benchmark.class));
+
+		PerformanceBudgets.verifyBaselines(benchmarkClass, methods.values());
+
+		// baselines of selected benchmarks run along so that relative budgets can be verified
+		Set<String> baselines = new HashSet<>();
+		for (Method method : methods.values()) {
+
+			String baseline = PerformanceBudgets.getBaseline(method);
+			if (baseline != null && options.isSelected(benchmarkClass, method)) {
+				baselines.add(baseline);
+			}
+		}
+
+		Set<String> names = new HashSet<>();
+		for (Method method : methods.values()) {
+
+			// methods of a group run together, the first method represents the group
+			String name = MicrobenchmarkOptions.getBenchmarkName(method);
+
+			if ((options.isSelected(benchmarkClass, method) || baselines.contains(method.getName())) && names.add(name)) {
+				benchmarks.put(Description.createTestDescription(benchmarkClass, name), method);
+			}
+		}
+	}
+
+	@Override
+	public Description getDescription() {
+
+		Description description = Description.createSuiteDescription(benchmarkClass);
+		benchmarks.keySet().forEach(description::addChild);
+
+		return description;
+	}
+
+	@Override
+	public void filter(Filter filter) throws NoTestsRemainException {
+
+		benchmarks.keySet().removeIf(it -> !filter.shouldRun(it));
+
+		if (benchmarks.isEmpty()) {
+			throw new NoTestsRemainException();
+		}
+	}
+
+	@Override
+	public void run(RunNotifier notifier) {
+
+		if (benchmarks.isEmpty()) {
+			return;
+		}
+
+		OutputFormat output = OutputFormatFactory.createFormatInstance(System.out, VerboseMode.NORMAL);
+		List<RunResult> results = new ArrayList<>();
+		Map<String, Collection<RunResult>> resultsByMethod = new HashMap<>();
+		List<RunResultsWriter> writers = createWriters(output);
+		List<JvmProfile> jvmProfiles = options.getJvmProfiles(benchmarkClass);
+
+		if (options.isPerfProfiling() && !LinuxPerf.isAvailable()) {
+			output.println("WARNING: perf is not available, running without hardware performance counters");
+		}
+
+		if (!options.getThreadCounts().isEmpty() && !MicrobenchmarkOptions.isScalingSupported(benchmarkClass)) {
+			output.println("WARNING: " + benchmarkClass.getSimpleName()
+					+ " does not support thread scaling, running at its declared thread count");
+		}
+
+		for (Map.Entry<Description, Method> entry : getExecutionOrder()) {
+
+			Description description = entry.getKey();
+			Method method = entry.getValue();
+			notifier.fireTestStarted(description);
+
+			try {
+
+				Collection<RunResult> methodResults = runBenchmark(method, jvmProfiles);
+				results.addAll(methodResults);
+				resultsByMethod.put(method.getName(), methodResults);
+
+				if (options.isJfrProfiling()) {
+					renderFlameGraphs(output, method);
+				}
+
+				if (options.isAdaptive()) {
+					reportAdaptive(output, method, methodResults);
+				}
+
+				writeHistograms(output, methodResults);
+
+				for (RunResultsWriter writer : writers) {
+					if (writer.isIncremental()) {
+						writer.write(output, methodResults);
+					}
+				}
+
+				if (!options.getThreadCounts(benchmarkClass).isEmpty()) {
+					reportScalability(output, method, methodResults);
+				}
+
+				if (!jvmProfiles.isEmpty()) {
+					reportJvmProfiles(output, method, methodResults);
+				}
+
+				if (AbstractOpenLoopBenchmark.class.isAssignableFrom(benchmarkClass)) {
+					reportSaturation(output, method, methodResults);
+				}
+
+				if (AbstractVirtualThreadBenchmark.class.isAssignableFrom(benchmarkClass)) {
+					reportPinning(output, methodResults);
+				}
+
+				String baseline = PerformanceBudgets.getBaseline(method);
+				Collection<RunResult> baselineResults = baseline != null ? resultsByMethod.get(baseline) : null;
+
+				if (baseline != null && (baselineResults == null || baselineResults.isEmpty())) {
+					notifier.fireTestFailure(new Failure(description, new AssertionError(
+							"Cannot verify performance budget: baseline " + baseline + " has no results (filtered or failed)")));
+					continue;
+				}
+
+				List<String> violations = PerformanceBudgets.verify(output, method, methodResults, baselineResults);
+
+				if (!violations.isEmpty()) {
+					notifier.fireTestFailure(new Failure(description,
+							new AssertionError("Performance budget not met: " + String.join("; ", violations))));
+				}
+			} catch (RunnerException | IOException | RuntimeException e) {
+				notifier.fireTestFailure(new Failure(description, e));
+			} finally {
+				notifier.fireTestFinished(description);
+			}
+		}
+
+		if (results.isEmpty()) {
+			return;
+		}
+
+		writeReport(output, results);
+		publishResults(output, writers, results);
+	}
+
+	/**
+	 * Order benchmarks so that baseline methods referenced by a {@link PerformanceBudget} run first.
+	 *
+	 * @return
+	 */
+	private List<Map.Entry<Description, Method>> getExecutionOrder() {
+
+		Set<String> baselines = new HashSet<>();
+		for (Method method : benchmarks.values()) {
+
+			String baseline = PerformanceBudgets.getBaseline(method);
+			if (baseline != null) {
+				baselines.add(baseline);
+			}
+		}
+
+		List<Map.Entry<Description, Method>> order = new ArrayList<>();
+		benchmarks.entrySet().stream().filter(it -> baselines.contains(it.getValue().getName())).forEach(order::add);
+		benchmarks.entrySet().stream().filter(it -> !baselines.contains(it.getValue().getName())).forEach(order::add);
+
+		return order;
+	}
+
+	private Collection<RunResult> runBenchmark(Method method, List<JvmProfile> jvmProfiles) throws RunnerException {
+
+		if (jvmProfiles.isEmpty()) {
+			return runWithJvmProfile(method, null);
+		}
+
+		List<RunResult> results = new ArrayList<>();
+		for (JvmProfile jvmProfile : jvmProfiles) {
+			results.addAll(runWithJvmProfile(method, jvmProfile));
+		}
+
+		return results;
+	}
+
+	private Collection<RunResult> runWithJvmProfile(Method method, JvmProfile jvmProfile) throws RunnerException {
+
+		List<Integer> threadCounts = options.getThreadCounts(benchmarkClass);
+
+		if (threadCounts.isEmpty()) {
+			return execute(options.createOptions(benchmarkClass, method, jvmProfile).build());
+		}
+
+		List<RunResult> results = new ArrayList<>();
+		for (int threads : threadCounts) {
+			results.addAll(execute(options.createOptions(benchmarkClass, method, jvmProfile).threads(threads).build()));
+		}
+
+		return results;
+	}
+
+	private Collection<RunResult> execute(Options jmhOptions) throws RunnerException {
+
+		if (options.isAdaptive()) {
+			return options.createAdaptiveMeasurement().run(jmhOptions);
+		}
+
+		return new org.openjdk.jmh.runner.Runner(jmhOptions).run();
+	}
+
+	/**
+	 * Report how adaptive measurements ended, warning about results that did not reach the target error or whose warmup
+	 * did not settle.
+	 *
+	 * @param output
+	 * @param method
+	 * @param results
+	 * @throws IOException
+	 */
+	private void reportAdaptive(OutputFormat output, Method method, Collection<RunResult> results) throws IOException {
+
+		for (RunResult result : results) {
+
+			if (!(result instanceof AdaptiveRunResult)) {
+				continue;
+			}
+
+			AdaptiveRunResult adaptive = (AdaptiveRunResult) result;
+			Result<?> primary = result.getPrimaryResult();
+			String benchmark = MongoResultsWriter.extractBenchmarkName(result.getParams().getBenchmark())
+					+ (result.getParams().getParamsKeys().isEmpty() ? "" : " " + getParams(result.getParams()));
+
+			output.println(String.format(Locale.ROOT,
+					"Adaptive measurement of %s: %.3f +- %.3f %s, %s after %d fork(s), %d warmup and %d measurement iterations, error %.2f%% (target %.2f%%) in %d s",
+					benchmark, primary.getScore(), primary.getScoreError(), primary.getScoreUnit(), adaptive.getStoppingReason(),
+					adaptive.getForks(), adaptive.getWarmupIterations(), adaptive.getMeasurementIterations(),
+					adaptive.getRelativeError() * 100, adaptive.getTarget() * 100, adaptive.getDuration().getSeconds()));
+
+			if (!adaptive.isSteadyState()) {
+				output.println(String.format(Locale.ROOT,
+						"WARNING: %s did not reach a steady state within %d warmup iterations", benchmark,
+						adaptive.getWarmupIterations()));
+			}
+
+			if (adaptive.getStoppingReason() != AdaptiveMeasurement.StoppingReason.CONVERGED) {
+				output.println(String.format(Locale.ROOT, "WARNING: %s stopped at %s with error %.2f%% above target %.2f%%",
+						benchmark, adaptive.getStoppingReason(), adaptive.getRelativeError() * 100, adaptive.getTarget() * 100));
+			}
+		}
+
+		String reportDirectory = options.getReportDirectory();
+		if (StringUtils.hasText(reportDirectory)) {
+			AdaptiveRunResult.writeCsv(
+					Paths.get(reportDirectory.trim(), "adaptive", benchmarkClass.getName() + "." + method.getName() + ".csv"),
+					results);
+		}
+	}
+
+	private void reportScalability(OutputFormat output, Method method, Collection<RunResult> results)
+			throws IOException {
+
+		ScalabilityReport report = new ScalabilityReport(results, options.getScalingThreshold());
+		report.print(output);
+
+		String reportDirectory = options.getReportDirectory();
+		if (StringUtils.hasText(reportDirectory)) {
+			report.writeCsv(Paths.get(reportDirectory.trim(), "scalability",
+					benchmarkClass.getName() + "." + method.getName() + ".csv"));
+		}
+
+		for (ScalabilityReport.Entry entry : report.getFlagged()) {
+			output.println(String.format(Locale.ROOT, "WARNING: %s scales poorly at %d threads (efficiency %.1f%%)",
+					entry.getName(), entry.getThreads(), entry.getEfficiency() * 100));
+		}
+	}
+
+	/**
+	 * Compare results of the benchmark method across JVM profiles.
+	 *
+	 * @param output
+	 * @param method
+	 * @param results
+	 * @throws IOException
+	 */
+	private void reportJvmProfiles(OutputFormat output, Method method, Collection<RunResult> results)
+			throws IOException {
+
+		JvmProfileReport report = new JvmProfileReport(results, options.getJvmProfileThreshold());
+
+		if (report.isEmpty()) {
+			return;
+		}
+
+		report.print(output);
+
+		String reportDirectory = options.getReportDirectory();
+		if (StringUtils.hasText(reportDirectory)) {
+			report.writeCsv(Paths.get(reportDirectory.trim(), "jvm-profiles",
+					benchmarkClass.getName() + "." + method.getName() + ".csv"));
+		}
+
+		for (JvmProfileReport.Group group : report.getFlagged()) {
+			output.println(String.format(Locale.ROOT,
+					"WARNING: %s is GC-sensitive, %s is %.1f%% slower than %s", group.getName(),
+					group.getWorst().getProfile(), group.getSpread() * 100, group.getBest().getProfile()));
+		}
+	}
+
+	/**
+	 * Report the saturation knee of open-loop benchmarks across target rates.
+	 *
+	 * @param output
+	 * @param method
+	 * @param results
+	 * @throws IOException
+	 */
+	private void reportSaturation(OutputFormat output, Method method, Collection<RunResult> results)
+			throws IOException {
+
+		SaturationReport report = new SaturationReport(results);
+
+		if (report.isEmpty()) {
+			return;
+		}
+
+		report.print(output);
+
+		String reportDirectory = options.getReportDirectory();
+		if (StringUtils.hasText(reportDirectory)) {
+			report.writeCsv(Paths.get(reportDirectory.trim(), "saturation",
+					benchmarkClass.getName() + "." + method.getName() + ".csv"));
+		}
+
+		for (SaturationReport.Group group : report.getSaturated()) {
+			output.println(String.format(Locale.ROOT, "WARNING: %s saturates at %d ops/s (sustainable: %d ops/s)",
+					group.getName(), group.getKnee().getTargetRate(), group.getSustainableRate()));
+		}
+	}
+
+	/**
+	 * Report benchmarks whose virtual threads blocked while pinned to their carrier thread.
+	 *
+	 * @param output
+	 * @param results
+	 */
+	private void reportPinning(OutputFormat output, Collection<RunResult> results) {
+
+		for (RunResult result : results) {
+
+			Result<?> pinned = result.getSecondaryResults().get(VirtualThreadProfiler.PINNED);
+			Result<?> pinnedTime = result.getSecondaryResults().get(VirtualThreadProfiler.PINNED_TIME);
+
+			if (pinned == null || pinned.getScore() == 0) {
+				continue;
+			}
+
+			BenchmarkParams params = result.getParams();
+			output.println(String.format(Locale.ROOT,
+					"WARNING: %s %s pinned virtual threads %.0f times for %.1f ms, see %s",
+					MongoResultsWriter.extractBenchmarkName(params.getBenchmark()), getParams(params), pinned.getScore(),
+					pinnedTime != null ? pinnedTime.getScore() : 0, VirtualThreadProfiler.PINNED_SITES));
+		}
+	}
+
+	private static String getParams(BenchmarkParams params) {
+
+		Map<String, String> values = new TreeMap<>();
+		for (String key : params.getParamsKeys()) {
+			values.put(key, params.getParam(key));
+		}
+
+		return values.toString();
+	}
+
+	/**
+	 * Render flame graphs for all JFR recordings of the benchmark method (one recording per parameter combination).
+	 *
+	 * @param output
+	 * @param method
+	 * @throws IOException
+	 */
+	private void renderFlameGraphs(OutputFormat output, Method method) throws IOException {
+
+		Path recordingDirectory = options.getRecordingDirectory();
+		String prefix = benchmarkClass.getName() + "." + MicrobenchmarkOptions.getBenchmarkName(method) + "-";
+
+		if (!Files.isDirectory(recordingDirectory)) {
+			return;
+		}
+
+		try (Stream<Path> directories = Files.list(recordingDirectory)) {
+
+			for (Path directory : (Iterable<Path>) directories::iterator) {
+
+				Path recording = directory.resolve("profile.jfr");
+				if (!directory.getFileName().toString().startsWith(prefix) || !Files.exists(recording)) {
+					continue;
+				}
+
+				JfrFlameGraph graph = JfrFlameGraph.read(recording);
+				graph.writeCollapsed(directory.resolve("profile.collapsed"));
+				graph.writeHtml(directory.resolve("flamegraph.html"), directory.getFileName().toString());
+
+				output.println("");
+				output.println("Flame graph (" + graph.getSamples() + " samples): "
+						+ directory.resolve("flamegraph.html").toAbsolutePath());
+
+				for (Map.Entry<String, Long> frame : graph.getHotFrames(10)) {
+					output.println(
+							String.format("  %6.2f%%  %s", frame.getValue() * 100.0 / graph.getSamples(), frame.getKey()));
+				}
+			}
+		}
+	}
+
+	private void writeHistograms(OutputFormat output, Collection<RunResult> results) throws IOException {
+
+		for (RunResult result : results) {
+
+			if (LatencyHistograms.hasSamples(result)) {
+				output.println("Latency histogram: "
+						+ LatencyHistograms.writeHgrm(options.getHistogramDirectory(), result).toAbsolutePath());
+			}
+		}
+	}
+
+	private void writeReport(OutputFormat output, Collection<RunResult> results) {
+
+		String reportDirectory = options.getReportDirectory();
+
+		if (!StringUtils.hasText(reportDirectory)) {
+			return;
+		}
+
+		File directory = new File(reportDirectory.trim());
+		if (!directory.exists() && !directory.mkdirs()) {
+			output.println("Cannot create report directory " + directory);
+			return;
+		}
+
+		File report = new File(directory, benchmarkClass.getName() + ".json");
+
+		try {
+			Files.write(report.toPath(),
+					ResultsJson.toJson(results).toJSONString(JSONStyle.NO_COMPRESS).getBytes(StandardCharsets.UTF_8));
+		} catch (IOException | ParseException e) {
+			output.println("Cannot write report " + report + ": " + e.getMessage());
+		}
+	}
+
+	private List<RunResultsWriter> createWriters(OutputFormat output) {
+
+		List<RunResultsWriter> writers = new ArrayList<>();
+
+		for (String uri : options.getPublishTo()) {
+
+			RunResultsWriter writer = MicrobenchmarkResultsWriterFactory.createWriter(uri);
+
+			if (writer == null) {
+				output.println("No results writer available for " + uri);
+				continue;
+			}
+
+			writers.add(writer);
+		}
+
+		return writers;
+	}
+
+	private void publishResults(OutputFormat output, List<RunResultsWriter> writers, Collection<RunResult> results) {
+
+		for (RunResultsWriter writer : writers) {
+			if (!writer.isIncremental()) {
+				writer.write(output, results);
+			}
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+
+/**
+ * Local spool for result documents that could not be written to MongoDB. Documents are stored as
+ * {@link JsonMode#EXTENDED extended JSON} lines in {@code <directory>/<database>/<collection>/} so that types such as
+ * dates survive replay. Each spooled batch is a separate file that is deleted once it has been replayed.
+ *
+ * @see MongoResultsWriter
+ */
+class MongoResultsSpool {
+
+	private static final String FILE_EXTENSION = ".jsonl";
+	private static final JsonWriterSettings JSON = JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+
+	private final Path directory;
+
+	/**
+	 * @param directory spool directory for a single database.
+	 */
+	MongoResultsSpool(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Spool documents of a single collection.
+	 *
+	 * @param collection
+	 * @param documents
+	 * @return the spool file.
+	 * @throws IOException
+	 */
+	Path spool(String collection, List<Document> documents) throws IOException {
+
+		Path collectionDirectory = Files.createDirectories(directory.resolve(collection));
+		Path file = collectionDirectory
+				.resolve(new SimpleDateFormat("yyyyMMdd'T'HHmmssSSS").format(new Date()) + "-" + System.nanoTime()
+						+ FILE_EXTENSION);
+
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			for (Document document : documents) {
+				writer.write(document.toJson(JSON));
+				writer.newLine();
+			}
+		}
+
+		return file;
+	}
+
+	/**
+	 * @return spooled batches ordered by collection and spool time.
+	 * @throws IOException
+	 */
+	List<Batch> list() throws IOException {
+
+		List<Batch> batches = new ArrayList<>();
+
+		if (!Files.isDirectory(directory)) {
+			return batches;
+		}
+
+		try (Stream<Path> collections = Files.list(directory)) {
+			for (Path collection : (Iterable<Path>) collections.filter(Files::isDirectory).sorted()::iterator) {
+				try (Stream<Path> files = Files.list(collection)) {
+					files.filter(it -> it.getFileName().toString().endsWith(FILE_EXTENSION)).sorted()
+							.forEach(it -> batches.add(new Batch(collection.getFileName().toString(), it)));
+				}
+			}
+		}
+
+		return batches;
+	}
+
+	/**
+	 * Spooled documents of a single collection.
+	 */
+	static class Batch {
+
+		private final String collection;
+		private final Path file;
+
+		Batch(String collection, Path file) {
+			this.collection = collection;
+			this.file = file;
+		}
+
+		String getCollection() {
+			return collection;
+		}
+
+		Path getFile() {
+			return file;
+		}
+
+		List<Document> read() throws IOException {
+
+			List<Document> documents = new ArrayList<>();
+			for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+				if (!line.isBlank()) {
+					documents.add(Document.parse(line));
+				}
+			}
+
+			return documents;
+		}
+
+		void delete() throws IOException {
+			Files.deleteIfExists(file);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2018-2022 the original author or authors.
+ * Copyright 2018-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,57 +16,96 @@
 package org.springframework.data.microbenchmark.common;
 
 import jmh.mbr.core.ResultsWriter;
-import jmh.mbr.core.model.BenchmarkResults;
 import lombok.RequiredArgsConstructor;
 import net.minidev.json.JSONArray;
 import net.minidev.json.JSONObject;
-import net.minidev.json.parser.JSONParser;
 import net.minidev.json.parser.ParseException;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.openjdk.jmh.results.RunResult;
 import org.openjdk.jmh.runner.format.OutputFormat;
 import org.springframework.core.env.StandardEnvironment;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
 import com.mongodb.ConnectionString;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.TimeSeriesGranularity;
+import com.mongodb.client.model.TimeSeriesOptions;
 
 /**
- * MongoDB specific {@link ResultsWriter} implementation.
+ * MongoDB specific {@link ResultsWriter} implementation. Results are written with one {@code insertMany} per benchmark
+ * class into a collection named after the class. New collections are created as time-series collections
+ * ({@code _date} as time field, {@code _method} as meta field) where supported, all collections are indexed by commit,
+ * branch, date and environment fingerprint.
+ * <p>
+ * Clients are created from the connection string and reused across writers for the lifetime of the JVM. Unless the
+ * connection string configures {@code serverSelectionTimeoutMS}, an unreachable server fails fast and results are
+ * spooled to {@code spoolDirectory} (defaults to {@code <benchmarkReportDir>/spool}) instead. Spooled results are
+ * replayed on the next successful write to the same database. If an insert fails part-way, only the documents that
+ * were not written are spooled. Documents get their {@code _id} before the first insert attempt so that a replay
+ * skips documents already written by an interrupted insert.
  *
  * @author Christoph Strobl
  * @author Mark Paluch
  * @author Roman Puchkovskiy
+ * @see MongoResultsSpool
  */
 @RequiredArgsConstructor
-class MongoResultsWriter implements ResultsWriter {
+class MongoResultsWriter implements RunResultsWriter {
+
+	static final String DEFAULT_DATABASE = "spring-data-mongodb-benchmarks";
+	static final long DEFAULT_SERVER_SELECTION_TIMEOUT_MS = 5000;
+
+	private static final Map<String, MongoClient> clients = new ConcurrentHashMap<>();
+	private static final Set<String> initializedCollections = ConcurrentHashMap.newKeySet();
 
 	private final String uri;
 
 	@Override
-	public void write(OutputFormat output, BenchmarkResults benchmarkResults) {
+	public void write(OutputFormat output, Collection<RunResult> results) {
 
-		if (CollectionUtils.isEmpty(benchmarkResults.getRawResults())) {
+		if (CollectionUtils.isEmpty(results)) {
 			return;
 		}
 
 		try {
-			doWrite(benchmarkResults.getRawResults());
-		} catch (ParseException | RuntimeException e) {
+			doWrite(output, results);
+		} catch (IOException | ParseException | RuntimeException e) {
 			output.println("Failed to write results: " + e.toString());
 		}
 	}
 
-	private void doWrite(Collection<RunResult> results) throws ParseException {
+	private void doWrite(OutputFormat output, Collection<RunResult> results) throws IOException, ParseException {
 
 		Date now = new Date();
 		StandardEnvironment env = new StandardEnvironment();
@@ -77,77 +116,248 @@ class MongoResultsWriter implements ResultsWriter {
 		String gitCommitId = env.getProperty("git.commit.id", "unknown");
 
 		ConnectionString uri = new ConnectionString(this.uri);
-		MongoClient client = MongoClients.create();
+		String dbName = StringUtils.hasText(uri.getDatabase()) ? uri.getDatabase() : DEFAULT_DATABASE;
+		MongoResultsSpool spool = new MongoResultsSpool(RunResultsWriter.getSpoolDirectory(env).resolve(dbName));
 
-		String dbName = StringUtils.hasText(uri.getDatabase()) ? uri.getDatabase() : "spring-data-mongodb-benchmarks";
-		MongoDatabase db = client.getDatabase(dbName);
+		Map<String, List<Document>> documentsByClass = new LinkedHashMap<>();
 
-		String resultsJson = HttpResultsWriter.jsonifyResults(results).trim();
-		JSONArray array = (JSONArray) new JSONParser(JSONParser.MODE_PERMISSIVE).parse(resultsJson);
+		JSONArray array = ResultsJson.toJson(results);
 		for (Object object : array) {
 			JSONObject dbo = (JSONObject) object;
 
-			String collectionName = extractClass(dbo.get("benchmark").toString());
+			String benchmark = dbo.getAsString("benchmark");
 
 			Document sink = new Document();
+			sink.append("_id", new ObjectId());
 			sink.append("_version", projectVersion);
 			sink.append("_branch", gitBranch);
 			sink.append("_commit", gitCommitId);
 			sink.append("_dirty", gitDirty);
-			sink.append("_method", extractBenchmarkName(dbo.get("benchmark").toString()));
+			sink.append("_method", extractBenchmarkName(benchmark));
 			sink.append("_date", now);
 			sink.append("_snapshot", projectVersion.toLowerCase().contains("snapshot"));
 
-			sink.putAll(dbo);
+			appendSanitized(dbo, sink);
+
+			documentsByClass.computeIfAbsent(extractClass(benchmark), key -> new ArrayList<>()).add(sink);
+		}
+
+		MongoDatabase db;
+		try {
+			db = getClient(uri).getDatabase(dbName);
+			replay(output, db, spool);
+		} catch (MongoException e) {
+
+			output.println("Cannot reach " + this.uri + ": " + e.getMessage());
+
+			for (Map.Entry<String, List<Document>> entry : documentsByClass.entrySet()) {
+				output.println("Spooled results of " + entry.getKey() + " to "
+						+ spool.spool(entry.getKey(), entry.getValue()).toAbsolutePath());
+			}
+
+			return;
+		}
+
+		for (Map.Entry<String, List<Document>> entry : documentsByClass.entrySet()) {
+
+			try {
+				insert(db, entry.getKey(), entry.getValue());
+			} catch (MongoException e) {
+
+				List<Document> failed = getFailedDocuments(e, entry.getValue());
+				output.println("Failed to write " + failed.size() + " of " + entry.getValue().size() + " results of "
+						+ entry.getKey() + ": " + e.getMessage() + spool(spool, entry.getKey(), failed));
+			}
+		}
+	}
+
+	/**
+	 * Write spooled results of previous runs.
+	 *
+	 * @param output
+	 * @param db
+	 * @param spool
+	 * @throws IOException
+	 */
+	private static void replay(OutputFormat output, MongoDatabase db, MongoResultsSpool spool) throws IOException {
+
+		for (MongoResultsSpool.Batch batch : spool.list()) {
+
+			List<Document> documents = getUnwritten(db, batch.getCollection(), batch.read());
+
+			try {
+				insert(db, batch.getCollection(), documents);
+			} catch (MongoBulkWriteException e) {
+
+				List<Document> failed = getFailedDocuments(e, documents);
+				output.println("Failed to replay " + failed.size() + " of " + documents.size() + " spooled results of "
+						+ batch.getCollection() + " from " + batch.getFile() + ": " + e.getMessage()
+						+ spool(spool, batch.getCollection(), failed));
+
+				batch.delete();
+				continue;
+			}
+
+			batch.delete();
+
+			output.println("Replayed spooled results of " + batch.getCollection() + " from " + batch.getFile());
+		}
+	}
+
+	private static String spool(MongoResultsSpool spool, String collection, List<Document> documents)
+			throws IOException {
+		return documents.isEmpty() ? "" : ", spooled to " + spool.spool(collection, documents).toAbsolutePath();
+	}
+
+	/**
+	 * Remove documents that are already present in the collection, e.g. written by an insert that failed part-way without
+	 * reporting individual write errors. Time-series collections do not enforce unique {@code _id}s, so such documents
+	 * would otherwise be inserted twice.
+	 *
+	 * @param db
+	 * @param collectionName
+	 * @param documents spooled documents.
+	 * @return the documents that were not written yet.
+	 */
+	private static List<Document> getUnwritten(MongoDatabase db, String collectionName, List<Document> documents) {
+
+		List<Object> ids = documents.stream().map(it -> it.get("_id")).filter(Objects::nonNull)
+				.collect(Collectors.toList());
 
-			db.getCollection(collectionName).insertOne(fixDocumentKeys(sink));
+		if (ids.isEmpty()) {
+			return documents;
 		}
 
-		client.close();
+		List<Object> dates = documents.stream().map(it -> it.get("_date")).filter(Objects::nonNull).distinct()
+				.collect(Collectors.toList());
+
+		// _date narrows the lookup to the matching buckets of time-series collections
+		Set<Object> written = db.getCollection(collectionName)
+				.find(Filters.and(Filters.in("_date", dates), Filters.in("_id", ids))).projection(Projections.include("_id"))
+				.map(it -> it.get("_id")).into(new HashSet<>());
+
+		return written.isEmpty() ? documents
+				: documents.stream().filter(it -> !written.contains(it.get("_id"))).collect(Collectors.toList());
 	}
 
 	/**
-	 * Replace {@code .} by {@code ,}.
+	 * Determine the documents that were not written. An unordered {@code insertMany} may fail part-way, only the
+	 * documents reported as write errors of a {@link MongoBulkWriteException} were not written and must be spooled to
+	 * avoid inserting the remaining documents twice on replay. Duplicate key errors denote documents that were already
+	 * written by an earlier attempt and count as written.
 	 *
-	 * @param doc
+	 * @param e
+	 * @param documents the documents passed to {@code insertMany}.
 	 * @return
 	 */
-	private static Document fixDocumentKeys(Document doc) {
+	static List<Document> getFailedDocuments(MongoException e, List<Document> documents) {
 
-		Document sanitized = new Document();
+		if (!(e instanceof MongoBulkWriteException)) {
+			return documents;
+		}
 
-		for (Object key : doc.keySet()) {
+		List<Document> failed = new ArrayList<>();
+		for (BulkWriteError error : ((MongoBulkWriteException) e).getWriteErrors()) {
 
-			Object value = doc.get(key);
-			if (value instanceof Document) {
-				value = fixDocumentKeys((Document) value);
-			} else if (value instanceof Map) {
-				value = fixDocumentKeys(new Document((Map<String, Object>) value));
+			if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+				failed.add(documents.get(error.getIndex()));
 			}
+		}
 
-			if (key instanceof String) {
+		return failed;
+	}
+
+	private static void insert(MongoDatabase db, String collectionName, List<Document> documents) {
+
+		if (documents.isEmpty()) {
+			return;
+		}
+
+		initializeCollection(db, collectionName);
+		db.getCollection(collectionName).insertMany(documents, new InsertManyOptions().ordered(false));
+	}
+
+	/**
+	 * Create the collection as time-series collection if it does not exist yet and ensure indexes. Existing collections
+	 * are used as-is. Falls back to a regular collection if the server does not support time-series collections.
+	 *
+	 * @param db
+	 * @param collectionName
+	 */
+	private static void initializeCollection(MongoDatabase db, String collectionName) {
+
+		if (!initializedCollections.add(db.getName() + "." + collectionName)) {
+			return;
+		}
 
-				String newKey = (String) key;
-				if (newKey.contains(".")) {
-					newKey = newKey.replace('.', ',');
-				}
+		boolean exists = db.listCollectionNames().into(new ArrayList<>()).contains(collectionName);
 
-				sanitized.put(newKey, value);
-			} else {
-				sanitized.put(ObjectUtils.nullSafeToString(key).replace('.', ','), value);
+		if (!exists) {
+			try {
+				db.createCollection(collectionName, new CreateCollectionOptions().timeSeriesOptions(
+						new TimeSeriesOptions("_date").metaField("_method").granularity(TimeSeriesGranularity.HOURS)));
+			} catch (MongoException e) {
+				db.createCollection(collectionName);
 			}
 		}
 
-		return sanitized;
+		db.getCollection(collectionName).createIndexes(Arrays.asList( //
+				new IndexModel(Indexes.ascending("_commit")), //
+				new IndexModel(Indexes.compoundIndex(Indexes.ascending("_branch"), Indexes.descending("_date"))), //
+				new IndexModel(Indexes.descending("_date")), //
+				new IndexModel(Indexes.ascending(EnvironmentFingerprint.FIELD + ".id"))));
+	}
+
+	private static MongoClient getClient(ConnectionString uri) {
+
+		return clients.computeIfAbsent(uri.getConnectionString(), key -> {
+
+			MongoClientSettings.Builder settings = MongoClientSettings.builder().applyConnectionString(uri);
+
+			if (uri.getServerSelectionTimeout() == null) {
+				settings.applyToClusterSettings(
+						it -> it.serverSelectionTimeout(DEFAULT_SERVER_SELECTION_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+			}
+
+			MongoClient client = MongoClients.create(settings.build());
+			Runtime.getRuntime().addShutdownHook(new Thread(client::close, "mongo-results-writer-shutdown"));
+
+			return client;
+		});
+	}
+
+	/**
+	 * Copy all entries to {@code target} replacing {@code .} by {@code ,} in keys. Nested maps are converted to
+	 * {@link Document}s in the same pass.
+	 *
+	 * @param source
+	 * @param target
+	 */
+	@SuppressWarnings("unchecked")
+	private static void appendSanitized(Map<String, ?> source, Document target) {
+
+		for (Map.Entry<String, ?> entry : source.entrySet()) {
+
+			Object value = entry.getValue();
+			if (value instanceof Map) {
+
+				Document nested = new Document();
+				appendSanitized((Map<String, ?>) value, nested);
+				value = nested;
+			}
+
+			String key = entry.getKey();
+			target.put(key.indexOf('.') != -1 ? key.replace('.', ',') : key, value);
+		}
 	}
 
-	private static String extractClass(String source) {
+	static String extractClass(String source) {
 
 		String tmp = source.substring(0, source.lastIndexOf('.'));
 		return tmp.substring(tmp.lastIndexOf(".") + 1);
 	}
 
-	private static String extractBenchmarkName(String source) {
+	static String extractBenchmarkName(String source) {
 		return source.substring(source.lastIndexOf(".") + 1);
 	}
 
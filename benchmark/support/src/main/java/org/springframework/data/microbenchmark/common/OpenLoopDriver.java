@@ -0,0 +1,257 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import org.HdrHistogram.Recorder;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.util.Assert;
+
+/**
+ * Open-loop load generator issuing reactive operations at a fixed target rate regardless of how fast previous
+ * operations complete. Operation {@code i} is scheduled for its intended start time {@code start + i / rate}. Latency
+ * is measured from the intended start time rather than from the actual subscription so that queueing delay is not
+ * hidden when the system under test (or the issuing thread itself) falls behind the schedule (coordinated omission).
+ * Service latency, measured from the actual subscription, is recorded alongside for comparison.
+ * <p>
+ * Operations are subscribed from the calling thread and must not block. The number of operations in flight is capped
+ * to protect the system under test from unbounded queues, operations that cannot be issued on time keep their intended
+ * start time. Operations that do not complete within the drain timeout after the last operation was issued are
+ * cancelled and recorded with their latency up to that point.
+ *
+ * @see OpenLoopResult
+ */
+public class OpenLoopDriver {
+
+	static final int DEFAULT_MAX_IN_FLIGHT = 10_000;
+	static final Duration DEFAULT_DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+	private static final long MIN_PARK_NANOS = 50_000;
+
+	private final Supplier<? extends Publisher<?>> operation;
+	private final int maxInFlight;
+	private final Duration drainTimeout;
+
+	/**
+	 * Create a new {@link OpenLoopDriver} for the given operation using default in-flight and drain limits.
+	 *
+	 * @param operation supplier of the operation to issue, called once per operation.
+	 */
+	public OpenLoopDriver(Supplier<? extends Publisher<?>> operation) {
+		this(operation, DEFAULT_MAX_IN_FLIGHT, DEFAULT_DRAIN_TIMEOUT);
+	}
+
+	/**
+	 * Create a new {@link OpenLoopDriver}.
+	 *
+	 * @param operation supplier of the operation to issue, called once per operation.
+	 * @param maxInFlight maximum number of operations in flight.
+	 * @param drainTimeout time to wait for outstanding operations after issuing the last operation.
+	 */
+	public OpenLoopDriver(Supplier<? extends Publisher<?>> operation, int maxInFlight, Duration drainTimeout) {
+
+		Assert.notNull(operation, "Operation must not be null");
+		Assert.isTrue(maxInFlight > 0, "Max in-flight operations must be greater than zero");
+		Assert.notNull(drainTimeout, "Drain timeout must not be null");
+
+		this.operation = operation;
+		this.maxInFlight = maxInFlight;
+		this.drainTimeout = drainTimeout;
+	}
+
+	/**
+	 * Issue operations at {@code targetRate} operations per second for the given duration and wait for outstanding
+	 * operations to complete.
+	 *
+	 * @param targetRate operations per second.
+	 * @param duration duration of the load phase.
+	 * @return the latency and throughput of the run.
+	 */
+	public OpenLoopResult run(int targetRate, Duration duration) {
+
+		Assert.isTrue(targetRate > 0, "Target rate must be greater than zero");
+
+		Run run = new Run();
+		double intervalNanos = 1_000_000_000.0 / targetRate;
+		long operations = Math.max(1, (long) (duration.toNanos() / intervalNanos));
+		long start = System.nanoTime();
+
+		for (long i = 0; i < operations; i++) {
+
+			long intended = start + (long) (i * intervalNanos);
+
+			awaitTime(intended);
+			awaitCapacity(run);
+
+			issue(run, intended);
+		}
+
+		long issued = System.nanoTime();
+		long deadline = issued + drainTimeout.toNanos();
+
+		while (run.inFlight.get() > 0 && System.nanoTime() < deadline) {
+			LockSupport.parkNanos(MIN_PARK_NANOS);
+		}
+
+		long end = System.nanoTime();
+		int timeouts = run.cancelOutstanding(end);
+
+		return new OpenLoopResult(targetRate, operations, run.completed.get(), run.errors.get(), timeouts,
+				(end - start) / 1_000_000_000.0, run.corrected.getIntervalHistogram(), run.service.getIntervalHistogram());
+	}
+
+	private static void awaitTime(long intended) {
+
+		long remaining;
+		while ((remaining = intended - System.nanoTime()) > 0) {
+
+			if (remaining > MIN_PARK_NANOS) {
+				LockSupport.parkNanos(remaining - MIN_PARK_NANOS);
+			} else {
+				Thread.onSpinWait();
+			}
+		}
+	}
+
+	private void issue(Run run, long intended) {
+
+		OperationSubscriber subscriber = new OperationSubscriber(run, intended);
+		run.inFlight.incrementAndGet();
+		run.outstanding.add(subscriber);
+
+		try {
+			operation.get().subscribe(subscriber);
+		} catch (RuntimeException e) {
+			subscriber.onError(e);
+		}
+	}
+
+	private void awaitCapacity(Run run) {
+
+		while (run.inFlight.get() >= maxInFlight) {
+			Thread.onSpinWait();
+		}
+	}
+
+	/**
+	 * State of a single run.
+	 */
+	private static class Run {
+
+		final Recorder corrected = new Recorder(3);
+		final Recorder service = new Recorder(3);
+		final AtomicInteger inFlight = new AtomicInteger();
+		final AtomicLong completed = new AtomicLong();
+		final AtomicLong errors = new AtomicLong();
+		final Set<OperationSubscriber> outstanding = ConcurrentHashMap.newKeySet();
+
+		int cancelOutstanding(long now) {
+
+			int cancelled = 0;
+			for (OperationSubscriber subscriber : outstanding) {
+				if (subscriber.cancel()) {
+					corrected.recordValue(Math.max(0, now - subscriber.intended));
+					cancelled++;
+				}
+			}
+
+			return cancelled;
+		}
+	}
+
+	/**
+	 * Subscriber recording the latency of a single operation upon completion.
+	 */
+	private static class OperationSubscriber implements Subscriber<Object> {
+
+		final Run run;
+		final long intended;
+		final long subscribed = System.nanoTime();
+		final AtomicBoolean done = new AtomicBoolean();
+		volatile Subscription subscription;
+
+		OperationSubscriber(Run run, long intended) {
+			this.run = run;
+			this.intended = intended;
+		}
+
+		@Override
+		public void onSubscribe(Subscription subscription) {
+
+			this.subscription = subscription;
+			subscription.request(Long.MAX_VALUE);
+		}
+
+		@Override
+		public void onNext(Object item) {}
+
+		@Override
+		public void onError(Throwable throwable) {
+
+			if (complete()) {
+				run.errors.incrementAndGet();
+			}
+		}
+
+		@Override
+		public void onComplete() {
+
+			if (complete()) {
+				run.completed.incrementAndGet();
+			}
+		}
+
+		private boolean complete() {
+
+			if (!done.compareAndSet(false, true)) {
+				return false;
+			}
+
+			long now = System.nanoTime();
+			run.corrected.recordValue(Math.max(0, now - intended));
+			run.service.recordValue(Math.max(0, now - subscribed));
+			run.outstanding.remove(this);
+			run.inFlight.decrementAndGet();
+
+			return true;
+		}
+
+		boolean cancel() {
+
+			if (!done.compareAndSet(false, true)) {
+				return false;
+			}
+
+			Subscription subscription = this.subscription;
+			if (subscription != null) {
+				subscription.cancel();
+			}
+
+			run.inFlight.decrementAndGet();
+			return true;
+		}
+	}
+}
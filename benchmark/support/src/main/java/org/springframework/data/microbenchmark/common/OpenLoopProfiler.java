@@ -0,0 +1,97 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * JMH profiler publishing {@link OpenLoopResult}s recorded by {@link AbstractOpenLoopBenchmark} as secondary results
+ * ({@code openLoop.*}): achieved rate, corrected latency percentiles, service latency and the number of failed
+ * operations. The profiler runs inside the forked benchmark JVM and is attached to open-loop benchmarks by
+ * {@link MicrobenchmarkRunner}.
+ */
+public class OpenLoopProfiler implements InternalProfiler {
+
+	static final String ACHIEVED_RATE = "openLoop.achievedRate";
+	static final String P50 = "openLoop.p50";
+	static final String P99 = "openLoop.p99";
+	static final String P999 = "openLoop.p99.9";
+	static final String ERRORS = "openLoop.errors";
+
+	private static final List<OpenLoopResult> results = new ArrayList<>();
+
+	/**
+	 * Record the result of an open-loop run for the current iteration.
+	 *
+	 * @param result
+	 */
+	static void record(OpenLoopResult result) {
+
+		synchronized (results) {
+			results.add(result);
+		}
+	}
+
+	@Override
+	public String getDescription() {
+		return "Open-loop latency corrected for coordinated omission";
+	}
+
+	@Override
+	public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+
+		synchronized (results) {
+			results.clear();
+		}
+	}
+
+	@Override
+	public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+			IterationResult result) {
+
+		List<Result> secondary = new ArrayList<>();
+
+		synchronized (results) {
+
+			for (OpenLoopResult run : results) {
+
+				secondary.add(new ScalarResult(ACHIEVED_RATE, run.getAchievedRate(), "ops/s", AggregationPolicy.AVG));
+				secondary.add(new ScalarResult(P50, run.getLatency(50), "us", AggregationPolicy.AVG));
+				secondary.add(new ScalarResult(P99, run.getLatency(99), "us", AggregationPolicy.AVG));
+				secondary.add(new ScalarResult(P999, run.getLatency(99.9), "us", AggregationPolicy.AVG));
+				secondary.add(new ScalarResult("openLoop.max", run.getMaxLatency(), "us", AggregationPolicy.MAX));
+				secondary.add(
+						new ScalarResult("openLoop.service.p99", run.getServiceLatency(99), "us", AggregationPolicy.AVG));
+				secondary.add(new ScalarResult(ERRORS, run.getErrors() + run.getTimeouts(), "#",
+						AggregationPolicy.SUM));
+			}
+
+			results.clear();
+		}
+
+		return secondary;
+	}
+}
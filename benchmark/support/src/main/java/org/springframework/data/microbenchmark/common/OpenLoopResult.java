@@ -0,0 +1,117 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.util.Locale;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Result of an {@link OpenLoopDriver} run. Latencies are reported in microseconds. Corrected latencies are measured from
+ * the intended start time of each operation, service latencies from the actual subscription.
+ */
+public class OpenLoopResult {
+
+	private final int targetRate;
+	private final long issued;
+	private final long completed;
+	private final long errors;
+	private final long timeouts;
+	private final double elapsedSeconds;
+	private final Histogram corrected;
+	private final Histogram service;
+
+	OpenLoopResult(int targetRate, long issued, long completed, long errors, long timeouts, double elapsedSeconds,
+			Histogram corrected, Histogram service) {
+
+		this.targetRate = targetRate;
+		this.issued = issued;
+		this.completed = completed;
+		this.errors = errors;
+		this.timeouts = timeouts;
+		this.elapsedSeconds = elapsedSeconds;
+		this.corrected = corrected;
+		this.service = service;
+	}
+
+	/**
+	 * @return operations per second the driver attempted to issue.
+	 */
+	public int getTargetRate() {
+		return targetRate;
+	}
+
+	/**
+	 * @return operations per second that completed successfully, including the time to drain outstanding operations.
+	 */
+	public double getAchievedRate() {
+		return elapsedSeconds > 0 ? completed / elapsedSeconds : 0;
+	}
+
+	public long getIssued() {
+		return issued;
+	}
+
+	public long getCompleted() {
+		return completed;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	/**
+	 * @return number of operations cancelled because they did not complete within the drain timeout.
+	 */
+	public long getTimeouts() {
+		return timeouts;
+	}
+
+	/**
+	 * @param percentile percentile between {@code 0} and {@code 100}.
+	 * @return the corrected latency at the given percentile in microseconds.
+	 */
+	public double getLatency(double percentile) {
+		return toMicros(corrected.getValueAtPercentile(percentile));
+	}
+
+	/**
+	 * @param percentile percentile between {@code 0} and {@code 100}.
+	 * @return the service latency (not corrected for coordinated omission) at the given percentile in microseconds.
+	 */
+	public double getServiceLatency(double percentile) {
+		return toMicros(service.getValueAtPercentile(percentile));
+	}
+
+	/**
+	 * @return the maximum corrected latency in microseconds.
+	 */
+	public double getMaxLatency() {
+		return toMicros(corrected.getMaxValue());
+	}
+
+	private static double toMicros(long nanos) {
+		return nanos / 1_000.0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(Locale.ROOT,
+				"target %d ops/s, achieved %.0f ops/s, p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us, errors %d, timeouts %d",
+				targetRate, getAchievedRate(), getLatency(50), getLatency(99), getLatency(99.9), getMaxLatency(), errors,
+				timeouts);
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Performance budget for a {@link org.openjdk.jmh.annotations.Benchmark} method enforced by
+ * {@link MicrobenchmarkRunner}. A budget breach is reported as test failure.
+ * <p>
+ * Relative budgets compare the benchmark against a baseline benchmark method of the same class, typically one that
+ * uses the raw driver API. Ratios against a baseline are fairly stable across machines, which makes them suitable as
+ * portable performance gates:
+ *
+ * <pre class="code">
+ * &#64;Benchmark
+ * &#64;PerformanceBudget(baseline = "rawFindAll", maxSlowdown = 3)
+ * public void repositoryFindAll(Blackhole sink) {
+ * 	// ...
+ * }
+ * </pre>
+ *
+ * @see MicrobenchmarkRunner
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PerformanceBudget {
+
+	/**
+	 * Maximum normalized allocation rate ({@code gc.alloc.rate.norm}) in bytes per operation. Requires the GC profiler.
+	 * Negative values disable the allocation budget.
+	 *
+	 * @return
+	 */
+	double maxAllocatedBytesPerOp() default -1;
+
+	/**
+	 * Name of the baseline benchmark method in the same class.
+	 *
+	 * @return
+	 */
+	String baseline() default "";
+
+	/**
+	 * Maximum slowdown factor compared to the {@link #baseline()} benchmark. A value of {@code 3} requires the
+	 * benchmark to reach at least a third of the baseline throughput (or, for time-based modes, at most three times the
+	 * baseline time per operation). Negative values disable the relative budget.
+	 *
+	 * @return
+	 */
+	double maxSlowdown() default -1;
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.springframework.util.StringUtils;
+
+/**
+ * Verification of {@link PerformanceBudget}s against benchmark results. Relative budgets are verified per parameter
+ * combination by pairing results of the benchmark and its baseline with the same {@link org.openjdk.jmh.annotations.Param}
+ * values, thread count and {@link JvmProfile}.
+ */
+class PerformanceBudgets {
+
+	static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+	private PerformanceBudgets() {}
+
+	/**
+	 * Return the baseline method name if the method declares a relative {@link PerformanceBudget}.
+	 *
+	 * @param method
+	 * @return the baseline method name or {@literal null}.
+	 */
+	static String getBaseline(Method method) {
+
+		PerformanceBudget budget = method.getAnnotation(PerformanceBudget.class);
+		return budget != null && StringUtils.hasText(budget.baseline()) && budget.maxSlowdown() > 0 ? budget.baseline()
+				: null;
+	}
+
+	/**
+	 * Verify that the baselines referenced by {@link PerformanceBudget}s are benchmark methods of the benchmark class.
+	 *
+	 * @param benchmarkClass
+	 * @param benchmarks the {@link org.openjdk.jmh.annotations.Benchmark} methods of {@code benchmarkClass}.
+	 * @throws IllegalStateException if a budget refers to a method that is not a benchmark method.
+	 */
+	static void verifyBaselines(Class<?> benchmarkClass, Collection<Method> benchmarks) {
+
+		Set<String> names = benchmarks.stream().map(Method::getName).collect(Collectors.toSet());
+		List<String> unknown = new ArrayList<>();
+
+		for (Method method : benchmarks) {
+
+			PerformanceBudget budget = method.getAnnotation(PerformanceBudget.class);
+			if (budget != null && StringUtils.hasText(budget.baseline()) && !names.contains(budget.baseline())) {
+				unknown.add(method.getName() + " -> " + budget.baseline());
+			}
+		}
+
+		if (!unknown.isEmpty()) {
+			throw new IllegalStateException(String.format("@PerformanceBudget of %s refers to unknown baseline benchmark: %s",
+					benchmarkClass.getName(), String.join(", ", unknown)));
+		}
+	}
+
+	/**
+	 * Verify the {@link PerformanceBudget} of {@code method}.
+	 *
+	 * @param output
+	 * @param method
+	 * @param results results of {@code method}.
+	 * @param baselineResults results of the baseline method, can be {@literal null} if the method has no relative budget.
+	 * @return budget violations, empty if the budget is met or the method does not declare a budget.
+	 */
+	static List<String> verify(OutputFormat output, Method method, Collection<RunResult> results,
+			Collection<RunResult> baselineResults) {
+
+		PerformanceBudget budget = method.getAnnotation(PerformanceBudget.class);
+		List<String> violations = new ArrayList<>();
+
+		if (budget == null) {
+			return violations;
+		}
+
+		for (RunResult result : results) {
+
+			String params = getParams(result.getParams());
+
+			if (budget.maxAllocatedBytesPerOp() >= 0) {
+
+				Result<?> allocation = getSecondaryResult(result, ALLOCATION_METRIC);
+
+				if (allocation == null) {
+					output.println("Cannot verify allocation budget of " + method.getName() + params + ": " + ALLOCATION_METRIC
+							+ " not available, GC profiler not enabled?");
+				} else if (allocation.getScore() > budget.maxAllocatedBytesPerOp()) {
+					violations.add(String.format("%s%s allocates %.1f B/op, budget is %.1f B/op", method.getName(), params,
+							allocation.getScore(), budget.maxAllocatedBytesPerOp()));
+				}
+			}
+
+			String baseline = getBaseline(method);
+			if (baseline == null) {
+				continue;
+			}
+
+			RunResult baselineResult = baselineResults == null ? null
+					: baselineResults.stream() //
+							.filter(it -> getParams(it.getParams()).equals(params)) //
+							.filter(it -> it.getParams().getThreads() == result.getParams().getThreads()) //
+							.findFirst().orElse(null);
+
+			if (baselineResult == null) {
+				violations.add(String.format("%s%s has no baseline result of %s to compare with", method.getName(), params,
+						baseline));
+				continue;
+			}
+
+			double slowdown = getSlowdown(result, baselineResult);
+			if (slowdown > budget.maxSlowdown()) {
+				violations.add(String.format("%s%s is %.2fx slower than %s, budget is %.2fx", method.getName(), params,
+						slowdown, baseline, budget.maxSlowdown()));
+			}
+		}
+
+		return violations;
+	}
+
+	/**
+	 * Compute the slowdown factor of {@code result} compared to {@code baseline} considering the benchmark mode.
+	 *
+	 * @param result
+	 * @param baseline
+	 * @return
+	 */
+	static double getSlowdown(RunResult result, RunResult baseline) {
+
+		double score = result.getPrimaryResult().getScore();
+		double baselineScore = baseline.getPrimaryResult().getScore();
+
+		return result.getParams().getMode() == Mode.Throughput ? baselineScore / score : score / baselineScore;
+	}
+
+	private static Result<?> getSecondaryResult(RunResult result, String label) {
+
+		for (Map.Entry<String, Result> entry : result.getSecondaryResults().entrySet()) {
+
+			// older JMH versions prefix secondary metrics with a middle dot
+			if (entry.getKey().equals(label) || entry.getKey().equals("\u00b7" + label)) {
+				return entry.getValue();
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * @return the parameters of the result including the {@link JvmProfile} so that results are only paired with
+	 *         baseline results obtained with the same profile.
+	 */
+	private static String getParams(BenchmarkParams params) {
+
+		Map<String, String> values = new TreeMap<>();
+		String jvmProfile = JvmProfile.getName(params);
+		if (jvmProfile != null) {
+			values.put("jvmProfile", jvmProfile);
+		}
+
+		for (String key : params.getParamsKeys()) {
+			values.put(key, params.getParam(key));
+		}
+
+		return values.isEmpty() ? "" : values.toString();
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+/**
+ * {@link ApplicationStartup} recording the duration of completed {@link StartupStep}s to break down application
+ * startup time, e.g. into repository scanning ({@code spring.data.repository.scanning}) and instantiation of individual
+ * beans ({@code spring.beans.instantiate}).
+ * <p>
+ * Nested steps are recorded individually, their duration is included in the duration of the enclosing step.
+ */
+public class RecordingApplicationStartup implements ApplicationStartup {
+
+	public static final String REPOSITORY_SCANNING = "spring.data.repository.scanning";
+	public static final String BEAN_INSTANTIATION = "spring.beans.instantiate";
+
+	private final AtomicLong ids = new AtomicLong();
+	private final List<RecordedStep> steps = Collections.synchronizedList(new ArrayList<>());
+
+	@Override
+	public StartupStep start(String name) {
+		return new Step(ids.incrementAndGet(), name);
+	}
+
+	/**
+	 * @param name step name.
+	 * @return total duration in milliseconds of all completed steps with the given name.
+	 */
+	public double getDuration(String name) {
+		return getDuration(name, tags -> true);
+	}
+
+	/**
+	 * Total instantiation duration of beans matching the predicate. {@link org.springframework.beans.factory.FactoryBean}
+	 * names are matched without the {@code &} dereference prefix so that the predicate applies to both, the factory and
+	 * the object it creates.
+	 *
+	 * @param beanName predicate matching bean names.
+	 * @return total instantiation duration in milliseconds of beans matching the predicate.
+	 */
+	public double getBeanInstantiationDuration(Predicate<String> beanName) {
+		return getDuration(BEAN_INSTANTIATION, tags -> tags.containsKey("beanName")
+				&& beanName.test(BeanFactoryUtils.transformedBeanName(tags.get("beanName"))));
+	}
+
+	/**
+	 * @return number of completed steps.
+	 */
+	public int getStepCount() {
+		return steps.size();
+	}
+
+	private double getDuration(String name, Predicate<Map<String, String>> tags) {
+
+		long nanos = 0;
+
+		synchronized (steps) {
+			for (RecordedStep step : steps) {
+				if (step.name.equals(name) && tags.test(step.tags)) {
+					nanos += step.durationNanos;
+				}
+			}
+		}
+
+		return nanos / 1_000_000.0;
+	}
+
+	private static class RecordedStep {
+
+		private final String name;
+		private final Map<String, String> tags;
+		private final long durationNanos;
+
+		RecordedStep(String name, Map<String, String> tags, long durationNanos) {
+			this.name = name;
+			this.tags = tags;
+			this.durationNanos = durationNanos;
+		}
+	}
+
+	private class Step implements StartupStep {
+
+		private final long id;
+		private final String name;
+		private final long start = System.nanoTime();
+		private final Map<String, String> tags = new LinkedHashMap<>();
+
+		Step(long id, String name) {
+			this.id = id;
+			this.name = name;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public long getId() {
+			return id;
+		}
+
+		@Override
+		public Long getParentId() {
+			return null;
+		}
+
+		@Override
+		public StartupStep tag(String key, String value) {
+			tags.put(key, value);
+			return this;
+		}
+
+		@Override
+		public StartupStep tag(String key, Supplier<String> value) {
+			return tag(key, value.get());
+		}
+
+		@Override
+		public Tags getTags() {
+
+			List<Tag> result = new ArrayList<>();
+			tags.forEach((key, value) -> result.add(new Tag() {
+
+				@Override
+				public String getKey() {
+					return key;
+				}
+
+				@Override
+				public String getValue() {
+					return value;
+				}
+			}));
+
+			return result::iterator;
+		}
+
+		@Override
+		public void end() {
+			steps.add(new RecordedStep(name, tags, System.nanoTime() - start));
+		}
+	}
+}
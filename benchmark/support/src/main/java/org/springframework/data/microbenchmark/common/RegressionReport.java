@@ -0,0 +1,357 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.openjdk.jmh.runner.format.OutputFormat;
+
+/**
+ * Comparison of benchmark results against a baseline. Benchmarks are matched by their name, mode, thread count,
+ * {@link JvmProfile} and parameters. Measurement iteration scores of both runs are compared using a two-sided Mann-Whitney U test so that a
+ * change is only reported as regression or improvement if it is statistically significant. Results are only compared
+ * if they were measured in the same environment (see {@link EnvironmentFingerprint}).
+ */
+class RegressionReport {
+
+	static final double SIGNIFICANCE_LEVEL = 0.05;
+
+	private final List<Comparison> comparisons = new ArrayList<>();
+	private final List<String> environmentMismatches = new ArrayList<>();
+
+	RegressionReport(JSONArray baseline, JSONArray current) {
+
+		Map<String, JSONObject> baselineResults = new LinkedHashMap<>();
+		for (Object object : baseline) {
+			baselineResults.put(getKey((JSONObject) object), (JSONObject) object);
+		}
+
+		for (Object object : current) {
+
+			JSONObject result = (JSONObject) object;
+			JSONObject baselineResult = baselineResults.get(getKey(result));
+
+			if (baselineResult == null) {
+				continue;
+			}
+
+			if (isSameEnvironment(baselineResult, result)) {
+				comparisons.add(new Comparison(baselineResult, result));
+			} else {
+				environmentMismatches.add(MongoResultsWriter.extractBenchmarkName(result.getAsString("benchmark")));
+			}
+		}
+	}
+
+	/**
+	 * Results are comparable if they were measured in the same environment. Results without
+	 * {@link EnvironmentFingerprint} (recorded before fingerprints were introduced) are not compared with fingerprinted
+	 * results.
+	 *
+	 * @param baseline
+	 * @param current
+	 * @return
+	 */
+	static boolean isSameEnvironment(JSONObject baseline, JSONObject current) {
+		return Objects.equals(EnvironmentFingerprint.getId(baseline), EnvironmentFingerprint.getId(current));
+	}
+
+	/**
+	 * @return names of benchmarks that were skipped because the baseline was measured in a different environment.
+	 */
+	List<String> getEnvironmentMismatches() {
+		return environmentMismatches;
+	}
+
+	List<Comparison> getComparisons() {
+		return comparisons;
+	}
+
+	boolean hasRegressions() {
+		return comparisons.stream().anyMatch(it -> it.getVerdict() == Verdict.REGRESSION);
+	}
+
+	void print(OutputFormat output, String baselineDescription) {
+
+		output.println("");
+		output.println("Comparison against baseline " + baselineDescription + ":");
+		output.println("");
+
+		if (!environmentMismatches.isEmpty()) {
+			output.println(String.format("Skipped %d benchmark(s) measured in a different environment: %s",
+					environmentMismatches.size(), String.join(", ", new LinkedHashSet<>(environmentMismatches))));
+			output.println("");
+		}
+
+		if (comparisons.isEmpty()) {
+			output.println("No matching benchmarks found in baseline.");
+			return;
+		}
+
+		int width = Math.max("Benchmark".length(),
+				comparisons.stream().mapToInt(it -> it.getName().length()).max().orElse(0));
+		String format = "%-" + width + "s  %6s  %14s  %14s  %-10s  %8s  %8s  %s";
+
+		output.println(String.format(format, "Benchmark", "Mode", "Baseline", "Current", "Units", "Change", "p", "Verdict"));
+
+		for (Comparison comparison : comparisons) {
+			output.println(String.format(format, comparison.getName(), comparison.getMode(),
+					String.format("%.3f", comparison.getBaselineScore()), String.format("%.3f", comparison.getScore()),
+					comparison.getUnit(), String.format("%+.1f%%", comparison.getChange() * 100),
+					String.format("%.3f", comparison.getPValue()), comparison.getVerdict()));
+		}
+	}
+
+	private static String getKey(JSONObject result) {
+		return result.getAsString("benchmark") + ":" + result.getAsString("mode") + ":" + getThreads(result) + ":"
+				+ getJvmProfile(result) + ":" + getParams(result);
+	}
+
+	/**
+	 * @return the {@link JvmProfile} name of the result so that results obtained with different profiles are compared
+	 *         against the baseline of the same profile, an empty string if the result was not run with a profile.
+	 */
+	private static String getJvmProfile(JSONObject result) {
+
+		String jvmProfile = result.getAsString("jvmProfile");
+
+		if (jvmProfile == null && result.get("jvmArgs") instanceof List) {
+			jvmProfile = JvmProfile.getName((List<?>) result.get("jvmArgs"));
+		}
+
+		return jvmProfile != null ? jvmProfile : "";
+	}
+
+	private static int getThreads(JSONObject result) {
+
+		Object threads = result.get("threads");
+		return threads instanceof Number ? ((Number) threads).intValue() : 1;
+	}
+
+	private static String getParams(JSONObject result) {
+
+		Object params = result.get("params");
+		return params instanceof Map ? params.toString() : "";
+	}
+
+	/**
+	 * Extract all measurement iteration scores from the JMH JSON representation of a result. Iteration scores of
+	 * {@code sample} mode results are the mean of the samples recorded in each iteration.
+	 *
+	 * @param result
+	 * @return
+	 */
+	static double[] getRawScores(JSONObject result) {
+
+		JSONObject primaryMetric = (JSONObject) result.get("primaryMetric");
+		Object rawData = primaryMetric.get("rawData");
+		Object rawDataHistogram = primaryMetric.get("rawDataHistogram");
+
+		List<Double> scores = new ArrayList<>();
+
+		if (rawData instanceof List) {
+			for (Object fork : (List<?>) rawData) {
+				for (Object score : (List<?>) fork) {
+					scores.add(((Number) score).doubleValue());
+				}
+			}
+		} else if (rawDataHistogram instanceof List) {
+			for (Object fork : (List<?>) rawDataHistogram) {
+				for (Object iteration : (List<?>) fork) {
+					scores.add(getMean((List<?>) iteration));
+				}
+			}
+		} else {
+			scores.add(((Number) primaryMetric.get("score")).doubleValue());
+		}
+
+		return scores.stream().mapToDouble(Double::doubleValue).toArray();
+	}
+
+	private static double getMean(List<?> histogram) {
+
+		double sum = 0;
+		long count = 0;
+
+		for (Object bucket : histogram) {
+
+			List<?> valueAndCount = (List<?>) bucket;
+			long bucketCount = ((Number) valueAndCount.get(1)).longValue();
+
+			sum += ((Number) valueAndCount.get(0)).doubleValue() * bucketCount;
+			count += bucketCount;
+		}
+
+		return count == 0 ? 0 : sum / count;
+	}
+
+	/**
+	 * Two-sided Mann-Whitney U test using the normal approximation with tie correction.
+	 *
+	 * @param x
+	 * @param y
+	 * @return the p-value for the null hypothesis that {@code x} and {@code y} originate from the same distribution.
+	 */
+	static double mannWhitneyU(double[] x, double[] y) {
+
+		int n1 = x.length, n2 = y.length, n = n1 + n2;
+
+		if (n1 < 2 || n2 < 2) {
+			return 1;
+		}
+
+		double[][] ranked = new double[n][];
+		for (int i = 0; i < n1; i++) {
+			ranked[i] = new double[] { x[i], 0 };
+		}
+		for (int i = 0; i < n2; i++) {
+			ranked[n1 + i] = new double[] { y[i], 1 };
+		}
+		Arrays.sort(ranked, (a, b) -> Double.compare(a[0], b[0]));
+
+		double rankSumX = 0;
+		double tieCorrection = 0;
+
+		for (int i = 0; i < n;) {
+
+			int j = i;
+			while (j + 1 < n && ranked[j + 1][0] == ranked[i][0]) {
+				j++;
+			}
+
+			double rank = (i + j + 2) / 2.0;
+			for (int k = i; k <= j; k++) {
+				if (ranked[k][1] == 0) {
+					rankSumX += rank;
+				}
+			}
+
+			double ties = j - i + 1;
+			tieCorrection += ties * ties * ties - ties;
+			i = j + 1;
+		}
+
+		double u = rankSumX - n1 * (n1 + 1) / 2.0;
+		double mean = n1 * n2 / 2.0;
+		double variance = n1 * n2 / 12.0 * ((n + 1) - tieCorrection / ((double) n * (n - 1)));
+
+		if (variance <= 0) {
+			return 1;
+		}
+
+		double z = (Math.abs(u - mean) - 0.5) / Math.sqrt(variance);
+		return Math.min(1, 2 * (1 - normalCdf(Math.max(z, 0))));
+	}
+
+	/**
+	 * Standard normal cumulative distribution function (Abramowitz and Stegun 26.2.17).
+	 *
+	 * @param z
+	 * @return
+	 */
+	static double normalCdf(double z) {
+
+		double t = 1 / (1 + 0.2316419 * Math.abs(z));
+		double d = 0.3989422804014327 * Math.exp(-z * z / 2);
+		double p = d * t * (0.319381530 + t * (-0.356563782 + t * (1.781477937 + t * (-1.821255978 + t * 1.330274429))));
+
+		return z >= 0 ? 1 - p : p;
+	}
+
+	enum Verdict {
+		REGRESSION, IMPROVEMENT, UNCHANGED
+	}
+
+	/**
+	 * Comparison of a single benchmark result against its baseline result.
+	 */
+	static class Comparison {
+
+		private final String name;
+		private final String mode;
+		private final String unit;
+		private final double baselineScore;
+		private final double score;
+		private final double pValue;
+
+		Comparison(JSONObject baseline, JSONObject current) {
+
+			String benchmark = current.getAsString("benchmark");
+			String params = getParams(current);
+
+			int threads = getThreads(current);
+
+			this.name = MongoResultsWriter.extractBenchmarkName(benchmark) + (params.isEmpty() ? "" : " " + params)
+					+ (threads == 1 ? "" : " (" + threads + " threads)");
+			this.mode = current.getAsString("mode");
+			this.unit = ((JSONObject) current.get("primaryMetric")).getAsString("scoreUnit");
+			this.baselineScore = ((Number) ((JSONObject) baseline.get("primaryMetric")).get("score")).doubleValue();
+			this.score = ((Number) ((JSONObject) current.get("primaryMetric")).get("score")).doubleValue();
+			this.pValue = mannWhitneyU(getRawScores(baseline), getRawScores(current));
+		}
+
+		String getName() {
+			return name;
+		}
+
+		String getMode() {
+			return mode;
+		}
+
+		String getUnit() {
+			return unit;
+		}
+
+		double getBaselineScore() {
+			return baselineScore;
+		}
+
+		double getScore() {
+			return score;
+		}
+
+		double getPValue() {
+			return pValue;
+		}
+
+		/**
+		 * @return relative change of the score compared to the baseline.
+		 */
+		double getChange() {
+			return baselineScore == 0 ? 0 : (score - baselineScore) / baselineScore;
+		}
+
+		Verdict getVerdict() {
+
+			if (pValue >= SIGNIFICANCE_LEVEL || score == baselineScore) {
+				return Verdict.UNCHANGED;
+			}
+
+			// throughput: higher is better, all other modes report time per operation
+			boolean higherIsBetter = "thrpt".equals(mode);
+			return (score > baselineScore) == higherIsBetter ? Verdict.IMPROVEMENT : Verdict.REGRESSION;
+		}
+	}
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import net.minidev.json.parser.JSONParser;
+import net.minidev.json.parser.ParseException;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * Utility to render {@link RunResult}s as JSON. Results use the JMH JSON representation that is enriched with
+ * first-class fields for profiler metrics so that result sinks can index and trend them without having to parse JMH
+ * secondary metric labels:
+ *
+ * <pre class="code">
+ * "gc" : { "allocRate" : 1024.0, "allocRateNorm" : 96.0, "count" : 12.0, "time" : 15.0 }
+ * </pre>
+ *
+ * Hardware performance counters collected through {@code perfnorm} are normalized per operation, {@code ipc} is the
+ * number of instructions per cycle:
+ *
+ * <pre class="code">
+ * "perf" : { "cycles" : 310.2, "instructions" : 902.5, "ipc" : 2.91, "l1dLoadMisses" : 1.2, "llcLoadMisses" : 0.01, "branchMisses" : 0.4 }
+ * </pre>
+ *
+ * Virtual thread benchmarks report throughput, latency percentiles (in microseconds) and pinning events (count and
+ * total time in milliseconds):
+ *
+ * <pre class="code">
+ * "vthread" : { "throughput" : 52011.3, "p50" : 180.2, "p99" : 950.0, "p999" : 2210.5, "errors" : 0.0, "pinned" : 12.0, "pinnedTime" : 48.2 }
+ * </pre>
+ *
+ * Each result carries an {@link EnvironmentFingerprint} ({@code environment}) describing the JVM, host and library
+ * versions it was measured with. Results obtained with a {@link JvmProfile} carry the profile name as {@code jvmProfile}.
+ * <p>
+ * Results of an {@link AdaptiveMeasurement} ({@code adaptive=true}) record why measurement stopped
+ * ({@code converged}, {@code fork-limit} or {@code time-limit}), the detected warmup and the achieved relative error:
+ *
+ * <pre class="code">
+ * "adaptive" : { "stoppingReason" : "converged", "steadyState" : true, "warmupIterations" : 4, "measurementIterations" : 16, "forks" : 2, "relativeError" : 0.012, "target" : 0.02, "duration" : 64.2 }
+ * </pre>
+ *
+ * Results of {@code sample} mode benchmarks additionally contain latency percentiles (in the score unit of the
+ * result):
+ *
+ * <pre class="code">
+ * "percentiles" : { "p50" : 41.2, "p90" : 55.0, "p95" : 60.1, "p99" : 98.3, "p999" : 230.4, "p9999" : 1210.0, "max" : 5020.1 }
+ * </pre>
+ */
+final class ResultsJson {
+
+	private ResultsJson() {}
+
+	/**
+	 * Convert {@link RunResult}s to enriched JSON.
+	 *
+	 * @param results
+	 * @return
+	 * @throws ParseException
+	 */
+	static JSONArray toJson(Collection<RunResult> results) throws ParseException {
+
+		String resultsJson = HttpResultsWriter.jsonifyResults(results).trim();
+		JSONArray array = (JSONArray) new JSONParser(JSONParser.MODE_PERMISSIVE).parse(resultsJson);
+
+		Iterator<RunResult> runResults = results.iterator();
+
+		for (Object object : array) {
+
+			JSONObject result = (JSONObject) object;
+			RunResult runResult = runResults.hasNext() ? runResults.next() : null;
+
+			enrich(result);
+
+			if (runResult instanceof AdaptiveRunResult) {
+				result.put("adaptive", ((AdaptiveRunResult) runResult).toJson());
+			}
+
+			String jvmProfile = result.get("jvmArgs") instanceof List ? JvmProfile.getName((List<?>) result.get("jvmArgs"))
+					: null;
+			if (jvmProfile != null) {
+				result.put("jvmProfile", jvmProfile);
+			}
+
+			result.put(EnvironmentFingerprint.FIELD, EnvironmentFingerprint.capture(result));
+		}
+
+		return array;
+	}
+
+	/**
+	 * Add first-class fields for known secondary metrics to a single result.
+	 *
+	 * @param result
+	 */
+	static void enrich(JSONObject result) {
+
+		JSONObject gc = new JSONObject();
+
+		putMetric(result, "gc.alloc.rate", gc, "allocRate");
+		putMetric(result, "gc.alloc.rate.norm", gc, "allocRateNorm");
+		putMetric(result, "gc.count", gc, "count");
+		putMetric(result, "gc.time", gc, "time");
+
+		if (!gc.isEmpty()) {
+			result.put("gc", gc);
+		}
+
+		JSONObject perf = new JSONObject();
+
+		putMetric(result, "cycles", perf, "cycles");
+		putMetric(result, "instructions", perf, "instructions");
+		putMetric(result, "IPC", perf, "ipc");
+		putMetric(result, "L1-dcache-load-misses", perf, "l1dLoadMisses");
+		putMetric(result, "LLC-load-misses", perf, "llcLoadMisses");
+		putMetric(result, "branch-misses", perf, "branchMisses");
+
+		if (!perf.isEmpty()) {
+			result.put("perf", perf);
+		}
+
+		JSONObject virtualThreads = new JSONObject();
+
+		putMetric(result, VirtualThreadProfiler.THROUGHPUT, virtualThreads, "throughput");
+		putMetric(result, VirtualThreadProfiler.P50, virtualThreads, "p50");
+		putMetric(result, VirtualThreadProfiler.P99, virtualThreads, "p99");
+		putMetric(result, VirtualThreadProfiler.P999, virtualThreads, "p999");
+		putMetric(result, VirtualThreadProfiler.ERRORS, virtualThreads, "errors");
+		putMetric(result, VirtualThreadProfiler.PINNED, virtualThreads, "pinned");
+		putMetric(result, VirtualThreadProfiler.PINNED_TIME, virtualThreads, "pinnedTime");
+
+		if (!virtualThreads.isEmpty()) {
+			result.put("vthread", virtualThreads);
+		}
+
+		JSONObject contention = new JSONObject();
+
+		putMetric(result, ContentionProfiler.WAITED, contention, "waited");
+		putMetric(result, ContentionProfiler.WAITED_COUNT, contention, "waitedCount");
+		putMetric(result, ContentionProfiler.BLOCKED, contention, "blocked");
+		putMetric(result, ContentionProfiler.BLOCKED_COUNT, contention, "blockedCount");
+		putMetric(result, ContentionProfiler.ELAPSED_MAX, contention, "elapsedMax");
+
+		if (!contention.isEmpty()) {
+			result.put("contention", contention);
+		}
+
+		if ("sample".equals(result.getAsString("mode"))) {
+
+			JSONObject percentiles = getPercentiles((JSONObject) result.get("primaryMetric"));
+
+			if (!percentiles.isEmpty()) {
+				result.put("percentiles", percentiles);
+			}
+		}
+	}
+
+	private static JSONObject getPercentiles(JSONObject metric) {
+
+		JSONObject percentiles = new JSONObject();
+		Object scorePercentiles = metric.get("scorePercentiles");
+
+		if (!(scorePercentiles instanceof Map)) {
+			return percentiles;
+		}
+
+		Map<?, ?> source = (Map<?, ?>) scorePercentiles;
+
+		putPercentile(source, "50.0", percentiles, "p50");
+		putPercentile(source, "90.0", percentiles, "p90");
+		putPercentile(source, "95.0", percentiles, "p95");
+		putPercentile(source, "99.0", percentiles, "p99");
+		putPercentile(source, "99.9", percentiles, "p999");
+		putPercentile(source, "99.99", percentiles, "p9999");
+		putPercentile(source, "100.0", percentiles, "max");
+
+		if (!percentiles.isEmpty()) {
+			percentiles.put("unit", metric.getAsString("scoreUnit"));
+		}
+
+		return percentiles;
+	}
+
+	private static void putPercentile(Map<?, ?> source, String percentile, JSONObject target, String name) {
+
+		Object value = source.get(percentile);
+
+		if (value instanceof Number) {
+			target.put(name, ((Number) value).doubleValue());
+		}
+	}
+
+	/**
+	 * Obtain the score of a secondary metric.
+	 *
+	 * @param result
+	 * @param label secondary metric label, e.g. {@code gc.alloc.rate.norm}.
+	 * @return the score or {@literal null} if the metric is not present.
+	 */
+	static Double getSecondaryScore(JSONObject result, String label) {
+
+		Object secondaryMetrics = result.get("secondaryMetrics");
+
+		if (!(secondaryMetrics instanceof Map)) {
+			return null;
+		}
+
+		for (Map.Entry<?, ?> entry : ((Map<?, ?>) secondaryMetrics).entrySet()) {
+
+			// older JMH versions prefix secondary metrics with a middle dot, perf reports user-space only events with :u
+			String key = entry.getKey().toString();
+			if (key.equals(label) || key.equals("\u00b7" + label) || key.equals(label + ":u")) {
+
+				Object score = ((Map<?, ?>) entry.getValue()).get("score");
+				return score instanceof Number ? ((Number) score).doubleValue() : null;
+			}
+		}
+
+		return null;
+	}
+
+	private static void putMetric(JSONObject result, String label, JSONObject target, String name) {
+
+		Double score = getSecondaryScore(result, label);
+
+		if (score != null) {
+			target.put(name, score);
+		}
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import jmh.mbr.core.ResultsWriter;
+import jmh.mbr.core.model.BenchmarkResults;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link ResultsWriter} that can be used directly with JMH {@link RunResult}s, allowing {@link MicrobenchmarkRunner} to
+ * publish results without going through {@link BenchmarkResults}. Incremental writers are called with the results of
+ * each benchmark method as soon as it completes, other writers once with the results of all benchmark methods.
+ */
+interface RunResultsWriter extends ResultsWriter {
+
+	@Override
+	default void write(OutputFormat output, BenchmarkResults benchmarkResults) {
+		write(output, benchmarkResults.getRawResults());
+	}
+
+	/**
+	 * Write the given {@link RunResult}s. Implementations report failures through {@link OutputFormat} instead of
+	 * propagating exceptions.
+	 *
+	 * @param output
+	 * @param results
+	 */
+	void write(OutputFormat output, Collection<RunResult> results);
+
+	/**
+	 * @return {@literal true} to publish results of each benchmark method as soon as it completes.
+	 */
+	default boolean isIncremental() {
+		return false;
+	}
+
+	/**
+	 * Directory to keep results that could not be published for later replay, configured through
+	 * {@code spoolDirectory}. Defaults to {@code spool} in {@code benchmarkReportDir}.
+	 *
+	 * @param env
+	 * @return
+	 */
+	static Path getSpoolDirectory(Environment env) {
+
+		String spoolDirectory = env.getProperty("spoolDirectory");
+		if (StringUtils.hasText(spoolDirectory)) {
+			return Paths.get(spoolDirectory.trim());
+		}
+
+		String reportDirectory = env.getProperty("benchmarkReportDir");
+		return Paths.get(StringUtils.hasText(reportDirectory) ? reportDirectory.trim() : ".", "spool");
+	}
+}
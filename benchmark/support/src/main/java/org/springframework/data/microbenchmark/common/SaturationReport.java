@@ -0,0 +1,290 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.format.OutputFormat;
+
+/**
+ * Saturation report of open-loop results obtained at increasing target rates. Results are grouped by benchmark and
+ * parameters other than {@code targetRate}. The knee of a group is the lowest target rate at which the system under
+ * test no longer keeps up:
+ * <ul>
+ * <li>the achieved rate drops below {@link #MIN_ACHIEVED_RATIO} of the target rate, or</li>
+ * <li>the corrected p99 latency exceeds {@link #MAX_LATENCY_GROWTH} times the p99 latency at the lowest target
+ * rate.</li>
+ * </ul>
+ * The highest target rate below the knee is reported as sustainable rate.
+ *
+ * @see AbstractOpenLoopBenchmark
+ */
+class SaturationReport {
+
+	static final String TARGET_RATE = "targetRate";
+	static final double MIN_ACHIEVED_RATIO = 0.95;
+	static final double MAX_LATENCY_GROWTH = 10;
+
+	private final List<Group> groups = new ArrayList<>();
+
+	SaturationReport(Iterable<RunResult> results) {
+
+		Map<String, List<Entry>> entries = new LinkedHashMap<>();
+		for (RunResult result : results) {
+
+			if (!result.getSecondaryResults().containsKey(OpenLoopProfiler.ACHIEVED_RATE)
+					|| result.getParams().getParam(TARGET_RATE) == null) {
+				continue;
+			}
+
+			BenchmarkParams params = result.getParams();
+			entries.computeIfAbsent(params.getBenchmark() + ":" + getParams(params), key -> new ArrayList<>())
+					.add(new Entry(result));
+		}
+
+		for (List<Entry> group : entries.values()) {
+
+			group.sort(Comparator.comparingInt(Entry::getTargetRate));
+			groups.add(new Group(group));
+		}
+	}
+
+	/**
+	 * @return groups that saturated within the measured target rates.
+	 */
+	List<Group> getSaturated() {
+
+		List<Group> saturated = new ArrayList<>();
+		for (Group group : groups) {
+			if (group.getKnee() != null) {
+				saturated.add(group);
+			}
+		}
+
+		return saturated;
+	}
+
+	boolean isEmpty() {
+		return groups.isEmpty();
+	}
+
+	void print(OutputFormat output) {
+
+		output.println("");
+		output.println(String.format(Locale.ROOT,
+				"Open-loop saturation (knee: achieved < %.0f%% of target or p99 > %.0fx baseline p99):",
+				MIN_ACHIEVED_RATIO * 100, MAX_LATENCY_GROWTH));
+		output.println("");
+
+		int width = Math.max("Benchmark".length(),
+				groups.stream().mapToInt(it -> it.getName().length()).max().orElse(0));
+		String format = "%-" + width + "s  %10s  %12s  %12s  %12s  %12s  %8s  %s";
+
+		output.println(String.format(format, "Benchmark", "Target", "Achieved", "p50 [us]", "p99 [us]", "p99.9 [us]",
+				"Errors", ""));
+
+		for (Group group : groups) {
+			for (Entry entry : group.getEntries()) {
+				output.println(String.format(Locale.ROOT, format, group.getName(), entry.getTargetRate(),
+						String.format(Locale.ROOT, "%.0f", entry.getAchievedRate()),
+						String.format(Locale.ROOT, "%.1f", entry.getP50()), String.format(Locale.ROOT, "%.1f", entry.getP99()),
+						String.format(Locale.ROOT, "%.1f", entry.getP999()),
+						String.format(Locale.ROOT, "%.0f", entry.getErrors()), entry == group.getKnee() ? "KNEE" : ""));
+			}
+		}
+	}
+
+	/**
+	 * Write the report as CSV file.
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	void writeCsv(Path file) throws IOException {
+
+		Files.createDirectories(file.toAbsolutePath().getParent());
+
+		try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+
+			writer.println("benchmark,params,targetRate,achievedRate,p50,p99,p999,errors,knee");
+
+			for (Group group : groups) {
+				for (Entry entry : group.getEntries()) {
+					writer.println(String.format(Locale.ROOT, "%s,\"%s\",%d,%f,%f,%f,%f,%.0f,%s", group.getBenchmark(),
+							group.getParams(), entry.getTargetRate(), entry.getAchievedRate(), entry.getP50(), entry.getP99(),
+							entry.getP999(), entry.getErrors(), entry == group.getKnee()));
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the parameters of the result including the {@link JvmProfile} so that results obtained with different
+	 *         profiles are not mixed.
+	 */
+	private static String getParams(BenchmarkParams params) {
+
+		Map<String, String> values = new TreeMap<>();
+		String jvmProfile = JvmProfile.getName(params);
+		if (jvmProfile != null) {
+			values.put("jvmProfile", jvmProfile);
+		}
+
+		for (String key : params.getParamsKeys()) {
+			if (!TARGET_RATE.equals(key)) {
+				values.put(key, params.getParam(key));
+			}
+		}
+
+		return values.isEmpty() ? "" : values.toString();
+	}
+
+	/**
+	 * Results of a benchmark across target rates.
+	 */
+	static class Group {
+
+		private final String benchmark;
+		private final String params;
+		private final List<Entry> entries;
+		private final Entry knee;
+
+		Group(List<Entry> entries) {
+
+			BenchmarkParams params = entries.get(0).result.getParams();
+
+			this.benchmark = params.getBenchmark();
+			this.params = SaturationReport.getParams(params);
+			this.entries = entries;
+
+			double baseline = entries.get(0).getP99();
+			Entry knee = null;
+
+			for (Entry entry : entries) {
+
+				boolean behind = entry.getAchievedRate() < entry.getTargetRate() * MIN_ACHIEVED_RATIO;
+				boolean queueing = baseline > 0 && entry.getP99() > baseline * MAX_LATENCY_GROWTH;
+
+				if (behind || queueing) {
+					knee = entry;
+					break;
+				}
+			}
+
+			this.knee = knee;
+		}
+
+		String getName() {
+			return MongoResultsWriter.extractBenchmarkName(benchmark) + (params.isEmpty() ? "" : " " + params);
+		}
+
+		String getBenchmark() {
+			return benchmark;
+		}
+
+		String getParams() {
+			return params;
+		}
+
+		List<Entry> getEntries() {
+			return entries;
+		}
+
+		/**
+		 * @return the entry at the lowest target rate the system could not sustain, or {@literal null} if all target
+		 *         rates were sustained.
+		 */
+		Entry getKnee() {
+			return knee;
+		}
+
+		/**
+		 * @return the highest target rate below the knee, {@code 0} if the lowest target rate could not be sustained.
+		 */
+		int getSustainableRate() {
+
+			int sustainable = 0;
+			for (Entry entry : entries) {
+
+				if (entry == knee) {
+					break;
+				}
+
+				sustainable = entry.getTargetRate();
+			}
+
+			return sustainable;
+		}
+	}
+
+	/**
+	 * Result at a single target rate.
+	 */
+	static class Entry {
+
+		private final RunResult result;
+		private final int targetRate;
+
+		Entry(RunResult result) {
+			this.result = result;
+			this.targetRate = Integer.parseInt(result.getParams().getParam(TARGET_RATE));
+		}
+
+		int getTargetRate() {
+			return targetRate;
+		}
+
+		double getAchievedRate() {
+			return getSecondary(OpenLoopProfiler.ACHIEVED_RATE);
+		}
+
+		double getP50() {
+			return getSecondary(OpenLoopProfiler.P50);
+		}
+
+		double getP99() {
+			return getSecondary(OpenLoopProfiler.P99);
+		}
+
+		double getP999() {
+			return getSecondary(OpenLoopProfiler.P999);
+		}
+
+		double getErrors() {
+			return getSecondary(OpenLoopProfiler.ERRORS);
+		}
+
+		private double getSecondary(String label) {
+
+			Result<?> secondary = result.getSecondaryResults().get(label);
+			return secondary != null ? secondary.getScore() : 0;
+		}
+	}
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.format.OutputFormat;
+
+/**
+ * Scalability report of benchmark results obtained at different thread counts. Results are grouped by benchmark, mode
+ * and parameters. Parallel efficiency is computed relative to the lowest thread count of each group:
+ * <ul>
+ * <li>Throughput: {@code (score(n) / score(base)) * (base / n)} as JMH reports the aggregate throughput of all
+ * threads.</li>
+ * <li>Time-based modes: {@code score(base) / score(n)} as JMH reports the time per operation of each thread.</li>
+ * </ul>
+ * An efficiency of {@code 1} means linear scaling. Entries below the configured threshold are flagged.
+ */
+class ScalabilityReport {
+
+	private final double threshold;
+	private final List<Entry> entries = new ArrayList<>();
+
+	ScalabilityReport(Iterable<RunResult> results, double threshold) {
+
+		this.threshold = threshold;
+
+		Map<String, List<RunResult>> groups = new LinkedHashMap<>();
+		for (RunResult result : results) {
+
+			BenchmarkParams params = result.getParams();
+			groups.computeIfAbsent(params.getBenchmark() + ":" + params.getMode() + ":" + getParams(params),
+					key -> new ArrayList<>()).add(result);
+		}
+
+		for (List<RunResult> group : groups.values()) {
+
+			group.sort(Comparator.comparingInt(it -> it.getParams().getThreads()));
+			RunResult base = group.get(0);
+
+			for (RunResult result : group) {
+				entries.add(new Entry(result, base));
+			}
+		}
+	}
+
+	List<Entry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * @return entries whose parallel efficiency is below the threshold.
+	 */
+	List<Entry> getFlagged() {
+
+		List<Entry> flagged = new ArrayList<>();
+		for (Entry entry : entries) {
+			if (isFlagged(entry)) {
+				flagged.add(entry);
+			}
+		}
+
+		return flagged;
+	}
+
+	private boolean isFlagged(Entry entry) {
+		return entry.getEfficiency() < threshold;
+	}
+
+	void print(OutputFormat output) {
+
+		output.println("");
+		output.println(String.format(Locale.ROOT, "Thread scaling (efficiency threshold %.0f%%):", threshold * 100));
+		output.println("");
+
+		int width = Math.max("Benchmark".length(), entries.stream().mapToInt(it -> it.getName().length()).max().orElse(0));
+		String format = "%-" + width + "s  %6s  %7s  %14s  %14s  %-10s  %8s  %10s  %s";
+
+		output.println(String.format(format, "Benchmark", "Mode", "Threads", "Score", "Per Thread", "Units", "Speedup",
+				"Efficiency", ""));
+
+		for (Entry entry : entries) {
+			output.println(String.format(Locale.ROOT, format, entry.getName(), entry.getMode(), entry.getThreads(),
+					String.format(Locale.ROOT, "%.3f", entry.getScore()),
+					String.format(Locale.ROOT, "%.3f", entry.getScorePerThread()), entry.getUnit(),
+					String.format(Locale.ROOT, "%.2fx", entry.getSpeedup()),
+					String.format(Locale.ROOT, "%.1f%%", entry.getEfficiency() * 100), isFlagged(entry) ? "LOW" : ""));
+		}
+	}
+
+	/**
+	 * Write the report as CSV file.
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	void writeCsv(Path file) throws IOException {
+
+		Files.createDirectories(file.toAbsolutePath().getParent());
+
+		try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+
+			writer.println("benchmark,mode,params,threads,score,scorePerThread,unit,speedup,efficiency,flagged");
+
+			for (Entry entry : entries) {
+				writer.println(String.format(Locale.ROOT, "%s,%s,\"%s\",%d,%f,%f,%s,%f,%f,%s", entry.getBenchmark(),
+						entry.getMode(), entry.getParams(), entry.getThreads(), entry.getScore(), entry.getScorePerThread(),
+						entry.getUnit(), entry.getSpeedup(), entry.getEfficiency(), isFlagged(entry)));
+			}
+		}
+	}
+
+	/**
+	 * @return the parameters of the result including the {@link JvmProfile} so that results obtained with different
+	 *         profiles are not mixed.
+	 */
+	private static String getParams(BenchmarkParams params) {
+
+		Map<String, String> values = new TreeMap<>();
+		String jvmProfile = JvmProfile.getName(params);
+		if (jvmProfile != null) {
+			values.put("jvmProfile", jvmProfile);
+		}
+
+		for (String key : params.getParamsKeys()) {
+			values.put(key, params.getParam(key));
+		}
+
+		return values.isEmpty() ? "" : values.toString();
+	}
+
+	/**
+	 * Result at a single thread count compared to the result at the base thread count.
+	 */
+	static class Entry {
+
+		private final String benchmark;
+		private final String params;
+		private final String mode;
+		private final String unit;
+		private final int threads;
+		private final int baseThreads;
+		private final double score;
+		private final double efficiency;
+		private final boolean throughput;
+
+		Entry(RunResult result, RunResult base) {
+
+			BenchmarkParams params = result.getParams();
+
+			this.benchmark = params.getBenchmark();
+			this.params = ScalabilityReport.getParams(params);
+			this.mode = params.getMode().shortLabel();
+			this.unit = result.getPrimaryResult().getScoreUnit();
+			this.threads = params.getThreads();
+			this.score = result.getPrimaryResult().getScore();
+			this.throughput = params.getMode() == Mode.Throughput;
+
+			this.baseThreads = base.getParams().getThreads();
+			double baseScore = base.getPrimaryResult().getScore();
+
+			if (score == 0 || baseScore == 0) {
+				this.efficiency = 0;
+			} else {
+				this.efficiency = throughput ? (score / baseScore) * ((double) baseThreads / threads) : baseScore / score;
+			}
+		}
+
+		String getName() {
+			return MongoResultsWriter.extractBenchmarkName(benchmark) + (params.isEmpty() ? "" : " " + params);
+		}
+
+		String getBenchmark() {
+			return benchmark;
+		}
+
+		String getParams() {
+			return params;
+		}
+
+		String getMode() {
+			return mode;
+		}
+
+		String getUnit() {
+			return unit;
+		}
+
+		int getThreads() {
+			return threads;
+		}
+
+		double getScore() {
+			return score;
+		}
+
+		/**
+		 * @return throughput per thread for throughput results, time per operation otherwise (already per thread).
+		 */
+		double getScorePerThread() {
+			return throughput ? score / threads : score;
+		}
+
+		/**
+		 * @return aggregate throughput gain compared to the base thread count.
+		 */
+		double getSpeedup() {
+			return efficiency * threads / baseThreads;
+		}
+
+		double getEfficiency() {
+			return efficiency;
+		}
+	}
+}
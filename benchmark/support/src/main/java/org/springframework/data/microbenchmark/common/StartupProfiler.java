@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * JMH profiler publishing the startup breakdown recorded by {@link AbstractStartupBenchmark} as secondary results
+ * ({@code startup.<phase>}, in milliseconds, averaged across iterations). The profiler runs inside the forked
+ * benchmark JVM and is attached to startup benchmarks by {@link MicrobenchmarkRunner}.
+ */
+public class StartupProfiler implements InternalProfiler {
+
+	private static final Map<String, double[]> phases = new LinkedHashMap<>();
+
+	/**
+	 * Record the duration of a startup phase for the current iteration.
+	 *
+	 * @param phase
+	 * @param millis
+	 */
+	static void record(String phase, double millis) {
+
+		synchronized (phases) {
+
+			double[] sumAndCount = phases.computeIfAbsent(phase, key -> new double[2]);
+			sumAndCount[0] += millis;
+			sumAndCount[1]++;
+		}
+	}
+
+	@Override
+	public String getDescription() {
+		return "Application startup breakdown";
+	}
+
+	@Override
+	public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+
+		synchronized (phases) {
+			phases.clear();
+		}
+	}
+
+	@Override
+	public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+			IterationResult result) {
+
+		List<Result> results = new ArrayList<>();
+
+		synchronized (phases) {
+
+			phases.forEach((phase, sumAndCount) -> results
+					.add(new ScalarResult("startup." + phase, sumAndCount[0] / sumAndCount[1], "ms", AggregationPolicy.AVG)));
+			phases.clear();
+		}
+
+		return results;
+	}
+}
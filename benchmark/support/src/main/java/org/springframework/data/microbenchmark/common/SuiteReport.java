@@ -0,0 +1,249 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import net.minidev.json.JSONStyle;
+import net.minidev.json.parser.JSONParser;
+import net.minidev.json.parser.ParseException;
+
+/**
+ * Merged report of a {@link SuiteRunner} run. Results of all benchmark classes, {@link ResultsJson enriched} and
+ * fingerprinted by the benchmark JVM, are written as single JSON array ({@code suite.json}), each result carrying the
+ * {@code module} it was run from. The
+ * HTML report ({@code suite.html}) lists the executed classes with their CPU set, duration and status along with all
+ * results.
+ */
+class SuiteReport {
+
+	static final String JSON_FILE = "suite.json";
+	static final String HTML_FILE = "suite.html";
+
+	private final List<Task> tasks;
+	private final Path directory;
+
+	SuiteReport(List<Task> tasks, Path directory) {
+		this.tasks = tasks;
+		this.directory = directory;
+	}
+
+	/**
+	 * Merge the results of all tasks and write the JSON and HTML report.
+	 *
+	 * @throws IOException
+	 */
+	void write() throws IOException {
+
+		JSONArray results = getResults();
+
+		Files.createDirectories(directory);
+		Files.write(directory.resolve(JSON_FILE),
+				results.toJSONString(JSONStyle.NO_COMPRESS).getBytes(StandardCharsets.UTF_8));
+
+		writeHtml(directory.resolve(HTML_FILE), results);
+	}
+
+	/**
+	 * @return results of all tasks ordered by benchmark.
+	 * @throws IOException
+	 */
+	JSONArray getResults() throws IOException {
+
+		List<JSONObject> results = new ArrayList<>();
+
+		for (Task task : tasks) {
+
+			if (task.getReport() == null || !Files.exists(task.getReport())) {
+				continue;
+			}
+
+			try {
+
+				JSONArray array = (JSONArray) new JSONParser(JSONParser.MODE_PERMISSIVE)
+						.parse(new String(Files.readAllBytes(task.getReport()), StandardCharsets.UTF_8));
+
+				for (Object object : array) {
+
+					JSONObject result = (JSONObject) object;
+
+					result.put("module", task.getModule());
+
+					results.add(result);
+				}
+			} catch (ParseException | ClassCastException e) {
+				System.out.println("Cannot read " + task.getReport() + ": " + e.getMessage());
+			}
+		}
+
+		results.sort(Comparator.comparing(it -> it.getAsString("benchmark")));
+
+		JSONArray array = new JSONArray();
+		array.addAll(results);
+
+		return array;
+	}
+
+	private void writeHtml(Path file, JSONArray results) throws IOException {
+
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+
+			writer.write("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>Benchmark Suite</title>\n<style>\n"
+					+ "body { font-family: sans-serif; margin: 1em; }\n"
+					+ "table { border-collapse: collapse; margin-bottom: 2em; } td, th { padding: 2px 8px; text-align: left; }\n"
+					+ "tr:nth-child(even) { background: #f4f4f4; } td.n { text-align: right; font-family: monospace; }\n"
+					+ ".failed { color: #b00; font-weight: bold; }\n" + "</style></head><body>\n");
+
+			writer.write("<h1>Benchmark Suite</h1>\n<h2>Benchmark Classes</h2>\n");
+			writer.write("<table><tr><th>Module</th><th>Class</th><th>CPUs</th><th>Duration [s]</th><th>Status</th></tr>\n");
+
+			for (Task task : tasks) {
+				writer.write(String.format(Locale.ROOT,
+						"<tr><td>%s</td><td>%s</td><td>%s</td><td class=\"n\">%.1f</td><td%s>%s</td></tr>%n",
+						escape(task.getModule()), escape(task.getClassName()), escape(task.getCpus()),
+						task.getDurationSeconds(), task.isSuccessful() ? "" : " class=\"failed\"",
+						escape(getStatus(task))));
+			}
+
+			writer.write("</table>\n<h2>Results</h2>\n");
+			writer.write("<table><tr><th>Module</th><th>Benchmark</th><th>Params</th><th>Mode</th><th>Threads</th>"
+					+ "<th>Score</th><th>Error</th><th>Unit</th><th>Alloc [B/op]</th></tr>\n");
+
+			for (Object object : results) {
+
+				JSONObject result = (JSONObject) object;
+				JSONObject metric = (JSONObject) result.get("primaryMetric");
+				JSONObject gc = (JSONObject) result.get("gc");
+
+				writer.write(String.format(Locale.ROOT,
+						"<tr><td>%s</td><td>%s</td><td>%s</td><td>%s</td><td class=\"n\">%s</td><td class=\"n\">%s</td>"
+								+ "<td class=\"n\">%s</td><td>%s</td><td class=\"n\">%s</td></tr>%n",
+						escape(result.getAsString("module")),
+						escape(MongoResultsWriter.extractBenchmarkName(result.getAsString("benchmark"))),
+						escape(getParams(result)), escape(result.getAsString("mode")), result.getAsString("threads"),
+						format(metric.get("score")), format(metric.get("scoreError")), escape(metric.getAsString("scoreUnit")),
+						gc != null ? format(gc.get("allocRateNorm")) : ""));
+			}
+
+			writer.write("</table>\n</body></html>\n");
+		}
+	}
+
+	private String getStatus(Task task) {
+
+		if (task.isSuccessful()) {
+			return "OK";
+		}
+
+		return task.getLog() != null
+				? "FAILED (exit code " + task.getExitCode() + ", see " + directory.relativize(task.getLog()) + ")"
+				: "NOT RUN";
+	}
+
+	private static String getParams(JSONObject result) {
+
+		Object params = result.get("params");
+		return params instanceof Map ? new TreeMap<>((Map<?, ?>) params).toString() : "";
+	}
+
+	private static String format(Object value) {
+		return value instanceof Number ? String.format(Locale.ROOT, "%.3f", ((Number) value).doubleValue()) : "";
+	}
+
+	private static String escape(String value) {
+		return value == null ? "" : value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+	}
+
+	/**
+	 * A benchmark class run in a separate JVM.
+	 */
+	static class Task {
+
+		private final String module;
+		private final String className;
+		private final String classpath;
+
+		private String cpus;
+		private int exitCode = -1;
+		private long durationNanos;
+		private Path log;
+		private Path report;
+
+		Task(String module, String className, String classpath) {
+			this.module = module;
+			this.className = className;
+			this.classpath = classpath;
+		}
+
+		void complete(String cpus, int exitCode, long durationNanos, Path log, Path report) {
+
+			this.cpus = cpus;
+			this.exitCode = exitCode;
+			this.durationNanos = durationNanos;
+			this.log = log;
+			this.report = report;
+		}
+
+		String getModule() {
+			return module;
+		}
+
+		String getClassName() {
+			return className;
+		}
+
+		String getClasspath() {
+			return classpath;
+		}
+
+		String getCpus() {
+			return cpus;
+		}
+
+		int getExitCode() {
+			return exitCode;
+		}
+
+		double getDurationSeconds() {
+			return durationNanos / (double) TimeUnit.SECONDS.toNanos(1);
+		}
+
+		Path getLog() {
+			return log;
+		}
+
+		Path getReport() {
+			return report;
+		}
+
+		boolean isSuccessful() {
+			return exitCode == 0;
+		}
+	}
+}
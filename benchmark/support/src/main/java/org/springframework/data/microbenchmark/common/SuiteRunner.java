@@ -0,0 +1,472 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.util.StringUtils;
+
+/**
+ * Orchestrator running the benchmarks of multiple modules as one suite. Benchmark classes are discovered in the
+ * compiled classes of each module ({@code target/classes}) and run through {@link MicrobenchmarkRunner} in a separate
+ * JVM per class using the runtime classpath of the module ({@code target/benchmark.classpath}, written during the
+ * {@code process-classes} phase).
+ * <p>
+ * Up to {@code suiteParallelism} benchmark classes run concurrently. Each concurrently running class is pinned to a
+ * disjoint set of {@code suiteCpus} CPUs made of whole physical cores using {@code taskset} on Linux, JMH forks inherit
+ * the CPU set. Without {@code taskset}, classes run one at a time. Benchmarks of
+ * modules listed in {@code suiteExclusive} (by default the modules that access a database) run one at a time per module
+ * so that they do not contend for the same database while benchmarks of other modules proceed.
+ * <p>
+ * Results of all classes are merged into a single {@link SuiteReport} ({@code suite.json} and {@code suite.html}).
+ * Harness options ({@code -D...}) passed to the suite runner are passed on to each benchmark JVM. Build information
+ * that Surefire passes to benchmarks ({@code project.version}, {@code git.*}) is read from
+ * {@code target/benchmark-git.properties} of each module (written by the {@code git-commit-id-plugin}) unless passed to
+ * the suite runner.
+ *
+ * @see CpuSets
+ * @see SuiteReport
+ */
+public class SuiteRunner {
+
+	static final String DEFAULT_MODULES = "commons,mongodb,redis,relational";
+	static final String DEFAULT_EXCLUSIVE = "mongodb,redis,relational";
+	static final int DEFAULT_CPUS = 2;
+	static final String CLASSPATH_FILE = "target/benchmark.classpath";
+	static final String CLASSES_DIRECTORY = "target/classes";
+	static final String BUILD_PROPERTIES_FILE = "target/benchmark-git.properties";
+
+	/**
+	 * System properties set through the Surefire {@code systemPropertyVariables} by the key to read them from
+	 * {@link #BUILD_PROPERTIES_FILE}.
+	 */
+	private static final Map<String, String> BUILD_PROPERTIES = new LinkedHashMap<>();
+
+	static {
+
+		BUILD_PROPERTIES.put("project.version", "git.build.version");
+		BUILD_PROPERTIES.put("git.branch", "git.branch");
+		BUILD_PROPERTIES.put("git.dirty", "git.dirty");
+		BUILD_PROPERTIES.put("git.commit.id", "git.commit.id");
+	}
+
+	private final Environment environment;
+	private final Path baseDirectory;
+	private final Path reportDirectory;
+	private final Map<String, List<String>> buildArguments = new HashMap<>();
+
+	SuiteRunner(Environment environment) {
+
+		this.environment = environment;
+		this.baseDirectory = Paths.get(environment.getProperty("suiteBaseDir", ".")).toAbsolutePath().normalize();
+
+		String reportDirectory = environment.getProperty("benchmarkReportDir");
+		this.reportDirectory = StringUtils.hasText(reportDirectory) ? Paths.get(reportDirectory.trim()).toAbsolutePath()
+				: baseDirectory.resolve("target/reports/performance-suite");
+	}
+
+	public static void main(String[] args) throws Exception {
+
+		SuiteRunner runner = new SuiteRunner(new StandardEnvironment());
+		List<SuiteReport.Task> tasks = runner.run();
+
+		System.exit(tasks.stream().allMatch(SuiteReport.Task::isSuccessful) ? 0 : 1);
+	}
+
+	/**
+	 * Discover and run all benchmarks and write the merged report.
+	 *
+	 * @return the executed tasks.
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	List<SuiteReport.Task> run() throws IOException, InterruptedException {
+
+		List<SuiteReport.Task> tasks = discover();
+
+		if (tasks.isEmpty()) {
+			System.out.println("No benchmarks found in " + baseDirectory + ", run 'mvn process-classes' first");
+			return tasks;
+		}
+
+		List<List<Integer>> cpuSets = getCpuSets();
+
+		System.out.println(String.format(Locale.ROOT, "Running %d benchmark classes on %d CPU set(s) %s%s", tasks.size(),
+				cpuSets.size(), cpuSets.stream().map(CpuSets::format).collect(Collectors.toList()),
+				CpuSets.isTasksetAvailable() ? "" : " (taskset not available, running one class at a time unpinned)"));
+
+		Scheduler scheduler = new Scheduler(tasks, getExclusiveModules());
+		ExecutorService executor = Executors.newFixedThreadPool(cpuSets.size());
+
+		for (List<Integer> cpus : cpuSets) {
+			executor.execute(() -> {
+
+				SuiteReport.Task task;
+				while ((task = scheduler.next()) != null) {
+
+					try {
+						execute(task, cpus);
+					} finally {
+						scheduler.done(task);
+					}
+				}
+			});
+		}
+
+		executor.shutdown();
+		executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+
+		SuiteReport report = new SuiteReport(tasks, reportDirectory);
+		report.write();
+
+		System.out.println("Suite report: " + reportDirectory.resolve(SuiteReport.HTML_FILE));
+
+		return tasks;
+	}
+
+	/**
+	 * Discover benchmark classes selected through the {@code benchmark} property in all modules.
+	 *
+	 * @return
+	 * @throws IOException
+	 * @throws IllegalStateException if the build information of a module with selected benchmarks cannot be
+	 *           determined.
+	 */
+	List<SuiteReport.Task> discover() throws IOException {
+
+		List<SuiteReport.Task> tasks = new ArrayList<>();
+		MicrobenchmarkOptions options = new MicrobenchmarkOptions(environment);
+
+		for (String module : getModules()) {
+
+			Path moduleDirectory = baseDirectory.resolve(module);
+			Path classes = moduleDirectory.resolve(CLASSES_DIRECTORY);
+			Path classpathFile = moduleDirectory.resolve(CLASSPATH_FILE);
+
+			if (!Files.isDirectory(classes) || !Files.exists(classpathFile)) {
+				System.out.println("Skipping module " + module + ": " + classpathFile + " not found");
+				continue;
+			}
+
+			String classpath = classes + File.pathSeparator
+					+ new String(Files.readAllBytes(classpathFile), StandardCharsets.UTF_8).trim();
+
+			try (URLClassLoader classLoader = new URLClassLoader(toUrls(classpath),
+					ClassLoader.getPlatformClassLoader())) {
+
+				for (String className : getCandidates(classes)) {
+
+					Class<?> benchmarkClass;
+					try {
+						benchmarkClass = Class.forName(className, false, classLoader);
+					} catch (ClassNotFoundException | LinkageError e) {
+						continue;
+					}
+
+					if (isSelected(options, benchmarkClass)) {
+
+						if (!buildArguments.containsKey(module)) {
+							buildArguments.put(module, getBuildArguments(module, moduleDirectory));
+						}
+
+						tasks.add(new SuiteReport.Task(module, className, classpath));
+					}
+				}
+			}
+		}
+
+		return tasks;
+	}
+
+	private void execute(SuiteReport.Task task, List<Integer> cpus) {
+
+		Path moduleReportDirectory = reportDirectory.resolve(task.getModule());
+		Path log = reportDirectory.resolve("logs").resolve(task.getModule()).resolve(task.getClassName() + ".log");
+
+		List<String> command = new ArrayList<>();
+		command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+		command.addAll(getForwardedArguments());
+		command.addAll(buildArguments.getOrDefault(task.getModule(), List.of()));
+		command.add("-DbenchmarkReportDir=" + moduleReportDirectory);
+		command.add("-cp");
+		command.add(task.getClasspath());
+		command.add("org.junit.runner.JUnitCore");
+		command.add(task.getClassName());
+
+		System.out.println(String.format(Locale.ROOT, "[cpus %s] %s", CpuSets.format(cpus), task.getClassName()));
+
+		long start = System.nanoTime();
+		int exitCode;
+
+		try {
+
+			Files.createDirectories(log.getParent());
+
+			Process process = new ProcessBuilder(CpuSets.pin(cpus, command)).redirectErrorStream(true)
+					.redirectOutput(log.toFile()).start();
+
+			exitCode = process.waitFor();
+		} catch (IOException e) {
+			System.out.println("Cannot run " + task.getClassName() + ": " + e.getMessage());
+			exitCode = -1;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			exitCode = -1;
+		}
+
+		task.complete(CpuSets.format(cpus), exitCode, System.nanoTime() - start, log,
+				moduleReportDirectory.resolve(task.getClassName() + ".json"));
+
+		System.out.println(String.format(Locale.ROOT, "[cpus %s] %s %s in %.1f s", CpuSets.format(cpus),
+				task.getClassName(), task.isSuccessful() ? "completed" : "FAILED (exit code " + exitCode + ")",
+				task.getDurationSeconds()));
+	}
+
+	/**
+	 * @return JVM system properties passed to the suite runner except suite settings and the report directory.
+	 */
+	private static List<String> getForwardedArguments() {
+
+		return ManagementFactory.getRuntimeMXBean().getInputArguments().stream() //
+				.filter(it -> it.startsWith("-D")) //
+				.filter(it -> !it.startsWith("-Dsuite") && !it.startsWith("-DbenchmarkReportDir=")) //
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Build information of a module not passed to the suite runner, read from {@link #BUILD_PROPERTIES_FILE}.
+	 *
+	 * @return JVM system properties ({@code -D...}) to pass to benchmark JVMs of the module.
+	 * @throws IOException
+	 * @throws IllegalStateException if a build property is neither passed to the suite runner nor available from
+	 *           {@link #BUILD_PROPERTIES_FILE}.
+	 */
+	private static List<String> getBuildArguments(String module, Path moduleDirectory) throws IOException {
+
+		Path file = moduleDirectory.resolve(BUILD_PROPERTIES_FILE);
+		Properties properties = new Properties();
+
+		if (Files.exists(file)) {
+			try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+				properties.load(reader);
+			}
+		}
+
+		List<String> forwarded = getForwardedArguments();
+		List<String> arguments = new ArrayList<>();
+		List<String> missing = new ArrayList<>();
+
+		BUILD_PROPERTIES.forEach((property, key) -> {
+
+			if (forwarded.stream().anyMatch(it -> it.startsWith("-D" + property + "="))) {
+				return;
+			}
+
+			String value = properties.getProperty(key);
+
+			if (StringUtils.hasText(value)) {
+				arguments.add("-D" + property + "=" + value.trim());
+			} else {
+				missing.add(property);
+			}
+		});
+
+		if (!missing.isEmpty()) {
+			throw new IllegalStateException(String.format(Locale.ROOT,
+					"Cannot determine %s of module %s: %s not found or incomplete, run 'mvn process-classes' first or pass %s",
+					missing, module, file, missing.stream().map(it -> "-D" + it + "=...").collect(Collectors.joining(" "))));
+		}
+
+		return arguments;
+	}
+
+	private List<List<Integer>> getCpuSets() {
+
+		List<Integer> cpus = CpuSets.getAvailableCpus();
+
+		// Concurrent classes that cannot be pinned would compete for the same CPUs
+		if (!CpuSets.isTasksetAvailable()) {
+			return Collections.singletonList(cpus);
+		}
+
+		int size = Math.max(1, environment.getProperty("suiteCpus", Integer.class, DEFAULT_CPUS));
+		List<List<Integer>> cpuSets = CpuSets.partition(CpuSets.getCores(cpus), size);
+
+		Integer parallelism = environment.getProperty("suiteParallelism", Integer.class);
+		if (parallelism != null && parallelism > 0 && parallelism < cpuSets.size()) {
+			cpuSets = cpuSets.subList(0, parallelism);
+		}
+
+		return cpuSets;
+	}
+
+	private List<String> getModules() {
+		return getList("suiteModules", DEFAULT_MODULES);
+	}
+
+	private Set<String> getExclusiveModules() {
+		return new HashSet<>(getList("suiteExclusive", DEFAULT_EXCLUSIVE));
+	}
+
+	private List<String> getList(String property, String defaultValue) {
+
+		List<String> values = new ArrayList<>();
+		for (String value : StringUtils.commaDelimitedListToStringArray(environment.getProperty(property, defaultValue))) {
+			if (StringUtils.hasText(value)) {
+				values.add(value.trim());
+			}
+		}
+
+		return values;
+	}
+
+	/**
+	 * Benchmark class candidates following the naming convention of the Surefire configuration ({@code *Benchmark*}).
+	 */
+	private static Set<String> getCandidates(Path classes) throws IOException {
+
+		Set<String> candidates = new LinkedHashSet<>();
+
+		try (Stream<Path> files = Files.walk(classes)) {
+			files.map(it -> classes.relativize(it).toString().replace(File.separatorChar, '/')) //
+					.filter(it -> it.endsWith(".class") && it.contains("Benchmark") && !it.contains("$")
+							&& !it.contains("jmh_generated")) //
+					.sorted() //
+					.forEach(it -> candidates.add(it.substring(0, it.length() - ".class".length()).replace('/', '.')));
+		}
+
+		return candidates;
+	}
+
+	private static boolean isSelected(MicrobenchmarkOptions options, Class<?> benchmarkClass) {
+
+		if (Modifier.isAbstract(benchmarkClass.getModifiers()) || !Modifier.isPublic(benchmarkClass.getModifiers())) {
+			return false;
+		}
+
+		try {
+			for (Method method : benchmarkClass.getMethods()) {
+				if (Arrays.stream(method.getAnnotations())
+						.anyMatch(it -> it.annotationType().getName().equals("org.openjdk.jmh.annotations.Benchmark"))
+						&& options.isSelected(benchmarkClass, method)) {
+					return true;
+				}
+			}
+		} catch (LinkageError e) {
+			return false;
+		}
+
+		return false;
+	}
+
+	private static URL[] toUrls(String classpath) throws MalformedURLException {
+
+		List<URL> urls = new ArrayList<>();
+		for (String entry : classpath.split(File.pathSeparator)) {
+			if (StringUtils.hasText(entry)) {
+				urls.add(Paths.get(entry).toUri().toURL());
+			}
+		}
+
+		return urls.toArray(new URL[0]);
+	}
+
+	/**
+	 * Hands out tasks to CPU sets. Tasks of exclusive modules are only handed out if no other task of the same module is
+	 * running.
+	 */
+	static class Scheduler {
+
+		private final List<SuiteReport.Task> pending;
+		private final Set<String> exclusiveModules;
+		private final Set<String> busyModules = new HashSet<>();
+
+		Scheduler(List<SuiteReport.Task> tasks, Set<String> exclusiveModules) {
+			this.pending = new ArrayList<>(tasks);
+			this.exclusiveModules = exclusiveModules;
+		}
+
+		/**
+		 * @return the next runnable task, waiting for running tasks to complete if all pending tasks are blocked, or
+		 *         {@literal null} if there are no more tasks.
+		 */
+		synchronized SuiteReport.Task next() {
+
+			while (!pending.isEmpty()) {
+
+				for (SuiteReport.Task task : pending) {
+
+					if (!busyModules.contains(task.getModule())) {
+
+						pending.remove(task);
+
+						if (exclusiveModules.contains(task.getModule())) {
+							busyModules.add(task.getModule());
+						}
+
+						return task;
+					}
+				}
+
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return null;
+				}
+			}
+
+			return null;
+		}
+
+		synchronized void done(SuiteReport.Task task) {
+
+			busyModules.remove(task.getModule());
+			notifyAll();
+		}
+	}
+}
@@ -0,0 +1,609 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import net.minidev.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.util.StringUtils;
+
+/**
+ * Static HTML dashboard of stored benchmark results ({@link BenchmarkHistory}). For each benchmark, parameter
+ * combination and environment the dashboard plots the score across runs with its error band along with allocation per
+ * operation and GC time. Benchmarks are additionally related to raw driver baselines of the same class: benchmarks
+ * {@code findAll} and {@code repositoryFindAll} are compared to {@code rawFindAll} (the baseline prefix is
+ * configurable), their overhead ratio (how many times slower than the baseline) is plotted per run.
+ * <p>
+ * The dashboard is a single self-contained file (inline SVG and CSS, no scripts or external resources) so that it can
+ * be viewed offline and attached as CI artifact.
+ *
+ * @see BenchmarkHistory
+ */
+public class TrendDashboard {
+
+	static final String DEFAULT_BASELINE_PREFIX = "raw";
+	static final int DEFAULT_RUNS = 50;
+
+	private static final int WIDTH = 560;
+	private static final int HEIGHT = 180;
+	private static final int SMALL_WIDTH = 280;
+	private static final int PADDING = 48;
+
+	private final String source;
+	private final Map<String, List<Series>> seriesByClass = new TreeMap<>();
+	private final Map<String, List<Ratio>> ratiosByClass = new TreeMap<>();
+	private final int runs;
+
+	TrendDashboard(BenchmarkHistory history, String source, String baselinePrefix, int runs) {
+
+		this.source = source;
+		this.runs = runs;
+
+		Map<String, Series> series = new LinkedHashMap<>();
+		for (JSONObject result : history.getResults()) {
+
+			Series candidate = new Series(result);
+			series.computeIfAbsent(candidate.getKey(), key -> candidate).add(result);
+		}
+
+		for (Series it : series.values()) {
+			it.truncate(runs);
+			seriesByClass.computeIfAbsent(it.getBenchmarkClass(), key -> new ArrayList<>()).add(it);
+		}
+
+		for (Map.Entry<String, List<Series>> entry : seriesByClass.entrySet()) {
+
+			entry.getValue().sort(Comparator.comparing(Series::getTitle));
+
+			List<Ratio> ratios = new ArrayList<>();
+			for (Series candidate : entry.getValue()) {
+
+				Series baseline = findBaseline(candidate, entry.getValue(), baselinePrefix);
+				Ratio ratio = baseline != null ? new Ratio(candidate, baseline) : null;
+				if (ratio != null && !ratio.getValues().isEmpty()) {
+					ratios.add(ratio);
+				}
+			}
+
+			if (!ratios.isEmpty()) {
+				ratiosByClass.put(entry.getKey(), ratios);
+			}
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+
+		Environment environment = new StandardEnvironment();
+		String source = environment.getProperty("dashboardSource");
+
+		if (!StringUtils.hasText(source)) {
+			source = new MicrobenchmarkOptions(environment).getPublishTo().stream()
+					.filter(it -> it.startsWith("file:") || it.startsWith("mongodb")).findFirst().orElse(null);
+		}
+
+		if (!StringUtils.hasText(source)) {
+			System.out.println("No history configured, use -DdashboardSource=file:<directory> or mongodb://<host>/<db>");
+			System.exit(1);
+		}
+
+		String reportDirectory = environment.getProperty("benchmarkReportDir");
+		Path output = Paths.get(environment.getProperty("dashboardOutput",
+				(StringUtils.hasText(reportDirectory) ? reportDirectory.trim() : "target/reports/performance")
+						+ "/dashboard.html"));
+
+		BenchmarkHistory history = BenchmarkHistory.read(source.trim(), environment.getProperty("dashboardBranch"));
+
+		TrendDashboard dashboard = new TrendDashboard(history, source.trim(),
+				environment.getProperty("dashboardBaselinePrefix", DEFAULT_BASELINE_PREFIX),
+				environment.getProperty("dashboardRuns", Integer.class, DEFAULT_RUNS));
+
+		dashboard.write(output);
+
+		System.out.println(String.format(Locale.ROOT, "Dashboard of %d results (%d series): %s",
+				history.getResults().size(), dashboard.getSeriesCount(), output.toAbsolutePath()));
+	}
+
+	/**
+	 * Find the baseline of {@code candidate}: a series of the same class, mode, parameters and environment named
+	 * {@code <prefix><operation>} where the capitalized candidate name ({@code findAll} to {@code rawFindAll}) or,
+	 * without a match, the candidate name without its lower-case prefix ({@code repositoryFindAll} to
+	 * {@code rawFindAll}) starts with {@code <operation>}. The longest matching operation wins ({@code rawFindByTitle}
+	 * over {@code rawFind}).
+	 */
+	private static Series findBaseline(Series candidate, List<Series> series, String prefix) {
+
+		String method = candidate.getMethod();
+		if (method.startsWith(prefix)) {
+			return null;
+		}
+
+		Series baseline = findBaseline(candidate, StringUtils.capitalize(method), series, prefix);
+		return baseline != null ? baseline
+				: findBaseline(candidate, method.replaceFirst("^[a-z0-9]+", ""), series, prefix);
+	}
+
+	private static Series findBaseline(Series candidate, String operation, List<Series> series, String prefix) {
+
+		Series baseline = null;
+
+		for (Series it : series) {
+
+			String baselineOperation = it.getMethod().substring(Math.min(prefix.length(), it.getMethod().length()));
+			if (!it.getMethod().startsWith(prefix) || baselineOperation.isEmpty() || !operation.startsWith(baselineOperation)
+					|| !it.getVariant().equals(candidate.getVariant())) {
+				continue;
+			}
+
+			if (baseline == null || baselineOperation.length() > baseline.getMethod().length() - prefix.length()) {
+				baseline = it;
+			}
+		}
+
+		return baseline;
+	}
+
+	int getSeriesCount() {
+		return seriesByClass.values().stream().mapToInt(List::size).sum();
+	}
+
+	/**
+	 * Write the dashboard as HTML file.
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	void write(Path file) throws IOException {
+
+		if (file.toAbsolutePath().getParent() != null) {
+			Files.createDirectories(file.toAbsolutePath().getParent());
+		}
+
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+
+			writer.write("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>Benchmark Trends</title>\n<style>\n"
+					+ "body { font-family: sans-serif; margin: 1em; }\n"
+					+ "h2 { border-bottom: 1px solid #ccc; margin-top: 2em; } h3 { font-size: 1em; margin: 1.5em 0 0.2em; }\n"
+					+ ".charts { display: flex; flex-wrap: wrap; gap: 12px; } .meta { color: #555; font-size: 0.9em; margin: 0; }\n"
+					+ "svg { font: 10px sans-serif; } .band { fill: #9ecae1; opacity: 0.5; } .line { fill: none; stroke: #08519c; stroke-width: 1.5; }\n"
+					+ ".point { fill: #08519c; } .axis { stroke: #999; } .ratio .line { stroke: #a63603; } .ratio .point { fill: #a63603; }\n"
+					+ ".worse { color: #b00; } .better { color: #070; }\n" + "</style></head><body>\n");
+
+			writer.write("<h1>Benchmark Trends</h1>\n");
+			writer.write(String.format(Locale.ROOT, "<p class=\"meta\">%s, generated %tF %<tT, last %d runs per series</p>%n",
+					escape(source.replaceFirst("//[^/@]+@", "//")), new Date(), runs));
+
+			writer.write("<ul>\n");
+			for (String benchmarkClass : seriesByClass.keySet()) {
+				writer.write("<li><a href=\"#" + escape(benchmarkClass) + "\">" + escape(benchmarkClass) + "</a></li>\n");
+			}
+			writer.write("</ul>\n");
+
+			for (Map.Entry<String, List<Series>> entry : seriesByClass.entrySet()) {
+
+				writer.write("<h2 id=\"" + escape(entry.getKey()) + "\">" + escape(entry.getKey()) + "</h2>\n");
+
+				List<Ratio> ratios = ratiosByClass.get(entry.getKey());
+				if (ratios != null) {
+
+					writer.write("<h3>Overhead compared to baselines (times slower)</h3>\n<div class=\"charts ratio\">\n");
+					for (Ratio ratio : ratios) {
+						writeChart(writer, ratio.getLabel(), ratio.getValues(), null, ratio.getLabels(), "x", SMALL_WIDTH);
+					}
+					writer.write("</div>\n");
+				}
+
+				for (Series series : entry.getValue()) {
+					writeSeries(writer, series);
+				}
+			}
+
+			writer.write("</body></html>\n");
+		}
+	}
+
+	private void writeSeries(Writer writer, Series series) throws IOException {
+
+		List<Point> points = series.getPoints();
+		Point last = points.get(points.size() - 1);
+
+		writer.write("<h3>" + escape(series.getTitle()) + "</h3>\n");
+
+		String change = "";
+		if (points.size() > 1) {
+
+			double previous = points.get(points.size() - 2).score;
+			double relative = (last.score - previous) / previous;
+			boolean worse = "thrpt".equals(series.getMode()) ? relative < 0 : relative > 0;
+
+			if (Double.isFinite(relative)) {
+				change = String.format(Locale.ROOT, ", <span class=\"%s\">%+.1f%%</span> compared to the previous run",
+						worse ? "worse" : "better", relative * 100);
+			}
+		}
+
+		writer.write(String.format(Locale.ROOT, "<p class=\"meta\">%s &#177; %s %s (%s)%s%s</p>%n", format(last.score),
+				format(last.error), escape(last.unit), escape(last.describe()), change,
+				series.getEnvironmentId() != null ? ", environment " + escape(series.getEnvironmentId()) : ""));
+
+		writer.write("<div class=\"charts\">\n");
+
+		List<String> labels = series.getLabels();
+		writeChart(writer, "Score", series.getValues(it -> it.score), series.getValues(it -> it.error), labels, last.unit,
+				WIDTH);
+		writeChart(writer, "Allocation", series.getValues(it -> it.allocation), null, labels, "B/op", SMALL_WIDTH);
+		writeChart(writer, "GC time", series.getValues(it -> it.gcTime), null, labels, "ms", SMALL_WIDTH);
+
+		writer.write("</div>\n");
+	}
+
+	/**
+	 * Render a line chart as inline SVG. Charts without any finite value are skipped.
+	 *
+	 * @param writer
+	 * @param title
+	 * @param values
+	 * @param errors error band around the values, can be {@literal null}.
+	 * @param labels tooltip per value.
+	 * @param unit
+	 * @param width
+	 * @throws IOException
+	 */
+	private static void writeChart(Writer writer, String title, List<Double> values, List<Double> errors,
+			List<String> labels, String unit, int width) throws IOException {
+
+		double min = Double.MAX_VALUE;
+		double max = -Double.MAX_VALUE;
+
+		for (int i = 0; i < values.size(); i++) {
+
+			double value = values.get(i);
+			double error = getError(errors, i);
+
+			if (Double.isFinite(value)) {
+				min = Math.min(min, value - error);
+				max = Math.max(max, value + error);
+			}
+		}
+
+		if (min > max) {
+			return;
+		}
+
+		if (max - min < Math.abs(max) * 0.01 || max == min) {
+			double delta = max == 0 ? 1 : Math.abs(max) * 0.05;
+			min -= delta;
+			max += delta;
+		}
+
+		int left = PADDING;
+		int top = 20;
+		int plotWidth = width - left - 10;
+		int plotHeight = HEIGHT - top - 24;
+
+		double[] x = new double[values.size()];
+		double[] y = new double[values.size()];
+		for (int i = 0; i < values.size(); i++) {
+			x[i] = left + (values.size() == 1 ? plotWidth / 2.0 : i * plotWidth / (double) (values.size() - 1));
+			y[i] = top + (max - values.get(i)) / (max - min) * plotHeight;
+		}
+
+		StringBuilder svg = new StringBuilder();
+		svg.append(String.format(Locale.ROOT, "<svg width=\"%d\" height=\"%d\">%n", width, HEIGHT));
+		svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"12\" font-weight=\"bold\">%s [%s]</text>%n", left,
+				escape(title), escape(unit)));
+		svg.append(String.format(Locale.ROOT,
+				"<line class=\"axis\" x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\"/><line class=\"axis\" x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\"/>%n",
+				left, top, left, top + plotHeight, left, top + plotHeight, left + plotWidth, top + plotHeight));
+		svg.append(String.format(Locale.ROOT,
+				"<text x=\"%d\" y=\"%d\" text-anchor=\"end\">%s</text><text x=\"%d\" y=\"%d\" text-anchor=\"end\">%s</text>%n",
+				left - 4, top + 4, format(max), left - 4, top + plotHeight, format(min)));
+
+		if (errors != null) {
+
+			StringBuilder band = new StringBuilder();
+			for (int i = 0; i < values.size(); i++) {
+				if (Double.isFinite(values.get(i))) {
+					band.append(String.format(Locale.ROOT, "%.1f,%.1f ", x[i], scale(values.get(i) + getError(errors, i), min,
+							max, top, plotHeight)));
+				}
+			}
+			for (int i = values.size() - 1; i >= 0; i--) {
+				if (Double.isFinite(values.get(i))) {
+					band.append(String.format(Locale.ROOT, "%.1f,%.1f ", x[i], scale(values.get(i) - getError(errors, i), min,
+							max, top, plotHeight)));
+				}
+			}
+
+			svg.append("<polygon class=\"band\" points=\"").append(band.toString().trim()).append("\"/>\n");
+		}
+
+		StringBuilder line = new StringBuilder();
+		for (int i = 0; i < values.size(); i++) {
+			if (Double.isFinite(values.get(i))) {
+				line.append(String.format(Locale.ROOT, "%.1f,%.1f ", x[i], y[i]));
+			}
+		}
+		svg.append("<polyline class=\"line\" points=\"").append(line.toString().trim()).append("\"/>\n");
+
+		for (int i = 0; i < values.size(); i++) {
+			if (Double.isFinite(values.get(i))) {
+				svg.append(String.format(Locale.ROOT, "<circle class=\"point\" cx=\"%.1f\" cy=\"%.1f\" r=\"3\"><title>%s: %s%s</title></circle>%n",
+						x[i], y[i], escape(labels.get(i)), format(values.get(i)),
+						errors != null ? " &#177; " + format(getError(errors, i)) : ""));
+			}
+		}
+
+		svg.append(String.format(Locale.ROOT,
+				"<text x=\"%d\" y=\"%d\">%s</text><text x=\"%d\" y=\"%d\" text-anchor=\"end\">%s</text>%n", left,
+				HEIGHT - 6, escape(shorten(labels.get(0))), left + plotWidth, HEIGHT - 6,
+				escape(shorten(labels.get(labels.size() - 1)))));
+		svg.append("</svg>\n");
+
+		writer.write(svg.toString());
+	}
+
+	private static double scale(double value, double min, double max, int top, int plotHeight) {
+		return top + (max - Math.max(min, Math.min(max, value))) / (max - min) * plotHeight;
+	}
+
+	private static double getError(List<Double> errors, int index) {
+
+		if (errors == null) {
+			return 0;
+		}
+
+		double error = errors.get(index);
+		return Double.isFinite(error) ? error : 0;
+	}
+
+	private static String shorten(String label) {
+
+		int separator = label.indexOf(' ');
+		return separator == -1 ? label : label.substring(0, separator);
+	}
+
+	private static String format(double value) {
+
+		if (!Double.isFinite(value)) {
+			return "n/a";
+		}
+
+		double abs = Math.abs(value);
+		return String.format(Locale.ROOT, abs >= 1000 ? "%.0f" : abs >= 1 ? "%.2f" : "%.4f", value);
+	}
+
+	private static String escape(String value) {
+		return value == null ? "" : value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+				.replace("\"", "&quot;");
+	}
+
+	/**
+	 * Results of a benchmark, parameter combination and environment across runs.
+	 */
+	static class Series {
+
+		private final String benchmark;
+		private final String mode;
+		private final String variant;
+		private final String environmentId;
+		private final String title;
+		private List<Point> points = new ArrayList<>();
+
+		Series(JSONObject result) {
+
+			this.benchmark = result.getAsString("benchmark");
+			this.mode = result.getAsString("mode");
+			this.environmentId = EnvironmentFingerprint.getId(result);
+
+			String params = getParams(result);
+			String jvmProfile = result.getAsString("jvmProfile");
+			String threads = result.getAsString("threads");
+
+			this.variant = mode + "|" + threads + "|" + params + "|" + jvmProfile + "|" + environmentId;
+			this.title = MongoResultsWriter.extractBenchmarkName(benchmark) + (params.isEmpty() ? "" : " " + params)
+					+ (threads != null && !"1".equals(threads) ? " threads=" + threads : "")
+					+ (jvmProfile != null ? " jvmProfile=" + jvmProfile : "") + " (" + mode + ")";
+		}
+
+		void add(JSONObject result) {
+			points.add(new Point(result));
+		}
+
+		void truncate(int runs) {
+
+			if (runs > 0 && points.size() > runs) {
+				points = new ArrayList<>(points.subList(points.size() - runs, points.size()));
+			}
+		}
+
+		String getKey() {
+			return benchmark + "|" + variant;
+		}
+
+		String getBenchmarkClass() {
+			return MongoResultsWriter.extractClass(benchmark);
+		}
+
+		String getMethod() {
+			return MongoResultsWriter.extractBenchmarkName(benchmark);
+		}
+
+		String getMode() {
+			return mode;
+		}
+
+		/**
+		 * @return mode, threads, parameters, JVM profile and environment; series with the same variant are comparable.
+		 */
+		String getVariant() {
+			return variant;
+		}
+
+		String getEnvironmentId() {
+			return environmentId;
+		}
+
+		String getTitle() {
+			return title;
+		}
+
+		List<Point> getPoints() {
+			return points;
+		}
+
+		List<Double> getValues(ToDoubleFunction<Point> function) {
+
+			List<Double> values = new ArrayList<>();
+			for (Point point : points) {
+				values.add(function.applyAsDouble(point));
+			}
+
+			return values;
+		}
+
+		List<String> getLabels() {
+
+			List<String> labels = new ArrayList<>();
+			for (Point point : points) {
+				labels.add(point.describe());
+			}
+
+			return labels;
+		}
+
+		private static String getParams(JSONObject result) {
+
+			Object params = result.get("params");
+			return params instanceof Map && !((Map<?, ?>) params).isEmpty() ? new TreeMap<>((Map<?, ?>) params).toString()
+					: "";
+		}
+	}
+
+	/**
+	 * A single result of a {@link Series}.
+	 */
+	static class Point {
+
+		private final String run;
+		private final String commit;
+		private final String version;
+		private final long date;
+		private final double score;
+		private final double error;
+		private final String unit;
+		private final double allocation;
+		private final double gcTime;
+
+		Point(JSONObject result) {
+
+			String commit = result.getAsString("_commit");
+
+			this.date = BenchmarkHistory.getDate(result);
+			this.commit = commit != null && commit.length() > 7 ? commit.substring(0, 7) : commit;
+			this.version = result.getAsString("_version");
+			this.run = commit + "@" + date;
+
+			JSONObject metric = (JSONObject) result.get("primaryMetric");
+			this.score = toDouble(metric.get("score"));
+			this.error = toDouble(metric.get("scoreError"));
+			this.unit = metric.getAsString("scoreUnit");
+			this.allocation = getMetric(result, "allocRateNorm", "gc.alloc.rate.norm");
+			this.gcTime = getMetric(result, "time", "gc.time");
+		}
+
+		String describe() {
+			return String.format(Locale.ROOT, "%s %s %tF", commit, version, new Date(date));
+		}
+
+		private static double getMetric(JSONObject result, String name, String label) {
+
+			Object gc = result.get("gc");
+			if (gc instanceof Map && ((Map<?, ?>) gc).get(name) instanceof Number) {
+				return ((Number) ((Map<?, ?>) gc).get(name)).doubleValue();
+			}
+
+			Double score = ResultsJson.getSecondaryScore(result, label);
+			return score != null ? score : Double.NaN;
+		}
+
+		private static double toDouble(Object value) {
+			return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+		}
+	}
+
+	/**
+	 * Overhead of a benchmark compared to its baseline per run both were measured in, see
+	 * {@link PerformanceBudgets#getSlowdown}.
+	 */
+	static class Ratio {
+
+		private final String label;
+		private final List<Double> values = new ArrayList<>();
+		private final List<String> labels = new ArrayList<>();
+
+		Ratio(Series candidate, Series baseline) {
+
+			this.label = candidate.getMethod() + " / " + baseline.getMethod()
+					+ candidate.getTitle().substring(candidate.getMethod().length());
+
+			Map<String, Point> baselinePoints = new LinkedHashMap<>();
+			for (Point point : baseline.getPoints()) {
+				baselinePoints.put(point.run, point);
+			}
+
+			for (Point point : candidate.getPoints()) {
+
+				Point baselinePoint = baselinePoints.get(point.run);
+				if (baselinePoint == null) {
+					continue;
+				}
+
+				values.add("thrpt".equals(candidate.getMode()) ? baselinePoint.score / point.score
+						: point.score / baselinePoint.score);
+				labels.add(point.describe());
+			}
+		}
+
+		String getLabel() {
+			return label;
+		}
+
+		List<Double> getValues() {
+			return values;
+		}
+
+		List<String> getLabels() {
+			return labels;
+		}
+	}
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Recorder;
+import org.springframework.util.Assert;
+
+/**
+ * Closed-loop load generator running a blocking operation from a large number of concurrent tasks. Each task invokes
+ * the operation repeatedly until the run duration has elapsed, so that up to {@code concurrency} operations compete
+ * for the connection pool of the system under test at any time. Tasks run on virtual threads (one per task) or, for
+ * comparison, on a fixed pool of platform threads.
+ * <p>
+ * Virtual threads require Java 21. The driver is compiled against Java 17 and obtains the virtual thread executor
+ * reflectively, creating a {@code virtual} driver on an older JVM fails with an {@link IllegalStateException}.
+ *
+ * @see VirtualThreadResult
+ * @see VirtualThreadProfiler
+ */
+public class VirtualThreadDriver {
+
+	static final String VIRTUAL = "virtual";
+	static final String PLATFORM = "platform";
+
+	private static final Duration TERMINATION_TIMEOUT = Duration.ofSeconds(60);
+
+	private final String executor;
+	private final int concurrency;
+
+	/**
+	 * Create a new {@link VirtualThreadDriver}.
+	 *
+	 * @param executor {@code virtual} or {@code platform}.
+	 * @param concurrency number of concurrent tasks.
+	 */
+	public VirtualThreadDriver(String executor, int concurrency) {
+
+		Assert.isTrue(VIRTUAL.equals(executor) || PLATFORM.equals(executor),
+				() -> String.format("Executor must be '%s' or '%s' but was '%s'", VIRTUAL, PLATFORM, executor));
+		Assert.isTrue(concurrency > 0, "Concurrency must be greater than zero");
+
+		if (VIRTUAL.equals(executor) && !isVirtualThreadsAvailable()) {
+			throw new IllegalStateException(String.format(Locale.ROOT,
+					"Virtual threads require Java 21 or newer but running on %s, use executor=platform instead",
+					Runtime.version()));
+		}
+
+		this.executor = executor;
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * @return {@literal true} if the current JVM supports virtual threads.
+	 */
+	public static boolean isVirtualThreadsAvailable() {
+
+		try {
+			Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Run the operation from all tasks for the given duration and wait for the tasks to finish their last operation.
+	 *
+	 * @param operation the blocking operation.
+	 * @param duration duration of the load phase.
+	 * @return the throughput and latency of the run.
+	 */
+	public VirtualThreadResult run(Callable<?> operation, Duration duration) {
+
+		Recorder latency = new Recorder(3);
+		LongAdder operations = new LongAdder();
+		LongAdder errors = new LongAdder();
+		CountDownLatch ready = new CountDownLatch(concurrency);
+		CountDownLatch go = new CountDownLatch(1);
+		long[] deadline = new long[1];
+
+		ExecutorService executorService = createExecutorService();
+		long start;
+
+		try {
+
+			for (int i = 0; i < concurrency; i++) {
+				executorService.execute(() -> {
+
+					ready.countDown();
+					awaitUninterruptibly(go);
+
+					long end = deadline[0];
+					long now = System.nanoTime();
+
+					while (now < end) {
+
+						try {
+							operation.call();
+						} catch (Exception e) {
+							errors.increment();
+						}
+
+						long completed = System.nanoTime();
+						latency.recordValue(completed - now);
+						operations.increment();
+						now = completed;
+					}
+				});
+			}
+
+			awaitUninterruptibly(ready);
+
+			start = System.nanoTime();
+			deadline[0] = start + duration.toNanos();
+			go.countDown();
+		} finally {
+			executorService.shutdown();
+		}
+
+		try {
+			if (!executorService.awaitTermination(duration.plus(TERMINATION_TIMEOUT).toMillis(), TimeUnit.MILLISECONDS)) {
+				executorService.shutdownNow();
+				throw new IllegalStateException(
+						String.format("Tasks did not finish within %s after the run duration", TERMINATION_TIMEOUT));
+			}
+		} catch (InterruptedException e) {
+			executorService.shutdownNow();
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while awaiting tasks", e);
+		}
+
+		return new VirtualThreadResult(executor, concurrency, operations.sum(), errors.sum(), System.nanoTime() - start,
+				latency.getIntervalHistogram());
+	}
+
+	private ExecutorService createExecutorService() {
+
+		if (PLATFORM.equals(executor)) {
+			return Executors.newFixedThreadPool(concurrency, runnable -> {
+
+				Thread thread = new Thread(runnable);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalStateException("Cannot create virtual thread executor", e);
+		}
+	}
+
+	private static void awaitUninterruptibly(CountDownLatch latch) {
+
+		boolean interrupted = false;
+
+		while (true) {
+			try {
+				latch.await();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+import org.openjdk.jmh.results.TextResult;
+
+/**
+ * JMH profiler publishing {@link VirtualThreadResult}s recorded by {@link AbstractVirtualThreadBenchmark} as secondary
+ * results ({@code vthread.*}): throughput, latency percentiles and the number of failed operations.
+ * <p>
+ * Each iteration is recorded with Java Flight Recorder to capture {@code jdk.VirtualThreadPinned} events, emitted when
+ * a virtual thread blocks while pinned to its carrier thread (e.g. inside a {@code synchronized} block or a native
+ * frame). The number of pinning events and the total pinned time are reported along with the most frequent pinning
+ * sites, the first stack frame outside of the JDK.
+ */
+public class VirtualThreadProfiler implements InternalProfiler {
+
+	static final String THROUGHPUT = "vthread.throughput";
+	static final String P50 = "vthread.p50";
+	static final String P99 = "vthread.p99";
+	static final String P999 = "vthread.p99.9";
+	static final String ERRORS = "vthread.errors";
+	static final String PINNED = "vthread.pinned";
+	static final String PINNED_TIME = "vthread.pinned.time";
+	static final String PINNED_SITES = "vthread.pinned.sites";
+
+	static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+	private static final int MAX_SITES = 10;
+	private static final List<VirtualThreadResult> results = new ArrayList<>();
+
+	private Recording recording;
+
+	/**
+	 * Record the result of a run for the current iteration.
+	 *
+	 * @param result
+	 */
+	static void record(VirtualThreadResult result) {
+
+		synchronized (results) {
+			results.add(result);
+		}
+	}
+
+	@Override
+	public String getDescription() {
+		return "Virtual thread throughput, latency and pinning";
+	}
+
+	@Override
+	public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+
+		synchronized (results) {
+			results.clear();
+		}
+
+		if (FlightRecorder.isAvailable()) {
+
+			recording = new Recording();
+			recording.setName(PINNED_EVENT);
+			recording.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+			recording.start();
+		}
+	}
+
+	@Override
+	public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+			IterationResult result) {
+
+		List<Result> secondary = new ArrayList<>();
+
+		synchronized (results) {
+
+			for (VirtualThreadResult run : results) {
+
+				secondary.add(new ScalarResult(THROUGHPUT, run.getThroughput(), "ops/s", AggregationPolicy.AVG));
+				secondary.add(new ScalarResult(P50, run.getLatency(50), "us", AggregationPolicy.AVG));
+				secondary.add(new ScalarResult(P99, run.getLatency(99), "us", AggregationPolicy.AVG));
+				secondary.add(new ScalarResult(P999, run.getLatency(99.9), "us", AggregationPolicy.AVG));
+				secondary.add(new ScalarResult("vthread.max", run.getMaxLatency(), "us", AggregationPolicy.MAX));
+				secondary.add(new ScalarResult(ERRORS, run.getErrors(), "#", AggregationPolicy.SUM));
+			}
+
+			results.clear();
+		}
+
+		if (recording != null) {
+			try {
+				secondary.addAll(readPinnedEvents());
+			} finally {
+				recording.close();
+				recording = null;
+			}
+		}
+
+		return secondary;
+	}
+
+	private List<Result> readPinnedEvents() {
+
+		recording.stop();
+
+		long count = 0;
+		Duration pinned = Duration.ZERO;
+		Map<String, Long> sites = new HashMap<>();
+
+		try {
+
+			Path file = Files.createTempFile("vthread-pinned", ".jfr");
+
+			try {
+
+				recording.dump(file);
+
+				for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+
+					if (!PINNED_EVENT.equals(event.getEventType().getName())) {
+						continue;
+					}
+
+					count++;
+					pinned = pinned.plus(event.getDuration());
+					sites.merge(getSite(event.getStackTrace()), 1L, Long::sum);
+				}
+			} finally {
+				Files.deleteIfExists(file);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		List<Result> secondary = new ArrayList<>();
+		secondary.add(new ScalarResult(PINNED, count, "#", AggregationPolicy.SUM));
+		secondary.add(new ScalarResult(PINNED_TIME, pinned.toNanos() / 1_000_000.0, "ms", AggregationPolicy.SUM));
+
+		if (!sites.isEmpty()) {
+
+			StringBuilder text = new StringBuilder("Pinning sites:\n");
+			sites.entrySet().stream() //
+					.sorted(Map.Entry.<String, Long> comparingByValue().reversed()) //
+					.limit(MAX_SITES) //
+					.forEach(it -> text.append(String.format(Locale.ROOT, "%8d  %s%n", it.getValue(), it.getKey())));
+
+			secondary.add(new TextResult(text.toString(), PINNED_SITES));
+		}
+
+		return secondary;
+	}
+
+	/**
+	 * @param stackTrace
+	 * @return the first frame outside of the JDK, the top frame if all frames belong to the JDK.
+	 */
+	private static String getSite(RecordedStackTrace stackTrace) {
+
+		if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+			return "<unknown>";
+		}
+
+		for (RecordedFrame frame : stackTrace.getFrames()) {
+
+			String type = frame.getMethod().getType().getName();
+
+			if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+				return format(frame);
+			}
+		}
+
+		return format(stackTrace.getFrames().get(0));
+	}
+
+	private static String format(RecordedFrame frame) {
+		return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+	}
+}
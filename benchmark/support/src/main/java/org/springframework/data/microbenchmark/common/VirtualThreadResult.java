@@ -0,0 +1,92 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Result of a {@link VirtualThreadDriver} run. Latencies are reported in microseconds.
+ */
+public class VirtualThreadResult {
+
+	private final String executor;
+	private final int concurrency;
+	private final long operations;
+	private final long errors;
+	private final long elapsedNanos;
+	private final Histogram latency;
+
+	VirtualThreadResult(String executor, int concurrency, long operations, long errors, long elapsedNanos,
+			Histogram latency) {
+
+		this.executor = executor;
+		this.concurrency = concurrency;
+		this.operations = operations;
+		this.errors = errors;
+		this.elapsedNanos = elapsedNanos;
+		this.latency = latency;
+	}
+
+	/**
+	 * @return the kind of threads the operations ran on ({@code virtual} or {@code platform}).
+	 */
+	public String getExecutor() {
+		return executor;
+	}
+
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	/**
+	 * @return number of completed operations including failed ones.
+	 */
+	public long getOperations() {
+		return operations;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	/**
+	 * @return completed operations per second.
+	 */
+	public double getThroughput() {
+		return elapsedNanos > 0 ? operations * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0;
+	}
+
+	/**
+	 * @param percentile
+	 * @return the latency at the given percentile in microseconds.
+	 */
+	public double getLatency(double percentile) {
+		return toMicros(latency.getValueAtPercentile(percentile));
+	}
+
+	/**
+	 * @return the maximum latency in microseconds.
+	 */
+	public double getMaxLatency() {
+		return toMicros(latency.getMaxValue());
+	}
+
+	private static double toMicros(long nanos) {
+		return nanos / 1000.0;
+	}
+}
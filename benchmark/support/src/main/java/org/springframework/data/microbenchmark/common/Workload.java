@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.util.Random;
+
+/**
+ * Standard workloads defining the mix of operations issued against a {@link WorkloadAdapter}, modeled after the YCSB
+ * core workloads.
+ *
+ * @see AbstractWorkloadBenchmark
+ */
+public enum Workload {
+
+	/**
+	 * Update heavy: 50% reads, 50% updates (YCSB workload A).
+	 */
+	UPDATE_HEAVY(0.5, 0.5, 0, 0, 0),
+
+	/**
+	 * Read heavy: 95% reads, 5% updates (YCSB workload B).
+	 */
+	READ_HEAVY(0.95, 0.05, 0, 0, 0),
+
+	/**
+	 * Read only: 100% reads (YCSB workload C).
+	 */
+	READ_ONLY(1, 0, 0, 0, 0),
+
+	/**
+	 * Read latest: 95% reads, 5% inserts (YCSB workload D), typically used with {@link KeyDistribution#LATEST}.
+	 */
+	READ_LATEST(0.95, 0, 0.05, 0, 0),
+
+	/**
+	 * Short ranges: 95% scans of up to {@link #MAX_SCAN_LENGTH} records, 5% inserts (YCSB workload E).
+	 */
+	SCAN_SHORT_RANGES(0, 0, 0.05, 0.95, 0),
+
+	/**
+	 * Read-modify-write: 50% reads, 50% read-modify-write (YCSB workload F).
+	 */
+	READ_MODIFY_WRITE(0.5, 0, 0, 0, 0.5);
+
+	/**
+	 * Maximum number of records per scan. Scan lengths are uniformly distributed between 1 and this value.
+	 */
+	public static final int MAX_SCAN_LENGTH = 100;
+
+	private final double[] cumulativeProportions;
+
+	Workload(double read, double update, double insert, double scan, double readModifyWrite) {
+
+		double[] proportions = { read, update, insert, scan, readModifyWrite };
+		this.cumulativeProportions = new double[proportions.length];
+
+		double sum = 0;
+		for (int i = 0; i < proportions.length; i++) {
+			sum += proportions[i];
+			cumulativeProportions[i] = sum;
+		}
+	}
+
+	/**
+	 * @param random
+	 * @return the next operation according to the proportions of this workload.
+	 */
+	Operation nextOperation(Random random) {
+
+		double value = random.nextDouble() * cumulativeProportions[cumulativeProportions.length - 1];
+		Operation[] operations = Operation.values();
+
+		for (int i = 0; i < cumulativeProportions.length; i++) {
+			if (value < cumulativeProportions[i]) {
+				return operations[i];
+			}
+		}
+
+		return operations[operations.length - 1];
+	}
+
+	/**
+	 * Operations issued by a workload.
+	 */
+	enum Operation {
+		READ, UPDATE, INSERT, SCAN, READ_MODIFY_WRITE
+	}
+}
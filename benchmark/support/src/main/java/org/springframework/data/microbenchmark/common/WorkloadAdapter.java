@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+/**
+ * Thin adapter exposing the operations of a {@link Workload} on top of the repository and template types of a store.
+ * Records are identified by a numeric key that adapters map to the store-specific identity, e.g. the title of a book.
+ * Keys {@code 0} to {@code recordCount - 1} are expected to exist when the workload starts, inserted records use
+ * subsequent keys.
+ *
+ * @see AbstractWorkloadBenchmark
+ */
+public interface WorkloadAdapter extends AutoCloseable {
+
+	/**
+	 * Read a single record.
+	 *
+	 * @param key
+	 * @return the record.
+	 */
+	Object read(long key);
+
+	/**
+	 * Update a single field of a record without reading it.
+	 *
+	 * @param key
+	 * @param value the new field value.
+	 * @return the store response.
+	 */
+	Object update(long key, int value);
+
+	/**
+	 * Insert a new record.
+	 *
+	 * @param key
+	 * @return the store response.
+	 */
+	Object insert(long key);
+
+	/**
+	 * Read up to {@code length} records in key order starting at {@code key}.
+	 *
+	 * @param key the first key.
+	 * @param length the maximum number of records.
+	 * @return the records.
+	 */
+	Object scan(long key, int length);
+
+	/**
+	 * Read a record, modify it and write it back.
+	 *
+	 * @param key
+	 * @return the store response.
+	 */
+	Object readModifyWrite(long key);
+
+	/**
+	 * Release resources and remove data created by the adapter or its fixture.
+	 */
+	@Override
+	void close();
+}
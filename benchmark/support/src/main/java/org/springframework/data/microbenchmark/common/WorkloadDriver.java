@@ -0,0 +1,78 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.data.microbenchmark.common.KeyDistribution.KeyChooser;
+import org.springframework.data.microbenchmark.common.KeyDistribution.KeySpace;
+import org.springframework.data.microbenchmark.common.Workload.Operation;
+
+/**
+ * Issues the operations of a {@link Workload} against a {@link WorkloadAdapter} using keys chosen according to a
+ * {@link KeyDistribution}. Not thread-safe.
+ */
+class WorkloadDriver {
+
+	private final Workload workload;
+	private final WorkloadAdapter adapter;
+	private final KeySpace keys;
+	private final KeyChooser chooser;
+
+	WorkloadDriver(Workload workload, KeyDistribution distribution, int recordCount, WorkloadAdapter adapter) {
+
+		this.workload = workload;
+		this.adapter = adapter;
+		this.keys = new KeySpace(recordCount);
+		this.chooser = distribution.createChooser(keys);
+	}
+
+	/**
+	 * Issue the next operation.
+	 *
+	 * @return the operation result.
+	 */
+	Object next() {
+
+		Random random = ThreadLocalRandom.current();
+
+		switch (workload.nextOperation(random)) {
+
+			case READ:
+				return adapter.read(chooser.nextKey(random));
+
+			case UPDATE:
+				return adapter.update(chooser.nextKey(random), random.nextInt());
+
+			case INSERT:
+
+				Object result = adapter.insert(keys.nextInsertKey());
+				keys.inserted();
+
+				return result;
+
+			case SCAN:
+				return adapter.scan(chooser.nextKey(random), 1 + random.nextInt(Workload.MAX_SCAN_LENGTH));
+
+			case READ_MODIFY_WRITE:
+				return adapter.readModifyWrite(chooser.nextKey(random));
+
+			default:
+				throw new IllegalStateException("Unsupported operation");
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import java.util.Random;
+
+/**
+ * Zipfian distributed values between {@code 0} (most popular) and {@code items - 1} using the algorithm by Gray et al.
+ * ("Quickly Generating Billion-Record Synthetic Databases") as used by YCSB.
+ */
+class ZipfianGenerator {
+
+	static final double ZIPFIAN_CONSTANT = 0.99;
+
+	private final long items;
+	private final double theta;
+	private final double zetan;
+	private final double alpha;
+	private final double eta;
+	private final double halfPowTheta;
+
+	ZipfianGenerator(long items) {
+		this(items, ZIPFIAN_CONSTANT);
+	}
+
+	ZipfianGenerator(long items, double theta) {
+
+		this.items = items;
+		this.theta = theta;
+		this.zetan = zeta(items, theta);
+		this.alpha = 1.0 / (1.0 - theta);
+		this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta(2, theta) / zetan);
+		this.halfPowTheta = 1 + Math.pow(0.5, theta);
+	}
+
+	long next(Random random) {
+
+		double u = random.nextDouble();
+		double uz = u * zetan;
+
+		if (uz < 1.0) {
+			return 0;
+		}
+
+		if (uz < halfPowTheta) {
+			return Math.min(1, items - 1);
+		}
+
+		return Math.min(items - 1, (long) (items * Math.pow(eta * u - eta + 1, alpha)));
+	}
+
+	private static double zeta(long n, double theta) {
+
+		double sum = 0;
+		for (long i = 0; i < n; i++) {
+			sum += 1 / Math.pow(i + 1, theta);
+		}
+
+		return sum;
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link AdaptiveMeasurement}.
+ */
+public class AdaptiveMeasurementUnitTests {
+
+	@Test
+	public void truncatesStepSeriesAtTheStep() {
+
+		// 5 slow warmup iterations followed by a steady state alternating around 100
+		double[] scores = new double[25];
+		for (int i = 0; i < scores.length; i++) {
+			scores[i] = i < 5 ? 50 : 100 + (i % 2 == 0 ? 1 : -1);
+		}
+
+		assertEquals(5, AdaptiveMeasurement.detectWarmup(scores, 10));
+	}
+
+	@Test
+	public void truncatesGraduallyImprovingIterations() {
+
+		double[] scores = { 20, 40, 60, 80, 99, 101, 100, 99, 101, 100, 99, 101, 100, 99, 101, 100 };
+
+		assertEquals(4, AdaptiveMeasurement.detectWarmup(scores, 8));
+	}
+
+	@Test
+	public void doesNotTruncateSteadyState() {
+
+		double[] scores = { 100, 100, 100, 100, 100, 100, 100, 100, 100, 100 };
+
+		assertEquals(0, AdaptiveMeasurement.detectWarmup(scores, 5));
+	}
+
+	@Test
+	public void returnsLimitForTrendingSeries() {
+
+		double[] scores = new double[20];
+		for (int i = 0; i < scores.length; i++) {
+			scores[i] = i;
+		}
+
+		assertEquals(8, AdaptiveMeasurement.detectWarmup(scores, 8));
+	}
+
+	@Test
+	public void considersTruncationPointsUpToLimit() {
+
+		double[] scores = new double[25];
+		for (int i = 0; i < scores.length; i++) {
+			scores[i] = i < 5 ? 50 : 100;
+		}
+
+		assertEquals(3, AdaptiveMeasurement.detectWarmup(scores, 3));
+		assertEquals(0, AdaptiveMeasurement.detectWarmup(scores, 0));
+	}
+}
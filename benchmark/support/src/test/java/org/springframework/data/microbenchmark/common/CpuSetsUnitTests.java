@@ -0,0 +1,113 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link CpuSets}.
+ */
+public class CpuSetsUnitTests {
+
+	// 4 cores with 2 hardware threads each, siblings numbered n and n + 4
+	static final List<Integer> CPUS = Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7);
+
+	@Test
+	public void parsesCpuList() {
+
+		assertEquals(Arrays.asList(0, 1, 2, 3, 8, 10, 11), CpuSets.parseList("0-3,8,10-11"));
+		assertEquals(Arrays.asList(0, 1), CpuSets.parseList(" 0-1\n"));
+		assertEquals(Collections.singletonList(5), CpuSets.parseList("5"));
+		assertEquals(Collections.emptyList(), CpuSets.parseList(""));
+	}
+
+	@Test
+	public void formatsCpuList() {
+		assertEquals("0,4,1", CpuSets.format(Arrays.asList(0, 4, 1)));
+	}
+
+	@Test
+	public void groupsSmtSiblingsByCore() {
+
+		List<List<Integer>> cores = CpuSets.groupByCore(CPUS, CpuSetsUnitTests::getSiblings);
+
+		assertEquals(Arrays.asList(Arrays.asList(0, 4), Arrays.asList(1, 5), Arrays.asList(2, 6), Arrays.asList(3, 7)),
+				cores);
+	}
+
+	@Test
+	public void groupsOnlyAvailableSiblings() {
+
+		List<List<Integer>> cores = CpuSets.groupByCore(Arrays.asList(1, 2, 5), CpuSetsUnitTests::getSiblings);
+
+		assertEquals(Arrays.asList(Arrays.asList(1, 5), Collections.singletonList(2)), cores);
+	}
+
+	@Test
+	public void considersCpusWithoutTopologyAsCores() {
+
+		List<List<Integer>> cores = CpuSets.groupByCore(Arrays.asList(0, 1, 2), cpu -> new ArrayList<>());
+
+		assertEquals(Arrays.asList(Collections.singletonList(0), Collections.singletonList(1),
+				Collections.singletonList(2)), cores);
+	}
+
+	@Test
+	public void partitionsByWholeCores() {
+
+		List<List<Integer>> cores = CpuSets.groupByCore(CPUS, CpuSetsUnitTests::getSiblings);
+
+		assertEquals(Arrays.asList(Arrays.asList(0, 4), Arrays.asList(1, 5), Arrays.asList(2, 6), Arrays.asList(3, 7)),
+				CpuSets.partition(cores, 2));
+		assertEquals(Arrays.asList(Arrays.asList(0, 4, 1, 5), Arrays.asList(2, 6, 3, 7)), CpuSets.partition(cores, 4));
+	}
+
+	@Test
+	public void doesNotShareCoresAcrossSets() {
+
+		List<List<Integer>> cores = CpuSets.groupByCore(CPUS, CpuSetsUnitTests::getSiblings);
+
+		// the sibling of the last core of a set (5 and 7) stays unused
+		assertEquals(Arrays.asList(Arrays.asList(0, 4, 1), Arrays.asList(2, 6, 3)), CpuSets.partition(cores, 3));
+	}
+
+	@Test
+	public void leavesRemainingCoresUnused() {
+
+		List<List<Integer>> cores = CpuSets.groupByCore(Arrays.asList(0, 1, 2, 4, 5, 6), CpuSetsUnitTests::getSiblings);
+
+		assertEquals(Arrays.asList(Arrays.asList(0, 4, 1, 5)), CpuSets.partition(cores, 4));
+	}
+
+	@Test
+	public void usesAllCpusIfLessThanSetSize() {
+
+		List<List<Integer>> cores = CpuSets.groupByCore(Arrays.asList(0, 4), CpuSetsUnitTests::getSiblings);
+
+		assertEquals(Collections.singletonList(Arrays.asList(0, 4)), CpuSets.partition(cores, 4));
+	}
+
+	private static List<Integer> getSiblings(int cpu) {
+		return Arrays.asList(cpu % 4, cpu % 4 + 4);
+	}
+}
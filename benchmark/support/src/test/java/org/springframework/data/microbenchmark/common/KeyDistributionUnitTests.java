@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+import org.springframework.data.microbenchmark.common.KeyDistribution.KeyChooser;
+import org.springframework.data.microbenchmark.common.KeyDistribution.KeySpace;
+
+/**
+ * Unit tests for {@link KeyDistribution}.
+ */
+public class KeyDistributionUnitTests {
+
+	static final int RECORDS = 1000;
+	static final int SAMPLES = 100_000;
+
+	@Test
+	public void uniformAccessesAllKeysEvenly() {
+
+		Map<Long, Integer> counts = sample(KeyDistribution.UNIFORM.createChooser(new KeySpace(RECORDS)));
+
+		assertEquals(RECORDS, counts.size());
+		assertKeysWithin(counts, RECORDS);
+		assertTrue(getHottest(counts).getValue() < 0.0025 * SAMPLES);
+	}
+
+	@Test
+	public void zipfianScattersPopularKeys() {
+
+		Map<Long, Integer> counts = sample(KeyDistribution.ZIPFIAN.createChooser(new KeySpace(RECORDS)));
+		Map.Entry<Long, Integer> hottest = getHottest(counts);
+
+		assertKeysWithin(counts, RECORDS);
+		assertTrue(hottest.getValue() > 0.1 * SAMPLES);
+		assertNotEquals(0L, (long) hottest.getKey());
+	}
+
+	@Test
+	public void latestPrefersRecentlyInsertedKeys() {
+
+		KeySpace keys = new KeySpace(RECORDS);
+		for (int i = 0; i < 10; i++) {
+			keys.inserted();
+		}
+
+		Map<Long, Integer> counts = sample(KeyDistribution.LATEST.createChooser(keys));
+
+		assertKeysWithin(counts, RECORDS + 10);
+		assertEquals(RECORDS + 9, (long) getHottest(counts).getKey());
+		assertTrue(counts.get((long) RECORDS + 9) > counts.getOrDefault(0L, 0));
+	}
+
+	static Map<Long, Integer> sample(KeyChooser chooser) {
+
+		Random random = new Random(42);
+		Map<Long, Integer> counts = new HashMap<>();
+
+		for (int i = 0; i < SAMPLES; i++) {
+			counts.merge(chooser.nextKey(random), 1, Integer::sum);
+		}
+
+		return counts;
+	}
+
+	static Map.Entry<Long, Integer> getHottest(Map<Long, Integer> counts) {
+		return counts.entrySet().stream().max(Map.Entry.comparingByValue()).orElseThrow();
+	}
+
+	static void assertKeysWithin(Map<Long, Integer> counts, long size) {
+
+		for (Long key : counts.keySet()) {
+			assertTrue("Out of range: " + key, key >= 0 && key < size);
+		}
+	}
+}
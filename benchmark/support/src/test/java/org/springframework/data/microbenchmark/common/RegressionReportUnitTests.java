@@ -0,0 +1,84 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link RegressionReport}.
+ */
+public class RegressionReportUnitTests {
+
+	@Test
+	public void mannWhitneyUOfSeparatedSamples() {
+
+		// U = 0, z = 12 / sqrt(22.917)
+		double p = RegressionReport.mannWhitneyU(new double[] { 1, 2, 3, 4, 5 }, new double[] { 6, 7, 8, 9, 10 });
+
+		assertEquals(0.01219, p, 1e-4);
+		assertTrue(p < RegressionReport.SIGNIFICANCE_LEVEL);
+	}
+
+	@Test
+	public void mannWhitneyUIsSymmetric() {
+
+		double[] x = { 1, 2, 3, 4, 5 };
+		double[] y = { 6, 7, 8, 9, 10 };
+
+		assertEquals(RegressionReport.mannWhitneyU(x, y), RegressionReport.mannWhitneyU(y, x), 1e-12);
+	}
+
+	@Test
+	public void mannWhitneyUCorrectsForTies() {
+
+		// U = 1.5, tie correction for the group of four 3s and two pairs
+		double p = RegressionReport.mannWhitneyU(new double[] { 1, 2, 2, 3, 3, 3 }, new double[] { 3, 4, 4, 5, 5, 6 });
+
+		assertEquals(0.00873, p, 1e-4);
+	}
+
+	@Test
+	public void mannWhitneyUOfOverlappingSamples() {
+
+		double p = RegressionReport.mannWhitneyU(new double[] { 10.1, 10.3, 9.8, 10.0, 10.2, 9.9, 10.4, 10.0 },
+				new double[] { 10.0, 10.2, 9.9, 10.1, 10.3, 9.8, 10.0, 10.2 });
+
+		assertEquals(0.87315, p, 1e-4);
+		assertFalse(p < RegressionReport.SIGNIFICANCE_LEVEL);
+	}
+
+	@Test
+	public void mannWhitneyUOfIdenticalSamplesIsNotSignificant() {
+
+		assertEquals(1, RegressionReport.mannWhitneyU(new double[] { 5, 5, 5 }, new double[] { 5, 5, 5 }), 0);
+		assertEquals(1, RegressionReport.mannWhitneyU(new double[] { 1, 2, 3 }, new double[] { 1, 2, 3 }), 1e-6);
+	}
+
+	@Test
+	public void mannWhitneyURequiresTwoScoresPerSample() {
+		assertEquals(1, RegressionReport.mannWhitneyU(new double[] { 1 }, new double[] { 10, 11, 12 }), 0);
+	}
+
+	@Test
+	public void normalCdf() {
+
+		assertEquals(0.5, RegressionReport.normalCdf(0), 1e-6);
+		assertEquals(0.975, RegressionReport.normalCdf(1.959964), 1e-6);
+		assertEquals(0.025, RegressionReport.normalCdf(-1.959964), 1e-6);
+	}
+}
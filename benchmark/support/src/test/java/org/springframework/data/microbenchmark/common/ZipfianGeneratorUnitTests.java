@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.microbenchmark.common;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ZipfianGenerator}.
+ */
+public class ZipfianGeneratorUnitTests {
+
+	static final int ITEMS = 1000;
+	static final int SAMPLES = 100_000;
+
+	@Test
+	public void generatesValuesWithinRange() {
+
+		ZipfianGenerator generator = new ZipfianGenerator(ITEMS);
+		Random random = new Random(42);
+
+		for (int i = 0; i < SAMPLES; i++) {
+
+			long value = generator.next(random);
+			assertTrue("Out of range: " + value, value >= 0 && value < ITEMS);
+		}
+	}
+
+	@Test
+	public void skewsTowardsLowValues() {
+
+		long[] counts = sample(new ZipfianGenerator(ITEMS), new Random(42));
+
+		// P(0) = 1 / zeta(1000, 0.99) = 0.13
+		assertEquals(0.13, counts[0] / (double) SAMPLES, 0.02);
+
+		assertTrue(counts[0] > counts[1]);
+		assertTrue(counts[1] > counts[10]);
+		assertTrue(counts[10] > counts[100]);
+		assertTrue(counts[100] > counts[ITEMS - 1]);
+
+		long top10 = 0;
+		for (int i = 0; i < 10; i++) {
+			top10 += counts[i];
+		}
+
+		// 1% of the items receive about 40% of the accesses
+		assertTrue("Top 10 share: " + top10, top10 > 0.35 * SAMPLES);
+	}
+
+	@Test
+	public void lowerThetaReducesSkew() {
+
+		long[] skewed = sample(new ZipfianGenerator(ITEMS), new Random(42));
+		long[] flat = sample(new ZipfianGenerator(ITEMS, 0.5), new Random(42));
+
+		assertTrue(flat[0] < skewed[0]);
+	}
+
+	static long[] sample(ZipfianGenerator generator, Random random) {
+
+		long[] counts = new long[ITEMS];
+		for (int i = 0; i < SAMPLES; i++) {
+			counts[(int) generator.next(random)]++;
+		}
+
+		return counts;
+	}
+}